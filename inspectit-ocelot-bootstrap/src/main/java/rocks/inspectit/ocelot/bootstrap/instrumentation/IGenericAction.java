@@ -18,4 +18,70 @@ public interface IGenericAction {
      */
     Object execute(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs);
 
+    /**
+     * Executes the init body of the action, which is executed once per action call instead of on every invocation.
+     * The result is passed to the action as the additional argument "_init".
+     *
+     * @param additionalArgs the additional arguments which are constant for the action call, all other arguments are null
+     * @return the result of the init body or null if the action has no init body
+     */
+    default Object init(Object[] additionalArgs) {
+        return null;
+    }
+
+    /**
+     * The maximum number of additional arguments for which a specialized entry point exists.
+     * Actions with more additional arguments can only be invoked via {@link #execute(Object[], Object, Object, Throwable, Object[])}.
+     */
+    int MAX_SPECIALIZED_ARITY = 4;
+
+    /**
+     * Entry point for actions without additional arguments.
+     * The generated actions implement this method without going through the additionalArgs array.
+     *
+     * @see #execute(Object[], Object, Object, Throwable, Object[])
+     */
+    default Object execute0(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown) {
+        return execute(instrumentedMethodArgs, thiz, returnValue, thrown, new Object[0]);
+    }
+
+    /**
+     * Entry point for actions with exactly one additional argument.
+     * The generated actions implement this method without going through the additionalArgs array.
+     *
+     * @see #execute(Object[], Object, Object, Throwable, Object[])
+     */
+    default Object execute1(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0) {
+        return execute(instrumentedMethodArgs, thiz, returnValue, thrown, new Object[]{arg0});
+    }
+
+    /**
+     * Entry point for actions with exactly two additional arguments.
+     * The generated actions implement this method without going through the additionalArgs array.
+     *
+     * @see #execute(Object[], Object, Object, Throwable, Object[])
+     */
+    default Object execute2(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1) {
+        return execute(instrumentedMethodArgs, thiz, returnValue, thrown, new Object[]{arg0, arg1});
+    }
+
+    /**
+     * Entry point for actions with exactly three additional arguments.
+     * The generated actions implement this method without going through the additionalArgs array.
+     *
+     * @see #execute(Object[], Object, Object, Throwable, Object[])
+     */
+    default Object execute3(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2) {
+        return execute(instrumentedMethodArgs, thiz, returnValue, thrown, new Object[]{arg0, arg1, arg2});
+    }
+
+    /**
+     * Entry point for actions with exactly four additional arguments.
+     * The generated actions implement this method without going through the additionalArgs array.
+     *
+     * @see #execute(Object[], Object, Object, Throwable, Object[])
+     */
+    default Object execute4(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2, Object arg3) {
+        return execute(instrumentedMethodArgs, thiz, returnValue, thrown, new Object[]{arg0, arg1, arg2, arg3});
+    }
 }
@@ -0,0 +1,18 @@
+package rocks.inspectit.ocelot.config.model.exporters.trace;
+
+/**
+ * Defines which spans are dropped if the span export queue is full.
+ */
+public enum SpanDropPolicy {
+
+    /**
+     * The spans which have been queued first are dropped.
+     */
+    OLDEST_FIRST,
+
+    /**
+     * Spans of traces which have only been exported due to the base probability of the tail sampling are dropped first,
+     * afterwards the oldest spans are dropped. Without tail sampling this is equivalent to {@link #OLDEST_FIRST}.
+     */
+    UNSAMPLED_FIRST
+}
@@ -0,0 +1,55 @@
+package rocks.inspectit.ocelot.config.model.exporters.trace;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.unit.DataSize;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * Settings for the queue in which spans are buffered before they are passed to the trace exporters.
+ */
+@Data
+@NoArgsConstructor
+public class TraceExportQueueSettings {
+
+    /**
+     * If true, spans are exported asynchronously using a bounded queue.
+     * Otherwise, the spans are passed to the exporters directly.
+     */
+    private boolean enabled;
+
+    /**
+     * The maximum number of queued spans. If exceeded, spans are dropped based on the {@link #dropPolicy}.
+     */
+    @Min(1)
+    private int maxSpans;
+
+    /**
+     * The maximum estimated memory used by the queued spans. If exceeded, spans are dropped based on the {@link #dropPolicy}.
+     * The size of a span is estimated based on its name, attributes, events and links.
+     */
+    @NotNull
+    private DataSize maxSize;
+
+    /**
+     * The maximum number of spans passed to the exporters at once.
+     * An export is started as soon as this number of spans is queued.
+     */
+    @Min(1)
+    private int batchSize;
+
+    /**
+     * The interval in which the queued spans are exported if the batch size is not reached.
+     */
+    @NotNull
+    private Duration flushInterval;
+
+    /**
+     * Defines which spans are dropped if the queue is full.
+     */
+    @NotNull
+    private SpanDropPolicy dropPolicy;
+}
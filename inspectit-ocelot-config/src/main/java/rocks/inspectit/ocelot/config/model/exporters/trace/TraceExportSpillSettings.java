@@ -0,0 +1,53 @@
+package rocks.inspectit.ocelot.config.model.exporters.trace;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.unit.DataSize;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * Settings for the on-disk buffer into which spans are spilled while a trace exporter fails to export them.
+ * Only spans are spilled, metrics are not covered.
+ */
+@Data
+@NoArgsConstructor
+public class TraceExportSpillSettings {
+
+    /**
+     * If true, spans which could not be exported are written to a buffer on the disk and exported later.
+     * Otherwise, these spans are lost.
+     */
+    private boolean enabled;
+
+    /**
+     * The directory in which the buffer files are created, one file is used for each exporter.
+     */
+    private String directory;
+
+    /**
+     * The maximum size of the buffer file of a single exporter. If exceeded, the oldest spans are dropped.
+     */
+    @NotNull
+    private DataSize maxSize;
+
+    /**
+     * The maximum time spans are kept in the buffer. Older spans are dropped instead of being exported.
+     */
+    @NotNull
+    private Duration retention;
+
+    /**
+     * The interval in which the exporters are tried again and the buffered spans are exported.
+     */
+    @NotNull
+    private Duration drainInterval;
+
+    /**
+     * The maximum number of buffered spans exported per second and exporter, so that a recovered exporter is not overloaded.
+     */
+    @Min(1)
+    private int maxDrainRate;
+}
@@ -4,11 +4,26 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 
 @Data
 @NoArgsConstructor
 public class TraceExportersSettings {
 
+    /**
+     * Settings for the queue in which spans are buffered before they are passed to the exporters.
+     */
+    @Valid
+    @NotNull
+    private TraceExportQueueSettings queue;
+
+    /**
+     * Settings for the buffer on the disk into which spans are spilled while an exporter fails.
+     */
+    @Valid
+    @NotNull
+    private TraceExportSpillSettings spill;
+
     @Valid
     private JaegerExporterSettings jaeger;
 
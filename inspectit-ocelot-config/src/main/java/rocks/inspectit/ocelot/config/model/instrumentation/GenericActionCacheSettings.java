@@ -0,0 +1,22 @@
+package rocks.inspectit.ocelot.config.model.instrumentation;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings for storing the bytecode of compiled generic actions, so that it can be reused instead of compiling the actions again.
+ */
+@Data
+@NoArgsConstructor
+public class GenericActionCacheSettings {
+
+    /**
+     * If true, compiled generic actions are stored in and loaded from the {@link #directory}.
+     */
+    private boolean enabled;
+
+    /**
+     * The directory in which the compiled generic actions are stored.
+     */
+    private String directory;
+}
@@ -0,0 +1,30 @@
+package rocks.inspectit.ocelot.config.model.instrumentation;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Settings for persisting the instrumentation decisions made for classes, so that they can be reused after a restart of the JVM.
+ */
+@Data
+@NoArgsConstructor
+public class InstrumentationPlanCacheSettings {
+
+    /**
+     * If true, the instrumentation plan is persisted and used for prioritizing and shortcutting the analysis of classes.
+     */
+    private boolean enabled;
+
+    /**
+     * The directory in which the instrumentation plans are stored.
+     * For each instrumentation configuration a separate plan file is written.
+     */
+    private String directory;
+
+    /**
+     * The interval in which the instrumentation plan is written to the disk if it has been changed.
+     */
+    private Duration flushInterval;
+}
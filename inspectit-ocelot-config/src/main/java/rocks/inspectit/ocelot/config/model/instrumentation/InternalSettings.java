@@ -3,6 +3,7 @@ package rocks.inspectit.ocelot.config.model.instrumentation;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import java.time.Duration;
 
@@ -45,4 +46,36 @@ public class InternalSettings {
      */
     private int numClassDiscoveryTrials;
 
+    /**
+     * Settings for adapting the retransformation pace to the load of the application.
+     */
+    @Valid
+    private RetransformPacingSettings retransformPacing = new RetransformPacingSettings();
+
+    /**
+     * If true, newly defined classes are instrumented directly when they are loaded instead of being retransformed after their discovery.
+     * This is only done for classes whose name is explicitly targeted by a type matcher of a scope, all other classes
+     * are still instrumented asynchronously.
+     */
+    private boolean loadTimeInstrumentation;
+
+    /**
+     * The maximum time which may be spent for instrumenting a single class when it is loaded.
+     * If the analysis of the class exceeds this budget, the class is defined without instrumentation and retransformed later.
+     * The budget is checked before each type and method matcher is evaluated, so the instrumentation is aborted as soon as it is exceeded.
+     */
+    private Duration loadTimeInstrumentationBudget;
+
+    /**
+     * Settings for persisting the instrumentation plan across restarts.
+     */
+    @Valid
+    private InstrumentationPlanCacheSettings planCache = new InstrumentationPlanCacheSettings();
+
+    /**
+     * Settings for storing the bytecode of compiled generic actions across restarts.
+     */
+    @Valid
+    private GenericActionCacheSettings actionCache = new GenericActionCacheSettings();
+
 }
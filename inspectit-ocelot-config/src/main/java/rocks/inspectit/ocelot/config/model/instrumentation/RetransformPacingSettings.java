@@ -0,0 +1,59 @@
+package rocks.inspectit.ocelot.config.model.instrumentation;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Settings for adapting the pace of class retransformations to their impact on the instrumented application.
+ * If enabled, {@link InternalSettings#getClassRetransformBatchSize()} and {@link InternalSettings#getInterBatchDelay()}
+ * are only used as initial values.
+ */
+@Data
+@NoArgsConstructor
+public class RetransformPacingSettings {
+
+    /**
+     * If true, the retransform batch size and the inter-batch delay are adapted after each retransformed batch.
+     */
+    private boolean enabled;
+
+    /**
+     * The upper limit for the number of classes which are retransformed at once per batch.
+     */
+    @Min(1)
+    private int maxClassRetransformBatchSize = 100;
+
+    /**
+     * The lower limit for the time to pause between executing batches.
+     */
+    private Duration minInterBatchDelay;
+
+    /**
+     * The upper limit for the time to pause between executing batches.
+     */
+    private Duration maxInterBatchDelay;
+
+    /**
+     * The pace is reduced if the retransformation of a single batch takes longer than this duration.
+     */
+    private Duration maxRetransformDuration;
+
+    /**
+     * The pace is reduced if the JVM spent more than this duration bringing the application threads to safepoints (time-to-safepoint)
+     * while retransforming a single batch.
+     * This is only taken into account on HotSpot JVMs of Java 8, newer JVMs do not allow accessing the safepoint statistics.
+     */
+    private Duration maxSafepointTime;
+
+    /**
+     * The pace is reduced if the CPU load of the JVM process exceeds this value, which is in the range from 0 to 1.
+     * This is only taken into account if the JVM exposes the process CPU load.
+     */
+    @Min(0)
+    @Max(1)
+    private double maxCpuLoad = 0.7;
+}
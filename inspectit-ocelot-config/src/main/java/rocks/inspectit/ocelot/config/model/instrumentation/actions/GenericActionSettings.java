@@ -36,6 +36,9 @@ public class GenericActionSettings {
     public static final String CONTEXT_VARIABLE = "_context";
     public static final String OBJECT_ATTACHMENTS_VARIABLE = "_attachments";
 
+    //the result of the init-body, passed in via the additionalArguments array
+    public static final String INIT_VARIABLE = "_init";
+
 
     private static final List<Pattern> SPECIAL_VARIABLES_REGEXES = Arrays.asList(
             Pattern.compile(THIS_VARIABLE),
@@ -47,7 +50,8 @@ public class GenericActionSettings {
             Pattern.compile(METHOD_NAME_VARIABLE),
             Pattern.compile(METHOD_PARAMETER_TYPES_VARIABLE),
             Pattern.compile(CONTEXT_VARIABLE),
-            Pattern.compile(OBJECT_ATTACHMENTS_VARIABLE)
+            Pattern.compile(OBJECT_ATTACHMENTS_VARIABLE),
+            Pattern.compile(INIT_VARIABLE)
     );
 
     /**
@@ -59,6 +63,13 @@ public class GenericActionSettings {
     @Setter(AccessLevel.NONE)
     private boolean isVoid = false;
 
+    /**
+     * If true, the result of the action only depends on the identity of its input variables.
+     * In this case the result is memoized per combination of input values, so that repeated invocations skip the execution of the action.
+     * Pure actions must not be void and must not use the _context or _attachments input variables.
+     */
+    private boolean pure = false;
+
     /**
      * Defines the input variables used by this action.
      * The key is the name of the variable, the value is the type of the corresponding variable.
@@ -75,6 +86,7 @@ public class GenericActionSettings {
      * - _context: gives read and write access to the current {@link InspectitContext}, allowing you to attach values to the control flow
      * - _thrown: the {@link Throwable}-Object raised by the the executed method, the type must be java.lang.Throwable
      * null if no throwable was raised
+     * - _init: the value returned by the {@link #initBody}
      * <p>
      * In addition arbitrary custom input variables may be defined.
      */
@@ -103,6 +115,14 @@ public class GenericActionSettings {
      */
     private String valueBody;
 
+    /**
+     * An optional Java method body without surrounding braces {} which is executed only once per action call instead of on every invocation.
+     * It has access to all inputs which are assigned constant values, all other inputs are null.
+     * The value returned by this body is available in the {@link #value} or {@link #valueBody} via the _init input variable.
+     * This allows for example to precompile patterns which are passed to the action as constant input.
+     */
+    private String initBody;
+
     /*
     Why don't we use Lombok generated getters / setters here?
     Lombok would generate methods named isVoid() and setVoid(),
@@ -127,6 +147,21 @@ public class GenericActionSettings {
         return !StringUtils.isEmpty(value) && !StringUtils.isEmpty(valueBody);
     }
 
+    @AssertFalse(message = "Void actions cannot be pure")
+    private boolean isPureAndVoid() {
+        return pure && isVoid;
+    }
+
+    @AssertFalse(message = "Pure actions cannot use the '_context' or '_attachments' input")
+    private boolean isPureAndStateful() {
+        return pure && (input.containsKey(CONTEXT_VARIABLE) || input.containsKey(OBJECT_ATTACHMENTS_VARIABLE));
+    }
+
+    @AssertFalse(message = "The '_init' input and the 'initBody' can only be used together")
+    private boolean isInitInputAndInitBodyInconsistent() {
+        return input.containsKey(INIT_VARIABLE) == StringUtils.isEmpty(initBody);
+    }
+
     @AssertTrue(message = "The '_args' input must have the type 'Object[]'")
     private boolean isArgsArrayTypeCorrect() {
         String argsType = input.get(ARGS_VARIABLE);
@@ -74,6 +74,13 @@ public class RuleTracingSettings {
      */
     private Span.Kind kind;
 
+    /**
+     * If true, the request count, error and duration metrics are recorded for the spans started by this rule when the span is ended.
+     * The metrics are configured via {@link rocks.inspectit.ocelot.config.model.tracing.TracingSettings#getRedMetrics()}.
+     * If this is null, this means that the containing rule does not care whether the metrics are recorded or not.
+     */
+    private Boolean redMetrics;
+
     /**
      * Maps names of span attributes to data keys.
      * After all method-exit actions have been executed on a method hook,
@@ -5,6 +5,7 @@ import org.springframework.util.CollectionUtils;
 
 import javax.validation.constraints.AssertFalse;
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.List;
@@ -55,6 +56,15 @@ public class ViewDefinitionSettings {
     @Singular
     private List<@NotNull Double> bucketBoundaries;
 
+    /**
+     * Only relevant if aggregation is "HISTOGRAM".
+     * Defines how many exemplars are kept for each bucket of the histogram.
+     * An exemplar holds the trace and span id of a measurement which has been recorded within a sampled span.
+     * If this is zero, no exemplars are kept.
+     */
+    @Min(0)
+    private int exemplarsPerBucket;
+
     /**
      * Defines if this view should by default include all common tags.
      * Individual tags can still be disabled via {@link #tags}.
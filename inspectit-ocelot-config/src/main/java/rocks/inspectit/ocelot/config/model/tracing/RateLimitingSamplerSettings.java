@@ -0,0 +1,59 @@
+package rocks.inspectit.ocelot.config.model.tracing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * Settings for the rate limiting sampler, which adapts the sample probability of root spans
+ * so that the number of sampled root spans per second stays within the configured budgets.
+ */
+@Data
+@NoArgsConstructor
+public class RateLimitingSamplerSettings {
+
+    /**
+     * If enabled, the rate limiting sampler replaces {@link TracingSettings#getSampleProbability()} as default sampler.
+     * Rules which specify a sample probability are not affected.
+     */
+    private boolean enabled;
+
+    /**
+     * The maximum number of root spans sampled per second by this agent.
+     * If zero, root spans are only sampled due to {@link #minSpansPerSecondPerName}.
+     */
+    @Min(0)
+    private double spansPerSecond;
+
+    /**
+     * The maximum number of root spans sampled per second for each span name.
+     * If not specified, only {@link #spansPerSecond} is applied.
+     * If zero, root spans are only sampled due to {@link #minSpansPerSecondPerName}.
+     */
+    @Min(0)
+    private Double spansPerSecondPerName;
+
+    /**
+     * The number of root spans per second which are sampled for each span name independent of the budgets.
+     * This ensures that traces are recorded for span names which are rare compared to others.
+     */
+    @Min(0)
+    private double minSpansPerSecondPerName;
+
+    /**
+     * The interval in which the observed span rates are evaluated and the sample probabilities are adapted.
+     */
+    @NotNull
+    private Duration adaptationInterval;
+
+    /**
+     * The maximum number of span names for which separate rates are tracked.
+     * All span names exceeding this limit share the same rate.
+     * Span names which have not been seen for ten adaptation intervals are no longer tracked.
+     */
+    @Min(1)
+    private int maxSpanNames;
+}
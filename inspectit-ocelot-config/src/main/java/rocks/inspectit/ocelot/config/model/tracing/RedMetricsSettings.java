@@ -0,0 +1,46 @@
+package rocks.inspectit.ocelot.config.model.tracing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+/**
+ * Settings for the request count, error and duration metrics which are derived from the spans started by rules
+ * which have {@link rocks.inspectit.ocelot.config.model.instrumentation.rules.RuleTracingSettings#getRedMetrics()} enabled.
+ */
+@Data
+@NoArgsConstructor
+public class RedMetricsSettings {
+
+    /**
+     * The tag containing the name of the span.
+     */
+    public static final String SPAN_NAME_TAG = "span_name";
+
+    /**
+     * The tag containing the kind of the span, e.g. SERVER or CLIENT.
+     */
+    public static final String SPAN_KIND_TAG = "span_kind";
+
+    /**
+     * The tag which is "true" if the method ended the span by throwing an exception, otherwise "false".
+     */
+    public static final String ERROR_TAG = "error";
+
+    /**
+     * The name of the metric to which the span durations are recorded in milliseconds.
+     * The metric has to be defined in the metrics definitions, its views define the aggregations and
+     * which of the tags {@link #SPAN_NAME_TAG}, {@link #SPAN_KIND_TAG} and {@link #ERROR_TAG} are used.
+     */
+    @NotBlank
+    private String metric;
+
+    /**
+     * The maximum number of distinct span names used as tag values.
+     * Spans with further names are recorded with the tag value "other" to bound the cardinality of the metric.
+     */
+    @Min(1)
+    private int maxSpanNames;
+}
@@ -0,0 +1,71 @@
+package rocks.inspectit.ocelot.config.model.tracing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the tail sampling of traces before they are exported.
+ * The spans of a trace are buffered until its local root span has ended, afterwards it is decided whether the trace is exported.
+ */
+@Data
+@NoArgsConstructor
+public class TailSamplingSettings {
+
+    /**
+     * Whether tail sampling is enabled. If disabled, all sampled spans are exported.
+     */
+    private boolean enabled;
+
+    /**
+     * Traces whose local root span takes at least this duration are exported.
+     * If null, the latency is not considered.
+     */
+    private Duration latencyThreshold;
+
+    /**
+     * If true, traces containing at least one span with a status other than OK are exported.
+     */
+    private boolean keepErrors;
+
+    /**
+     * Traces containing at least one span with one of the given attributes are exported.
+     * The keys are the attribute names, the values are regular expressions which have to match the attribute value.
+     * An empty expression matches every value.
+     */
+    @NotNull
+    private Map<String, String> attributes = new HashMap<>();
+
+    /**
+     * The probability with which traces not matching any of the criteria are exported.
+     */
+    @Min(0)
+    @Max(1)
+    private double baseProbability;
+
+    /**
+     * The maximum number of spans which are buffered.
+     * If this limit is exceeded, the trace buffered for the longest time is decided based on the spans buffered so far.
+     */
+    @Min(1)
+    private int maxBufferedSpans;
+
+    /**
+     * The maximum time the spans of a trace are buffered while waiting for the local root span.
+     * Afterwards the trace is decided based on the spans buffered so far.
+     */
+    @NotNull
+    private Duration maxWaitTime;
+
+    /**
+     * The number of traces whose decision is remembered, so that spans ending after the local root span are handled consistently.
+     */
+    @Min(0)
+    private int decisionCacheSize;
+}
@@ -27,6 +27,24 @@ public class TracingSettings {
     @Min(0)
     private double sampleProbability;
 
+    /**
+     * Settings for the rate limiting sampler, which is used instead of {@link #sampleProbability} if enabled.
+     */
+    @Valid
+    private RateLimitingSamplerSettings rateLimiting = new RateLimitingSamplerSettings();
+
+    /**
+     * Settings for deciding whether traces are exported after their local root span has ended.
+     */
+    @Valid
+    private TailSamplingSettings tailSampling = new TailSamplingSettings();
+
+    /**
+     * Settings for the metrics derived from spans of rules with red-metrics enabled.
+     */
+    @Valid
+    private RedMetricsSettings redMetrics = new RedMetricsSettings();
+
     /**
      * Settings for log correlation.
      */
@@ -0,0 +1,97 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import rocks.inspectit.ocelot.core.metrics.ExemplarStore;
+import rocks.inspectit.ocelot.core.metrics.HistogramExemplars;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Serves the exemplars of the {@link ExemplarStore} as JSON on a separate path of the Prometheus HTTP server.
+ * The exemplars are not exposed as metrics, as their trace and span ids would create a new time series for every exemplar.
+ * Instead, each exemplar holds the values of the tags of its view, so that it can be assigned to the time series of the view's buckets.
+ * <p>
+ * Example response:
+ * <pre>
+ * {@code
+ * [{"view": "http/in/responsetime/histogram",
+ *   "buckets": [{"le": "100.0",
+ *                "exemplars": [{"value": 42.0, "trace_id": "...", "span_id": "...", "tags": {"service": "my-service"}}]}]}]
+ * }
+ * </pre>
+ */
+class ExemplarHttpHandler implements HttpHandler {
+
+    /**
+     * The path under which the exemplars are served.
+     */
+    static final String PATH = "/exemplars";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ExemplarStore exemplarStore;
+
+    ExemplarHttpHandler(ExemplarStore exemplarStore) {
+        this.exemplarStore = exemplarStore;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] response = MAPPER.writeValueAsBytes(collect());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the exemplars of all histograms, only buckets with at least one exemplar are contained
+     */
+    @VisibleForTesting
+    List<Map<String, Object>> collect() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (HistogramExemplars histogram : exemplarStore.getAllExemplars()) {
+            List<Map<String, Object>> buckets = new ArrayList<>();
+            for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++) {
+                List<HistogramExemplars.Exemplar> exemplars = histogram.getExemplars(bucket);
+                if (!exemplars.isEmpty()) {
+                    Map<String, Object> bucketResult = new LinkedHashMap<>();
+                    bucketResult.put("le", formatBoundary(histogram.getUpperBoundary(bucket)));
+                    List<Map<String, Object>> exemplarResults = new ArrayList<>();
+                    for (HistogramExemplars.Exemplar exemplar : exemplars) {
+                        Map<String, Object> exemplarResult = new LinkedHashMap<>();
+                        exemplarResult.put("value", exemplar.getValue());
+                        exemplarResult.put("trace_id", exemplar.getTraceId().toLowerBase16());
+                        exemplarResult.put("span_id", exemplar.getSpanId().toLowerBase16());
+                        exemplarResult.put("tags", histogram.getViewTags(exemplar));
+                        exemplarResults.add(exemplarResult);
+                    }
+                    bucketResult.put("exemplars", exemplarResults);
+                    buckets.add(bucketResult);
+                }
+            }
+            Map<String, Object> histogramResult = new LinkedHashMap<>();
+            histogramResult.put("view", histogram.getViewName());
+            histogramResult.put("buckets", buckets);
+            result.add(histogramResult);
+        }
+        return result;
+    }
+
+    /**
+     * Formats the upper boundary of a bucket equal to the {@code le} label of Prometheus histograms.
+     */
+    private static String formatBoundary(double boundary) {
+        return boundary == Double.POSITIVE_INFINITY ? "+Inf" : Double.toString(boundary);
+    }
+}
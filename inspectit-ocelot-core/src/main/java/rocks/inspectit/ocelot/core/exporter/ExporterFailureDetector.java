@@ -0,0 +1,119 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+
+import java.util.Collection;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the health of a single trace exporter.
+ * <p>
+ * Not all OpenCensus exporters report failures by throwing an exception: the Jaeger exporter only logs failed exports
+ * and the OpenCensus Agent exporter sends spans asynchronously and logs when its connection fails.
+ * The OpenCensus exporters log via {@link java.util.logging}, therefore this detector listens to warnings and errors logged
+ * in the package of the exporter's handler.
+ * <p>
+ * A failure logged by the thread currently exporting using {@link #export(Collection)} fails this export.
+ * A failure logged by any other thread marks the exporter as unhealthy for the given grace period.
+ */
+class ExporterFailureDetector extends Handler {
+
+    /**
+     * The logger of the package of the exporter. Kept as strong reference, as otherwise the logger including this handler could be garbage collected.
+     */
+    private final Logger logger;
+
+    private final SpanExporter.Handler exporter;
+
+    private final long gracePeriodMillis;
+
+    /**
+     * Holds a flag which is set to true if a failure is logged while the current thread exports using {@link #export(Collection)}.
+     * Null if the current thread is not exporting.
+     */
+    private final ThreadLocal<boolean[]> currentExportFailed = new ThreadLocal<>();
+
+    /**
+     * The time at which a failure has been logged asynchronously the last time.
+     */
+    private volatile long lastAsyncFailureMillis = Long.MIN_VALUE;
+
+    /**
+     * Creates a detector and registers it at the logger of the package of the given exporter.
+     *
+     * @param exporter          the handler of the exporter
+     * @param gracePeriodMillis the time in milliseconds the exporter is considered unhealthy after an asynchronous failure
+     */
+    ExporterFailureDetector(SpanExporter.Handler exporter, long gracePeriodMillis) {
+        this.exporter = exporter;
+        this.gracePeriodMillis = gracePeriodMillis;
+        String className = exporter.getClass().getName();
+        int packageEnd = className.lastIndexOf('.');
+        logger = Logger.getLogger(packageEnd < 0 ? "" : className.substring(0, packageEnd));
+        setLevel(Level.WARNING);
+        logger.addHandler(this);
+    }
+
+    /**
+     * @return the handler whose health is tracked
+     */
+    SpanExporter.Handler getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Exports the given spans using the exporter.
+     *
+     * @param spans the spans to export
+     * @return false, if the exporter threw an exception or logged a failure while exporting
+     */
+    boolean export(Collection<SpanData> spans) {
+        boolean[] failed = {false};
+        currentExportFailed.set(failed);
+        try {
+            exporter.export(spans);
+        } catch (Throwable t) {
+            failed[0] = true;
+        } finally {
+            currentExportFailed.remove();
+        }
+        return !failed[0];
+    }
+
+    /**
+     * @return true, if the exporter has logged a failure asynchronously within the grace period
+     */
+    boolean isHealthy() {
+        long lastFailure = lastAsyncFailureMillis;
+        return lastFailure == Long.MIN_VALUE || System.currentTimeMillis() - lastFailure >= gracePeriodMillis;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        boolean[] failed = currentExportFailed.get();
+        if (failed != null) {
+            failed[0] = true;
+        } else {
+            lastAsyncFailureMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Removes this detector from the logger.
+     */
+    @Override
+    public void close() {
+        logger.removeHandler(this);
+    }
+}
@@ -3,6 +3,7 @@ package rocks.inspectit.ocelot.core.exporter;
 import io.opencensus.exporter.trace.jaeger.JaegerTraceExporter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.exporters.trace.JaegerExporterSettings;
@@ -18,6 +19,9 @@ import javax.validation.Valid;
 @Slf4j
 public class JaegerExporterService extends DynamicallyActivatableService {
 
+    @Autowired
+    private TraceExportPipeline exportPipeline;
+
     public JaegerExporterService() {
         super("exporters.tracing.jaeger", "tracing.enabled");
     }
@@ -36,6 +40,7 @@ public class JaegerExporterService extends DynamicallyActivatableService {
             JaegerExporterSettings settings = configuration.getExporters().getTracing().getJaeger();
             log.info("Starting Jaeger Exporter with url '{}'", settings.getUrl());
             JaegerTraceExporter.createAndRegister(settings.getUrl(), settings.getServiceName());
+            exportPipeline.attach(JaegerTraceExporter.class);
             return true;
         } catch (Throwable t) {
             log.error("Error creating Jaeger exporter", t);
@@ -47,6 +52,7 @@ public class JaegerExporterService extends DynamicallyActivatableService {
     protected boolean doDisable() {
         log.info("Stopping Jaeger Exporter");
         try {
+            exportPipeline.detach(JaegerTraceExporter.class);
             JaegerTraceExporter.unregister();
         } catch (Throwable t) {
             log.error("Error disabling Jaeger exporter", t);
@@ -0,0 +1,308 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A ring buffer of binary records which is stored in a memory-mapped file of a fixed size.
+ * If a new record does not fit into the file, the oldest records are dropped.
+ * <p>
+ * Only the positions of the records are held on the heap, the file is created empty and deleted when the buffer is closed.
+ * The file is only deleted after its mapping has been released, as some operating systems do not allow deleting mapped files.
+ * Each record consists of a header holding its length, its sequence number and the time it has been added, followed by its data.
+ * Records are never split: if a record does not fit between the last record and the end of the file, it is written to the beginning of the file.
+ */
+@Slf4j
+class MappedRingBuffer implements Closeable {
+
+    /**
+     * The size of the header of each record: the length of the data (int), the sequence number (long) and the timestamp (long).
+     */
+    private static final int HEADER_SIZE = 4 + 8 + 8;
+
+    /**
+     * A record read from the buffer.
+     */
+    @Value
+    static class Record {
+
+        /**
+         * The sequence number of the record, which can be passed to {@link #removeUpTo(long)}.
+         */
+        private long sequence;
+
+        private byte[] data;
+    }
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    /**
+     * The position of the oldest record.
+     */
+    private int head = 0;
+
+    /**
+     * The position at which the next record is written.
+     */
+    private int tail = 0;
+
+    /**
+     * True, if the records have wrapped around the end of the file, meaning that the records are stored in [head, wrapEnd) and [0, tail).
+     * Otherwise the records are stored in [head, tail).
+     */
+    private boolean wrapped = false;
+
+    /**
+     * The end of the last record before the end of the file, only valid if {@link #wrapped} is true.
+     */
+    private int wrapEnd = 0;
+
+    /**
+     * The number of records in the buffer.
+     */
+    private int count = 0;
+
+    /**
+     * The sequence number of the next record.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * The number of records which have been dropped since the last call of {@link #takeDroppedRecords()}.
+     */
+    private long droppedRecords = 0;
+
+    /**
+     * True, if this buffer has been closed and therefore accepts no more records.
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates the file and maps it into the memory.
+     *
+     * @param file     the file to use, an existing file is overwritten
+     * @param capacity the size of the file in bytes
+     * @throws IOException if the file can not be created or mapped
+     */
+    MappedRingBuffer(Path file, int capacity) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a record to the buffer, dropping the oldest records if the buffer is full.
+     *
+     * @param data      the data of the record
+     * @param timestamp the time at which the record has been added, in milliseconds
+     * @return false, if the record is larger than the buffer or the buffer has been closed and therefore the record has been dropped
+     */
+    synchronized boolean add(byte[] data, long timestamp) {
+        int size = HEADER_SIZE + data.length;
+        if (closed || size > capacity) {
+            droppedRecords++;
+            return false;
+        }
+        while (true) {
+            if (count == 0) {
+                head = 0;
+                tail = 0;
+                wrapped = false;
+            }
+            if (!wrapped) {
+                if (tail + size <= capacity) {
+                    break;
+                }
+                wrapEnd = tail;
+                tail = 0;
+                wrapped = true;
+            } else {
+                if (tail + size <= head) {
+                    break;
+                }
+                removeHead();
+                droppedRecords++;
+            }
+        }
+        buffer.putInt(tail, data.length);
+        buffer.putLong(tail + 4, nextSequence++);
+        buffer.putLong(tail + 12, timestamp);
+        ByteBuffer target = buffer.duplicate();
+        target.position(tail + HEADER_SIZE);
+        target.put(data);
+        tail += size;
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns the oldest records without removing them.
+     * Records which have been added before the given timestamp are dropped.
+     *
+     * @param maxRecords   the maximum number of records to return
+     * @param minTimestamp records added before this time in milliseconds are dropped
+     * @return the oldest records, ordered from old to new
+     */
+    synchronized List<Record> peek(int maxRecords, long minTimestamp) {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        while (count > 0 && buffer.getLong(head + 12) < minTimestamp) {
+            removeHead();
+            droppedRecords++;
+        }
+        int resultSize = Math.min(maxRecords, count);
+        List<Record> result = new ArrayList<>(resultSize);
+        int position = head;
+        boolean positionWrapped = wrapped;
+        for (int i = 0; i < resultSize; i++) {
+            int length = buffer.getInt(position);
+            long sequence = buffer.getLong(position + 4);
+            byte[] data = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(position + HEADER_SIZE);
+            source.get(data);
+            result.add(new Record(sequence, data));
+            position += HEADER_SIZE + length;
+            if (positionWrapped && position >= wrapEnd) {
+                position = 0;
+                positionWrapped = false;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all records up to the given sequence number, including the record with this number.
+     *
+     * @param sequence the sequence number of the last record to remove
+     */
+    synchronized void removeUpTo(long sequence) {
+        while (!closed && count > 0 && buffer.getLong(head + 4) <= sequence) {
+            removeHead();
+        }
+    }
+
+    /**
+     * @return the number of records in the buffer
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @return the number of records dropped since the last call of this method, either due to a full buffer or their age
+     */
+    synchronized long takeDroppedRecords() {
+        long result = droppedRecords;
+        droppedRecords = 0;
+        return result;
+    }
+
+    private void removeHead() {
+        int length = buffer.getInt(head);
+        head += HEADER_SIZE + length;
+        count--;
+        if (count == 0) {
+            head = 0;
+            tail = 0;
+            wrapped = false;
+        } else if (wrapped && head >= wrapEnd) {
+            head = 0;
+            wrapped = false;
+        }
+    }
+
+    /**
+     * Releases the mapping and deletes the file, all records are discarded.
+     * If the mapping can not be released, the file is kept and overwritten when the next buffer is created for it.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        count = 0;
+        boolean unmapped = unmap(buffer);
+        try {
+            channel.close();
+            if (unmapped) {
+                Files.deleteIfExists(file);
+            } else {
+                log.debug("Could not release the mapping of spill file {}, the file is not deleted", file);
+            }
+        } catch (IOException e) {
+            log.debug("Could not delete spill file {}", file, e);
+        }
+    }
+
+    /**
+     * Releases the given mapping immediately instead of waiting for it to be garbage collected.
+     * The buffer must not be accessed afterwards.
+     *
+     * @param buffer the buffer to release
+     * @return true, if the mapping has been released
+     */
+    private static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            //Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (NoSuchMethodException e) {
+            //Java 8
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner == null) {
+                    return false;
+                }
+                Method clean = cleaner.getClass().getMethod("clean");
+                clean.setAccessible(true);
+                clean.invoke(cleaner);
+                return true;
+            } catch (Exception e8) {
+                log.debug("Could not release memory mapping", e8);
+                return false;
+            }
+        } catch (Exception e) {
+            log.debug("Could not release memory mapping", e);
+            return false;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.opencensus.exporter.trace.ocagent.OcAgentTraceExporter;
 import io.opencensus.exporter.trace.ocagent.OcAgentTraceExporterConfiguration;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.exporters.trace.OpenCensusAgentTraceExporterSettings;
@@ -14,6 +15,9 @@ import rocks.inspectit.ocelot.core.service.DynamicallyActivatableService;
 @Slf4j
 public class OpenCensusAgentTraceExporterService extends DynamicallyActivatableService {
 
+    @Autowired
+    private TraceExportPipeline exportPipeline;
+
     public OpenCensusAgentTraceExporterService() {
         super("exporters.tracing.openCensusAgent", "tracing.enabled");
     }
@@ -36,6 +40,7 @@ public class OpenCensusAgentTraceExporterService extends DynamicallyActivatableS
                     .setServiceName(settings.getServiceName())
                     .setUseInsecure(settings.isUseInsecure())
                     .setRetryInterval(Duration.fromMillis(settings.getReconnectionPeriod().toMillis())).build());
+            exportPipeline.attach(OcAgentTraceExporter.class);
             return true;
         } catch (Throwable t) {
             log.error("Error creating OpenCensus Agent Trace exporter", t);
@@ -47,6 +52,7 @@ public class OpenCensusAgentTraceExporterService extends DynamicallyActivatableS
     protected boolean doDisable() {
         log.info("Stopping OpenCensus Agent Trace exporter");
         try {
+            exportPipeline.detach(OcAgentTraceExporter.class);
             OcAgentTraceExporter.unregister();
         } catch (Throwable t) {
             log.error("Error disabling OpenCensus Agent Trace exporter", t);
@@ -1,24 +1,33 @@
 package rocks.inspectit.ocelot.core.exporter;
 
+import com.sun.net.httpserver.HttpServer;
 import io.opencensus.exporter.stats.prometheus.PrometheusStatsCollector;
 import io.opencensus.exporter.stats.prometheus.PrometheusStatsConfiguration;
 import io.prometheus.client.exporter.HTTPServer;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
+import rocks.inspectit.ocelot.core.metrics.ExemplarStore;
 import rocks.inspectit.ocelot.core.service.DynamicallyActivatableService;
 
+import java.net.InetSocketAddress;
+
 import static io.prometheus.client.CollectorRegistry.defaultRegistry;
 
 /**
  * Service for the Prometheus OpenCensus exporter.
  * Can be dynamically started and stopped using the exporters.metrics.prometheus.enabled configuration.
+ * In addition, the exemplars of histogram views are served as JSON by the {@link ExemplarHttpHandler} under a separate path, which is not scraped by Prometheus.
  */
 @Component
 @Slf4j
 public class PrometheusExporterService extends DynamicallyActivatableService {
 
+    @Autowired
+    private ExemplarStore exemplarStore;
+
     private HTTPServer prometheusClient = null;
 
     public PrometheusExporterService() {
@@ -38,7 +47,9 @@ public class PrometheusExporterService extends DynamicallyActivatableService {
             int port = config.getPort();
             log.info("Starting Prometheus Exporter on {}:{}", host, port);
             PrometheusStatsCollector.createAndRegister(PrometheusStatsConfiguration.builder().setRegistry(defaultRegistry).build());
-            prometheusClient = new HTTPServer(host, port, true);
+            HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 3);
+            server.createContext(ExemplarHttpHandler.PATH, new ExemplarHttpHandler(exemplarStore));
+            prometheusClient = new HTTPServer(server, defaultRegistry, true);
         } catch (Exception e) {
             log.error("Error Starting Prometheus HTTP Endpoint!", e);
             defaultRegistry.clear();
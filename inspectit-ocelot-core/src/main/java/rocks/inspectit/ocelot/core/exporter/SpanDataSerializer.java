@@ -0,0 +1,300 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.*;
+import io.opencensus.trace.export.SpanData;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Converts {@link SpanData} to a compact binary representation and back, used for spilling spans to the disk.
+ * Attribute values of unknown types are stored using their string representation.
+ */
+class SpanDataSerializer {
+
+    private static final byte NULL = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte BOOLEAN = 2;
+
+    private static final byte LONG = 3;
+
+    private static final byte DOUBLE = 4;
+
+    private SpanDataSerializer() {
+    }
+
+    /**
+     * @param span the span to serialize
+     * @return the binary representation of the span
+     * @throws IOException if the span could not be serialized
+     */
+    static byte[] serialize(SpanData span) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        writeSpanContext(out, span.getContext());
+        writeNullableBytes(out, span.getParentSpanId() == null ? null : span.getParentSpanId().getBytes());
+        writeNullableBoolean(out, span.getHasRemoteParent());
+        writeString(out, span.getName());
+        writeNullableString(out, span.getKind() == null ? null : span.getKind().name());
+        writeTimestamp(out, span.getStartTimestamp());
+
+        writeAttributes(out, span.getAttributes().getAttributeMap());
+        out.writeInt(span.getAttributes().getDroppedAttributesCount());
+
+        List<SpanData.TimedEvent<Annotation>> annotations = span.getAnnotations().getEvents();
+        out.writeInt(annotations.size());
+        for (SpanData.TimedEvent<Annotation> annotation : annotations) {
+            writeTimestamp(out, annotation.getTimestamp());
+            writeString(out, annotation.getEvent().getDescription());
+            writeAttributes(out, annotation.getEvent().getAttributes());
+        }
+        out.writeInt(span.getAnnotations().getDroppedEventsCount());
+
+        List<SpanData.TimedEvent<MessageEvent>> messageEvents = span.getMessageEvents().getEvents();
+        out.writeInt(messageEvents.size());
+        for (SpanData.TimedEvent<MessageEvent> messageEvent : messageEvents) {
+            writeTimestamp(out, messageEvent.getTimestamp());
+            MessageEvent event = messageEvent.getEvent();
+            writeString(out, event.getType().name());
+            out.writeLong(event.getMessageId());
+            out.writeLong(event.getUncompressedMessageSize());
+            out.writeLong(event.getCompressedMessageSize());
+        }
+        out.writeInt(span.getMessageEvents().getDroppedEventsCount());
+
+        List<Link> links = span.getLinks().getLinks();
+        out.writeInt(links.size());
+        for (Link link : links) {
+            out.write(link.getTraceId().getBytes());
+            out.write(link.getSpanId().getBytes());
+            writeString(out, link.getType().name());
+            writeAttributes(out, link.getAttributes());
+        }
+        out.writeInt(span.getLinks().getDroppedLinksCount());
+
+        Integer childSpanCount = span.getChildSpanCount();
+        out.writeInt(childSpanCount == null ? -1 : childSpanCount);
+        Status status = span.getStatus();
+        out.writeBoolean(status != null);
+        if (status != null) {
+            writeString(out, status.getCanonicalCode().name());
+            writeNullableString(out, status.getDescription());
+        }
+        out.writeBoolean(span.getEndTimestamp() != null);
+        if (span.getEndTimestamp() != null) {
+            writeTimestamp(out, span.getEndTimestamp());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param data the binary representation created by {@link #serialize(SpanData)}
+     * @return the deserialized span
+     * @throws IOException if the data is not a valid span
+     */
+    static SpanData deserialize(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        SpanContext context = readSpanContext(in);
+        byte[] parentSpanIdBytes = readNullableBytes(in);
+        SpanId parentSpanId = parentSpanIdBytes == null ? null : SpanId.fromBytes(parentSpanIdBytes);
+        Boolean hasRemoteParent = readNullableBoolean(in);
+        String name = readString(in);
+        String kindName = readNullableString(in);
+        Span.Kind kind = kindName == null ? null : Span.Kind.valueOf(kindName);
+        Timestamp startTimestamp = readTimestamp(in);
+
+        Map<String, AttributeValue> attributeMap = readAttributes(in);
+        SpanData.Attributes attributes = SpanData.Attributes.create(attributeMap, in.readInt());
+
+        int annotationCount = in.readInt();
+        List<SpanData.TimedEvent<Annotation>> annotationList = new ArrayList<>(annotationCount);
+        for (int i = 0; i < annotationCount; i++) {
+            Timestamp timestamp = readTimestamp(in);
+            String description = readString(in);
+            Annotation annotation = Annotation.fromDescriptionAndAttributes(description, readAttributes(in));
+            annotationList.add(SpanData.TimedEvent.create(timestamp, annotation));
+        }
+        SpanData.TimedEvents<Annotation> annotations = SpanData.TimedEvents.create(annotationList, in.readInt());
+
+        int messageEventCount = in.readInt();
+        List<SpanData.TimedEvent<MessageEvent>> messageEventList = new ArrayList<>(messageEventCount);
+        for (int i = 0; i < messageEventCount; i++) {
+            Timestamp timestamp = readTimestamp(in);
+            MessageEvent event = MessageEvent.builder(MessageEvent.Type.valueOf(readString(in)), in.readLong())
+                    .setUncompressedMessageSize(in.readLong())
+                    .setCompressedMessageSize(in.readLong())
+                    .build();
+            messageEventList.add(SpanData.TimedEvent.create(timestamp, event));
+        }
+        SpanData.TimedEvents<MessageEvent> messageEvents = SpanData.TimedEvents.create(messageEventList, in.readInt());
+
+        int linkCount = in.readInt();
+        List<Link> linkList = new ArrayList<>(linkCount);
+        for (int i = 0; i < linkCount; i++) {
+            TraceId traceId = TraceId.fromBytes(readBytes(in, TraceId.SIZE));
+            SpanId spanId = SpanId.fromBytes(readBytes(in, SpanId.SIZE));
+            Link.Type type = Link.Type.valueOf(readString(in));
+            SpanContext linkContext = SpanContext.create(traceId, spanId, TraceOptions.DEFAULT);
+            linkList.add(Link.fromSpanContext(linkContext, type, readAttributes(in)));
+        }
+        SpanData.Links links = SpanData.Links.create(linkList, in.readInt());
+
+        int childSpanCountValue = in.readInt();
+        Integer childSpanCount = childSpanCountValue < 0 ? null : childSpanCountValue;
+        Status status = null;
+        if (in.readBoolean()) {
+            status = Status.CanonicalCode.valueOf(readString(in)).toStatus().withDescription(readNullableString(in));
+        }
+        Timestamp endTimestamp = in.readBoolean() ? readTimestamp(in) : null;
+
+        return SpanData.create(context, parentSpanId, hasRemoteParent, name, kind, startTimestamp, attributes,
+                annotations, messageEvents, links, childSpanCount, status, endTimestamp);
+    }
+
+    private static void writeSpanContext(DataOutputStream out, SpanContext context) throws IOException {
+        out.write(context.getTraceId().getBytes());
+        out.write(context.getSpanId().getBytes());
+        out.writeBoolean(context.getTraceOptions().isSampled());
+        List<Tracestate.Entry> entries = context.getTracestate().getEntries();
+        out.writeInt(entries.size());
+        for (Tracestate.Entry entry : entries) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static SpanContext readSpanContext(DataInputStream in) throws IOException {
+        TraceId traceId = TraceId.fromBytes(readBytes(in, TraceId.SIZE));
+        SpanId spanId = SpanId.fromBytes(readBytes(in, SpanId.SIZE));
+        TraceOptions options = TraceOptions.builder().setIsSampled(in.readBoolean()).build();
+        int entryCount = in.readInt();
+        List<String[]> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(new String[]{readString(in), readString(in)});
+        }
+        //entries are added to the front of the tracestate, therefore the order is reversed
+        Tracestate.Builder tracestate = Tracestate.builder();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            tracestate.set(entries.get(i)[0], entries.get(i)[1]);
+        }
+        return SpanContext.create(traceId, spanId, options, tracestate.build());
+    }
+
+    private static void writeAttributes(DataOutputStream out, Map<String, AttributeValue> attributes) throws IOException {
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, AttributeValue> attribute : attributes.entrySet()) {
+            writeString(out, attribute.getKey());
+            Object value = attribute.getValue().match(s -> s, b -> b, l -> l, d -> d, Object::toString);
+            if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else {
+                out.writeByte(STRING);
+                writeString(out, String.valueOf(value));
+            }
+        }
+    }
+
+    private static Map<String, AttributeValue> readAttributes(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, AttributeValue> result = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            byte type = in.readByte();
+            switch (type) {
+                case BOOLEAN:
+                    result.put(key, AttributeValue.booleanAttributeValue(in.readBoolean()));
+                    break;
+                case LONG:
+                    result.put(key, AttributeValue.longAttributeValue(in.readLong()));
+                    break;
+                case DOUBLE:
+                    result.put(key, AttributeValue.doubleAttributeValue(in.readDouble()));
+                    break;
+                case STRING:
+                    result.put(key, AttributeValue.stringAttributeValue(readString(in)));
+                    break;
+                default:
+                    throw new IOException("Unknown attribute type: " + type);
+            }
+        }
+        return result;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, Timestamp timestamp) throws IOException {
+        out.writeLong(timestamp.getSeconds());
+        out.writeInt(timestamp.getNanos());
+    }
+
+    private static Timestamp readTimestamp(DataInputStream in) throws IOException {
+        return Timestamp.create(in.readLong(), in.readInt());
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    /**
+     * Writes the given string as length-prefixed UTF-8.
+     * Unlike {@link DataOutput#writeUTF(String)}, the length of the string is not limited to 64KB.
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? NULL : (value ? 2 : 1));
+    }
+
+    private static Boolean readNullableBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value == NULL ? null : value == 2;
+    }
+
+    private static void writeNullableBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value == null ? -1 : value.length);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    private static byte[] readNullableBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : readBytes(in, length);
+    }
+
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] result = new byte[length];
+        in.readFully(result);
+        return result;
+    }
+}
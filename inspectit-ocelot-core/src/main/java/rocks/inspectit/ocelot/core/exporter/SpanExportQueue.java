@@ -0,0 +1,258 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.common.Functions;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.export.SpanData;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import rocks.inspectit.ocelot.config.model.exporters.trace.SpanDropPolicy;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportQueueSettings;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A bounded queue in which spans are buffered before they are exported asynchronously, see {@link TraceExportQueueSettings}.
+ * <p>
+ * The spans are exported in batches by a dedicated thread, so that slow exporters do not block the OpenCensus span exporter.
+ * If the queue is full, spans are dropped based on the {@link SpanDropPolicy}.
+ * The queue is full if either the number of queued spans or their estimated size exceeds the configured maximum, see {@link #estimateSize(SpanData)}.
+ * The queue size and the number of dropped spans are reported via the {@link SelfMonitoringService}.
+ */
+@Slf4j
+class SpanExportQueue {
+
+    /**
+     * The settings this queue has been created for.
+     */
+    @Getter
+    private final TraceExportQueueSettings settings;
+
+    private final Consumer<List<SpanData>> exporter;
+
+    private final SelfMonitoringService selfMonitoring;
+
+    /**
+     * Spans which are dropped last, contains all spans unless {@link SpanDropPolicy#UNSAMPLED_FIRST} is used.
+     */
+    private final Deque<SpanData> prioritizedSpans = new ArrayDeque<>();
+
+    /**
+     * Spans which are dropped first if {@link SpanDropPolicy#UNSAMPLED_FIRST} is used.
+     */
+    private final Deque<SpanData> droppableSpans = new ArrayDeque<>();
+
+    /**
+     * The estimated size in bytes of all queued spans.
+     */
+    private long queuedBytes = 0;
+
+    /**
+     * The estimated size in bytes of a span without its name, attributes, events and links, including its context and timestamps.
+     */
+    private static final long SPAN_OVERHEAD_BYTES = 400;
+
+    /**
+     * The estimated size in bytes of a single annotation, message event, link or attribute, excluding contained strings.
+     */
+    private static final long ELEMENT_OVERHEAD_BYTES = 64;
+
+    /**
+     * The estimated size in bytes of a String without its characters.
+     */
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * The number of spans dropped since the last self-monitoring report.
+     */
+    private long droppedSpans = 0;
+
+    /**
+     * True, if an export has been triggered because the batch size has been reached, but has not started yet.
+     */
+    private final AtomicBoolean exportTriggered = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService executor;
+
+    SpanExportQueue(TraceExportQueueSettings settings, Consumer<List<SpanData>> exporter, SelfMonitoringService selfMonitoring) {
+        this.settings = settings;
+        this.exporter = exporter;
+        this.selfMonitoring = selfMonitoring;
+        executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread t = Executors.defaultThreadFactory().newThread(runnable);
+            t.setDaemon(true);
+            t.setName("inspectit-span-exporter");
+            return t;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::exportQueuedSpans, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the given spans to the queue, dropping spans if the queue is full.
+     *
+     * @param spans     the spans to add
+     * @param droppable true, if the spans should be dropped first with {@link SpanDropPolicy#UNSAMPLED_FIRST}
+     */
+    void add(Collection<SpanData> spans, boolean droppable) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        boolean batchComplete;
+        synchronized (this) {
+            Deque<SpanData> target = droppable && settings.getDropPolicy() == SpanDropPolicy.UNSAMPLED_FIRST ? droppableSpans : prioritizedSpans;
+            for (SpanData span : spans) {
+                target.addLast(span);
+                queuedBytes += estimateSize(span);
+            }
+            long maxBytes = settings.getMaxSize().toBytes();
+            while (size() > settings.getMaxSpans() || (queuedBytes > maxBytes && size() > 0)) {
+                Deque<SpanData> dropFrom = droppableSpans.isEmpty() ? prioritizedSpans : droppableSpans;
+                queuedBytes -= estimateSize(dropFrom.removeFirst());
+                droppedSpans++;
+            }
+            batchComplete = size() >= settings.getBatchSize();
+        }
+        if (batchComplete && exportTriggered.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::exportQueuedSpans);
+            } catch (RejectedExecutionException e) {
+                //the queue has been shut down, the queued spans are handed over by shutdown()
+            }
+        }
+    }
+
+    /**
+     * Stops the export thread and removes all queued spans.
+     *
+     * @return the spans which have not been exported yet, in the order in which they should be added to another queue
+     */
+    synchronized List<List<SpanData>> shutdown() {
+        executor.shutdownNow();
+        List<List<SpanData>> remaining = Arrays.asList(new ArrayList<>(prioritizedSpans), new ArrayList<>(droppableSpans));
+        prioritizedSpans.clear();
+        droppableSpans.clear();
+        queuedBytes = 0;
+        return remaining;
+    }
+
+    /**
+     * @return the number of queued spans
+     */
+    synchronized int size() {
+        return prioritizedSpans.size() + droppableSpans.size();
+    }
+
+    /**
+     * Exports the currently queued spans in batches. Invoked by the export thread.
+     * Spans added in the meantime are exported by the next invocation.
+     */
+    void exportQueuedSpans() {
+        exportTriggered.set(false);
+        try {
+            int remaining = size();
+            while (remaining > 0) {
+                List<SpanData> batch = pollBatch(remaining);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                remaining -= batch.size();
+                exporter.accept(batch);
+            }
+        } catch (Throwable t) {
+            log.error("Error exporting queued spans", t);
+        }
+        reportSelfMonitoring();
+    }
+
+    private synchronized List<SpanData> pollBatch(int maxSpans) {
+        int batchSize = Math.min(Math.min(settings.getBatchSize(), maxSpans), size());
+        List<SpanData> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            Deque<SpanData> source = prioritizedSpans.isEmpty() ? droppableSpans : prioritizedSpans;
+            SpanData span = source.removeFirst();
+            queuedBytes -= estimateSize(span);
+            batch.add(span);
+        }
+        return batch;
+    }
+
+    /**
+     * @return the estimated size in bytes of all queued spans
+     */
+    synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * Estimates the memory used by the given span. The estimation is based on the strings and the number of elements contained in the span,
+     * it is deterministic so that the same size is subtracted when the span is removed from the queue.
+     *
+     * @param span the span
+     * @return the estimated size in bytes
+     */
+    @VisibleForTesting
+    static long estimateSize(SpanData span) {
+        long size = SPAN_OVERHEAD_BYTES + estimateSize(span.getName());
+        if (span.getAttributes() != null) {
+            size += estimateSize(span.getAttributes().getAttributeMap());
+        }
+        if (span.getAnnotations() != null) {
+            for (SpanData.TimedEvent<Annotation> annotation : span.getAnnotations().getEvents()) {
+                size += ELEMENT_OVERHEAD_BYTES + estimateSize(annotation.getEvent().getDescription())
+                        + estimateSize(annotation.getEvent().getAttributes());
+            }
+        }
+        if (span.getMessageEvents() != null) {
+            size += ELEMENT_OVERHEAD_BYTES * span.getMessageEvents().getEvents().size();
+        }
+        if (span.getLinks() != null) {
+            for (Link link : span.getLinks().getLinks()) {
+                size += ELEMENT_OVERHEAD_BYTES + estimateSize(link.getAttributes());
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Map<String, AttributeValue> attributes) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : attributes.entrySet()) {
+            size += ELEMENT_OVERHEAD_BYTES + estimateSize(attribute.getKey());
+            size += attribute.getValue().<Long>match((String value) -> estimateSize(value),
+                    Functions.returnConstant(0L), Functions.returnConstant(0L), Functions.returnConstant(0L), Functions.returnConstant(0L));
+        }
+        return size;
+    }
+
+    private static long estimateSize(String string) {
+        return string == null ? 0 : STRING_OVERHEAD_BYTES + 2L * string.length();
+    }
+
+    private void reportSelfMonitoring() {
+        long dropped;
+        int size;
+        synchronized (this) {
+            dropped = droppedSpans;
+            droppedSpans = 0;
+            size = size();
+        }
+        if (dropped > 0) {
+            log.warn("Dropped {} spans because the trace export queue was full", dropped);
+        }
+        if (selfMonitoring.isSelfMonitoringEnabled()) {
+            selfMonitoring.recordMeasurement("trace-export-queue-size", (long) size);
+            if (dropped > 0) {
+                selfMonitoring.recordMeasurement("trace-export-dropped-spans", dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportSpillSettings;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports spans to the trace exporters and spills them to a {@link MappedRingBuffer} on the disk if an exporter fails, see {@link TraceExportSpillSettings}.
+ * <p>
+ * Failures are detected per exporter using an {@link ExporterFailureDetector}: an export fails if the handler throws an exception or logs a failure while exporting.
+ * If an exporter logs a failure asynchronously, it is considered as unhealthy for one drain interval and all of its spans are spilled.
+ * Each exporter gets its own buffer file, which is created on the first failure.
+ * As long as the buffer of an exporter is not empty, new spans are also spilled, so that they are exported in the order in which they have been ended.
+ * A dedicated thread periodically tries to export the buffered spans, limited to the configured drain rate.
+ * The number of buffered spans is reported via the {@link SelfMonitoringService}.
+ */
+@Slf4j
+class SpanSpillBuffer {
+
+    /**
+     * The maximum number of spans passed to an exporter at once while draining a buffer.
+     */
+    private static final int DRAIN_BATCH_SIZE = 512;
+
+    /**
+     * The settings this buffer has been created for.
+     */
+    @Getter
+    private final TraceExportSpillSettings settings;
+
+    /**
+     * The handlers of the exporters, the keys are the names under which the handlers have been registered.
+     */
+    private final Map<String, SpanExporter.Handler> handlers;
+
+    private final SelfMonitoringService selfMonitoring;
+
+    /**
+     * The buffers of the exporters which have failed, the keys are the names of the exporters.
+     */
+    private final Map<String, MappedRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * The failure detectors of the exporters, the keys are the names of the exporters.
+     */
+    private final Map<String, ExporterFailureDetector> failureDetectors = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    SpanSpillBuffer(TraceExportSpillSettings settings, Map<String, SpanExporter.Handler> handlers, SelfMonitoringService selfMonitoring) {
+        this.settings = settings;
+        this.handlers = handlers;
+        this.selfMonitoring = selfMonitoring;
+        executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread t = Executors.defaultThreadFactory().newThread(runnable);
+            t.setDaemon(true);
+            t.setName("inspectit-span-spill");
+            return t;
+        });
+        long intervalMillis = settings.getDrainInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exports the given spans using the given handler. If the handler fails or spans of this exporter are still buffered, the spans are spilled to the disk.
+     *
+     * @param name    the name under which the handler has been registered
+     * @param handler the handler of the exporter
+     * @param spans   the spans to export
+     */
+    void export(String name, SpanExporter.Handler handler, Collection<SpanData> spans) {
+        ExporterFailureDetector failureDetector = getFailureDetector(name, handler);
+        MappedRingBuffer buffer = buffers.get(name);
+        if ((buffer == null || buffer.size() == 0) && failureDetector.isHealthy()) {
+            if (failureDetector.export(spans)) {
+                return;
+            }
+            log.warn("Exporting spans using {} failed, the spans are spilled to the disk", name);
+        }
+        if (buffer == null) {
+            buffer = getOrCreateBuffer(name);
+        }
+        if (buffer != null) {
+            spill(name, buffer, spans);
+        }
+    }
+
+    /**
+     * Stops the drain thread and deletes all buffer files, all buffered spans are lost.
+     */
+    void close() {
+        executor.shutdownNow();
+        buffers.values().forEach(MappedRingBuffer::close);
+        buffers.clear();
+        failureDetectors.values().forEach(ExporterFailureDetector::close);
+        failureDetectors.clear();
+    }
+
+    /**
+     * @return the number of spans currently buffered for all exporters
+     */
+    int size() {
+        return buffers.values().stream().mapToInt(MappedRingBuffer::size).sum();
+    }
+
+    /**
+     * Exports the buffered spans of all exporters, limited to the drain rate. Invoked by the drain thread.
+     * Draining the buffer of an exporter stops as soon as the exporter fails again.
+     */
+    void drain() {
+        try {
+            long maxSpans = Math.max(1, settings.getMaxDrainRate() * settings.getDrainInterval().toMillis() / 1000);
+            for (Map.Entry<String, MappedRingBuffer> entry : buffers.entrySet()) {
+                SpanExporter.Handler handler = handlers.get(entry.getKey());
+                if (handler == null) {
+                    buffers.remove(entry.getKey());
+                    entry.getValue().close();
+                } else {
+                    drain(entry.getKey(), getFailureDetector(entry.getKey(), handler), entry.getValue(), maxSpans);
+                }
+            }
+            failureDetectors.entrySet().removeIf(entry -> {
+                if (!handlers.containsKey(entry.getKey())) {
+                    entry.getValue().close();
+                    return true;
+                }
+                return false;
+            });
+        } catch (Throwable t) {
+            log.error("Error exporting spilled spans", t);
+        }
+        reportSelfMonitoring();
+    }
+
+    private void drain(String name, ExporterFailureDetector failureDetector, MappedRingBuffer buffer, long maxSpans) {
+        long remaining = failureDetector.isHealthy() ? maxSpans : 0;
+        while (remaining > 0) {
+            long minTimestamp = System.currentTimeMillis() - settings.getRetention().toMillis();
+            List<MappedRingBuffer.Record> records = buffer.peek((int) Math.min(DRAIN_BATCH_SIZE, remaining), minTimestamp);
+            if (records.isEmpty()) {
+                break;
+            }
+            List<SpanData> spans = new ArrayList<>(records.size());
+            for (MappedRingBuffer.Record record : records) {
+                try {
+                    spans.add(SpanDataSerializer.deserialize(record.getData()));
+                } catch (IOException e) {
+                    log.error("Could not read spilled span of {}", name, e);
+                }
+            }
+            if (!spans.isEmpty() && !failureDetector.export(spans)) {
+                log.debug("Exporting spilled spans using {} failed again", name);
+                break;
+            }
+            buffer.removeUpTo(records.get(records.size() - 1).getSequence());
+            remaining -= records.size();
+        }
+        long dropped = buffer.takeDroppedRecords();
+        if (dropped > 0) {
+            log.warn("Dropped {} spans of {} because the spill buffer was full or the spans exceeded the retention", dropped, name);
+        }
+    }
+
+    private void spill(String name, MappedRingBuffer buffer, Collection<SpanData> spans) {
+        long now = System.currentTimeMillis();
+        for (SpanData span : spans) {
+            try {
+                buffer.add(SpanDataSerializer.serialize(span), now);
+            } catch (IOException e) {
+                log.error("Could not spill span of {}", name, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the failure detector of the given exporter, a new one is created if the exporter has been attached with a different handler.
+     */
+    private ExporterFailureDetector getFailureDetector(String name, SpanExporter.Handler handler) {
+        return failureDetectors.compute(name, (key, current) -> {
+            if (current != null && current.getExporter() == handler) {
+                return current;
+            }
+            if (current != null) {
+                current.close();
+            }
+            return new ExporterFailureDetector(handler, settings.getDrainInterval().toMillis());
+        });
+    }
+
+    private MappedRingBuffer getOrCreateBuffer(String name) {
+        return buffers.computeIfAbsent(name, (key) -> {
+            String fileName = key.replaceAll("[^A-Za-z0-9._-]", "_") + ".spill";
+            Path file = Paths.get(settings.getDirectory(), fileName);
+            int capacity = (int) Math.min(settings.getMaxSize().toBytes(), Integer.MAX_VALUE);
+            try {
+                return new MappedRingBuffer(file, capacity);
+            } catch (IOException e) {
+                log.error("Could not create spill file {}, spans of {} which could not be exported are lost", file, key, e);
+                return null;
+            }
+        });
+    }
+
+    private void reportSelfMonitoring() {
+        if (selfMonitoring.isSelfMonitoringEnabled()) {
+            selfMonitoring.recordMeasurement("trace-export-spilled-spans", (long) size());
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.opencensus.common.Functions;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.export.SpanData;
+import lombok.Getter;
+import rocks.inspectit.ocelot.config.model.tracing.TailSamplingSettings;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which traces are exported after their local root span has ended, see {@link TailSamplingSettings}.
+ * <p>
+ * Ended spans are buffered per trace until the local root span of the trace ends.
+ * A span is considered to be a local root if it has no parent or a remote parent.
+ * The trace is exported if any of its spans exceeds the latency threshold, has an error status or has one of the configured attributes.
+ * All other traces are exported with the configured base probability.
+ * <p>
+ * If a trace is buffered longer than the maximum wait time or the buffer is full, the trace is decided based on the spans buffered so far.
+ * Expired traces are decided whenever spans are processed and additionally using {@link #processExpiredTraces(List, List)}, which has to be invoked periodically.
+ * The decisions are remembered, so that spans ending after the local root span are handled consistently.
+ */
+public class TailSampler {
+
+    /**
+     * The settings this sampler has been created for.
+     */
+    @Getter
+    private final TailSamplingSettings settings;
+
+    /**
+     * The latency threshold in nanoseconds, negative if the latency is not considered.
+     */
+    private final long latencyThresholdNanos;
+
+    private final long maxWaitNanos;
+
+    private final Map<String, Pattern> attributePatterns = new HashMap<>();
+
+    private final LongSupplier nanoClock;
+
+    private final DoubleSupplier random;
+
+    /**
+     * The buffered traces, ordered by the time their first span has been buffered.
+     */
+    private final LinkedHashMap<TraceId, BufferedTrace> traces = new LinkedHashMap<>();
+
+    private int bufferedSpans = 0;
+
+    /**
+     * The decisions for recently decided traces.
+     */
+    private final Cache<TraceId, Decision> decisions;
+
+    public TailSampler(TailSamplingSettings settings) {
+        this(settings, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    @VisibleForTesting
+    TailSampler(TailSamplingSettings settings, LongSupplier nanoClock, DoubleSupplier random) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.random = random;
+        latencyThresholdNanos = settings.getLatencyThreshold() == null ? -1 : settings.getLatencyThreshold().toNanos();
+        maxWaitNanos = settings.getMaxWaitTime().toNanos();
+        settings.getAttributes().forEach((key, regex) -> attributePatterns.put(key, Pattern.compile(regex == null ? "" : regex)));
+        decisions = CacheBuilder.newBuilder().maximumSize(settings.getDecisionCacheSize()).build();
+    }
+
+    /**
+     * Buffers the given ended spans and decides all traces which are complete, expired or exceed the buffer.
+     *
+     * @param spans the ended spans
+     * @return the spans which should be exported, including previously buffered ones
+     */
+    public List<SpanData> process(Collection<SpanData> spans) {
+        List<SpanData> result = new ArrayList<>();
+        process(spans, result, result);
+        return result;
+    }
+
+    /**
+     * Buffers the given ended spans and decides all traces which are complete, expired or exceed the buffer.
+     * The spans to export are split by the reason for exporting them.
+     *
+     * @param spans    the ended spans
+     * @param selected the list to which the spans of traces matching any of the criteria are added
+     * @param baseline the list to which the spans of traces exported due to the base probability are added
+     */
+    public synchronized void process(Collection<SpanData> spans, List<SpanData> selected, List<SpanData> baseline) {
+        long now = nanoClock.getAsLong();
+        for (SpanData span : spans) {
+            TraceId traceId = span.getContext().getTraceId();
+            Decision decision = decisions.getIfPresent(traceId);
+            if (decision != null) {
+                decision.addTo(span, selected, baseline);
+            } else {
+                BufferedTrace trace = traces.computeIfAbsent(traceId, id -> new BufferedTrace(now));
+                trace.spans.add(span);
+                bufferedSpans++;
+                if (isLocalRoot(span)) {
+                    decide(traceId, traces.remove(traceId), selected, baseline);
+                }
+            }
+        }
+        decideExpiredTraces(now, selected, baseline);
+        while (bufferedSpans > settings.getMaxBufferedSpans()) {
+            decideOldestTrace(selected, baseline);
+        }
+    }
+
+    /**
+     * Decides all traces which have been buffered longer than the maximum wait time.
+     * This way traces are also decided if no further spans are ended.
+     *
+     * @param selected the list to which the spans of traces matching any of the criteria are added
+     * @param baseline the list to which the spans of traces exported due to the base probability are added
+     */
+    public synchronized void processExpiredTraces(List<SpanData> selected, List<SpanData> baseline) {
+        decideExpiredTraces(nanoClock.getAsLong(), selected, baseline);
+    }
+
+    /**
+     * Decides all buffered traces based on the spans buffered so far.
+     *
+     * @return the spans which should be exported
+     */
+    public List<SpanData> flush() {
+        List<SpanData> result = new ArrayList<>();
+        flush(result, result);
+        return result;
+    }
+
+    /**
+     * Decides all buffered traces based on the spans buffered so far.
+     *
+     * @param selected the list to which the spans of traces matching any of the criteria are added
+     * @param baseline the list to which the spans of traces exported due to the base probability are added
+     */
+    public synchronized void flush(List<SpanData> selected, List<SpanData> baseline) {
+        while (!traces.isEmpty()) {
+            decideOldestTrace(selected, baseline);
+        }
+    }
+
+    /**
+     * @return the number of currently buffered spans
+     */
+    public synchronized int getBufferedSpansCount() {
+        return bufferedSpans;
+    }
+
+    private void decideExpiredTraces(long now, List<SpanData> selected, List<SpanData> baseline) {
+        Iterator<Map.Entry<TraceId, BufferedTrace>> iterator = traces.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TraceId, BufferedTrace> entry = iterator.next();
+            if (now - entry.getValue().bufferedSince < maxWaitNanos) {
+                //all following traces have been buffered later
+                break;
+            }
+            iterator.remove();
+            decide(entry.getKey(), entry.getValue(), selected, baseline);
+        }
+    }
+
+    private void decideOldestTrace(List<SpanData> selected, List<SpanData> baseline) {
+        TraceId oldest = traces.keySet().iterator().next();
+        decide(oldest, traces.remove(oldest), selected, baseline);
+    }
+
+    private void decide(TraceId traceId, BufferedTrace trace, List<SpanData> selected, List<SpanData> baseline) {
+        bufferedSpans -= trace.spans.size();
+        Decision decision = getDecision(trace.spans);
+        decisions.put(traceId, decision);
+        for (SpanData span : trace.spans) {
+            decision.addTo(span, selected, baseline);
+        }
+    }
+
+    private Decision getDecision(List<SpanData> spans) {
+        for (SpanData span : spans) {
+            if (exceedsLatencyThreshold(span) || isError(span) || hasMatchingAttribute(span)) {
+                return Decision.SELECTED;
+            }
+        }
+        return random.getAsDouble() < settings.getBaseProbability() ? Decision.BASELINE : Decision.DROPPED;
+    }
+
+    private boolean exceedsLatencyThreshold(SpanData span) {
+        Timestamp start = span.getStartTimestamp();
+        Timestamp end = span.getEndTimestamp();
+        if (latencyThresholdNanos < 0 || end == null) {
+            return false;
+        }
+        long durationNanos = TimeUnit.SECONDS.toNanos(end.getSeconds() - start.getSeconds()) + end.getNanos() - start.getNanos();
+        return durationNanos >= latencyThresholdNanos;
+    }
+
+    private boolean isError(SpanData span) {
+        return settings.isKeepErrors() && span.getStatus() != null && !span.getStatus().isOk();
+    }
+
+    private boolean hasMatchingAttribute(SpanData span) {
+        if (attributePatterns.isEmpty()) {
+            return false;
+        }
+        Map<String, AttributeValue> attributes = span.getAttributes().getAttributeMap();
+        for (Map.Entry<String, Pattern> pattern : attributePatterns.entrySet()) {
+            AttributeValue value = attributes.get(pattern.getKey());
+            if (value != null) {
+                String stringValue = value.match(Functions.<String>identity(), Functions.returnToString(),
+                        Functions.returnToString(), Functions.returnToString(), Functions.returnToString());
+                if (pattern.getValue().pattern().isEmpty() || pattern.getValue().matcher(stringValue).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        SpanId parent = span.getParentSpanId();
+        return parent == null || !parent.isValid() || Boolean.TRUE.equals(span.getHasRemoteParent());
+    }
+
+    private enum Decision {
+
+        /**
+         * The trace matches any of the criteria.
+         */
+        SELECTED,
+
+        /**
+         * The trace is exported due to the base probability.
+         */
+        BASELINE,
+
+        DROPPED;
+
+        private void addTo(SpanData span, List<SpanData> selected, List<SpanData> baseline) {
+            if (this == SELECTED) {
+                selected.add(span);
+            } else if (this == BASELINE) {
+                baseline.add(span);
+            }
+        }
+    }
+
+    private static class BufferedTrace {
+
+        private final long bufferedSince;
+
+        private final List<SpanData> spans = new ArrayList<>();
+
+        private BufferedTrace(long bufferedSince) {
+            this.bufferedSince = bufferedSince;
+        }
+    }
+}
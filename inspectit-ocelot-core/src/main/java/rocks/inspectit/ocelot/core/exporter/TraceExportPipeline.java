@@ -0,0 +1,360 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportQueueSettings;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportSpillSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TailSamplingSettings;
+import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes the spans exported by OpenCensus before they are passed to the trace exporters.
+ * <p>
+ * The OpenCensus trace exporters register their handlers directly at the global {@link SpanExporter}.
+ * Using {@link #attach(Class)}, the handler of an exporter is moved behind a single handler registered by this pipeline.
+ * This pipeline applies the {@link TailSampler} if tail sampling is enabled and forwards the remaining spans to all attached handlers.
+ * Traces exceeding the maximum wait time of the tail sampling are periodically decided, even if no further spans are exported.
+ * If the {@link SpanExportQueue} is enabled, the spans are forwarded asynchronously using a bounded queue.
+ * If the {@link SpanSpillBuffer} is enabled, spans which an exporter fails to export are spilled to the disk and exported later.
+ * <p>
+ * The OpenCensus exporters do not offer any public API for accessing or wrapping their handlers.
+ * Therefore the handlers are read from the private static fields of the exporter classes, which are present in all bundled exporters.
+ */
+@Component
+@Slf4j
+public class TraceExportPipeline {
+
+    /**
+     * The name under which the handler of this pipeline is registered.
+     */
+    @VisibleForTesting
+    static final String HANDLER_NAME = TraceExportPipeline.class.getName();
+
+    /**
+     * The name of the static field holding the handler in the OpenCensus exporter classes.
+     */
+    private static final String EXPORTER_HANDLER_FIELD = "handler";
+
+    /**
+     * The name of the static field holding the name the handler is registered with in the OpenCensus exporter classes.
+     */
+    private static final String EXPORTER_REGISTER_NAME_FIELD = "REGISTER_NAME";
+
+    /**
+     * The maximum interval in milliseconds in which traces exceeding the maximum wait time of the tail sampling are decided.
+     */
+    private static final long MAX_EXPIRED_TRACES_INTERVAL_MILLIS = 1000;
+
+    @Autowired
+    private InspectitEnvironment env;
+
+    @Autowired
+    private SelfMonitoringService selfMonitoring;
+
+    @Autowired
+    private ScheduledExecutorService executor;
+
+    /**
+     * The attached handlers of the exporters, the keys are the names under which the handlers have been registered.
+     */
+    private final Map<String, SpanExporter.Handler> handlers = new ConcurrentHashMap<>();
+
+    private final PipelineHandler pipelineHandler = new PipelineHandler();
+
+    /**
+     * The currently active tail sampler, null if tail sampling is disabled.
+     */
+    private volatile TailSampler tailSampler;
+
+    /**
+     * The task periodically deciding the expired traces of the {@link #tailSampler}, null if tail sampling is disabled.
+     */
+    private ScheduledFuture<?> expiredTracesTask;
+
+    /**
+     * The currently active export queue, null if spans are exported synchronously.
+     */
+    private SpanExportQueue queue;
+
+    /**
+     * Guards {@link #queue}.
+     */
+    private final Object queueLock = new Object();
+
+    /**
+     * The currently active spill buffer, null if spans are lost when an exporter fails.
+     */
+    private volatile SpanSpillBuffer spillBuffer;
+
+    @PostConstruct
+    @EventListener(InspectitConfigChangedEvent.class)
+    synchronized void updateConfiguration() {
+        updateSpillBuffer();
+        updateExportQueue();
+        updateTailSampling();
+    }
+
+    @VisibleForTesting
+    synchronized void updateSpillBuffer() {
+        TraceExportSpillSettings settings = env.getCurrentConfig().getExporters().getTracing().getSpill();
+        SpanSpillBuffer current = spillBuffer;
+        if (current != null && current.getSettings().equals(settings)) {
+            return;
+        }
+        spillBuffer = settings.isEnabled() ? new SpanSpillBuffer(settings, handlers, selfMonitoring) : null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void updateTailSampling() {
+        TailSamplingSettings settings = env.getCurrentConfig().getTracing().getTailSampling();
+        TailSampler current = tailSampler;
+        if (current != null && current.getSettings().equals(settings)) {
+            return;
+        }
+        cancelExpiredTracesTask();
+        tailSampler = settings.isEnabled() ? new TailSampler(settings) : null;
+        if (tailSampler != null) {
+            long intervalMillis = Math.max(1, Math.min(MAX_EXPIRED_TRACES_INTERVAL_MILLIS, settings.getMaxWaitTime().toMillis()));
+            expiredTracesTask = executor.scheduleWithFixedDelay(this::processExpiredTraces, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (current != null) {
+            flush(current);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void updateExportQueue() {
+        TraceExportQueueSettings settings = env.getCurrentConfig().getExporters().getTracing().getQueue();
+        List<List<SpanData>> remaining;
+        synchronized (queueLock) {
+            SpanExportQueue current = queue;
+            if (current != null && current.getSettings().equals(settings)) {
+                return;
+            }
+            queue = settings.isEnabled() ? new SpanExportQueue(settings, this::export, selfMonitoring) : null;
+            if (current == null) {
+                return;
+            }
+            remaining = current.shutdown();
+        }
+        forward(remaining.get(0), false);
+        forward(remaining.get(1), true);
+    }
+
+    @PreDestroy
+    synchronized void destroy() {
+        cancelExpiredTracesTask();
+        TailSampler currentSampler = tailSampler;
+        tailSampler = null;
+        if (currentSampler != null) {
+            flush(currentSampler);
+        }
+        List<List<SpanData>> remaining;
+        synchronized (queueLock) {
+            remaining = queue == null ? null : queue.shutdown();
+            queue = null;
+        }
+        if (remaining != null) {
+            remaining.forEach(this::export);
+        }
+        SpanSpillBuffer currentSpillBuffer = spillBuffer;
+        spillBuffer = null;
+        if (currentSpillBuffer != null) {
+            currentSpillBuffer.close();
+        }
+    }
+
+    /**
+     * Moves the handler of the given OpenCensus exporter behind this pipeline.
+     * Must be called after the exporter has been registered.
+     * If the handler can not be accessed, e.g. because the exporter is not compatible, the exporter remains registered directly at the {@link SpanExporter}.
+     *
+     * @param exporterClass the exporter class, e.g. {@link io.opencensus.exporter.trace.zipkin.ZipkinTraceExporter}
+     */
+    public synchronized void attach(Class<?> exporterClass) {
+        if (!isAttachable(exporterClass)) {
+            log.error("The exporter {} is not compatible with the trace export pipeline, its spans are exported directly without tail sampling, queuing or spilling", exporterClass.getName());
+            return;
+        }
+        try {
+            String name = getRegisterName(exporterClass);
+            SpanExporter.Handler handler = (SpanExporter.Handler) getStaticField(exporterClass, EXPORTER_HANDLER_FIELD);
+            if (handler == null) {
+                log.warn("The exporter {} is not registered and therefore could not be attached to the trace export pipeline", exporterClass.getName());
+                return;
+            }
+            SpanExporter spanExporter = Tracing.getExportComponent().getSpanExporter();
+            spanExporter.unregisterHandler(name);
+            if (handlers.isEmpty()) {
+                spanExporter.registerHandler(HANDLER_NAME, pipelineHandler);
+            }
+            handlers.put(name, handler);
+        } catch (Exception e) {
+            log.error("Could not attach exporter {} to the trace export pipeline, its spans are exported directly without tail sampling, queuing or spilling", exporterClass.getName(), e);
+        }
+    }
+
+    /**
+     * Removes the handler of the given OpenCensus exporter from this pipeline.
+     * Must be called before the exporter is unregistered.
+     *
+     * @param exporterClass the exporter class
+     */
+    public synchronized void detach(Class<?> exporterClass) {
+        try {
+            if (handlers.remove(getRegisterName(exporterClass)) != null && handlers.isEmpty()) {
+                Tracing.getExportComponent().getSpanExporter().unregisterHandler(HANDLER_NAME);
+            }
+        } catch (Exception e) {
+            log.error("Could not detach exporter {} from the trace export pipeline", exporterClass.getName(), e);
+        }
+    }
+
+    /**
+     * Checks if the handler of the given exporter class can be attached, i.e. if it declares the static fields holding the handler and its name.
+     *
+     * @param exporterClass the exporter class
+     * @return true, if the exporter can be attached
+     */
+    @VisibleForTesting
+    static boolean isAttachable(Class<?> exporterClass) {
+        try {
+            Field handlerField = exporterClass.getDeclaredField(EXPORTER_HANDLER_FIELD);
+            Field registerNameField = exporterClass.getDeclaredField(EXPORTER_REGISTER_NAME_FIELD);
+            return Modifier.isStatic(handlerField.getModifiers()) && SpanExporter.Handler.class.isAssignableFrom(handlerField.getType())
+                    && Modifier.isStatic(registerNameField.getModifiers()) && registerNameField.getType() == String.class;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    @VisibleForTesting
+    SpanExporter.Handler getPipelineHandler() {
+        return pipelineHandler;
+    }
+
+    /**
+     * Decides the traces exceeding the maximum wait time of the tail sampling. Invoked periodically by the {@link #expiredTracesTask}.
+     */
+    @VisibleForTesting
+    void processExpiredTraces() {
+        try {
+            TailSampler sampler = tailSampler;
+            if (sampler != null) {
+                List<SpanData> selected = new ArrayList<>();
+                List<SpanData> baseline = new ArrayList<>();
+                sampler.processExpiredTraces(selected, baseline);
+                forward(selected, false);
+                forward(baseline, true);
+            }
+        } catch (Throwable t) {
+            log.error("Error deciding expired traces", t);
+        }
+    }
+
+    private void cancelExpiredTracesTask() {
+        if (expiredTracesTask != null) {
+            expiredTracesTask.cancel(false);
+            expiredTracesTask = null;
+        }
+    }
+
+    private void flush(TailSampler sampler) {
+        List<SpanData> selected = new ArrayList<>();
+        List<SpanData> baseline = new ArrayList<>();
+        sampler.flush(selected, baseline);
+        forward(selected, false);
+        forward(baseline, true);
+    }
+
+    /**
+     * Forwards the given spans to the attached handlers, using the queue if it is enabled.
+     *
+     * @param spans     the spans to forward
+     * @param droppable true, if the spans are only exported due to the base probability of the tail sampling
+     */
+    private void forward(Collection<SpanData> spans, boolean droppable) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        synchronized (queueLock) {
+            if (queue != null) {
+                queue.add(spans, droppable);
+                return;
+            }
+        }
+        export(spans);
+    }
+
+    private void export(Collection<SpanData> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        SpanSpillBuffer spill = spillBuffer;
+        for (Map.Entry<String, SpanExporter.Handler> handler : handlers.entrySet()) {
+            try {
+                if (spill != null) {
+                    spill.export(handler.getKey(), handler.getValue(), spans);
+                } else {
+                    handler.getValue().export(spans);
+                }
+            } catch (Throwable t) {
+                log.error("Error exporting spans using {}", handler.getKey(), t);
+            }
+        }
+    }
+
+    private static String getRegisterName(Class<?> exporterClass) throws ReflectiveOperationException {
+        return (String) getStaticField(exporterClass, EXPORTER_REGISTER_NAME_FIELD);
+    }
+
+    private static Object getStaticField(Class<?> clazz, String name) throws ReflectiveOperationException {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+
+    /**
+     * The handler registered at the {@link SpanExporter}, which receives the spans of all attached exporters.
+     */
+    private class PipelineHandler extends SpanExporter.Handler {
+
+        @Override
+        public void export(Collection<SpanData> spanDataList) {
+            TailSampler sampler = tailSampler;
+            if (sampler != null) {
+                List<SpanData> selected = new ArrayList<>();
+                List<SpanData> baseline = new ArrayList<>();
+                sampler.process(spanDataList, selected, baseline);
+                forward(selected, false);
+                forward(baseline, true);
+            } else {
+                forward(spanDataList, false);
+            }
+        }
+    }
+}
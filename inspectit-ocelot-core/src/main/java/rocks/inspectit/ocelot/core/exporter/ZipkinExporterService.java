@@ -3,6 +3,7 @@ package rocks.inspectit.ocelot.core.exporter;
 import io.opencensus.exporter.trace.zipkin.ZipkinTraceExporter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.exporters.trace.ZipkinExporterSettings;
@@ -18,6 +19,9 @@ import javax.validation.Valid;
 @Slf4j
 public class ZipkinExporterService extends DynamicallyActivatableService {
 
+    @Autowired
+    private TraceExportPipeline exportPipeline;
+
     public ZipkinExporterService() {
         super("exporters.tracing.zipkin", "tracing.enabled");
     }
@@ -34,6 +38,7 @@ public class ZipkinExporterService extends DynamicallyActivatableService {
             ZipkinExporterSettings settings = configuration.getExporters().getTracing().getZipkin();
             log.info("Starting Zipkin Exporter with url '{}'", settings.getUrl());
             ZipkinTraceExporter.createAndRegister(settings.getUrl(), settings.getServiceName());
+            exportPipeline.attach(ZipkinTraceExporter.class);
             return true;
         } catch (Throwable t) {
             log.error("Error creating Zipkin exporter", t);
@@ -45,6 +50,7 @@ public class ZipkinExporterService extends DynamicallyActivatableService {
     protected boolean doDisable() {
         log.info("Stopping Zipkin Exporter");
         try {
+            exportPipeline.detach(ZipkinTraceExporter.class);
             ZipkinTraceExporter.unregister();
         } catch (Throwable t) {
             log.error("Error disabling Zipkin exporter", t);
@@ -15,12 +15,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.instrumentation.InternalSettings;
 import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.core.instrumentation.config.InstrumentationConfigurationResolver;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.ClassInstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationConfiguration;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationRule;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationScope;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationScopeIndex;
 import rocks.inspectit.ocelot.core.instrumentation.event.ClassInstrumentedEvent;
 import rocks.inspectit.ocelot.core.instrumentation.event.IClassDefinitionListener;
 import rocks.inspectit.ocelot.core.instrumentation.event.TransformerShutdownEvent;
@@ -37,10 +40,14 @@ import java.lang.instrument.IllegalClassFormatException;
 import java.lang.instrument.Instrumentation;
 import java.security.ProtectionDomain;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
 
 /**
  * A class transformer applying all inspectIT instrumentations.
  * This transform only instrument classes when they are redefined / retransformed!.
+ * The only exception is the optional load-time instrumentation, see {@link InternalSettings#isLoadTimeInstrumentation()}.
  */
 @Component
 @Slf4j
@@ -67,6 +74,9 @@ public class AsyncClassTransformer implements ClassFileTransformer {
     @Autowired
     ClassLoaderDelegation classLoaderDelegation;
 
+    @Autowired
+    TypeDescriptionProvider typeDescriptions;
+
     /**
      * Detects if the instrumenter is in the process of shutting down.
      * When it is shutting down, no new instrumentations are added anymore, instead all existing instrumentations are removed.
@@ -87,11 +97,32 @@ public class AsyncClassTransformer implements ClassFileTransformer {
      */
     Cache<Class<?>, Boolean> instrumentedClasses = CacheBuilder.newBuilder().weakKeys().build();
 
+    /**
+     * Stores the configurations of all classes which have been instrumented when they were loaded, but for which
+     * the instrumentation has not been completed via {@link #completeLoadTimeInstrumentation(Class)} yet.
+     * The configurations are stored by class name for each class loader, as the class instance is not available at load time.
+     * <p>
+     * Package private for testing.
+     */
+    Cache<ClassLoader, Map<String, ClassInstrumentationConfiguration>> pendingLoadTimeInstrumentations = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Stores the classes whose hooks have been requested before their load-time instrumentation has been completed.
+     * The completion is deferred to the {@link InstrumentationTriggerer} via {@link #completeRequestedLoadTimeInstrumentations()},
+     * so that it is not executed by the application thread requesting the hook.
+     * <p>
+     * Package private for testing.
+     */
+    Cache<Class<?>, Boolean> requestedLoadTimeInstrumentationCompletions = CacheBuilder.newBuilder().weakKeys().build();
+
 
     @Override
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] bytecode) throws IllegalClassFormatException {
         if (classBeingRedefined == null) { // class is not loaded yet! we only redefine only loaded classes to prevent blocking
             classDefinitionListeners.forEach(lis -> lis.onNewClassDefined(className, loader));
+            if (className != null && loader != null && isLoadTimeInstrumentationCandidate(className.replace('/', '.'))) {
+                return applyLoadTimeInstrumentation(loader, className.replace('/', '.'), bytecode);
+            }
             return bytecode; //leave the class unchanged for now
 
         }
@@ -120,11 +151,25 @@ public class AsyncClassTransformer implements ClassFileTransformer {
         }
         ctx.publishEvent(new TransformerShutdownEvent(this));
         if (!CoreUtils.isJVMShuttingDown()) {
+            completeAllLoadTimeInstrumentations();
             deinstrumentAllClasses();
         }
         instrumentation.removeTransformer(this);
     }
 
+    /**
+     * Completes the load-time instrumentation of all classes for which it has not been completed yet,
+     * so that their instrumentation is removed by {@link #deinstrumentAllClasses()}.
+     */
+    private void completeAllLoadTimeInstrumentations() {
+        if (pendingLoadTimeInstrumentations.asMap().values().stream().allMatch(Map::isEmpty)) {
+            return;
+        }
+        for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+            completeLoadTimeInstrumentation(clazz);
+        }
+    }
+
     /**
      * Triggers a retransformation for all instrumented classes until none is instrumented anymore.
      * Therefore this class expects that {@link #shuttingDown} is already set to true.
@@ -182,8 +227,8 @@ public class AsyncClassTransformer implements ClassFileTransformer {
 
     private byte[] applyInstrumentation(Class<?> classBeingRedefined, byte[] originalByteCode) {
         try {
-            //load the type description and the desired instrumentation
-            TypeDescription type = TypeDescription.ForLoadedType.of(classBeingRedefined);
+            //load the type description from the given bytecode and the desired instrumentation
+            TypeDescription type = typeDescriptions.describe(classBeingRedefined, originalByteCode);
             ClassInstrumentationConfiguration classConf = updateAndGetActiveConfiguration(classBeingRedefined, type);
 
             byte[] resultBytes;
@@ -196,7 +241,7 @@ public class AsyncClassTransformer implements ClassFileTransformer {
                 }
                 //Make a ByteBuddy builder based on the input bytecode
                 ClassFileLocator byteCodeClassFileLocator = ClassFileLocator.Simple.of(type.getName(), originalByteCode);
-                DynamicType.Builder<?> builder = new ByteBuddy().redefine(classBeingRedefined, byteCodeClassFileLocator);
+                DynamicType.Builder<?> builder = new ByteBuddy().redefine(type, byteCodeClassFileLocator);
 
                 //Apply the actual instrumentation onto the builders
                 for (SpecialSensor specialSensor : classConf.getActiveSpecialSensors()) {
@@ -204,7 +249,7 @@ public class AsyncClassTransformer implements ClassFileTransformer {
                 }
 
                 // Apply the instrumentation hook
-                ElementMatcher.Junction<MethodDescription> methodMatcher = getCombinedMethodMatcher(classBeingRedefined, classConf);
+                ElementMatcher.Junction<MethodDescription> methodMatcher = getCombinedMethodMatcher(type, classConf);
                 if (methodMatcher != null) {
                     builder = DispatchHookAdvices.adviceOn(builder, methodMatcher);
                 }
@@ -228,15 +273,193 @@ public class AsyncClassTransformer implements ClassFileTransformer {
         }
     }
 
+    /**
+     * Checks if the class with the given name should be instrumented while it is loaded.
+     *
+     * @param className the name of the class being loaded
+     * @return true, if load-time instrumentation is enabled and the class name is targeted by any scope
+     */
+    private boolean isLoadTimeInstrumentationCandidate(String className) {
+        if (shuttingDown || !env.getCurrentConfig().getInstrumentation().getInternal().isLoadTimeInstrumentation()) {
+            return false;
+        }
+        InstrumentationScopeIndex scopeIndex = configResolver.getCurrentConfig().getScopeIndex();
+        return scopeIndex != null && scopeIndex.isTypeNameTargeted(className);
+    }
+
+    /**
+     * Instruments a class which is currently being loaded.
+     * If the class can not be analyzed within the configured budget or is not instrumentable at load time,
+     * the bytecode is returned unchanged and the class is instrumented asynchronously after its discovery.
+     * The budget is checked before each type matcher and each method matcher is evaluated, so that the work is aborted early.
+     * Only the time for parsing the class and for writing the instrumented bytecode after the last method has been matched can exceed it.
+     * As the class instance is not available yet, the instrumentation is only remembered in {@link #pendingLoadTimeInstrumentations}.
+     * It has to be completed via {@link #completeLoadTimeInstrumentation(Class)} as soon as the class has been loaded.
+     *
+     * @param loader    the loader defining the class
+     * @param className the name of the class
+     * @param bytecode  the bytecode of the class
+     * @return the instrumented bytecode or the given bytecode if the class is not instrumented
+     */
+    private byte[] applyLoadTimeInstrumentation(ClassLoader loader, String className, byte[] bytecode) {
+        try (val sm = selfMonitoring.withDurationSelfMonitoring("load-time-instrumentation")) {
+            long budgetNanos = env.getCurrentConfig().getInstrumentation().getInternal().getLoadTimeInstrumentationBudget().toNanos();
+            long start = System.nanoTime();
+            BooleanSupplier isBudgetExceeded = () -> System.nanoTime() - start > budgetNanos;
+
+            InstrumentationConfiguration config = configResolver.getCurrentConfig();
+            //our bootstrap classes have to be accessible for the hooks
+            if (!classLoaderDelegation.getClassLoaderClassesRequiringRetransformation(loader, config).isEmpty()) {
+                return bytecode;
+            }
+            TypeDescription type = typeDescriptions.describe(className, loader, bytecode);
+            ClassInstrumentationConfiguration classConf = configResolver.getLoadTimeInstrumentationConfiguration(type, loader, config, isBudgetExceeded);
+            if (classConf == null || isBudgetExceeded.getAsBoolean()) {
+                log.debug("Skipping load-time instrumentation of {} as its analysis exceeded the budget", className);
+                return bytecode;
+            }
+            if (classConf.isNoInstrumentation()) {
+                return bytecode;
+            }
+
+            ElementMatcher.Junction<MethodDescription> methodMatcher = withBudget(getCombinedMethodMatcher(type, classConf), isBudgetExceeded);
+            DynamicType.Builder<?> builder = new ByteBuddy().redefine(type, ClassFileLocator.Simple.of(className, bytecode));
+            byte[] resultBytes;
+            try {
+                resultBytes = DispatchHookAdvices.adviceOn(builder, methodMatcher).make().getBytes();
+            } catch (BudgetExceededException e) {
+                log.debug("Skipping load-time instrumentation of {} as matching its methods exceeded the budget", className);
+                return bytecode;
+            }
+            // the generated bytecode is discarded, the class is retransformed asynchronously after its discovery instead
+            if (isBudgetExceeded.getAsBoolean()) {
+                log.debug("Skipping load-time instrumentation of {} as generating its bytecode exceeded the budget", className);
+                return bytecode;
+            }
+
+            synchronized (shutDownLock) {
+                if (shuttingDown) {
+                    return bytecode;
+                }
+                getPendingLoadTimeInstrumentations(loader).put(className, classConf);
+            }
+            log.debug("Applied load-time instrumentation of {}", className);
+            return resultBytes;
+        } catch (Throwable t) {
+            log.debug("Error applying load-time instrumentation of {}, class will be instrumented asynchronously", className, t);
+            return bytecode;
+        }
+    }
+
+    /**
+     * Completes the instrumentation of the given class if it has been instrumented when it was loaded.
+     * This registers the class as instrumented and publishes the corresponding {@link ClassInstrumentedEvent}.
+     * Does nothing if the given class has not been instrumented at load time or this method has already been called for it.
+     *
+     * @param clazz the class to complete the instrumentation for
+     */
+    public void completeLoadTimeInstrumentation(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return;
+        }
+        Map<String, ClassInstrumentationConfiguration> pending = pendingLoadTimeInstrumentations.getIfPresent(loader);
+        if (pending == null) {
+            return;
+        }
+        ClassInstrumentationConfiguration classConf = pending.remove(clazz.getName());
+        if (classConf != null) {
+            synchronized (shutDownLock) {
+                instrumentedClasses.put(clazz, Boolean.TRUE);
+            }
+            selfMonitorInstrumentedClassesCount();
+            if (!shuttingDown) {
+                ctx.publishEvent(new ClassInstrumentedEvent(this, clazz, typeDescriptions.describe(clazz), classConf));
+            }
+        }
+    }
+
+    /**
+     * Requests the completion of the load-time instrumentation of the given class, if it has been instrumented when it was loaded.
+     * In contrast to {@link #completeLoadTimeInstrumentation(Class)}, this only queues the class and therefore is safe to be called by application threads.
+     *
+     * @param clazz the class to complete the instrumentation for
+     */
+    public void requestLoadTimeInstrumentationCompletion(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return;
+        }
+        Map<String, ClassInstrumentationConfiguration> pending = pendingLoadTimeInstrumentations.getIfPresent(loader);
+        if (pending != null && pending.containsKey(clazz.getName())) {
+            requestedLoadTimeInstrumentationCompletions.put(clazz, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Completes the load-time instrumentation of all classes queued via {@link #requestLoadTimeInstrumentationCompletion(Class)}.
+     *
+     * @return the classes whose instrumentation has been completed
+     */
+    public Set<Class<?>> completeRequestedLoadTimeInstrumentations() {
+        Set<Class<?>> completed = new HashSet<>();
+        Iterator<Class<?>> it = requestedLoadTimeInstrumentationCompletions.asMap().keySet().iterator();
+        while (it.hasNext()) {
+            Class<?> clazz = it.next();
+            it.remove();
+            completeLoadTimeInstrumentation(clazz);
+            completed.add(clazz);
+        }
+        return completed;
+    }
+
+    private Map<String, ClassInstrumentationConfiguration> getPendingLoadTimeInstrumentations(ClassLoader loader) {
+        try {
+            return pendingLoadTimeInstrumentations.get(loader, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Wraps the given method matcher so that a {@link BudgetExceededException} is thrown as soon as a method is matched after the budget has been exceeded.
+     * This aborts the bytecode generation of ByteBuddy, which evaluates the matcher for each method of the class.
+     *
+     * @param matcher          the matcher to wrap
+     * @param isBudgetExceeded returns true if the time available for the instrumentation is exceeded
+     * @return the wrapped matcher
+     */
+    private static ElementMatcher.Junction<MethodDescription> withBudget(ElementMatcher.Junction<MethodDescription> matcher, BooleanSupplier isBudgetExceeded) {
+        return new ElementMatcher.Junction.AbstractBase<MethodDescription>() {
+            @Override
+            public boolean matches(MethodDescription target) {
+                if (isBudgetExceeded.getAsBoolean()) {
+                    throw new BudgetExceededException();
+                }
+                return matcher.matches(target);
+            }
+        };
+    }
+
+    /**
+     * Thrown for aborting the load-time instrumentation of a class as soon as it exceeds its budget.
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
     /**
      * Combining all method matchers of the matching rules in order to prevent multiple injections of the advice.
      */
-    private ElementMatcher.Junction<MethodDescription> getCombinedMethodMatcher(Class<?> clazz, ClassInstrumentationConfiguration classConfig) {
+    private ElementMatcher.Junction<MethodDescription> getCombinedMethodMatcher(TypeDescription type, ClassInstrumentationConfiguration classConfig) {
         ElementMatcher.Junction<MethodDescription> methodMatcher = null;
 
         for (InstrumentationRule rule : classConfig.getActiveRules()) {
             if (log.isDebugEnabled()) {
-                log.debug("Added hook to {} due to rule '{}'.", clazz, rule.getName());
+                log.debug("Added hook to {} due to rule '{}'.", type, rule.getName());
             }
             for (InstrumentationScope scope : rule.getScopes()) {
                 if (log.isTraceEnabled()) {
@@ -0,0 +1,483 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import rocks.inspectit.ocelot.config.model.InspectitConfig;
+import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationPlanCacheSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.ClassInstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.service.DynamicallyActivatableService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the instrumentation decisions made for classes, so that they can be reused after a restart of the JVM.
+ * <p>
+ * For each {@link InstrumentationConfiguration} a separate plan file is stored, which is identified by a hash of the settings which affect the instrumentation decisions.
+ * The plan maps the names of the analyzed classes to the signatures of their hooked methods, or marks them as not instrumented.
+ * As a class with the same name might have different contents after a restart, each entry is additionally keyed by a
+ * fingerprint of the code sources (jar files, directories or the JDK) of the class and all of its supertypes.
+ * If any of these code sources is modified, the fingerprint changes and the persisted decision is not used anymore.
+ * Classes whose code sources can not be identified (e.g. generated classes) are never part of the plan.
+ * <p>
+ * The plan is only used as a hint: classes which are known to be instrumented are analyzed first,
+ * classes which are known to not be instrumented skip the analysis of their type hierarchy.
+ */
+@Service
+@Slf4j
+public class InstrumentationPlanCache extends DynamicallyActivatableService {
+
+    /**
+     * The value stored in the plan for classes which are not instrumented.
+     */
+    @VisibleForTesting
+    static final String NOT_INSTRUMENTED = "-";
+
+    private static final String SIGNATURE_SEPARATOR = ";";
+
+    private static final String PLAN_FILE_SUFFIX = ".plan";
+
+    /**
+     * The identity used for all classes loaded by the bootstrap loader.
+     */
+    private static final String JDK_IDENTITY = "jdk:" + System.getProperty("java.version");
+
+    @Autowired
+    private ScheduledExecutorService executor;
+
+    /**
+     * Used for serializing the settings which affect the instrumentation decisions in a canonical form.
+     */
+    private static final ObjectMapper CONFIGURATION_MAPPER = new ObjectMapper()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    /**
+     * Caches the identities of the jar files which have been inspected, keyed by their location.
+     */
+    private final Map<String, Optional<String>> archiveIdentities = new ConcurrentHashMap<>();
+
+    /**
+     * Caches the keys of the classes in the plan, as they do not change for a loaded class.
+     */
+    private final Cache<Class<?>, Optional<String>> classKeys = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final Object planLock = new Object();
+
+    /**
+     * The directory containing the plan files, null if this service is disabled.
+     */
+    private volatile Path directory;
+
+    /**
+     * The plan of the {@link InstrumentationConfiguration} which has been used last.
+     */
+    private volatile Plan currentPlan;
+
+    private ScheduledFuture<?> flushFuture;
+
+    public InstrumentationPlanCache() {
+        super("instrumentation.internal.planCache");
+    }
+
+    @Override
+    protected boolean checkEnabledForConfig(InspectitConfig configuration) {
+        return configuration.getInstrumentation().getInternal().getPlanCache().isEnabled();
+    }
+
+    @Override
+    protected boolean doEnable(InspectitConfig configuration) {
+        InstrumentationPlanCacheSettings settings = configuration.getInstrumentation().getInternal().getPlanCache();
+        try {
+            directory = Paths.get(settings.getDirectory());
+        } catch (InvalidPathException e) {
+            log.error("The directory '{}' for storing the instrumentation plan is invalid", settings.getDirectory(), e);
+            return false;
+        }
+        log.info("Using instrumentation plans stored in {}", directory);
+        long flushMs = settings.getFlushInterval().toMillis();
+        flushFuture = executor.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    @Override
+    protected boolean doDisable() {
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
+        }
+        flush();
+        synchronized (planLock) {
+            directory = null;
+            currentPlan = null;
+        }
+        classKeys.invalidateAll();
+        return true;
+    }
+
+    /**
+     * Checks if the persisted plan states that the given class is not instrumented under the given configuration.
+     *
+     * @param clazz  the class to check
+     * @param config the configuration for which the class is analyzed
+     * @return true, if a matching plan entry exists which states that the class is not instrumented
+     */
+    public boolean isPlannedAsNotInstrumented(Class<?> clazz, InstrumentationConfiguration config) {
+        return NOT_INSTRUMENTED.equals(getPlannedDecision(clazz, config));
+    }
+
+    /**
+     * Checks if the persisted plan states that the given class is instrumented under the given configuration.
+     *
+     * @param clazz  the class to check
+     * @param config the configuration for which the class is analyzed
+     * @return true, if a matching plan entry exists which states that the class is instrumented
+     */
+    public boolean isPlannedForInstrumentation(Class<?> clazz, InstrumentationConfiguration config) {
+        String decision = getPlannedDecision(clazz, config);
+        return decision != null && !NOT_INSTRUMENTED.equals(decision);
+    }
+
+    /**
+     * Records the instrumentation decision made for the given class in the plan of the given configuration.
+     *
+     * @param clazz            the analyzed class
+     * @param config           the configuration under which the class has been analyzed
+     * @param classConfig      the resulting instrumentation configuration of the class
+     * @param hookedSignatures the signatures of the hooked methods of the class
+     */
+    public void record(Class<?> clazz, InstrumentationConfiguration config, ClassInstrumentationConfiguration classConfig, Collection<String> hookedSignatures) {
+        Plan plan = getPlan(config);
+        if (plan == null) {
+            return;
+        }
+        String key = getKey(clazz);
+        if (key == null) {
+            return;
+        }
+        String decision;
+        if (classConfig.isNoInstrumentation() && hookedSignatures.isEmpty()) {
+            decision = NOT_INSTRUMENTED;
+        } else {
+            decision = String.join(SIGNATURE_SEPARATOR, new TreeSet<>(hookedSignatures));
+        }
+        plan.put(key, decision);
+    }
+
+    /**
+     * Writes the current plan to the disk, if it has been changed since it has been written last.
+     */
+    public void flush() {
+        Plan plan = currentPlan;
+        if (plan != null) {
+            plan.write();
+        }
+    }
+
+    private String getPlannedDecision(Class<?> clazz, InstrumentationConfiguration config) {
+        Plan plan = getPlan(config);
+        if (plan == null || plan.isEmpty()) {
+            return null;
+        }
+        String key = getKey(clazz);
+        return key == null ? null : plan.get(key);
+    }
+
+    /**
+     * Returns the plan for the given configuration.
+     * If the plan of another configuration is currently active, it is written to the disk and replaced.
+     *
+     * @param config the configuration whose plan should be returned
+     * @return the plan or null if this service is disabled
+     */
+    private Plan getPlan(InstrumentationConfiguration config) {
+        if (directory == null || config == null) {
+            return null;
+        }
+        Plan plan = currentPlan;
+        if (plan != null && plan.configuration == config) {
+            return plan;
+        }
+        synchronized (planLock) {
+            if (directory == null) {
+                return null;
+            }
+            if (currentPlan != null && currentPlan.configuration == config) {
+                return currentPlan;
+            }
+            //the hash is only computed once per configuration, as the plan is remembered for it
+            String hash = getConfigurationHash(config);
+            if (currentPlan != null) {
+                if (hash != null && hash.equals(currentPlan.hash)) {
+                    //only settings which do not affect the decisions have changed
+                    currentPlan.configuration = config;
+                    return currentPlan;
+                }
+                currentPlan.write();
+            }
+            Path file = hash == null ? null : directory.resolve(hash + PLAN_FILE_SUFFIX);
+            currentPlan = new Plan(config, hash, file);
+            return currentPlan;
+        }
+    }
+
+    /**
+     * Computes a hash of the settings of the given configuration which affect the instrumentation decisions.
+     * The internal settings, e.g. the batch sizes, are not included, so that changing them does not invalidate the plan.
+     * The settings are hashed in a canonical JSON form, which is stable across restarts of the JVM.
+     *
+     * @param config the configuration to hash
+     * @return the hash as hex string or null if the settings could not be serialized
+     */
+    @VisibleForTesting
+    String getConfigurationHash(InstrumentationConfiguration config) {
+        Map<String, Object> settings = new TreeMap<>();
+        settings.put("agentVersion", InstrumentationPlanCache.class.getPackage().getImplementationVersion());
+        settings.put("metricsEnabled", config.isMetricsEnabled());
+        settings.put("tracingEnabled", config.isTracingEnabled());
+        settings.put("defaultTraceSampleProbability", config.getDefaultTraceSampleProbability());
+        TracingSettings tracing = config.getTracingSettings();
+        if (tracing != null) {
+            settings.put("traceIdAutoInjection", tracing.getLogCorrelation().getTraceIdAutoInjection().isEnabled());
+        }
+        InstrumentationSettings source = config.getSource();
+        if (source != null) {
+            settings.put("special", source.getSpecial());
+            settings.put("ignoredBootstrapPackages", source.getIgnoredBootstrapPackages());
+            settings.put("ignoredPackages", source.getIgnoredPackages());
+            settings.put("excludeLambdas", source.isExcludeLambdas());
+            settings.put("actions", source.getActions());
+            settings.put("scopes", source.getScopes());
+            settings.put("rules", source.getRules());
+            settings.put("data", source.getData());
+        }
+        try {
+            return Hashing.sha256().hashBytes(CONFIGURATION_MAPPER.writeValueAsBytes(settings)).toString();
+        } catch (JsonProcessingException e) {
+            log.error("Could not compute the hash of the instrumentation configuration, the instrumentation plan is not persisted", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the key of the given class in the plan, consisting of the class name and the fingerprint of its code sources.
+     * The key is only computed once per class, as the code sources of a loaded class do not change.
+     *
+     * @param clazz the class
+     * @return the key or null if not all code sources of the class can be identified
+     */
+    @VisibleForTesting
+    String getKey(Class<?> clazz) {
+        Optional<String> key = classKeys.getIfPresent(clazz);
+        if (key == null) {
+            key = Optional.ofNullable(computeKey(clazz));
+            classKeys.put(clazz, key);
+        }
+        return key.orElse(null);
+    }
+
+    private String computeKey(Class<?> clazz) {
+        Set<String> identities = new LinkedHashSet<>();
+        if (!collectIdentities(clazz, identities, new HashSet<>())) {
+            return null;
+        }
+        String fingerprint = Hashing.murmur3_128().hashString(String.join("|", identities), StandardCharsets.UTF_8).toString();
+        return clazz.getName() + "@" + fingerprint;
+    }
+
+    private boolean collectIdentities(Class<?> type, Set<String> identities, Set<Class<?>> visited) {
+        if (type == null || !visited.add(type)) {
+            return true;
+        }
+        String identity = getCodeSourceIdentity(type);
+        if (identity == null) {
+            return false;
+        }
+        identities.add(identity);
+        if (!collectIdentities(type.getSuperclass(), identities, visited)) {
+            return false;
+        }
+        for (Class<?> interfaze : type.getInterfaces()) {
+            if (!collectIdentities(interfaze, identities, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Identifies the code source of the given type.
+     * Jar files are identified by their location, size and modification time, classes from directories by the attributes of their class file.
+     *
+     * @param type the type to identify
+     * @return the identity or null if the code source can not be identified
+     */
+    private String getCodeSourceIdentity(Class<?> type) {
+        if (type.getClassLoader() == null) {
+            return JDK_IDENTITY;
+        }
+        try {
+            ProtectionDomain domain = type.getProtectionDomain();
+            CodeSource codeSource = domain == null ? null : domain.getCodeSource();
+            URL location = codeSource == null ? null : codeSource.getLocation();
+            if (location == null) {
+                return null;
+            }
+            Path file = getLocalFile(location.toExternalForm());
+            if (file == null) {
+                return null;
+            }
+            if (Files.isDirectory(file)) {
+                Path classFile = file.resolve(type.getName().replace('.', '/') + ".class");
+                return getFileIdentity(classFile);
+            }
+            return archiveIdentities.computeIfAbsent(location.toExternalForm(), (url) -> Optional.ofNullable(getFileIdentity(file)))
+                    .orElse(null);
+        } catch (Exception e) {
+            log.trace("Could not identify the code source of {}", type.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the local file of a code source location.
+     * For nested archives (e.g. "jar:file:/app.jar!/BOOT-INF/lib/lib.jar!/") the outermost archive is returned.
+     *
+     * @param location the location of the code source
+     * @return the local file or null if the location does not reference a local file
+     */
+    public static Path getLocalFile(String location) {
+        String url = location;
+        if (url.startsWith("jar:")) {
+            url = url.substring("jar:".length());
+        }
+        int nestingSeparator = url.indexOf("!/");
+        if (nestingSeparator != -1) {
+            url = url.substring(0, nestingSeparator);
+        }
+        if (!url.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return Paths.get(new URI(url));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String getFileIdentity(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return file.toAbsolutePath() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The plan of a single {@link InstrumentationConfiguration} together with its file.
+     */
+    private static class Plan {
+
+        /**
+         * The configuration this plan has been used for last, all configurations with the same {@link #hash} share the plan.
+         */
+        private volatile InstrumentationConfiguration configuration;
+
+        private final String hash;
+
+        /**
+         * The file of this plan, null if the plan is only kept in memory.
+         */
+        private final Path file;
+
+        private final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        private volatile boolean dirty = false;
+
+        private Plan(InstrumentationConfiguration configuration, String hash, Path file) {
+            this.configuration = configuration;
+            this.hash = hash;
+            this.file = file;
+            read();
+        }
+
+        private boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        private String get(String key) {
+            return entries.get(key);
+        }
+
+        private void put(String key, String decision) {
+            if (!decision.equals(entries.put(key, decision))) {
+                dirty = true;
+            }
+        }
+
+        private void read() {
+            if (file == null || !Files.exists(file)) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+                properties.stringPropertyNames().forEach(key -> entries.put(key, properties.getProperty(key)));
+                log.info("Loaded instrumentation plan with {} classes from {}", entries.size(), file);
+            } catch (Exception e) {
+                log.warn("Could not read instrumentation plan {}, it will be recreated", file, e);
+                entries.clear();
+            }
+        }
+
+        /**
+         * Writes the plan if it has been modified.
+         * The plan is written to a temporary file first, so that a crash while writing never leaves a corrupted plan behind.
+         */
+        private synchronized void write() {
+            if (!dirty || file == null) {
+                return;
+            }
+            dirty = false;
+            Properties properties = new Properties();
+            properties.putAll(entries);
+            try {
+                Files.createDirectories(file.getParent());
+                Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    properties.store(out, "inspectIT Ocelot instrumentation plan");
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Wrote instrumentation plan with {} classes to {}", properties.size(), file);
+            } catch (Exception e) {
+                dirty = true;
+                log.error("Could not write instrumentation plan {}", file, e);
+            }
+        }
+    }
+}
@@ -20,9 +20,11 @@ import rocks.inspectit.ocelot.core.instrumentation.event.ClassInstrumentedEvent;
 import rocks.inspectit.ocelot.core.instrumentation.event.IClassDiscoveryListener;
 import rocks.inspectit.ocelot.core.instrumentation.event.TransformerShutdownEvent;
 import rocks.inspectit.ocelot.core.instrumentation.hook.HookManager;
+import rocks.inspectit.ocelot.core.instrumentation.injection.ClassInjector;
 import rocks.inspectit.ocelot.core.instrumentation.special.ClassLoaderDelegation;
 import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 import rocks.inspectit.ocelot.core.service.BatchJobExecutorService;
+import rocks.inspectit.ocelot.core.utils.CoreUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -30,6 +32,7 @@ import java.lang.instrument.Instrumentation;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * This class is responsible for making sure that for every class the instrumentation and hooking
@@ -64,9 +67,18 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
     @Autowired
     private HookManager hookManager;
 
+    @Autowired
+    private AsyncClassTransformer transformer;
+
     @Autowired
     InstrumentationConfigurationResolver configResolver;
 
+    @Autowired
+    private InstrumentationPlanCache planCache;
+
+    @Autowired
+    private ClassInjector classInjector;
+
     /**
      * The set of classes which might need instrumentation updates.
      * This service works through this set in batches.
@@ -75,16 +87,32 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
     Cache<Class<?>, Boolean> pendingClasses =
             CacheBuilder.newBuilder().weakKeys().build();
 
+    /**
+     * The set of classes which are known to be instrumented based on the persisted {@link InstrumentationPlanCache}.
+     * These classes are processed before the classes in {@link #pendingClasses}.
+     * Package-private for testing.
+     */
+    Cache<Class<?>, Boolean> priorityClasses =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     private BatchJobExecutorService.BatchJob<BatchSize> classInstrumentationJob;
 
+    /**
+     * Adapts the retransformation pace if enabled, see {@link InternalSettings#getRetransformPacing()}.
+     * Package-private for testing.
+     */
+    RetransformationPacer pacer = new RetransformationPacer();
+
 
     @PostConstruct
     private void init() {
         InternalSettings conf = env.getCurrentConfig().getInstrumentation().getInternal();
-        val batchSizes = new BatchSize(conf.getClassConfigurationCheckBatchSize(), conf.getClassRetransformBatchSize());
-        Duration delay = conf.getInterBatchDelay();
+        pacer.reset(conf);
+        val batchSizes = new BatchSize(conf.getClassConfigurationCheckBatchSize(), pacer.getRetransformBatchSize());
+        Duration delay = pacer.getInterBatchDelay();
 
         classInstrumentationJob = executor.startJob(this::checkClassesForConfigurationUpdates, batchSizes, delay, delay);
+        selfMonitorRetransformBatchSize();
     }
 
     @EventListener(TransformerShutdownEvent.class)
@@ -96,11 +124,26 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
     @Override
     public void onNewClassesDiscovered(Set<Class<?>> newClasses) {
         for (Class<?> clazz : newClasses) {
-            pendingClasses.put(clazz, Boolean.TRUE);
+            transformer.completeLoadTimeInstrumentation(clazz);
+            enqueue(clazz);
         }
         selfMonitorQueueSize();
     }
 
+    /**
+     * Requests the completion of the load-time instrumentation of the given class, see {@link AsyncClassTransformer#requestLoadTimeInstrumentationCompletion(Class)}.
+     * The next batch is started immediately, so that the hooks of the class are built as soon as possible.
+     * As this only schedules the batch, it is safe to be called by application threads.
+     *
+     * @param clazz the class whose load-time instrumentation should be completed
+     */
+    public void requestLoadTimeInstrumentationCompletion(Class<?> clazz) {
+        transformer.requestLoadTimeInstrumentationCompletion(clazz);
+        if (classInstrumentationJob != null) {
+            classInstrumentationJob.runNextBatchNow();
+        }
+    }
+
     @EventListener
     private void classInstrumented(ClassInstrumentedEvent event) {
         ClassInstrumentationConfiguration config = event.getAppliedConfiguration();
@@ -117,26 +160,42 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
     private void configEventListener(InspectitConfigChangedEvent ev) {
 
         InternalSettings newInternal = ev.getNewConfig().getInstrumentation().getInternal();
-        val batchSizes = new BatchSize(newInternal.getClassConfigurationCheckBatchSize(), newInternal.getClassRetransformBatchSize());
+        //keep the adapted pace unless the retransformation settings have changed
+        pacer.update(newInternal);
+        val batchSizes = new BatchSize(newInternal.getClassConfigurationCheckBatchSize(), pacer.getRetransformBatchSize());
         classInstrumentationJob.setBatchSizes(batchSizes);
-        classInstrumentationJob.setInterBatchDelay(newInternal.getInterBatchDelay());
+        classInstrumentationJob.setInterBatchDelay(pacer.getInterBatchDelay());
+        selfMonitorRetransformBatchSize();
     }
 
     @EventListener
     private void instrumentationConfigEventListener(InstrumentationConfigurationChangedEvent ev) {
         for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
-            pendingClasses.put(clazz, Boolean.TRUE);
+            enqueue(clazz);
         }
         selfMonitorQueueSize();
     }
 
     /**
-     * Processes a given amount of classes from {@link #pendingClasses}.
+     * Adds the given class to {@link #priorityClasses} if it is planned for instrumentation, otherwise to {@link #pendingClasses}.
+     *
+     * @param clazz the class which might need instrumentation updates
+     */
+    private void enqueue(Class<?> clazz) {
+        if (planCache.isPlannedForInstrumentation(clazz, configResolver.getCurrentConfig())) {
+            priorityClasses.put(clazz, Boolean.TRUE);
+        } else {
+            pendingClasses.put(clazz, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Processes a given amount of classes from {@link #priorityClasses} and {@link #pendingClasses}.
      * For the classes where it is required a retransform is triggered.
      * In addition for each class the hooks are updated.
      * package-private for testing.
      *
-     * @param batchSize the number of classes to take from {@link #pendingClasses} and to retransform per batch
+     * @param batchSize the number of classes to take from the queues and to retransform per batch
      */
     void checkClassesForConfigurationUpdates(BatchSize batchSize) {
         List<Class<?>> classesToRetransform = new ArrayList<>(getBatchOfClassesToRetransform(batchSize));
@@ -144,6 +203,7 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
         try (val sm = selfMonitoring.withDurationSelfMonitoring("instrumentation-retransformation")) {
             val watch = Stopwatch.createStarted();
             if (!classesToRetransform.isEmpty()) {
+                long safepointTime = pacer.captureSafepointTime();
                 try {
                     instrumentation.retransformClasses(classesToRetransform.toArray(new Class<?>[]{}));
                     log.debug("Retransformed {} classes in {} ms", classesToRetransform.size(), watch.elapsed(TimeUnit.MILLISECONDS));
@@ -161,14 +221,33 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
                         }
                     }
                 }
+                adaptPace(batchSize, Duration.ofNanos(watch.elapsed(TimeUnit.NANOSECONDS)), safepointTime);
             }
         }
         selfMonitorQueueSize();
     }
 
     /**
-     * Takes the configured amounts from {@link #pendingClasses} and checks if they need a retransformation.
-     * In addition for each class the hooks are updated
+     * Lets the {@link #pacer} adapt the pace based on the last retransformation and updates the batch job if the pace has changed.
+     *
+     * @param batchSize           the batch size used for the last batch
+     * @param retransformDuration the time it took to retransform the last batch
+     * @param safepointTime       the safepoint time captured before the last batch was retransformed
+     */
+    private void adaptPace(BatchSize batchSize, Duration retransformDuration, long safepointTime) {
+        if (pacer.onBatchRetransformed(retransformDuration, safepointTime)) {
+            classInstrumentationJob.setBatchSizes(new BatchSize(batchSize.maxClassesToCheck, pacer.getRetransformBatchSize()));
+            classInstrumentationJob.setInterBatchDelay(pacer.getInterBatchDelay());
+            selfMonitorRetransformBatchSize();
+        }
+    }
+
+    /**
+     * Takes the configured amounts from {@link #priorityClasses} and {@link #pendingClasses} and checks if they need a retransformation.
+     * In addition for each class the hooks are updated.
+     * Beforehand, the load-time instrumentations requested via {@link AsyncClassTransformer#requestLoadTimeInstrumentationCompletion(Class)} are completed.
+     * All hooks of the batch are built within a single {@link ClassInjector.RedefinitionBatch}, so that all reused injected classes are redefined at once.
+     * If this redefinition fails, the checked classes are queued again so that their hooks are rebuilt.
      * Package private for testing.
      *
      * @param batchSize the configured batch sizes
@@ -176,29 +255,23 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
      */
     Set<Class<?>> getBatchOfClassesToRetransform(BatchSize batchSize) {
         try (val sm = selfMonitoring.withDurationSelfMonitoring("instrumentation-analysis")) {
+            // the hooks of the completed classes have been requested already, therefore they are built first
+            transformer.completeRequestedLoadTimeInstrumentations().forEach(clazz -> priorityClasses.put(clazz, Boolean.TRUE));
             Set<Class<?>> classesToRetransform = new HashSet<>();
+            List<Class<?>> checkedClasses = new ArrayList<>();
             val watch = Stopwatch.createStarted();
             try {
-
-                int checkedClassesCount = 0;
-
-                Iterator<Class<?>> queueIterator = pendingClasses.asMap().keySet().iterator();
-                while (queueIterator.hasNext()) {
-
-                    Class<?> clazz = queueIterator.next();
-                    queueIterator.remove();
-                    checkedClassesCount++;
-
-                    updateClass(clazz, classesToRetransform);
-
-                    if (checkedClassesCount >= batchSize.maxClassesToCheck
-                            || classesToRetransform.size() >= batchSize.maxClassesToRetransform) {
-                        break;
-                    }
+                try (val batch = classInjector.startRedefinitionBatch()) {
+                    checkClassesOfQueue(priorityClasses, batchSize, checkedClasses, classesToRetransform);
+                    checkClassesOfQueue(pendingClasses, batchSize, checkedClasses, classesToRetransform);
+                } catch (IllegalStateException e) {
+                    log.error("Error redefining injected classes, the hooks of {} classes are rebuilt", checkedClasses.size(), e);
+                    checkedClasses.forEach(clazz -> pendingClasses.put(clazz, Boolean.TRUE));
                 }
-                if (checkedClassesCount > 0) {
+
+                if (!checkedClasses.isEmpty()) {
                     log.debug("Checked configuration of {} classes in {} ms, {} classes left to check",
-                            checkedClassesCount, watch.elapsed(TimeUnit.MILLISECONDS), pendingClasses.size());
+                            checkedClasses.size(), watch.elapsed(TimeUnit.MILLISECONDS), getQueueSize());
                 }
             } catch (Exception e) {
                 log.error("Error checking for class instrumentation configuration updates", e);
@@ -207,6 +280,28 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
         }
     }
 
+    /**
+     * Takes classes from the given queue and checks them for updates until one of the limits of the batch is reached.
+     *
+     * @param queue                the queue to take the classes from
+     * @param batchSize            the configured batch sizes
+     * @param checkedClasses       the classes which have been checked in this batch, the checked classes are added to it
+     * @param classesToRetransform the classes which require a retransformation
+     */
+    private void checkClassesOfQueue(Cache<Class<?>, Boolean> queue, BatchSize batchSize, List<Class<?>> checkedClasses, Set<Class<?>> classesToRetransform) {
+        Iterator<Class<?>> queueIterator = queue.asMap().keySet().iterator();
+        while (checkedClasses.size() < batchSize.maxClassesToCheck
+                && classesToRetransform.size() < batchSize.maxClassesToRetransform
+                && queueIterator.hasNext()) {
+
+            Class<?> clazz = queueIterator.next();
+            queueIterator.remove();
+            checkedClasses.add(clazz);
+
+            updateClass(clazz, classesToRetransform);
+        }
+    }
+
     /**
      * Checks the given class for updates.
      * This method first makes sure that our bootstrap classes are accessible by the given class.
@@ -228,6 +323,26 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
         } catch (Throwable t) {
             log.error("Error adding hooks to clazz {}", clazz.getName(), t);
         }
+        if (planCache.isEnabled()) {
+            recordPlan(clazz);
+        }
+    }
+
+    /**
+     * Records the instrumentation decision for the given class in the {@link InstrumentationPlanCache}.
+     *
+     * @param clazz the class which has been checked
+     */
+    private void recordPlan(Class<?> clazz) {
+        try {
+            ClassInstrumentationConfiguration classConfig = configResolver.getClassInstrumentationConfiguration(clazz);
+            Set<String> hookedSignatures = configResolver.getHookConfigurations(clazz).keySet().stream()
+                    .map(CoreUtils::getSignature)
+                    .collect(Collectors.toSet());
+            planCache.record(clazz, configResolver.getCurrentConfig(), classConfig, hookedSignatures);
+        } catch (Exception e) {
+            log.debug("Could not record instrumentation plan of class {}", clazz.getName(), e);
+        }
     }
 
     private void applyClassLoaderDelegation(Class<?> clazz, Set<Class<?>> classesToRetransform) {
@@ -251,7 +366,15 @@ public class InstrumentationTriggerer implements IClassDiscoveryListener {
     @EventListener(classes = {InspectitConfigChangedEvent.class},
             condition = "!#root.event.oldConfig.selfMonitoring.enabled")
     private void selfMonitorQueueSize() {
-        selfMonitoring.recordMeasurement("instrumentation-queue-size", pendingClasses.size());
+        selfMonitoring.recordMeasurement("instrumentation-queue-size", getQueueSize());
+    }
+
+    private long getQueueSize() {
+        return priorityClasses.size() + pendingClasses.size();
+    }
+
+    private void selfMonitorRetransformBatchSize() {
+        selfMonitoring.recordMeasurement("instrumentation-retransform-batch-size", pacer.getRetransformBatchSize());
     }
 
     /**
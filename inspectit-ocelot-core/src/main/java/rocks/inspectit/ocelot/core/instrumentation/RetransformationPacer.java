@@ -0,0 +1,242 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import rocks.inspectit.ocelot.config.model.instrumentation.InternalSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.RetransformPacingSettings;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Adapts the number of classes retransformed per batch and the delay between batches based on the impact of the retransformations.
+ * Retransformations cause safepoints and deoptimizations, therefore the pace is halved whenever a batch took too long,
+ * the JVM spent too much time bringing the application threads to safepoints (time-to-safepoint) while the batch was retransformed
+ * or the CPU load of the process is too high.
+ * The time-to-safepoint is used instead of the total safepoint time, as the latter mostly measures the retransformation itself,
+ * which is already covered by the duration of the batch. Otherwise the pace is increased step by step
+ * until the configured limits are reached.
+ * <p>
+ * This class is not thread safe, it is expected to be only used by the thread processing the batches of the {@link InstrumentationTriggerer}.
+ */
+@Slf4j
+class RetransformationPacer {
+
+    /**
+     * The method for reading the accumulated time spent bringing threads to safepoints in milliseconds, null if not available.
+     * The safepoint statistics are only accessible via the internal sun.management API, which is not exported by the JDK since Java 9.
+     */
+    private final Method safepointTimeMethod;
+
+    /**
+     * The runtime bean on which {@link #safepointTimeMethod} is invoked, null if not available.
+     */
+    private final Object hotspotRuntimeBean;
+
+    /**
+     * The method for reading the process CPU load, null if not available.
+     */
+    private final Method processCpuLoadMethod;
+
+    private final OperatingSystemMXBean operatingSystemBean;
+
+    /**
+     * True, if it has already been logged that a probe used for the pacing is not available.
+     */
+    private boolean unavailableProbesLogged = false;
+
+    private RetransformPacingSettings settings;
+
+    /**
+     * The {@link InternalSettings#getClassRetransformBatchSize()} the pace has been reset to last.
+     */
+    private int configuredBatchSize;
+
+    /**
+     * The {@link InternalSettings#getInterBatchDelay()} the pace has been reset to last.
+     */
+    private Duration configuredDelay;
+
+    /**
+     * The current number of classes to retransform per batch.
+     */
+    @Getter
+    private int retransformBatchSize;
+
+    /**
+     * The current delay between two batches.
+     */
+    @Getter
+    private Duration interBatchDelay;
+
+    RetransformationPacer() {
+        Object runtimeBean = null;
+        Method safepointMethod = null;
+        //accessing sun.management fails or causes illegal access warnings on Java 9 and newer
+        if (System.getProperty("java.specification.version", "").startsWith("1.")) {
+            try {
+                Class<?> helper = Class.forName("sun.management.ManagementFactoryHelper");
+                Method getRuntimeBean = helper.getMethod("getHotspotRuntimeMBean");
+                runtimeBean = getRuntimeBean.invoke(null);
+                safepointMethod = Class.forName("sun.management.HotspotRuntimeMBean").getMethod("getSafepointSyncTime");
+                safepointMethod.invoke(runtimeBean);
+            } catch (Throwable t) {
+                runtimeBean = null;
+                safepointMethod = null;
+            }
+        }
+        hotspotRuntimeBean = runtimeBean;
+        safepointTimeMethod = safepointMethod;
+
+        operatingSystemBean = ManagementFactory.getOperatingSystemMXBean();
+        Method cpuLoadMethod = null;
+        try {
+            cpuLoadMethod = Class.forName("com.sun.management.OperatingSystemMXBean").getMethod("getProcessCpuLoad");
+            cpuLoadMethod.invoke(operatingSystemBean);
+        } catch (Throwable t) {
+            cpuLoadMethod = null;
+        }
+        processCpuLoadMethod = cpuLoadMethod;
+    }
+
+    /**
+     * Resets the pace to the values configured in the given settings.
+     *
+     * @param internalSettings the settings to use
+     */
+    void reset(InternalSettings internalSettings) {
+        settings = internalSettings.getRetransformPacing();
+        configuredBatchSize = internalSettings.getClassRetransformBatchSize();
+        configuredDelay = internalSettings.getInterBatchDelay();
+        retransformBatchSize = configuredBatchSize;
+        interBatchDelay = configuredDelay;
+        if (isEnabled()) {
+            retransformBatchSize = Math.max(1, Math.min(retransformBatchSize, settings.getMaxClassRetransformBatchSize()));
+            interBatchDelay = clampDelay(interBatchDelay);
+            logUnavailableProbes();
+        }
+    }
+
+    /**
+     * Resets the pace only if the given settings for the retransformations differ from the ones the pace has been reset to last.
+     * This way the adapted pace is kept if unrelated parts of the configuration change.
+     *
+     * @param internalSettings the settings to use
+     * @return true, if the pace has been reset
+     */
+    boolean update(InternalSettings internalSettings) {
+        if (Objects.equals(settings, internalSettings.getRetransformPacing())
+                && configuredBatchSize == internalSettings.getClassRetransformBatchSize()
+                && Objects.equals(configuredDelay, internalSettings.getInterBatchDelay())) {
+            return false;
+        }
+        reset(internalSettings);
+        return true;
+    }
+
+    /**
+     * Logs once which probes are not available on this JVM and are therefore ignored for the pacing.
+     */
+    private void logUnavailableProbes() {
+        if (unavailableProbesLogged) {
+            return;
+        }
+        unavailableProbesLogged = true;
+        if (safepointTimeMethod == null) {
+            log.info("The safepoint synchronization statistics of the JVM are not accessible, 'max-safepoint-time' of the retransform pacing is ignored. " +
+                    "The statistics are only available on HotSpot JVMs of Java 8.");
+        }
+        if (processCpuLoadMethod == null) {
+            log.info("The process CPU load is not exposed by the JVM, 'max-cpu-load' of the retransform pacing is ignored.");
+        }
+    }
+
+    /**
+     * @return true, if the pace is adapted
+     */
+    boolean isEnabled() {
+        return settings != null && settings.isEnabled();
+    }
+
+    /**
+     * Captures the time-to-safepoint before a batch is retransformed.
+     *
+     * @return the accumulated time the JVM spent bringing threads to safepoints in milliseconds, or a negative value if it is not available
+     */
+    long captureSafepointTime() {
+        if (safepointTimeMethod == null || !isEnabled()) {
+            return -1;
+        }
+        try {
+            return (long) safepointTimeMethod.invoke(hotspotRuntimeBean);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the recent CPU load of the process in the range from 0 to 1, or a negative value if it is not available
+     */
+    double readProcessCpuLoad() {
+        if (processCpuLoadMethod == null) {
+            return -1;
+        }
+        try {
+            return (double) processCpuLoadMethod.invoke(operatingSystemBean);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Adapts the pace based on the impact of the last retransformed batch.
+     *
+     * @param retransformDuration   the time it took to retransform the batch
+     * @param safepointTimeAtStart the value returned by {@link #captureSafepointTime()} before the batch was retransformed
+     * @return true, if the pace has been changed
+     */
+    boolean onBatchRetransformed(Duration retransformDuration, long safepointTimeAtStart) {
+        if (!isEnabled()) {
+            return false;
+        }
+        boolean overloaded = retransformDuration.compareTo(settings.getMaxRetransformDuration()) > 0;
+
+        if (!overloaded && safepointTimeAtStart >= 0) {
+            long safepointTime = captureSafepointTime() - safepointTimeAtStart;
+            overloaded = safepointTime > settings.getMaxSafepointTime().toMillis();
+        }
+        if (!overloaded) {
+            double cpuLoad = readProcessCpuLoad();
+            overloaded = cpuLoad > settings.getMaxCpuLoad();
+        }
+
+        int previousBatchSize = retransformBatchSize;
+        Duration previousDelay = interBatchDelay;
+        if (overloaded) {
+            retransformBatchSize = Math.max(1, retransformBatchSize / 2);
+            interBatchDelay = clampDelay(interBatchDelay.multipliedBy(2));
+        } else {
+            retransformBatchSize = Math.min(settings.getMaxClassRetransformBatchSize(), retransformBatchSize + Math.max(1, retransformBatchSize / 2));
+            interBatchDelay = clampDelay(interBatchDelay.dividedBy(2));
+        }
+        boolean changed = previousBatchSize != retransformBatchSize || !previousDelay.equals(interBatchDelay);
+        if (changed && log.isDebugEnabled()) {
+            log.debug("{} retransformation pace to {} classes per batch with a delay of {} ms",
+                    overloaded ? "Decreased" : "Increased", retransformBatchSize, interBatchDelay.toMillis());
+        }
+        return changed;
+    }
+
+    private Duration clampDelay(Duration delay) {
+        if (delay.compareTo(settings.getMinInterBatchDelay()) < 0) {
+            return settings.getMinInterBatchDelay();
+        }
+        if (delay.compareTo(settings.getMaxInterBatchDelay()) > 0) {
+            return settings.getMaxInterBatchDelay();
+        }
+        return delay;
+    }
+}
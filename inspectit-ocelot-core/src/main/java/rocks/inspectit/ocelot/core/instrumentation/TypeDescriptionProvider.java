@@ -0,0 +1,197 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Provides {@link TypeDescription}s for loaded classes which are parsed from their class files instead of using reflection.
+ * Describing a class via {@link TypeDescription.ForLoadedType} requires reflection on all declared members,
+ * which resolves all parameter, return and annotation types and is therefore slow for large (e.g. generated) classes.
+ * <p>
+ * The class files are read via a {@link TypePool} per class loader, which is shared between all users of this component.
+ * The pools are weakly cached by their class loader and never reference the loader strongly.
+ * The parsed descriptions themselves are only softly cached, so that they can be reclaimed under memory pressure.
+ * If the class file of a class can not be located, the description falls back to {@link TypeDescription.ForLoadedType}.
+ * Supertypes and other referenced types are only resolved when they are accessed, in case their class files can not be located
+ * an {@link IllegalStateException} is thrown at that point. Users matching on the descriptions have to fall back to
+ * {@link TypeDescription.ForLoadedType} themselves in this case.
+ */
+@Component
+@Slf4j
+public class TypeDescriptionProvider {
+
+    /**
+     * The pool used for the bootstrap classes, is used as parent pool for all other pools.
+     */
+    private final TypePool bootstrapPool = new TypePool.Default(new SoftCacheProvider(),
+            ClassFileLocator.ForClassLoader.ofBootLoader(), TypePool.Default.ReaderMode.FAST);
+
+    /**
+     * Caches the type pools and their class file locators for each class loader.
+     */
+    private final Cache<ClassLoader, LoaderTypePool> typePools = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Describes the given class based on its class file.
+     *
+     * @param clazz the class to describe
+     * @return the description of the class
+     */
+    public TypeDescription describe(Class<?> clazz) {
+        return describe(clazz, null);
+    }
+
+    /**
+     * Describes the given class based on the given bytecode.
+     * This should be used if the bytecode is already available, e.g. in a {@link java.lang.instrument.ClassFileTransformer}.
+     * In this case no class file lookup is required, if the class has not been described yet.
+     *
+     * @param clazz    the class to describe
+     * @param bytecode the bytecode of the given class, can be null in which case the class file is located via the class loader
+     * @return the description of the class
+     */
+    public TypeDescription describe(Class<?> clazz, byte[] bytecode) {
+        if (clazz.isArray() || clazz.isPrimitive()) {
+            return TypeDescription.ForLoadedType.of(clazz);
+        }
+        try {
+            TypePool.Resolution resolution = resolve(clazz.getName(), clazz.getClassLoader(), bytecode);
+            if (resolution.isResolved()) {
+                return resolution.resolve();
+            }
+        } catch (Exception e) {
+            log.trace("Could not describe class {} from its class file", clazz.getName(), e);
+        }
+        return TypeDescription.ForLoadedType.of(clazz);
+    }
+
+    /**
+     * Describes a class which is not loaded yet based on the given bytecode.
+     *
+     * @param className the name of the class
+     * @param loader    the loader defining the class
+     * @param bytecode  the bytecode of the class
+     * @return the description of the class
+     */
+    public TypeDescription describe(String className, ClassLoader loader, byte[] bytecode) {
+        return resolve(className, loader, bytecode).resolve();
+    }
+
+    private TypePool.Resolution resolve(String className, ClassLoader loader, byte[] bytecode) {
+        if (loader == null) {
+            return bootstrapPool.describe(className);
+        }
+        LoaderTypePool pool = getTypePool(loader);
+        if (bytecode == null) {
+            return pool.getTypePool().describe(className);
+        }
+        pool.getLocator().offer(className, bytecode);
+        try {
+            return pool.getTypePool().describe(className);
+        } finally {
+            pool.getLocator().revoke(className);
+        }
+    }
+
+    private LoaderTypePool getTypePool(ClassLoader loader) {
+        try {
+            return typePools.get(loader, () -> new LoaderTypePool(loader, bootstrapPool));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A {@link TypePool} of a single class loader together with its {@link OfferingClassFileLocator}.
+     */
+    private static class LoaderTypePool {
+
+        private final OfferingClassFileLocator locator;
+
+        private final TypePool typePool;
+
+        private LoaderTypePool(ClassLoader loader, TypePool parent) {
+            locator = new OfferingClassFileLocator(ClassFileLocator.ForClassLoader.WeaklyReferenced.of(loader));
+            typePool = new TypePool.Default(new SoftCacheProvider(), locator, TypePool.Default.ReaderMode.FAST, parent);
+        }
+
+        private OfferingClassFileLocator getLocator() {
+            return locator;
+        }
+
+        private TypePool getTypePool() {
+            return typePool;
+        }
+    }
+
+    /**
+     * A {@link ClassFileLocator} which prefers bytecode which has been explicitly offered over the bytecode found by its delegate.
+     * Offered bytecode is only held until it is revoked, the parsed result is cached by the type pool.
+     */
+    private static class OfferingClassFileLocator implements ClassFileLocator {
+
+        private final Map<String, byte[]> offeredBytecode = new ConcurrentHashMap<>();
+
+        private final ClassFileLocator delegate;
+
+        private OfferingClassFileLocator(ClassFileLocator delegate) {
+            this.delegate = delegate;
+        }
+
+        private void offer(String name, byte[] bytecode) {
+            offeredBytecode.put(name, bytecode);
+        }
+
+        private void revoke(String name) {
+            offeredBytecode.remove(name);
+        }
+
+        @Override
+        public Resolution locate(String name) throws IOException {
+            byte[] bytecode = offeredBytecode.get(name);
+            if (bytecode != null) {
+                return new Resolution.Explicit(bytecode);
+            }
+            return delegate.locate(name);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /**
+     * A {@link TypePool.CacheProvider} which only softly references the cached resolutions.
+     */
+    private static class SoftCacheProvider implements TypePool.CacheProvider {
+
+        private final Cache<String, TypePool.Resolution> cache = CacheBuilder.newBuilder().softValues().build();
+
+        @Override
+        public TypePool.Resolution find(String name) {
+            return cache.getIfPresent(name);
+        }
+
+        @Override
+        public TypePool.Resolution register(String name, TypePool.Resolution resolution) {
+            TypePool.Resolution previous = cache.asMap().putIfAbsent(name, resolution);
+            return previous == null ? resolution : previous;
+        }
+
+        @Override
+        public void clear() {
+            cache.invalidateAll();
+        }
+    }
+}
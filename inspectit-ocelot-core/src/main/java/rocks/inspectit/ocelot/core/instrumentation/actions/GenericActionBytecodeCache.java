@@ -0,0 +1,247 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import javassist.ClassPool;
+import javassist.bytecode.ClassFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.instrumentation.GenericActionCacheSettings;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.instrumentation.InstrumentationPlanCache;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Stores the bytecode of compiled generic actions on the disk, so that it can be reused after a restart of the JVM.
+ * <p>
+ * The entries are identified by a hash of the source code of the action, its imports and the agent version.
+ * As the result of the compilation also depends on the classes which are visible for the target classloader,
+ * the entries are stored separately for each classloader, which is identified by its type, its class path and its parents.
+ * Each entry additionally contains the names of all classes referenced by the compiled bytecode together with the location, size and modification time of their class files.
+ * A cached entry is only used if all of these classes still resolve to unchanged class files in the target classloader.
+ */
+@Component
+@Slf4j
+public class GenericActionBytecodeCache {
+
+    private static final String ACTION_FILE_SUFFIX = ".action";
+
+    /**
+     * The stamp stored for referenced classes which could not be located.
+     */
+    private static final String MISSING_CLASS_STAMP = "-";
+
+    /**
+     * The name of the directory containing the actions compiled for the bootstrap classloader.
+     */
+    private static final String BOOTSTRAP_LOADER_KEY = "bootstrap";
+
+    /**
+     * The version of the structure of the action templates, which is part of the key of each entry.
+     * It has to be increased whenever the templates change, so that bytecode compiled for older templates is not used.
+     */
+    private static final int TEMPLATE_VERSION = 4;
+
+    @Autowired
+    private InspectitEnvironment env;
+
+    /**
+     * Loads the bytecode of the given action if it has been stored previously and is valid for the given class pool.
+     *
+     * @param actionConfig the action to load
+     * @param source       the source code of the method body of the action
+     * @param loader       the target classloader
+     * @param pool         the class pool used for compiling the action for the target classloader
+     * @return the cached bytecode or null if no valid cached bytecode exists
+     */
+    public byte[] load(GenericActionConfig actionConfig, String source, ClassLoader loader, ClassPool pool) {
+        Path file = getFile(actionConfig, source, loader);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int referencedClassesCount = in.readInt();
+            for (int i = 0; i < referencedClassesCount; i++) {
+                String className = in.readUTF();
+                String stamp = in.readUTF();
+                if (!stamp.equals(getClassStamp(className, pool))) {
+                    log.debug("Not using cached bytecode of action '{}' as the class {} has changed", actionConfig.getName(), className);
+                    return null;
+                }
+            }
+            byte[] bytecode = new byte[in.readInt()];
+            in.readFully(bytecode);
+            return bytecode;
+        } catch (Exception e) {
+            log.debug("Could not load cached bytecode of action '{}' from {}", actionConfig.getName(), file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the given bytecode of the given action.
+     *
+     * @param actionConfig the compiled action
+     * @param source       the source code of the method body of the action
+     * @param bytecode     the compiled bytecode
+     * @param loader       the target classloader
+     * @param pool         the class pool used for compiling the action for the target classloader
+     */
+    public void store(GenericActionConfig actionConfig, String source, byte[] bytecode, ClassLoader loader, ClassPool pool) {
+        Path file = getFile(actionConfig, source, loader);
+        if (file == null) {
+            return;
+        }
+        try {
+            Map<String, String> referencedClasses = new TreeMap<>();
+            for (String className : getReferencedClasses(bytecode)) {
+                referencedClasses.put(className, getClassStamp(className, pool));
+            }
+
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(referencedClasses.size());
+                for (Map.Entry<String, String> referencedClass : referencedClasses.entrySet()) {
+                    out.writeUTF(referencedClass.getKey());
+                    out.writeUTF(referencedClass.getValue());
+                }
+                out.writeInt(bytecode.length);
+                out.write(bytecode);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Could not store bytecode of action '{}' to {}", actionConfig.getName(), file, e);
+        }
+    }
+
+    /**
+     * Returns the file for storing the given action compiled for the given classloader.
+     *
+     * @param actionConfig the action
+     * @param source       the source code of the method body of the action
+     * @param loader       the target classloader
+     * @return the file or null if the cache is disabled
+     */
+    private Path getFile(GenericActionConfig actionConfig, String source, ClassLoader loader) {
+        GenericActionCacheSettings settings = env.getCurrentConfig().getInstrumentation().getInternal().getActionCache();
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        try {
+            return Paths.get(settings.getDirectory())
+                    .resolve(getClassLoaderKey(loader))
+                    .resolve(getKey(actionConfig, source) + ACTION_FILE_SUFFIX);
+        } catch (InvalidPathException e) {
+            log.warn("The directory '{}' for storing compiled actions is invalid", settings.getDirectory());
+            return null;
+        }
+    }
+
+    /**
+     * Computes the key of an action based on everything which is used as input for the compilation, except for the classloader.
+     *
+     * @param actionConfig the action
+     * @param source       the source code of the method body of the action
+     * @return the key as hex string
+     */
+    @VisibleForTesting
+    static String getKey(GenericActionConfig actionConfig, String source) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(String.valueOf(GenericActionBytecodeCache.class.getPackage().getImplementationVersion()), StandardCharsets.UTF_8)
+                .putInt(TEMPLATE_VERSION)
+                .putBoolean(actionConfig.isVoid())
+                .putString(source, StandardCharsets.UTF_8);
+        for (String importedPackage : actionConfig.getImportedPackages()) {
+            hasher.putString(importedPackage, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Computes a key identifying the given classloader across restarts of the JVM.
+     * The key is based on the types of the classloader and its parents and the class paths of all of them which are {@link URLClassLoader}s.
+     *
+     * @param loader the classloader, null for the bootstrap classloader
+     * @return the key as hex string
+     */
+    @VisibleForTesting
+    static String getClassLoaderKey(ClassLoader loader) {
+        if (loader == null) {
+            return BOOTSTRAP_LOADER_KEY;
+        }
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            hasher.putString(current.getClass().getName(), StandardCharsets.UTF_8);
+            if (current instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) current).getURLs()) {
+                    hasher.putString(url.toExternalForm(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Extracts the names of all classes referenced by the given bytecode.
+     *
+     * @param bytecode the bytecode of a class
+     * @return the fully qualified names of the referenced classes excluding the class itself, arrays are represented by their component type
+     * @throws IOException if the bytecode can not be parsed
+     */
+    static Set<String> getReferencedClasses(byte[] bytecode) throws IOException {
+        ClassFile classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode)));
+        Set<String> result = new HashSet<>();
+        for (Object name : classFile.getConstPool().getClassNames()) {
+            String className = (String) name;
+            if (className.startsWith("[")) {
+                className = className.substring(className.lastIndexOf('[') + 1);
+                if (!className.startsWith("L")) {
+                    continue; //primitive array
+                }
+                className = className.substring(1, className.length() - 1);
+            }
+            className = className.replace('/', '.');
+            if (!className.equals(classFile.getName())) {
+                result.add(className);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Identifies the class file of the given class as it is located by the given pool without reading it.
+     * Class files which are located in a local directory or archive are identified by their location and the size and modification time of the file or archive.
+     * Other class files, e.g. of the runtime image, are identified by the attributes provided by their {@link URLConnection}.
+     *
+     * @param className the name of the class
+     * @param pool      the pool used for locating the class file
+     * @return the stamp or {@link #MISSING_CLASS_STAMP} if the class can not be located
+     * @throws IOException if the attributes of the class file could not be read
+     */
+    private String getClassStamp(String className, ClassPool pool) throws IOException {
+        URL classFile = pool.find(className);
+        if (classFile == null) {
+            return MISSING_CLASS_STAMP;
+        }
+        String location = classFile.toExternalForm();
+        Path localFile = InstrumentationPlanCache.getLocalFile(location);
+        if (localFile != null) {
+            BasicFileAttributes attributes = Files.readAttributes(localFile, BasicFileAttributes.class);
+            return location + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        }
+        URLConnection connection = classFile.openConnection();
+        return location + ":" + connection.getContentLengthLong() + ":" + connection.getLastModified();
+    }
+}
@@ -5,7 +5,9 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import javassist.*;
+import javassist.bytecode.ClassFile;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,11 +23,16 @@ import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionCon
 import rocks.inspectit.ocelot.core.instrumentation.injection.ClassInjector;
 import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
 
-import java.io.IOException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Collection;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Slf4j
@@ -70,10 +77,25 @@ public class GenericActionGenerator {
     private static String RETURN_VALUE = "$3";
     private static String THROWN = "$4";
     private static String ADDITIONAL_ARGS = "$5";
+    private static String INIT_ADDITIONAL_ARGS = "$1";
+
+    /**
+     * The name used for compiled actions before they are injected.
+     * As the name of the injected class is only known at the time of the injection, the compiled class is renamed right before it is injected.
+     */
+    private static final String COMPILED_ACTION_CLASS_NAME = "rocks.inspectit.ocelot.injected.CompiledGenericAction";
+
+    /**
+     * The maximum number of actions which are compiled in parallel.
+     */
+    private static final int COMPILATION_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
 
     @Autowired
     private ClassInjector classInjector;
 
+    @Autowired
+    private GenericActionBytecodeCache bytecodeCache;
+
     private LoadingCache<ClassLoader, Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>>> actionsCache
             = CacheBuilder.newBuilder().weakKeys().build(
             new CacheLoader<ClassLoader, Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>>>() {
@@ -83,9 +105,103 @@ public class GenericActionGenerator {
                 }
             });
 
+    /**
+     * The {@link ClassPool}s used for compiling actions for each classloader.
+     * The pools cache the parsed classes referenced by the actions, therefore they are reused for all actions compiled for the same loader.
+     * As the parsed classes are not thread-safe, each compiling thread uses its own pools.
+     * The pools are only softly referenced, so that the parsed classes can be released under memory pressure.
+     */
+    private final ThreadLocal<Cache<ClassLoader, ClassPool>> classPools =
+            ThreadLocal.withInitial(() -> CacheBuilder.newBuilder().weakKeys().softValues().build());
+
+    /**
+     * Holds the compilations which have been started via {@link #precompileGenericActions(Collection, Class)} for each classloader.
+     * The compilations are removed as soon as the corresponding action is injected.
+     */
+    private LoadingCache<ClassLoader, Cache<GenericActionConfig, Future<byte[]>>> pendingCompilations
+            = CacheBuilder.newBuilder().weakKeys().build(
+            new CacheLoader<ClassLoader, Cache<GenericActionConfig, Future<byte[]>>>() {
+                @Override
+                public Cache<GenericActionConfig, Future<byte[]>> load(ClassLoader key) {
+                    return CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.MINUTES).build();
+                }
+            });
+
+    /**
+     * Holds the names of all classes referenced by the actions which have been compiled for the bootstrap.
+     * Used to decide whether such an action can be shared with other classloaders.
+     */
+    private final Cache<GenericActionConfig, Set<String>> bootstrapActionReferences = CacheBuilder.newBuilder().maximumSize(10000).build();
+
+    /**
+     * Holds the actions which could not be compiled for the bootstrap and therefore can not be shared between classloaders.
+     */
+    private final Cache<GenericActionConfig, Boolean> nonShareableActions = CacheBuilder.newBuilder().maximumSize(10000).build();
+
+    private ExecutorService compilationExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        compilationExecutor = Executors.newFixedThreadPool(COMPILATION_THREADS, (runnable) -> {
+            Thread t = Executors.defaultThreadFactory().newThread(runnable);
+            t.setDaemon(true);
+            t.setName("inspectit-action-compiler-" + threadCount.getAndIncrement());
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void destroy() {
+        compilationExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts the compilation of the given actions for the classloader of the given class in parallel.
+     * The compiled actions are picked up by {@link #getOrGenerateGenericAction(GenericActionConfig, Class)},
+     * which therefore only has to wait for the compilation of the requested action instead of compiling all actions sequentially.
+     * Actions which are already available for the classloader are not compiled again.
+     * Actions which might be shared between classloaders are compiled for the bootstrap.
+     *
+     * @param actionConfigs       the configurations of the actions to compile
+     * @param classToUseActionsOn the context in which the actions will be active
+     */
+    public void precompileGenericActions(Collection<GenericActionConfig> actionConfigs, Class<?> classToUseActionsOn) {
+        ClassLoader loader = Optional.ofNullable(classToUseActionsOn.getClassLoader()).orElse(BOOTSTRAP_LOADER_MARKER);
+        Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>> clCache = actionsCache.getUnchecked(loader);
+        Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>> bootstrapCache = actionsCache.getUnchecked(BOOTSTRAP_LOADER_MARKER);
+        for (GenericActionConfig actionConfig : actionConfigs) {
+            if (clCache.getIfPresent(actionConfig) == null) {
+                if (loader == BOOTSTRAP_LOADER_MARKER || nonShareableActions.getIfPresent(actionConfig) != null) {
+                    startCompilation(actionConfig, loader);
+                } else if (bootstrapCache.getIfPresent(actionConfig) == null) {
+                    //the action might be shareable, which is decided based on the action compiled for the bootstrap
+                    startCompilation(actionConfig, BOOTSTRAP_LOADER_MARKER);
+                }
+            }
+        }
+    }
+
+    private void startCompilation(GenericActionConfig actionConfig, ClassLoader loader) {
+        ConcurrentMap<GenericActionConfig, Future<byte[]>> clCompilations = pendingCompilations.getUnchecked(loader).asMap();
+        if (!clCompilations.containsKey(actionConfig)) {
+            FutureTask<byte[]> compilation = new FutureTask<>(() -> compileGenericAction(actionConfig, loader));
+            if (clCompilations.putIfAbsent(actionConfig, compilation) == null) {
+                try {
+                    compilationExecutor.execute(compilation);
+                } catch (RejectedExecutionException e) {
+                    //the compilation is performed when the action is requested
+                    clCompilations.remove(actionConfig, compilation);
+                }
+            }
+        }
+    }
+
     /**
      * Provides an executable {@link IGenericAction} based on the given configuration.
      * The action is either dynamically compiled and injected or a cached action is used.
+     * If the action only references classes which are resolved identically by the target classloader and the bootstrap,
+     * the action is defined only once for the bootstrap and shared between all classloaders.
      *
      * @param actionConfig       the configuration of the generic action to use
      * @param classToUseActionOn the context in which the action will be active. The action will be injected into the classloader of this class.
@@ -102,12 +218,22 @@ public class GenericActionGenerator {
             clCache.cleanUp(); //cleanup to make sure unused InjectedClasses are released
             try {
                 String templateType = actionConfig.isVoid() ? VOID_GENERIC_ACTION_STRUCTURAL_ID : NON_VOID_GENERIC_ACTION_STRUCTURAL_ID;
-                return clCache.get(actionConfig, () ->
-                        (InjectedClass<? extends IGenericAction>)
-                                classInjector.inject(templateType, classToUseActionOn, (className) ->
-                                        buildGenericActionByteCode(actionConfig, loader, className)
-                                ));
-            } catch (ExecutionException | ExecutionError e) {
+                return clCache.get(actionConfig, () -> {
+                    if (loader != BOOTSTRAP_LOADER_MARKER) {
+                        InjectedClass<? extends IGenericAction> sharedAction = getSharedAction(actionConfig, loader);
+                        if (sharedAction != null) {
+                            return sharedAction;
+                        }
+                    }
+                    byte[] compiledAction = getCompiledAction(actionConfig, loader);
+                    InjectedClass<? extends IGenericAction> action = (InjectedClass<? extends IGenericAction>)
+                            classInjector.inject(templateType, classToUseActionOn, (className) ->
+                                    renameCompiledAction(compiledAction, className)
+                            );
+                    invalidateOnFailedRedefinition(clCache, actionConfig, action);
+                    return action;
+                });
+            } catch (ExecutionException | ExecutionError | UncheckedExecutionException e) {
                 log.error("Error creating generic action '{}' in context of class {}! Using a No-Operation action instead!",
                         actionConfig.getName(), classToUseActionOn.getName(), e);
                 return clCache.get(actionConfig, () -> new InjectedClass<IGenericAction>(GenericActionTemplate.class));
@@ -118,39 +244,194 @@ public class GenericActionGenerator {
         }
     }
 
-    private byte[] buildGenericActionByteCode(GenericActionConfig actionConfig, ClassLoader loader, String
-            className) throws NotFoundException, CannotCompileException, IOException {
+    /**
+     * Returns the action generated for the bootstrap, if it can be used by the given classloader.
+     * This is the case if the action could be compiled for the bootstrap and all classes referenced by the action
+     * resolve to the same classes in the given loader and in the loader of the shared action.
+     *
+     * @param actionConfig the action to get
+     * @param loader       the classloader in which the action will be used
+     * @return the shared action or null, if the action can not be shared with the given loader
+     */
+    private InjectedClass<? extends IGenericAction> getSharedAction(GenericActionConfig actionConfig, ClassLoader loader) {
+        if (nonShareableActions.getIfPresent(actionConfig) != null) {
+            return null;
+        }
+        InjectedClass<? extends IGenericAction> sharedAction;
+        try {
+            sharedAction = getOrGenerateBootstrapAction(actionConfig);
+        } catch (Exception | ExecutionError e) {
+            log.debug("Generic action '{}' is not shared between classloaders as it can not be compiled for the bootstrap", actionConfig.getName());
+            nonShareableActions.put(actionConfig, Boolean.TRUE);
+            return null;
+        }
+        Set<String> referencedClasses = bootstrapActionReferences.getIfPresent(actionConfig);
+        Class<?> sharedActionClass = sharedAction.getInjectedClassObject().get();
+        if (referencedClasses == null || sharedActionClass == null) {
+            return null;
+        }
+        ClassLoader sharedLoader = sharedActionClass.getClassLoader();
+        for (String className : referencedClasses) {
+            try {
+                if (Class.forName(className, false, loader) != Class.forName(className, false, sharedLoader)) {
+                    return null;
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        }
+        return sharedAction;
+    }
+
+    @SuppressWarnings("unchecked")
+    private InjectedClass<? extends IGenericAction> getOrGenerateBootstrapAction(GenericActionConfig actionConfig) throws ExecutionException {
+        String templateType = actionConfig.isVoid() ? VOID_GENERIC_ACTION_STRUCTURAL_ID : NON_VOID_GENERIC_ACTION_STRUCTURAL_ID;
+        Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>> bootstrapCache = actionsCache.getUnchecked(BOOTSTRAP_LOADER_MARKER);
+        return bootstrapCache.get(actionConfig, () -> {
+            byte[] compiledAction = getCompiledAction(actionConfig, BOOTSTRAP_LOADER_MARKER);
+            //any bootstrap class can be used as neighbor for injecting into the bootstrap
+            InjectedClass<? extends IGenericAction> action = (InjectedClass<? extends IGenericAction>)
+                    classInjector.inject(templateType, Object.class, (className) ->
+                            renameCompiledAction(compiledAction, className)
+                    );
+            invalidateOnFailedRedefinition(bootstrapCache, actionConfig, action);
+            return action;
+        });
+    }
+
+    /**
+     * If the action has been injected within a {@link ClassInjector.RedefinitionBatch}, it might be a reused class whose redefinition is still pending.
+     * If this redefinition fails, the class still contains the bytecode of its previous usage, therefore it is removed from the cache again.
+     *
+     * @param cache        the cache the action is stored in
+     * @param actionConfig the configuration of the action
+     * @param action       the injected action
+     */
+    private void invalidateOnFailedRedefinition(Cache<GenericActionConfig, InjectedClass<? extends IGenericAction>> cache, GenericActionConfig actionConfig, InjectedClass<? extends IGenericAction> action) {
+        classInjector.afterRedefinitions(() -> {
+        }, () -> cache.asMap().remove(actionConfig, action));
+    }
 
+    /**
+     * Returns the compiled bytecode of the given action.
+     * If the compilation has been started via {@link #precompileGenericActions(Collection, Class)}, its result is used.
+     * Otherwise the action is compiled in the calling thread.
+     *
+     * @param actionConfig the action to compile
+     * @param loader       the classloader for which the action is compiled
+     * @return the bytecode of the action, using {@link #COMPILED_ACTION_CLASS_NAME} as class name
+     * @throws Exception if the compilation failed
+     */
+    private byte[] getCompiledAction(GenericActionConfig actionConfig, ClassLoader loader) throws Exception {
+        Future<byte[]> compilation = pendingCompilations.getUnchecked(loader).asMap().remove(actionConfig);
+        if (compilation == null) {
+            return compileGenericAction(actionConfig, loader);
+        }
+        try {
+            return compilation.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (CancellationException e) {
+            return compileGenericAction(actionConfig, loader);
+        }
+    }
 
-        ClassPool cp = new ClassPool();
-        cp.insertClassPath(new ClassClassPath(GenericActionTemplate.class));
-        //include the dummy bootstrap loader to make interfaces such as InspectitContext or ObjectAttachments accessible
-        cp.insertClassPath(new LoaderClassPath(INSPECTIT_BOOTSTRAP_JAR_LOADER));
-        if (loader != BOOTSTRAP_LOADER_MARKER) {
-            cp.insertClassPath(new LoaderClassPath(loader));
+    private byte[] compileGenericAction(GenericActionConfig actionConfig, ClassLoader loader) throws NotFoundException, CannotCompileException, IOException {
+        ClassPool loaderPool = getClassPool(loader);
+        String source = buildActionMethod(actionConfig);
+        String initSource = actionConfig.getInitBody() == null ? null : buildInitMethod(actionConfig);
+        String cacheKeySource = initSource == null ? source : source + initSource;
+        byte[] cachedBytecode = bytecodeCache.load(actionConfig, cacheKeySource, loader, loaderPool);
+        if (cachedBytecode != null) {
+            log.debug("Using cached bytecode for action '{}'", actionConfig.getName());
+            recordBootstrapActionReferences(actionConfig, loader, cachedBytecode);
+            return cachedBytecode;
         }
 
+        //the imports are specific for each action, therefore a separate child pool is used for every compilation
+        ClassPool cp = new ClassPool(loaderPool);
+
         CtClass action;
         if (actionConfig.isVoid()) {
-            action = cp.get(VoidGenericActionTemplate.class.getName());
+            action = cp.getAndRename(VoidGenericActionTemplate.class.getName(), COMPILED_ACTION_CLASS_NAME);
         } else {
-            action = cp.get(GenericActionTemplate.class.getName());
+            action = cp.getAndRename(GenericActionTemplate.class.getName(), COMPILED_ACTION_CLASS_NAME);
         }
-        action.setName(className);
 
         cp.importPackage(INSPECTIT_ACCESSIBLE_BOOTSTRAP_PACKAGE);
         for (String packageName : actionConfig.getImportedPackages()) {
             cp.importPackage(packageName);
         }
 
-        CtMethod method = action.getDeclaredMethod("executeImpl");
-        method.setBody(buildActionMethod(actionConfig));
+        int arity = actionConfig.getAdditionalArgumentTypes().size();
+        if (arity <= IGenericAction.MAX_SPECIALIZED_ARITY) {
+            action.getDeclaredMethod("executeImpl" + arity).setBody(source);
+            action.getDeclaredMethod("executeImpl").setBody(buildSpecializedMethodCall(arity, actionConfig.isVoid()));
+        } else {
+            action.getDeclaredMethod("executeImpl").setBody(source);
+        }
+        if (initSource != null) {
+            action.getDeclaredMethod("initImpl").setBody(initSource);
+        }
+
+        byte[] bytecode = action.toBytecode();
+        bytecodeCache.store(actionConfig, cacheKeySource, bytecode, loader, loaderPool);
+        recordBootstrapActionReferences(actionConfig, loader, bytecode);
+        return bytecode;
+    }
 
-        return action.toBytecode();
+    private void recordBootstrapActionReferences(GenericActionConfig actionConfig, ClassLoader loader, byte[] bytecode) throws IOException {
+        if (loader == BOOTSTRAP_LOADER_MARKER) {
+            bootstrapActionReferences.put(actionConfig, GenericActionBytecodeCache.getReferencedClasses(bytecode));
+        }
+    }
+
+    /**
+     * Returns the {@link ClassPool} of the current thread for compiling actions for the given classloader.
+     *
+     * @param loader the classloader, {@link #BOOTSTRAP_LOADER_MARKER} for the bootstrap loader
+     * @return the cached or newly created pool
+     */
+    private ClassPool getClassPool(ClassLoader loader) {
+        try {
+            return classPools.get().get(loader, () -> {
+                ClassPool cp = new ClassPool();
+                cp.insertClassPath(new ClassClassPath(GenericActionTemplate.class));
+                //include the dummy bootstrap loader to make interfaces such as InspectitContext or ObjectAttachments accessible
+                cp.insertClassPath(new LoaderClassPath(INSPECTIT_BOOTSTRAP_JAR_LOADER));
+                if (loader != BOOTSTRAP_LOADER_MARKER) {
+                    //LoaderClassPath only weakly references the loader, therefore the pool does not prevent it from being collected
+                    cp.insertClassPath(new LoaderClassPath(loader));
+                }
+                return cp;
+            });
+        } catch (ExecutionException e) {
+            //never happens
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Renames the class of a compiled action.
+     *
+     * @param compiledAction the bytecode of the compiled action
+     * @param className      the new name of the class
+     * @return the bytecode of the renamed class
+     * @throws IOException if the bytecode could not be parsed
+     */
+    private byte[] renameCompiledAction(byte[] compiledAction, String className) throws IOException {
+        ClassFile classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(compiledAction)));
+        classFile.renameClass(COMPILED_ACTION_CLASS_NAME, className);
+        ByteArrayOutputStream result = new ByteArrayOutputStream(compiledAction.length + className.length());
+        classFile.write(new DataOutputStream(result));
+        return result.toByteArray();
     }
 
     /**
      * Builds the Java source code used to replace {@link GenericActionTemplate#executeImpl(Object[], Object, Object, Throwable, Object[])}.
+     * If the action has at most {@link IGenericAction#MAX_SPECIALIZED_ARITY} additional arguments, the code is instead used for the
+     * specialized executeImpl method of its arity, which takes each additional argument as a separate parameter (e.g. $5 and $6 instead of $5[0] and $5[1]).
      * <p>
      * Example configuration:
      * <pre>
@@ -205,10 +486,11 @@ public class GenericActionGenerator {
             buildVariableDefinition(methodBody, type, varName, value);
         });
         val additionalArgs = actionConfig.getAdditionalArgumentTypes();
+        boolean specialized = additionalArgs.size() <= IGenericAction.MAX_SPECIALIZED_ARITY;
         val iterator = additionalArgs.entrySet().iterator();
         int id = 0;
         while (iterator.hasNext()) {
-            String value = ADDITIONAL_ARGS + "[" + id + "]";
+            String value = specialized ? getSpecializedAdditionalArgument(id) : ADDITIONAL_ARGS + "[" + id + "]";
             val argsDef = iterator.next();
             val varName = argsDef.getKey();
             val varType = argsDef.getValue();
@@ -220,6 +502,71 @@ public class GenericActionGenerator {
         return methodBody.append("}").toString();
     }
 
+    /**
+     * Builds the Java source code used to replace {@link GenericActionTemplate#initImpl(Object[])}.
+     * The additional arguments are defined as variables in the same way as for {@link #buildActionMethod(GenericActionConfig)},
+     * except for the "_init" argument itself. For example:
+     * <pre>
+     * {@code
+     *  {
+     *     java.lang.String regex = (java.lang.String) $1[1];      //$1 refers to the parameter Object[] additionalArgs
+     *
+     *     return java.util.regex.Pattern.compile(regex);
+     *  }
+     * }
+     * </pre>
+     *
+     * @param actionConfig the config of the action to build
+     * @return the generated method body as string
+     */
+    private String buildInitMethod(GenericActionConfig actionConfig) {
+        StringBuilder methodBody = new StringBuilder("{");
+        int id = 0;
+        for (val argsDef : actionConfig.getAdditionalArgumentTypes().entrySet()) {
+            if (!argsDef.getKey().equals(GenericActionSettings.INIT_VARIABLE)) {
+                buildVariableDefinition(methodBody, argsDef.getValue(), argsDef.getKey(), INIT_ADDITIONAL_ARGS + "[" + id + "]");
+            }
+            id++;
+        }
+        methodBody.append(actionConfig.getInitBody());
+        return methodBody.append("}").toString();
+    }
+
+    /**
+     * Returns the parameter of the specialized executeImpl methods which holds the given additional argument.
+     * These methods take the additional arguments as separate parameters after the four fixed parameters.
+     *
+     * @param index the index of the additional argument
+     * @return the javassist parameter reference
+     */
+    private String getSpecializedAdditionalArgument(int index) {
+        return "$" + (5 + index);
+    }
+
+    /**
+     * Builds the body of {@link GenericActionTemplate#executeImpl(Object[], Object, Object, Throwable, Object[])} for actions
+     * whose code is placed in the specialized executeImpl method for their arity.
+     * The body unpacks the additional arguments and delegates to the specialized method, e.g. for an arity of two:
+     * <pre>
+     * {@code
+     *  { return executeImpl2($1, $2, $3, $4, $5[0], $5[1]); }
+     * }
+     * </pre>
+     *
+     * @param arity  the number of additional arguments of the action
+     * @param isVoid true, if the action does not return a value
+     * @return the generated method body as string
+     */
+    private String buildSpecializedMethodCall(int arity, boolean isVoid) {
+        StringBuilder call = new StringBuilder("executeImpl").append(arity)
+                .append('(').append(METHOD_ARGS).append(", ").append(THIZ).append(", ").append(RETURN_VALUE).append(", ").append(THROWN);
+        for (int i = 0; i < arity; i++) {
+            call.append(", ").append(ADDITIONAL_ARGS).append('[').append(i).append(']');
+        }
+        call.append(");");
+        return isVoid ? "{ " + call + " }" : "{ return " + call + " }";
+    }
+
     /**
      * Builds a variable definition where another variable is casted from a Object variable.
      * If the target type is a primitive, unboxing is performed.
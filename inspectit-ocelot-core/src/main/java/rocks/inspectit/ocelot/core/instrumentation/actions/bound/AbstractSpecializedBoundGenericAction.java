@@ -0,0 +1,72 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+import java.util.Map;
+
+
+/**
+ * Base class for {@link BoundGenericAction}s of actions with at most {@link IGenericAction#MAX_SPECIALIZED_ARITY} input parameters.
+ * These actions are invoked through the entry point specialized for their number of parameters,
+ * so that no additionalArgs array has to be allocated per invocation.
+ */
+abstract class AbstractSpecializedBoundGenericAction extends BoundGenericAction {
+
+    /**
+     * The data key under which the result of the action is stored, null if the action is a void action.
+     */
+    private final String dataKey;
+
+    AbstractSpecializedBoundGenericAction(String callName, String dataKey, GenericActionConfig actionConfig, InjectedClass<?> action) {
+        super(callName, actionConfig, action);
+        this.dataKey = actionConfig.isVoid() ? null : dataKey;
+    }
+
+    @Override
+    public void execute(ExecutionContext context) {
+        Object result = invoke(action.get(), context);
+        if (dataKey != null) {
+            context.getInspectitContext().setData(dataKey, result);
+        }
+    }
+
+    /**
+     * Invokes the specialized entry point of the given action.
+     *
+     * @param action  the action to invoke
+     * @param context the context of the execution
+     * @return the result of the action
+     */
+    protected abstract Object invoke(IGenericAction action, ExecutionContext context);
+
+    /**
+     * Creates an accessor for each input parameter of the given action.
+     * Constant assignments are represented by accessors which always return the constant value.
+     *
+     * @param actionConfig        the action
+     * @param constantAssignments a map mapping input variable names to their constant values
+     * @param dynamicAssignments  a map mapping input variables to a function which is used to derive the parameter value
+     * @return the accessors in the order of {@link GenericActionConfig#getAdditionalArgumentTypes()}
+     */
+    static VariableAccessor[] getArgumentAccessors(GenericActionConfig actionConfig, Map<String, Object> constantAssignments,
+                                                   Map<String, VariableAccessor> dynamicAssignments) {
+        VariableAccessor[] accessors = new VariableAccessor[actionConfig.getAdditionalArgumentTypes().size()];
+        int idx = 0;
+        for (String argName : actionConfig.getAdditionalArgumentTypes().keySet()) {
+            if (constantAssignments.containsKey(argName)) {
+                Object value = constantAssignments.get(argName);
+                accessors[idx] = (context) -> value;
+            } else if (dynamicAssignments.containsKey(argName)) {
+                accessors[idx] = dynamicAssignments.get(argName);
+            } else {
+                //should never occur as this is validated by config validations
+                throw new RuntimeException("Unassigned argument!");
+            }
+            idx++;
+        }
+        return accessors;
+    }
+}
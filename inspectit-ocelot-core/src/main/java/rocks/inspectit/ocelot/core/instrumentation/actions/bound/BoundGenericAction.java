@@ -2,6 +2,7 @@ package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
 
 import lombok.experimental.NonFinal;
 import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
 import rocks.inspectit.ocelot.core.instrumentation.actions.template.GenericActionTemplate;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
@@ -10,6 +11,7 @@ import rocks.inspectit.ocelot.core.instrumentation.injection.ClassInjector;
 import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
 
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -62,6 +64,10 @@ public abstract class BoundGenericAction implements IHookAction {
 
     /**
      * Binds a generic action to the given input argument values.
+     * Actions with at most {@link IGenericAction#MAX_SPECIALIZED_ARITY} input parameters are bound to the entry point
+     * specialized for their number of parameters, all other actions receive their parameters as array.
+     * The results of pure actions are memoized.
+     * If the action has an init body, its result is assigned to the "_init" input.
      *
      * @param dataKey             the data key under which the result of this action will be stored
      * @param actionConfig        the configuration of the used data action
@@ -77,6 +83,29 @@ public abstract class BoundGenericAction implements IHookAction {
                                           Map<String, Object> constantAssignments,
                                           Map<String, VariableAccessor> dynamicAssignments) {
 
+        if (actionConfig.getInitBody() != null) {
+            dynamicAssignments = new HashMap<>(dynamicAssignments);
+            dynamicAssignments.put(GenericActionSettings.INIT_VARIABLE, new InitValueAccessor(actionConfig, action, constantAssignments));
+        }
+        if (actionConfig.isPure()) {
+            return new PureBoundGenericAction(dataKey, dataKey, actionConfig, action, constantAssignments, dynamicAssignments);
+        }
+        int arity = actionConfig.getAdditionalArgumentTypes().size();
+        if (arity <= IGenericAction.MAX_SPECIALIZED_ARITY) {
+            VariableAccessor[] arguments = AbstractSpecializedBoundGenericAction.getArgumentAccessors(actionConfig, constantAssignments, dynamicAssignments);
+            switch (arity) {
+                case 0:
+                    return new ZeroArgumentsBoundGenericAction(dataKey, dataKey, actionConfig, action);
+                case 1:
+                    return new OneArgumentBoundGenericAction(dataKey, dataKey, actionConfig, action, arguments);
+                case 2:
+                    return new TwoArgumentsBoundGenericAction(dataKey, dataKey, actionConfig, action, arguments);
+                case 3:
+                    return new ThreeArgumentsBoundGenericAction(dataKey, dataKey, actionConfig, action, arguments);
+                default:
+                    return new FourArgumentsBoundGenericAction(dataKey, dataKey, actionConfig, action, arguments);
+            }
+        }
         if (dynamicAssignments.isEmpty()) {
             if (actionConfig.isVoid()) {
                 return new VoidConstantOnlyBoundGenericAction(dataKey, actionConfig, action, constantAssignments);
@@ -0,0 +1,35 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+
+/**
+ * Variant of a {@link AbstractSpecializedBoundGenericAction} for actions with exactly four input parameters.
+ */
+class FourArgumentsBoundGenericAction extends AbstractSpecializedBoundGenericAction {
+
+    private final VariableAccessor arg0;
+
+    private final VariableAccessor arg1;
+
+    private final VariableAccessor arg2;
+
+    private final VariableAccessor arg3;
+
+    FourArgumentsBoundGenericAction(String callName, String dataKey, GenericActionConfig actionConfig, InjectedClass<?> action,
+                                    VariableAccessor[] arguments) {
+        super(callName, dataKey, actionConfig, action);
+        arg0 = arguments[0];
+        arg1 = arguments[1];
+        arg2 = arguments[2];
+        arg3 = arguments[3];
+    }
+
+    @Override
+    protected Object invoke(IGenericAction action, ExecutionContext context) {
+        return action.execute4(context.getMethodArguments(), context.getThiz(), context.getReturnValue(), context.getThrown(), arg0.get(context), arg1.get(context), arg2.get(context), arg3.get(context));
+    }
+}
@@ -0,0 +1,85 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+/**
+ * Provides the value of the "_init" input of a bound action, see {@link GenericActionSettings#getInitBody()}.
+ * The init body is executed with the constant inputs of the action call on the first access, all following accesses return the same value.
+ * <p>
+ * The init body is not executed when the action is bound, as the injected action class might not have been redefined at this point.
+ */
+class InitValueAccessor implements VariableAccessor {
+
+    /**
+     * Marker used if the init body returned null.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    private final InjectedClass<?> actionClass;
+
+    /**
+     * The additional arguments for the init body, constant inputs are assigned, all others are null.
+     */
+    private final Object[] initArguments;
+
+    /**
+     * The value returned by the init body if its type is loaded by the bootstrap classloader.
+     * Such values can not cause memory leaks and therefore are referenced strongly.
+     */
+    private volatile Object value;
+
+    /**
+     * The value returned by the init body if its type is not loaded by the bootstrap classloader.
+     * To prevent memory leaks, such values are only weakly referenced and recomputed if they have been collected.
+     */
+    private volatile WeakReference<Object> weakValue;
+
+    InitValueAccessor(GenericActionConfig actionConfig, InjectedClass<?> actionClass, Map<String, Object> constantAssignments) {
+        this.actionClass = actionClass;
+        initArguments = actionConfig.getAdditionalArgumentTypes()
+                .keySet().stream()
+                .map(constantAssignments::get)
+                .toArray();
+    }
+
+    @Override
+    public Object get(IHookAction.ExecutionContext context) {
+        Object result = value;
+        if (result == null) {
+            WeakReference<Object> ref = weakValue;
+            result = ref == null ? null : ref.get();
+            if (result == null) {
+                result = initialize();
+            }
+        }
+        return result == NULL_VALUE ? null : result;
+    }
+
+    private Object initialize() {
+        Object result;
+        try {
+            IGenericAction action = (IGenericAction) actionClass.getInjectedClassObject().get().getField("INSTANCE").get(null);
+            result = action.init(initArguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The given action is not based on the GenericActionTemplate", e);
+        }
+        if (result == null) {
+            value = NULL_VALUE;
+            return NULL_VALUE;
+        }
+        if (result.getClass().getClassLoader() == null) {
+            value = result;
+        } else {
+            weakValue = new WeakReference<>(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,253 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
+import rocks.inspectit.ocelot.config.utils.AutoboxingHelper;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Variant of a {@link BoundGenericAction} for pure actions, see {@link GenericActionConfig#isPure()}.
+ * The results of the action are memoized based on the identity of all inputs which are not constant for this call,
+ * so that the action is only executed if it has not been executed for the same inputs before.
+ * <p>
+ * If all inputs are constant, the action is executed only once.
+ * If exactly one input is not constant, the results are stored in a cache with weak keys based on this input.
+ * Otherwise, the cache is keyed by the combination of all non-constant inputs, which are only weakly referenced.
+ * All caches are bounded by {@link #MAX_CACHED_RESULTS} and drop results which have not been accessed for {@link #RESULT_EXPIRATION_SECONDS},
+ * so that results referencing their own inputs can not keep them alive forever.
+ * <p>
+ * Inputs which are new objects on every invocation never match a memoized result by identity.
+ * Therefore the results are not memoized at all if the action uses such an input, see {@link #isPerCallInput(GenericActionConfig)}.
+ */
+class PureBoundGenericAction extends BoundGenericAction {
+
+    /**
+     * The maximum number of results which are memoized per bound action.
+     */
+    static final int MAX_CACHED_RESULTS = 1000;
+
+    /**
+     * The time in seconds after which memoized results are dropped if they have not been accessed.
+     */
+    static final long RESULT_EXPIRATION_SECONDS = 60;
+
+    /**
+     * Marker used for memoized null results, as the caches do not allow null values.
+     */
+    private static final Object NULL_RESULT = new Object();
+
+    private final String dataKey;
+
+    /**
+     * The accessors for the additional arguments of the action, see {@link AbstractSpecializedBoundGenericAction#getArgumentAccessors(GenericActionConfig, Map, Map)}.
+     */
+    private final VariableAccessor[] arguments;
+
+    /**
+     * The accessors for all inputs of the action which are not constant, these define the key for memoizing the results.
+     * Null if the results are not memoized, because one of the inputs is a new object on every invocation.
+     */
+    private final VariableAccessor[] keyInputs;
+
+    /**
+     * The result if {@link #keyInputs} is empty, null if the action has not been executed yet.
+     */
+    private volatile Object constantResult;
+
+    /**
+     * The memoized results if {@link #keyInputs} is neither null nor empty.
+     */
+    private final Cache<Object, Object> results;
+
+    PureBoundGenericAction(String callName, String dataKey, GenericActionConfig actionConfig,
+                           InjectedClass<?> action, Map<String, Object> constantAssignments,
+                           Map<String, VariableAccessor> dynamicAssignments) {
+        super(callName, actionConfig, action);
+        this.dataKey = dataKey;
+        arguments = AbstractSpecializedBoundGenericAction.getArgumentAccessors(actionConfig, constantAssignments, dynamicAssignments);
+        keyInputs = isPerCallInput(actionConfig) ? null : getKeyInputs(actionConfig, dynamicAssignments);
+
+        if (keyInputs == null || keyInputs.length == 0) {
+            results = null;
+        } else {
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CACHED_RESULTS)
+                    .expireAfterAccess(RESULT_EXPIRATION_SECONDS, TimeUnit.SECONDS);
+            if (keyInputs.length == 1) {
+                //weak keys are compared by identity
+                builder.weakKeys();
+            }
+            results = builder.build();
+        }
+    }
+
+    @Override
+    public void execute(ExecutionContext context) {
+        Object result;
+        if (keyInputs == null) {
+            result = invoke(context);
+        } else if (keyInputs.length == 0) {
+            result = getConstantResult(context);
+        } else {
+            Object key = getKey(context);
+            if (key == null) {
+                result = invoke(context);
+            } else {
+                result = results.getIfPresent(key);
+                if (result == null) {
+                    result = invoke(context);
+                    results.put(key, result == null ? NULL_RESULT : result);
+                } else if (result == NULL_RESULT) {
+                    result = null;
+                }
+            }
+        }
+        context.getInspectitContext().setData(dataKey, result);
+    }
+
+    private Object getConstantResult(ExecutionContext context) {
+        Object result = constantResult;
+        if (result == null) {
+            result = invoke(context);
+            constantResult = result == null ? NULL_RESULT : result;
+            return result;
+        }
+        return result == NULL_RESULT ? null : result;
+    }
+
+    /**
+     * Derives the key for memoizing the result of the invocation in the given context.
+     *
+     * @param context the context of the invocation
+     * @return the key or null if the result can not be memoized
+     */
+    private Object getKey(ExecutionContext context) {
+        if (keyInputs.length == 1) {
+            return keyInputs[0].get(context);
+        }
+        Object[] values = new Object[keyInputs.length];
+        for (int i = 0; i < keyInputs.length; i++) {
+            values[i] = keyInputs[i].get(context);
+        }
+        return new IdentityKey(values);
+    }
+
+    private Object invoke(ExecutionContext context) {
+        Object[] args = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            args[i] = arguments[i].get(context);
+        }
+        return action.get().execute(context.getMethodArguments(), context.getThiz(),
+                context.getReturnValue(), context.getThrown(), args);
+    }
+
+    /**
+     * Checks whether the given action uses an input which is a new object on every invocation of the instrumented method.
+     * These are the arguments array, the thrown exception as well as arguments and return values of primitive types, which are boxed on every invocation.
+     *
+     * @param actionConfig the action
+     * @return true, if memoizing the results of the action based on the identity of its inputs would never succeed
+     */
+    private static boolean isPerCallInput(GenericActionConfig actionConfig) {
+        if (actionConfig.isUsesArgsArray() || actionConfig.isUsesThrown()) {
+            return true;
+        }
+        String returnValueType = actionConfig.getExpectedReturnValueType();
+        if (returnValueType != null && AutoboxingHelper.isPrimitiveType(returnValueType)) {
+            return true;
+        }
+        return actionConfig.getExpectedArgumentTypes().values().stream().anyMatch(AutoboxingHelper::isPrimitiveType);
+    }
+
+    /**
+     * Collects accessors for all inputs of the given action which are not constant.
+     *
+     * @param actionConfig       the action
+     * @param dynamicAssignments the non-constant assignments of the additional arguments
+     * @return the accessors
+     */
+    private static VariableAccessor[] getKeyInputs(GenericActionConfig actionConfig, Map<String, VariableAccessor> dynamicAssignments) {
+        List<VariableAccessor> inputs = new ArrayList<>();
+        if (actionConfig.getExpectedThisType() != null) {
+            inputs.add(ExecutionContext::getThiz);
+        }
+        for (int index : actionConfig.getExpectedArgumentTypes().keySet()) {
+            inputs.add(context -> context.getMethodArguments()[index]);
+        }
+        if (actionConfig.isUsesArgsArray()) {
+            inputs.add(ExecutionContext::getMethodArguments);
+        }
+        if (actionConfig.getExpectedReturnValueType() != null) {
+            inputs.add(ExecutionContext::getReturnValue);
+        }
+        if (actionConfig.isUsesThrown()) {
+            inputs.add(ExecutionContext::getThrown);
+        }
+        for (String argName : actionConfig.getAdditionalArgumentTypes().keySet()) {
+            //the result of the init body only depends on the constant inputs
+            if (dynamicAssignments.containsKey(argName) && !argName.equals(GenericActionSettings.INIT_VARIABLE)) {
+                inputs.add(dynamicAssignments.get(argName));
+            }
+        }
+        return inputs.toArray(new VariableAccessor[0]);
+    }
+
+    /**
+     * A key consisting of multiple values, which are compared by identity and only weakly referenced.
+     */
+    private static class IdentityKey {
+
+        /**
+         * Shared reference for null values, so that null values are considered equal.
+         */
+        private static final WeakReference<?> NULL_VALUE = new WeakReference<>(null);
+
+        private final WeakReference<?>[] values;
+
+        private final int hash;
+
+        private IdentityKey(Object[] values) {
+            this.values = new WeakReference<?>[values.length];
+            int hash = 1;
+            for (int i = 0; i < values.length; i++) {
+                this.values[i] = values[i] == null ? NULL_VALUE : new WeakReference<>(values[i]);
+                hash = 31 * hash + System.identityHashCode(values[i]);
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof IdentityKey)) {
+                return false;
+            }
+            IdentityKey other = (IdentityKey) obj;
+            if (other.hash != hash || other.values.length != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i].get();
+                //values which have been collected never match, as the identity can not be checked anymore
+                if (value != other.values[i].get() || (value == null && other.values[i] != values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
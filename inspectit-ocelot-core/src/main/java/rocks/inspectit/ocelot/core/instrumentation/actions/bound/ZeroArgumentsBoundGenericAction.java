@@ -0,0 +1,21 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+
+/**
+ * Variant of a {@link AbstractSpecializedBoundGenericAction} for actions with no input parameters.
+ */
+class ZeroArgumentsBoundGenericAction extends AbstractSpecializedBoundGenericAction {
+
+    ZeroArgumentsBoundGenericAction(String callName, String dataKey, GenericActionConfig actionConfig, InjectedClass<?> action) {
+        super(callName, dataKey, actionConfig, action);
+    }
+
+    @Override
+    protected Object invoke(IGenericAction action, ExecutionContext context) {
+        return action.execute0(context.getMethodArguments(), context.getThiz(), context.getReturnValue(), context.getThrown());
+    }
+}
@@ -14,13 +14,75 @@ public class GenericActionTemplate implements IGenericAction, DoNotInstrumentMar
 
     /**
      * This methods body will be replaced via javassist to the actual generic action code.
+     * For actions with at most {@link IGenericAction#MAX_SPECIALIZED_ARITY} additional arguments,
+     * the body is replaced with a call to the specialized executeImpl method for the arity of the action.
      */
     public static Object executeImpl(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs) {
         return null;
     }
 
+    /**
+     * The bodies of these methods are replaced with the actual generic action code if the number of additional arguments of the action matches.
+     */
+    public static Object executeImpl0(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown) {
+        return null;
+    }
+
+    public static Object executeImpl1(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0) {
+        return null;
+    }
+
+    public static Object executeImpl2(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1) {
+        return null;
+    }
+
+    public static Object executeImpl3(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2) {
+        return null;
+    }
+
+    public static Object executeImpl4(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2, Object arg3) {
+        return null;
+    }
+
+    /**
+     * This methods body will be replaced via javassist to the init body of the generic action, if it has one.
+     */
+    public static Object initImpl(Object[] additionalArgs) {
+        return null;
+    }
+
+    @Override
+    public Object init(Object[] additionalArgs) {
+        return initImpl(additionalArgs);
+    }
+
     @Override
     public Object execute(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs) {
         return executeImpl(instrumentedMethodArgs, thiz, returnValue, thrown, additionalArgs);
     }
+
+    @Override
+    public Object execute0(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown) {
+        return executeImpl0(instrumentedMethodArgs, thiz, returnValue, thrown);
+    }
+
+    @Override
+    public Object execute1(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0) {
+        return executeImpl1(instrumentedMethodArgs, thiz, returnValue, thrown, arg0);
+    }
+
+    @Override
+    public Object execute2(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1) {
+        return executeImpl2(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1);
+    }
+
+    @Override
+    public Object execute3(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2) {
+        return executeImpl3(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1, arg2);
+    }
+
+    @Override
+    public Object execute4(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2, Object arg3) {
+        return executeImpl4(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1, arg2, arg3);
+    }
 }
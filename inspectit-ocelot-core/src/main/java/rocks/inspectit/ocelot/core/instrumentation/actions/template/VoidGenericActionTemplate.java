@@ -14,13 +14,75 @@ public class VoidGenericActionTemplate implements IGenericAction, DoNotInstrumen
 
     /**
      * This methods body will be replaced via javassist to the actual generic action code.
+     * For actions with at most {@link IGenericAction#MAX_SPECIALIZED_ARITY} additional arguments,
+     * the body is replaced with a call to the specialized executeImpl method for the arity of the action.
      */
     public static void executeImpl(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs) {
     }
 
+    /**
+     * The bodies of these methods are replaced with the actual generic action code if the number of additional arguments of the action matches.
+     */
+    public static void executeImpl0(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown) {
+    }
+
+    public static void executeImpl1(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0) {
+    }
+
+    public static void executeImpl2(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1) {
+    }
+
+    public static void executeImpl3(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2) {
+    }
+
+    public static void executeImpl4(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2, Object arg3) {
+    }
+
+    /**
+     * This methods body will be replaced via javassist to the init body of the generic action, if it has one.
+     */
+    public static Object initImpl(Object[] additionalArgs) {
+        return null;
+    }
+
+    @Override
+    public Object init(Object[] additionalArgs) {
+        return initImpl(additionalArgs);
+    }
+
     @Override
     public Object execute(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs) {
         executeImpl(instrumentedMethodArgs, thiz, returnValue, thrown, additionalArgs);
         return null;
     }
+
+    @Override
+    public Object execute0(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown) {
+        executeImpl0(instrumentedMethodArgs, thiz, returnValue, thrown);
+        return null;
+    }
+
+    @Override
+    public Object execute1(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0) {
+        executeImpl1(instrumentedMethodArgs, thiz, returnValue, thrown, arg0);
+        return null;
+    }
+
+    @Override
+    public Object execute2(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1) {
+        executeImpl2(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1);
+        return null;
+    }
+
+    @Override
+    public Object execute3(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2) {
+        executeImpl3(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1, arg2);
+        return null;
+    }
+
+    @Override
+    public Object execute4(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object arg0, Object arg1, Object arg2, Object arg3) {
+        executeImpl4(instrumentedMethodArgs, thiz, returnValue, thrown, arg0, arg1, arg2, arg3);
+        return null;
+    }
 }
@@ -27,6 +27,8 @@ public class GenericActionConfigurationResolver {
             val result = GenericActionConfig.builder()
                     .name(name)
                     .isVoid(conf.getIsVoid())
+                    .pure(conf.isPure())
+                    .initBody(conf.getInitBody())
                     .importedPackages(conf.getImports());
 
             resolveSpecialVariables(additionalInputs, result);
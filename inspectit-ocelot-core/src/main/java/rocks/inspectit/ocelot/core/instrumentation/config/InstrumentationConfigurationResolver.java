@@ -1,12 +1,14 @@
 package rocks.inspectit.ocelot.core.instrumentation.config;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
-import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
@@ -19,6 +21,8 @@ import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
 import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.core.instrumentation.AsyncClassTransformer;
+import rocks.inspectit.ocelot.core.instrumentation.InstrumentationPlanCache;
+import rocks.inspectit.ocelot.core.instrumentation.TypeDescriptionProvider;
 import rocks.inspectit.ocelot.core.instrumentation.config.event.InstrumentationConfigurationChangedEvent;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.*;
 import rocks.inspectit.ocelot.core.instrumentation.special.SpecialSensor;
@@ -27,6 +31,8 @@ import rocks.inspectit.ocelot.core.utils.CoreUtils;
 import javax.annotation.PostConstruct;
 import java.lang.instrument.Instrumentation;
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -60,6 +66,12 @@ public class InstrumentationConfigurationResolver {
     @Autowired
     private MethodHookConfigurationResolver hookResolver;
 
+    @Autowired
+    private TypeDescriptionProvider typeDescriptions;
+
+    @Autowired
+    private InstrumentationPlanCache planCache;
+
 
     /**
      * Holds the currently active instrumentation configuration.
@@ -67,6 +79,26 @@ public class InstrumentationConfigurationResolver {
     @Getter
     private InstrumentationConfiguration currentConfig;
 
+    /**
+     * Caches the resolved configurations per class.
+     * Each entry remembers the version of the configuration it was derived from, see {@link #getCacheVersion(InstrumentationConfiguration)}:
+     * as soon as {@link #currentConfig} is replaced by a configuration which instruments differently, all entries are outdated and are recomputed on their next access.
+     * The cached values never reference the class itself, otherwise the weak keys could never be collected.
+     */
+    private final Cache<Class<?>, CachedClassConfiguration> classConfigurationCache = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Maps the configurations to the versions of the {@link #classConfigurationCache} entries derived from them.
+     * Configurations which only differ in settings not affecting the instrumentation share the same version.
+     * The keys are compared by identity.
+     */
+    private final Cache<InstrumentationConfiguration, Object> cacheVersions = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * The configuration which has been assigned a version last, guarded by {@link #cacheVersions}.
+     */
+    private InstrumentationConfiguration lastVersionedConfig;
+
     @PostConstruct
     private void init() {
         InspectitConfig conf = env.getCurrentConfig();
@@ -76,29 +108,218 @@ public class InstrumentationConfigurationResolver {
     /**
      * Builds the {@link ClassInstrumentationConfiguration} based on the currently active global instrumentation configuration
      * for the given class.
+     * The result is cached per class until the active configuration changes in a way affecting the instrumentation.
      *
      * @param clazz the class for which the configuration shal lbe queried
      * @return the configuration or {@link ClassInstrumentationConfiguration#NO_INSTRUMENTATION} if this class should not be instrumented
      */
     public ClassInstrumentationConfiguration getClassInstrumentationConfiguration(Class<?> clazz) {
+        return getCachedConfiguration(clazz, currentConfig).getClassConfiguration();
+    }
+
+    /**
+     * Builds the {@link ClassInstrumentationConfiguration} for a class which is currently being defined and therefore is not loaded yet.
+     * As {@link SpecialSensor}s require the loaded class, they are never active in the result.
+     * The result is not cached, as the class is not available as cache key yet.
+     *
+     * The analysis is aborted as soon as the given budget is exceeded, it is checked before each type matcher is evaluated.
+     *
+     * @param type              the description of the class being defined
+     * @param loader            the class loader defining the class, must not be null
+     * @param config            the configuration to derive the result from
+     * @param isBudgetExceeded  returns true if the time available for the analysis is exceeded
+     * @return the configuration or {@link ClassInstrumentationConfiguration#NO_INSTRUMENTATION} if this class should not be instrumented,
+     * null if the analysis has been aborted
+     */
+    public ClassInstrumentationConfiguration getLoadTimeInstrumentationConfiguration(TypeDescription type, ClassLoader loader, InstrumentationConfiguration config, BooleanSupplier isBudgetExceeded) {
+        if (isIgnoredLoader(loader) || isIgnoredName(type.getName(), false, config)
+                || type.isAssignableTo(DoNotInstrumentMarker.class)) {
+            return ClassInstrumentationConfiguration.NO_INSTRUMENTATION;
+        }
+        Set<InstrumentationRule> narrowedRules = getNarrowedRulesFor(type, config, isBudgetExceeded);
+        if (narrowedRules == null) {
+            return null;
+        }
+        return new ClassInstrumentationConfiguration(Collections.emptySet(), narrowedRules, config);
+    }
+
+    /**
+     * Finds out for each method of the given class which rules apply and builds a {@link MethodHookConfiguration} for each instrumented method.
+     * The resolved hook configurations are cached per class until the active configuration changes in a way affecting the instrumentation.
+     *
+     * @param clazz the class to check
+     * @return a map mapping hook configurations to the methods which they should be applied on.
+     */
+    public Map<MethodDescription, MethodHookConfiguration> getHookConfigurations(Class<?> clazz) {
         val config = currentConfig;
+        CachedClassConfiguration cached = getCachedConfiguration(clazz, config);
+        Set<InstrumentationRule> narrowedRules = cached.getClassConfiguration().getActiveRules();
+        Map<String, MethodHookConfiguration> hookConfigs = cached.getHookConfigurations();
+        if (narrowedRules.isEmpty() || (hookConfigs != null && hookConfigs.isEmpty())) {
+            return Collections.emptyMap();
+        }
+        try {
+            return withTypeDescription(clazz, type -> getHookConfigurations(clazz, type, cached, config));
+        } catch (NoClassDefFoundError | IllegalStateException e) {
+            //the class contains a reference to an not loadable class or a class whose class file can not be located
+            //this the case for example for very many spring boot classes
+            log.trace("Ignoring class {} for hooking as it is not initializable ", clazz.getName(), e);
+        }
+        return Collections.emptyMap();
+    }
+
+    private Map<MethodDescription, MethodHookConfiguration> getHookConfigurations(Class<?> clazz, TypeDescription type, CachedClassConfiguration cached, InstrumentationConfiguration config) {
+        Map<String, MethodHookConfiguration> hookConfigs = cached.getHookConfigurations();
+        if (hookConfigs == null) {
+            hookConfigs = resolveHookConfigurations(type, cached.getClassConfiguration().getActiveRules(), config);
+            classConfigurationCache.put(clazz, new CachedClassConfiguration(cached.getVersion(), cached.getClassConfiguration(), hookConfigs));
+        }
+
+        Map<MethodDescription, MethodHookConfiguration> result = new HashMap<>();
+        if (!hookConfigs.isEmpty()) {
+            for (val method : type.getDeclaredMethods()) {
+                String signature = CoreUtils.getSignature(method);
+                if (hookConfigs.containsKey(signature)) {
+                    result.put(method, hookConfigs.get(signature));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies the given function to the description of the given class, which is parsed from its class file.
+     * The supertypes and other types referenced by such a description are only resolved when they are accessed.
+     * If the class file of one of them can not be located, an {@link IllegalStateException} is thrown during the matching.
+     * In this case the function is applied again on a {@link TypeDescription.ForLoadedType}, which resolves these types via reflection.
+     *
+     * @param clazz    the class to describe
+     * @param function the function to apply on the description of the class
+     * @param <T>      the result type of the function
+     * @return the result of the function
+     */
+    private <T> T withTypeDescription(Class<?> clazz, Function<TypeDescription, T> function) {
+        try {
+            return function.apply(typeDescriptions.describe(clazz));
+        } catch (IllegalStateException e) {
+            log.trace("Could not match class {} based on its class file, falling back to reflection", clazz.getName(), e);
+            return function.apply(TypeDescription.ForLoadedType.of(clazz));
+        }
+    }
+
+    /**
+     * Returns the cached configurations for the given class.
+     * If no cached configuration exists or it was derived from a configuration which instruments differently than the given one,
+     * the {@link ClassInstrumentationConfiguration} is recomputed and the cache entry is replaced.
+     *
+     * @param clazz  the class to query the configuration for
+     * @param config the currently active configuration
+     * @return the cache entry, which is guaranteed to be derived from a configuration instrumenting the same way as the given one
+     */
+    private CachedClassConfiguration getCachedConfiguration(Class<?> clazz, InstrumentationConfiguration config) {
+        Object version = getCacheVersion(config);
+        CachedClassConfiguration cached = classConfigurationCache.getIfPresent(clazz);
+        if (cached == null || cached.getVersion() != version) {
+            cached = new CachedClassConfiguration(version, resolveClassInstrumentationConfiguration(clazz, config), null);
+            classConfigurationCache.put(clazz, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the version of the cache entries derived from the given configuration.
+     * If the given configuration instruments the same way as the previously versioned one, their version is shared,
+     * so that changes of unrelated settings do not invalidate the cached class configurations.
+     *
+     * @param config the configuration
+     * @return the version object, which has to be compared by identity
+     */
+    private Object getCacheVersion(InstrumentationConfiguration config) {
+        Object version = cacheVersions.getIfPresent(config);
+        if (version != null) {
+            return version;
+        }
+        synchronized (cacheVersions) {
+            version = cacheVersions.getIfPresent(config);
+            if (version == null) {
+                if (lastVersionedConfig != null && isSameInstrumentation(lastVersionedConfig, config)) {
+                    version = cacheVersions.getIfPresent(lastVersionedConfig);
+                }
+                if (version == null) {
+                    version = new Object();
+                }
+                cacheVersions.put(config, version);
+                lastVersionedConfig = config;
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Checks if the given configurations result in the same instrumentation, i.e. if they only differ in settings which
+     * are neither used for deciding which classes and methods are instrumented nor for building the hooks.
+     *
+     * @param first  the first configuration
+     * @param second the second configuration
+     * @return true, if class and hook configurations derived from the first configuration are also valid for the second one
+     */
+    @VisibleForTesting
+    static boolean isSameInstrumentation(InstrumentationConfiguration first, InstrumentationConfiguration second) {
+        return first.isMetricsEnabled() == second.isMetricsEnabled()
+                && first.isTracingEnabled() == second.isTracingEnabled()
+                && first.getDefaultTraceSampleProbability() == second.getDefaultTraceSampleProbability()
+                && Objects.equals(first.getDataProperties(), second.getDataProperties())
+                && Objects.equals(first.getRules(), second.getRules())
+                && isSameInstrumentation(first.getSource(), second.getSource())
+                && isSameInstrumentation(first.getTracingSettings(), second.getTracingSettings());
+    }
+
+    private static boolean isSameInstrumentation(InstrumentationSettings first, InstrumentationSettings second) {
+        if (first == null || second == null) {
+            return first == second;
+        }
+        return first.isExcludeLambdas() == second.isExcludeLambdas()
+                && Objects.equals(first.getIgnoredPackages(), second.getIgnoredPackages())
+                && Objects.equals(first.getIgnoredBootstrapPackages(), second.getIgnoredBootstrapPackages())
+                && Objects.equals(first.getSpecial(), second.getSpecial());
+    }
+
+    private static boolean isSameInstrumentation(TracingSettings first, TracingSettings second) {
+        if (first == null || second == null) {
+            return first == second;
+        }
+        return first.getRateLimiting().isEnabled() == second.getRateLimiting().isEnabled()
+                && Objects.equals(first.getLogCorrelation().getTraceIdAutoInjection(), second.getLogCorrelation().getTraceIdAutoInjection());
+    }
+
+    private ClassInstrumentationConfiguration resolveClassInstrumentationConfiguration(Class<?> clazz, InstrumentationConfiguration config) {
         try {
             if (isIgnoredClass(clazz, config)) {
                 return ClassInstrumentationConfiguration.NO_INSTRUMENTATION;
 
+            } else if (planCache.isPlannedAsNotInstrumented(clazz, config)) {
+                //the class and its code sources are unchanged since the analysis of a previous run with the same configuration
+                return ClassInstrumentationConfiguration.NO_INSTRUMENTATION;
+
             } else {
-                TypeDescription description = TypeDescription.ForLoadedType.of(clazz);
                 Set<SpecialSensor> activeSensors = specialSensors.stream()
                         .filter(s -> s.shouldInstrument(clazz, config))
                         .collect(Collectors.toSet());
 
-                Set<InstrumentationRule> narrowedRules = getNarrowedRulesFor(description, config);
+                Set<InstrumentationRule> narrowedRules;
+                InstrumentationScopeIndex scopeIndex = config.getScopeIndex();
+                if (scopeIndex != null && scopeIndex.getTypeCandidates(clazz.getName()).isEmpty()) {
+                    //no scope can match the class, so it does not have to be described
+                    narrowedRules = Collections.emptySet();
+                } else {
+                    narrowedRules = withTypeDescription(clazz, type -> getNarrowedRulesFor(type, config));
+                }
 
                 return new ClassInstrumentationConfiguration(activeSensors, narrowedRules, config);
 
             }
-        } catch (NoClassDefFoundError e) {
-            //the class contains a reference to an not loadable class
+        } catch (NoClassDefFoundError | IllegalStateException e) {
+            //the class contains a reference to an not loadable class or a class whose class file can not be located
             //this the case for example for very many spring boot classes
             log.trace("Ignoring class {} for instrumentation as it is not initializable ", clazz.getName(), e);
             return ClassInstrumentationConfiguration.NO_INSTRUMENTATION;
@@ -106,50 +327,33 @@ public class InstrumentationConfigurationResolver {
     }
 
     /**
-     * Finds out for each method of the given class which rules apply and builds a {@link MethodHookConfiguration} for each instrumented method.
+     * Builds the {@link MethodHookConfiguration}s for all methods of the given type which are matched by the given rules.
      *
-     * @param clazz the class to check
-     * @return a map mapping hook configurations to the methods which they should be applied on.
+     * @param type          the type whose methods shall be hooked
+     * @param narrowedRules the rules which have been narrowed for the given type, see {@link #getNarrowedRulesFor(TypeDescription, InstrumentationConfiguration)}
+     * @param config        the configuration which is used as basis for the rules
+     * @return a map mapping the signatures of the hooked methods (see {@link CoreUtils#getSignature(MethodDescription)}) to their hook configuration
      */
-    public Map<MethodDescription, MethodHookConfiguration> getHookConfigurations(Class<?> clazz) {
-        val config = currentConfig;
-        if (isIgnoredClass(clazz, config)) {
-            return Collections.emptyMap();
-        }
-        try {
-            TypeDescription type = TypeDescription.ForLoadedType.of(clazz);
-            Set<InstrumentationRule> narrowedRules = getNarrowedRulesFor(type, config);
-
-            Set<InstrumentationScope> involvedScopes = narrowedRules.stream()
-                    .flatMap(r -> r.getScopes().stream())
+    private Map<String, MethodHookConfiguration> resolveHookConfigurations(TypeDescription type, Set<InstrumentationRule> narrowedRules, InstrumentationConfiguration config) {
+        Map<String, MethodHookConfiguration> result = new HashMap<>();
+        InstrumentationScopeIndex scopeIndex = config.getScopeIndex();
+        for (val method : type.getDeclaredMethods()) {
+            Set<InstrumentationScope> candidateScopes = scopeIndex == null ? null : scopeIndex.getMethodCandidates(method.getName());
+            val rulesMatchingOnMethod = narrowedRules.stream()
+                    .filter(rule -> rule.getScopes().stream()
+                            .filter(scope -> candidateScopes == null || candidateScopes.contains(scope))
+                            .anyMatch(scope -> scope.getMethodMatcher().matches(method)))
                     .collect(Collectors.toSet());
-
-            if (!narrowedRules.isEmpty()) {
-                Map<MethodDescription, MethodHookConfiguration> result = new HashMap<>();
-                for (val method : type.getDeclaredMethods()) {
-                    val rulesMatchingOnMethod = narrowedRules.stream()
-                            .filter(rule -> rule.getScopes().stream()
-                                    .anyMatch(scope -> scope.getMethodMatcher().matches(method)))
-                            .collect(Collectors.toSet());
-                    if (!rulesMatchingOnMethod.isEmpty()) {
-                        try {
-                            result.put(method, hookResolver.buildHookConfiguration(config, rulesMatchingOnMethod));
-                        } catch (Exception e) {
-                            log.error("Could not build hook for {} of class {}",
-                                    CoreUtils.getSignature(method), clazz.getName(), e);
-                        }
-                    }
+            if (!rulesMatchingOnMethod.isEmpty()) {
+                try {
+                    result.put(CoreUtils.getSignature(method), hookResolver.buildHookConfiguration(config, rulesMatchingOnMethod));
+                } catch (Exception e) {
+                    log.error("Could not build hook for {} of class {}",
+                            CoreUtils.getSignature(method), type.getName(), e);
                 }
-                return result;
             }
-        } catch (NoClassDefFoundError e) {
-            //the class contains a reference to an not loadable class
-            //this the case for example for very many spring boot classes
-            log.trace("Ignoring class {} for hooking as it is not initializable ", clazz.getName(), e);
         }
-        return Collections.emptyMap();
-
-
+        return result;
     }
 
     /**
@@ -161,16 +365,39 @@ public class InstrumentationConfigurationResolver {
      * @return Returns a set containing rules with scopes targeting only the given type.
      */
     private Set<InstrumentationRule> getNarrowedRulesFor(TypeDescription typeDescription, InstrumentationConfiguration config) {
-        return config.getRules().stream()
-                .map(rule -> Pair.of(
-                        rule,
-                        rule.getScopes()
-                                .stream()
-                                .filter(s -> s.getTypeMatcher().matches(typeDescription))
-                                .collect(Collectors.toSet())))
-                .filter(p -> !p.getRight().isEmpty())
-                .map(p -> p.getLeft().toBuilder().clearScopes().scopes(p.getRight()).build())
-                .collect(Collectors.toSet());
+        return getNarrowedRulesFor(typeDescription, config, () -> false);
+    }
+
+    /**
+     * Narrows the rules for a specific type like {@link #getNarrowedRulesFor(TypeDescription, InstrumentationConfiguration)},
+     * but aborts as soon as the given budget is exceeded.
+     *
+     * @param typeDescription  the type to narrow the rules for
+     * @param config           the configuration containing the rules
+     * @param isBudgetExceeded checked before each type matcher is evaluated
+     * @return the narrowed rules or null if the budget has been exceeded
+     */
+    private Set<InstrumentationRule> getNarrowedRulesFor(TypeDescription typeDescription, InstrumentationConfiguration config, BooleanSupplier isBudgetExceeded) {
+        InstrumentationScopeIndex scopeIndex = config.getScopeIndex();
+        Set<InstrumentationScope> candidateScopes = scopeIndex == null ? null : scopeIndex.getTypeCandidates(typeDescription.getName());
+        Set<InstrumentationRule> result = new HashSet<>();
+        for (InstrumentationRule rule : config.getRules()) {
+            Set<InstrumentationScope> matchingScopes = new HashSet<>();
+            for (InstrumentationScope scope : rule.getScopes()) {
+                if (candidateScopes == null || candidateScopes.contains(scope)) {
+                    if (isBudgetExceeded.getAsBoolean()) {
+                        return null;
+                    }
+                    if (scope.getTypeMatcher().matches(typeDescription)) {
+                        matchingScopes.add(scope);
+                    }
+                }
+            }
+            if (!matchingScopes.isEmpty()) {
+                result.add(rule.toBuilder().clearScopes().scopes(matchingScopes).build());
+            }
+        }
+        return result;
     }
 
     @EventListener
@@ -200,14 +427,16 @@ public class InstrumentationConfigurationResolver {
 
     private InstrumentationConfiguration resolveConfiguration(InstrumentationSettings source, MetricsSettings metricsSettings, TracingSettings tracingSettings) {
         val genericActions = genericActionConfigurationResolver.resolveActions(source);
+        val rules = ruleResolver.resolve(source, genericActions);
         return InstrumentationConfiguration.builder()
                 .metricsEnabled(metricsSettings.isEnabled())
                 .tracingEnabled(tracingSettings.isEnabled())
                 .tracingSettings(tracingSettings)
                 .defaultTraceSampleProbability(tracingSettings.getSampleProbability())
                 .source(source)
-                .rules(ruleResolver.resolve(source, genericActions))
+                .rules(rules)
                 .dataProperties(resolveDataProperties(source))
+                .scopeIndex(InstrumentationScopeIndex.of(rules))
                 .build();
     }
 
@@ -239,20 +468,25 @@ public class InstrumentationConfigurationResolver {
             return true;
         }
 
-        if (loader != null && DoNotInstrumentMarker.class.isAssignableFrom(loader.getClass())) {
+        if (isIgnoredLoader(loader)) {
             return true;
         }
 
-        if (loader == INSPECTIT_CLASSLOADER) {
+        return isIgnoredName(clazz.getName(), loader == null, config);
+    }
+
+    private boolean isIgnoredLoader(ClassLoader loader) {
+        if (loader != null && DoNotInstrumentMarker.class.isAssignableFrom(loader.getClass())) {
             return true;
         }
+        return loader == INSPECTIT_CLASSLOADER;
+    }
 
-        if (config.getSource().isExcludeLambdas() && clazz.getName().contains("$$Lambda$")) {
+    private boolean isIgnoredName(String name, boolean isBootstrapClass, InstrumentationConfiguration config) {
+        if (config.getSource().isExcludeLambdas() && name.contains("$$Lambda$")) {
             return true;
         }
 
-        String name = clazz.getName();
-
         boolean isIgnored = config.getSource().getIgnoredPackages().entrySet().stream()
                 .filter(Map.Entry::getValue)
                 .anyMatch(e -> name.startsWith(e.getKey()));
@@ -260,7 +494,7 @@ public class InstrumentationConfigurationResolver {
             return true;
         }
 
-        if (clazz.getClassLoader() == null) {
+        if (isBootstrapClass) {
             boolean isIgnoredOnBootstrap = config.getSource().getIgnoredBootstrapPackages().entrySet().stream()
                     .filter(Map.Entry::getValue)
                     .anyMatch(e -> name.startsWith(e.getKey()));
@@ -270,4 +504,24 @@ public class InstrumentationConfigurationResolver {
         }
         return false;
     }
+
+    /**
+     * The cached configurations of a single class.
+     */
+    @Value
+    private static class CachedClassConfiguration {
+
+        /**
+         * The version of the configuration from which the other values of this entry have been derived, see {@link #getCacheVersion(InstrumentationConfiguration)}.
+         */
+        private Object version;
+
+        private ClassInstrumentationConfiguration classConfiguration;
+
+        /**
+         * Maps the signatures of all hooked methods to their hook configurations.
+         * Is null if the hook configurations have not been queried yet for the class.
+         */
+        private Map<String, MethodHookConfiguration> hookConfigurations;
+    }
 }
@@ -5,6 +5,7 @@ import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.scope.ElementDescriptionMatcherSettings;
@@ -15,7 +16,9 @@ import rocks.inspectit.ocelot.core.instrumentation.config.matcher.MatcherChainBu
 import rocks.inspectit.ocelot.core.instrumentation.config.matcher.SpecialElementMatchers;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationScope;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static net.bytebuddy.matcher.ElementMatchers.*;
@@ -75,7 +78,32 @@ public class InstrumentationScopeResolver {
         //we ensure that we only match types which contain at least one matched method
         typeMatcher = typeMatcher.and(declaresMethod(methodMatcher));
 
-        return new InstrumentationScope(typeMatcher, methodMatcher);
+        NameMatcherSettings typeNameMatcher = scopeSettings.getType();
+        if (typeNameMatcher != null && StringUtils.isEmpty(typeNameMatcher.getName())) {
+            typeNameMatcher = null;
+        }
+
+        return new InstrumentationScope(typeMatcher, methodMatcher, typeNameMatcher, getMethodNameMatchers(scopeSettings));
+    }
+
+    /**
+     * Collects the settings the name of a method has to match in order to be matched by the given scope.
+     *
+     * @return the settings of which at least one has to match, null if the names of the methods are not restricted
+     */
+    private List<NameMatcherSettings> getMethodNameMatchers(InstrumentationScopeSettings scopeSettings) {
+        if (scopeSettings.getMethods() == null || scopeSettings.getMethods().isEmpty()) {
+            return null;
+        }
+        List<NameMatcherSettings> result = new ArrayList<>();
+        for (MethodMatcherSettings method : scopeSettings.getMethods()) {
+            //the names of constructors are not matched
+            if (method.getIsConstructor() || StringUtils.isEmpty(method.getName())) {
+                return null;
+            }
+            result.add(method);
+        }
+        return result;
     }
 
     /**
@@ -7,10 +7,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rocks.inspectit.ocelot.config.model.instrumentation.actions.ConditionalActionSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.rules.RuleTracingSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
+import rocks.inspectit.ocelot.core.instrumentation.config.callsorting.CallDependencies;
 import rocks.inspectit.ocelot.core.instrumentation.config.callsorting.CyclicDataDependencyException;
 import rocks.inspectit.ocelot.core.instrumentation.config.callsorting.GenericActionCallSorter;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.ActionCallConfig;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.DataProperties;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationConfiguration;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationRule;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.MethodHookConfiguration;
@@ -19,6 +23,7 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class MethodHookConfigurationResolver {
@@ -53,11 +58,96 @@ public class MethodHookConfigurationResolver {
 
         if (allSettings.isTracingEnabled()) {
             resolveTracing(allSettings, result, matchedRules);
+            resolveSpanAttributeOnlyData(allSettings, result.build(), result);
         }
 
         return result.build();
     }
 
+    /**
+     * Finds the data keys which are only written to be used as span attributes, see {@link MethodHookConfiguration#getSpanAttributeOnlyData()}.
+     * A data key qualifies if it is neither a tag nor propagated, is not read by any other action call, condition, metric or tracing setting
+     * and all action calls writing it are pure and have no other effect than writing this data key.
+     * <p>
+     * If the hook starts or continues a span, data keys written in the entry phase do not qualify:
+     * these calls are executed before the span is created and therefore can not be skipped based on the new span.
+     * The order of the action calls is never changed.
+     *
+     * @param conf   the global instrumentation configuration containing the data properties
+     * @param hook   the hook configuration with the resolved action calls and tracing settings
+     * @param result the builder to which the found data keys are applied
+     */
+    private void resolveSpanAttributeOnlyData(InstrumentationConfiguration conf, MethodHookConfiguration hook, MethodHookConfiguration.MethodHookConfigurationBuilder result) {
+        DataProperties dataProperties = conf.getDataProperties();
+        RuleTracingSettings tracing = hook.getTracing();
+        if (dataProperties == null || tracing.getAttributes().isEmpty()) {
+            return;
+        }
+        List<ActionCallConfig> entryCalls = new ArrayList<>(hook.getPreEntryActions());
+        entryCalls.addAll(hook.getEntryActions());
+        List<ActionCallConfig> allCalls = new ArrayList<>(entryCalls);
+        allCalls.addAll(hook.getPostEntryActions());
+        allCalls.addAll(hook.getPreExitActions());
+        allCalls.addAll(hook.getExitActions());
+        allCalls.addAll(hook.getPostExitActions());
+        //calls using the context can read any data key
+        if (allCalls.stream().anyMatch(call -> usesInput(call, GenericActionSettings.CONTEXT_VARIABLE))) {
+            return;
+        }
+
+        Set<String> attributeOnlyData = new HashSet<>(tracing.getAttributes().values());
+        attributeOnlyData.removeIf(key -> dataProperties.isTag(key) || dataProperties.isPropagatedDownWithinJVM(key) || dataProperties.isPropagatedUpWithinJVM(key));
+        attributeOnlyData.removeAll(getDataReadForTracing(tracing));
+        attributeOnlyData.removeAll(hook.getDataMetrics().values());
+        for (ActionCallConfig call : allCalls) {
+            CallDependencies dependencies = CallDependencies.collectFor(call);
+            Stream.concat(dependencies.getReads().stream(), dependencies.getReadsBeforeWritten().stream())
+                    .filter(key -> !dependencies.getWrites().contains(key))
+                    .forEach(attributeOnlyData::remove);
+            if (!isSkippable(call, dependencies)) {
+                attributeOnlyData.removeAll(dependencies.getWrites());
+            }
+        }
+
+        boolean spanCreatedByHook = Boolean.TRUE.equals(tracing.getStartSpan()) || tracing.getContinueSpan() != null;
+        if (spanCreatedByHook) {
+            entryCalls.forEach(call -> attributeOnlyData.removeAll(CallDependencies.collectFor(call).getWrites()));
+        }
+        result.spanAttributeOnlyData(attributeOnlyData);
+    }
+
+    private Set<String> getDataReadForTracing(RuleTracingSettings tracing) {
+        Set<String> result = new HashSet<>();
+        result.add(tracing.getName());
+        result.add(tracing.getContinueSpan());
+        result.add(tracing.getStoreSpan());
+        result.add(tracing.getSampleProbability());
+        Stream.of(tracing.getStartSpanConditions(), tracing.getContinueSpanConditions(), tracing.getEndSpanConditions(), tracing.getAttributeConditions())
+                .filter(Objects::nonNull)
+                .forEach(conditions -> {
+                    result.add(conditions.getOnlyIfNull());
+                    result.add(conditions.getOnlyIfNotNull());
+                    result.add(conditions.getOnlyIfTrue());
+                    result.add(conditions.getOnlyIfFalse());
+                });
+        result.remove(null);
+        return result;
+    }
+
+    /**
+     * @return true, if the action of the given call is marked as pure and the call has no other effect than writing the data key it is named after
+     */
+    private boolean isSkippable(ActionCallConfig call, CallDependencies dependencies) {
+        return call.getAction().isPure()
+                && !call.getAction().isVoid()
+                && dependencies.getWrites().equals(Collections.singleton(call.getName()));
+    }
+
+    private boolean usesInput(ActionCallConfig call, String input) {
+        Map<String, String> additionalArguments = call.getAction().getAdditionalArgumentTypes();
+        return additionalArguments != null && additionalArguments.containsKey(input);
+    }
+
     private void resolveTracing(InstrumentationConfiguration conf, MethodHookConfiguration.MethodHookConfigurationBuilder result, Set<InstrumentationRule> matchedRules) throws ConflictingDefinitionsException {
 
         val builder = RuleTracingSettings.builder();
@@ -139,13 +229,21 @@ public class MethodHookConfigurationResolver {
             builder.kind(getAndDetectConflicts(rulesDefiningStartSpan, r -> r.getTracing().getKind(), Objects::nonNull, "the span kind"));
             builder.startSpanConditions(getAndDetectConflicts(rulesDefiningStartSpan, r -> r.getTracing().getStartSpanConditions(), ALWAYS_TRUE, "start span conditions"));
             String sampleProbability = getAndDetectConflicts(rulesDefiningStartSpan, r -> r.getTracing().getSampleProbability(), ALWAYS_TRUE, "the trace sample probability");
-            if (StringUtils.isEmpty(sampleProbability)) {
+            //with rate limiting, spans without own probability are sampled by the global sampler
+            if (StringUtils.isEmpty(sampleProbability) && !isRateLimited(conf)) {
                 sampleProbability = String.valueOf(conf.getDefaultTraceSampleProbability());
             }
             builder.sampleProbability(sampleProbability);
+            if (conf.isMetricsEnabled()) {
+                builder.redMetrics(getAndDetectConflicts(rulesDefiningStartSpan, r -> r.getTracing().getRedMetrics(), Objects::nonNull, "red-metrics"));
+            }
         }
     }
 
+    private boolean isRateLimited(InstrumentationConfiguration conf) {
+        TracingSettings tracingSettings = conf.getTracingSettings();
+        return tracingSettings != null && tracingSettings.getRateLimiting().isEnabled();
+    }
 
     /**
      * Utility function for merging configurations from multiple rules and detecting conflicts.
@@ -14,7 +14,7 @@ import java.util.Set;
  * Extracts the dependencies of a given {@link ActionCallConfig}.
  * These dependencies define the order in which all calls for a given rule are executed.
  */
-class CallDependencies {
+public class CallDependencies {
 
     /**
      * Reads teh given action call configuration and extracts all dependencies.
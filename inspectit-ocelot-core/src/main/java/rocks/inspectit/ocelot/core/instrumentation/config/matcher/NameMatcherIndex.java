@@ -0,0 +1,404 @@
+package rocks.inspectit.ocelot.core.instrumentation.config.matcher;
+
+import org.apache.commons.lang3.StringUtils;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.MatcherMode;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches a name against many {@link NameMatcherSettings} at once.
+ * Each settings object is associated with a value and {@link #getMatches(String)} returns the values of all settings matching a given name.
+ * <p>
+ * All names and name fragments are compiled into an Aho-Corasick automaton, so that the name only has to be traversed once
+ * independent of the number of indexed settings. This is done separately for the case sensitive and the case insensitive matcher modes.
+ * For {@link MatcherMode#MATCHES} the literal prefix of the regular expression is indexed, so that the expression only has to be evaluated for names
+ * starting with this prefix. Regular expressions without a literal prefix are evaluated for every name.
+ * The result is the same as when evaluating the matchers created by {@link SpecialElementMatchers#nameIs(NameMatcherSettings)} one by one.
+ *
+ * @param <T> the type of the values associated with the settings
+ */
+public class NameMatcherIndex<T> {
+
+    /**
+     * The metacharacters which end the literal prefix of a regular expression.
+     */
+    private static final String REGEX_METACHARACTERS = ".[]()*+?{}^$|";
+
+    /**
+     * The quantifiers which make the preceding literal optional.
+     */
+    private static final String OPTIONAL_QUANTIFIERS = "*?{";
+
+    private final Automaton<T> caseSensitive = new Automaton<>();
+
+    private final Automaton<T> ignoreCase = new Automaton<>();
+
+    /**
+     * Regular expressions without literal prefix, which are evaluated for every name.
+     */
+    private final List<Output<T>> unindexedRegexes = new ArrayList<>();
+
+    /**
+     * Values which match every name.
+     */
+    private final List<T> unconditionalValues = new ArrayList<>();
+
+    private NameMatcherIndex() {
+    }
+
+    /**
+     * Creates a builder for an index.
+     *
+     * @param <T> the type of the values associated with the settings
+     * @return the builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Finds all values whose settings match the given name.
+     *
+     * @param name the name to match
+     * @return the values, including all values which have been added without settings. The returned set compares the values by identity.
+     */
+    public Set<T> getMatches(String name) {
+        Set<T> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.addAll(unconditionalValues);
+        caseSensitive.collectMatches(name, name, result);
+        if (!ignoreCase.isEmpty()) {
+            ignoreCase.collectMatches(name.toLowerCase(Locale.ROOT), name, result);
+        }
+        for (Output<T> regex : unindexedRegexes) {
+            if (regex.regex.matcher(name).matches()) {
+                result.add(regex.value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the given name is matched by any settings added to this index.
+     * In contrast to {@link #getMatches(String)}, values added without settings are not considered.
+     *
+     * @param name the name to match
+     * @return true, if the settings of at least one value match the given name
+     */
+    public boolean hasMatchingSettings(String name) {
+        Set<T> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        caseSensitive.collectMatches(name, name, result);
+        if (result.isEmpty() && !ignoreCase.isEmpty()) {
+            ignoreCase.collectMatches(name.toLowerCase(Locale.ROOT), name, result);
+        }
+        if (!result.isEmpty()) {
+            return true;
+        }
+        return unindexedRegexes.stream().anyMatch(regex -> regex.regex.matcher(name).matches());
+    }
+
+    /**
+     * Extracts the literal prefix of the given regular expression, every string matched by the expression starts with this prefix.
+     * The extraction is conservative, for example expressions containing alternations never have a prefix.
+     *
+     * @param regex the regular expression
+     * @return the prefix, which is empty if none could be extracted
+     */
+    static String getLiteralPrefix(String regex) {
+        if (regex.indexOf('|') != -1) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char current = regex.charAt(i);
+            char literal;
+            int next;
+            if (current == '\\') {
+                //escaped letters and digits are character classes, back references or quotations
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    break;
+                }
+                literal = regex.charAt(i + 1);
+                next = i + 2;
+            } else if (REGEX_METACHARACTERS.indexOf(current) != -1) {
+                break;
+            } else {
+                literal = current;
+                next = i + 1;
+            }
+            if (next < regex.length()) {
+                char following = regex.charAt(next);
+                if (OPTIONAL_QUANTIFIERS.indexOf(following) != -1) {
+                    break;
+                } else if (following == '+') {
+                    prefix.append(literal);
+                    break;
+                }
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Builder for {@link NameMatcherIndex}.
+     *
+     * @param <T> the type of the values associated with the settings
+     */
+    public static class Builder<T> {
+
+        private final NameMatcherIndex<T> index = new NameMatcherIndex<>();
+
+        /**
+         * Adds a value which is returned for names matching the given settings.
+         * If the settings do not contain a name, the value is returned for every name.
+         *
+         * @param settings the settings to match
+         * @param value    the associated value
+         * @return this builder
+         */
+        public Builder<T> add(NameMatcherSettings settings, T value) {
+            if (settings == null || StringUtils.isEmpty(settings.getName())) {
+                return addUnconditional(value);
+            }
+            String name = settings.getName();
+            switch (settings.getMatcherMode()) {
+                case EQUALS_FULLY:
+                    index.caseSensitive.add(name, new Output<>(true, true, null, value));
+                    break;
+                case EQUALS_FULLY_IGNORE_CASE:
+                    index.ignoreCase.add(name.toLowerCase(Locale.ROOT), new Output<>(true, true, null, value));
+                    break;
+                case STARTS_WITH:
+                    index.caseSensitive.add(name, new Output<>(true, false, null, value));
+                    break;
+                case STARTS_WITH_IGNORE_CASE:
+                    index.ignoreCase.add(name.toLowerCase(Locale.ROOT), new Output<>(true, false, null, value));
+                    break;
+                case ENDS_WITH:
+                    index.caseSensitive.add(name, new Output<>(false, true, null, value));
+                    break;
+                case ENDS_WITH_IGNORE_CASE:
+                    index.ignoreCase.add(name.toLowerCase(Locale.ROOT), new Output<>(false, true, null, value));
+                    break;
+                case CONTAINS:
+                    index.caseSensitive.add(name, new Output<>(false, false, null, value));
+                    break;
+                case CONTAINS_IGNORE_CASE:
+                    index.ignoreCase.add(name.toLowerCase(Locale.ROOT), new Output<>(false, false, null, value));
+                    break;
+                case MATCHES:
+                    addRegex(name, value);
+                    break;
+                default:
+                    throw new RuntimeException("Unhandled matcher mode!");
+            }
+            return this;
+        }
+
+        /**
+         * Adds a value which is returned for every name.
+         *
+         * @param value the value
+         * @return this builder
+         */
+        public Builder<T> addUnconditional(T value) {
+            index.unconditionalValues.add(value);
+            return this;
+        }
+
+        private void addRegex(String regex, T value) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                //the invalid expression is reported when the actual matcher is evaluated
+                addUnconditional(value);
+                return;
+            }
+            String prefix = getLiteralPrefix(regex);
+            Output<T> output = new Output<>(true, false, pattern, value);
+            if (prefix.isEmpty()) {
+                index.unindexedRegexes.add(output);
+            } else {
+                index.caseSensitive.add(prefix, output);
+            }
+        }
+
+        /**
+         * Builds the index, this builder must not be used afterwards.
+         *
+         * @return the index
+         */
+        public NameMatcherIndex<T> build() {
+            index.caseSensitive.build();
+            index.ignoreCase.build();
+            return index;
+        }
+    }
+
+    /**
+     * A pattern which has been found in a name, including the conditions which have to be met so that the associated value matches.
+     */
+    private static class Output<T> {
+
+        /**
+         * True, if the pattern has to be found at the beginning of the name.
+         */
+        private final boolean atStart;
+
+        /**
+         * True, if the pattern has to be found at the end of the name.
+         */
+        private final boolean atEnd;
+
+        /**
+         * The regular expression which must match the name, null if none has to be checked.
+         */
+        private final Pattern regex;
+
+        private final T value;
+
+        /**
+         * The length of the pattern, set when the output is added to the automaton.
+         */
+        private int length;
+
+        private Output(boolean atStart, boolean atEnd, Pattern regex, T value) {
+            this.atStart = atStart;
+            this.atEnd = atEnd;
+            this.regex = regex;
+            this.value = value;
+        }
+
+        private boolean matches(String name, String originalName, int endIndex) {
+            if (atStart && endIndex + 1 != length) {
+                return false;
+            }
+            if (atEnd && endIndex != name.length() - 1) {
+                return false;
+            }
+            return regex == null || regex.matcher(originalName).matches();
+        }
+    }
+
+    /**
+     * An Aho-Corasick automaton finding all occurrences of the added patterns within a single pass over a name.
+     */
+    private static class Automaton<T> {
+
+        private final Node<T> root = new Node<>();
+
+        private boolean empty = true;
+
+        private void add(String pattern, Output<T> output) {
+            Node<T> node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.children.computeIfAbsent(pattern.charAt(i), c -> new Node<>());
+            }
+            output.length = pattern.length();
+            node.outputList.add(output);
+            empty = false;
+        }
+
+        /**
+         * Computes the failure links in breadth-first order.
+         * The outputs of each node are extended by the outputs of the node its failure link points to,
+         * so that all patterns ending at a position are found without following the failure links.
+         */
+        private void build() {
+            Queue<Node<T>> queue = new ArrayDeque<>();
+            root.failure = root;
+            root.outputs = toArray(root.outputList);
+            for (Node<T> child : root.children.values()) {
+                child.failure = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node<T> node = queue.poll();
+                node.outputList.addAll(Arrays.asList(node.failure.outputs));
+                node.outputs = toArray(node.outputList);
+                node.outputList = null;
+                for (Map.Entry<Character, Node<T>> transition : node.children.entrySet()) {
+                    Node<T> child = transition.getValue();
+                    child.failure = root.getNext(node.failure, transition.getKey());
+                    queue.add(child);
+                }
+            }
+            root.outputList = null;
+        }
+
+        private boolean isEmpty() {
+            return empty;
+        }
+
+        /**
+         * Adds the values of all outputs matching the given name to the result.
+         *
+         * @param name         the name to traverse, lowercase for case insensitive automatons
+         * @param originalName the unmodified name, used for evaluating regular expressions
+         * @param result       the set to which the values are added
+         */
+        private void collectMatches(String name, String originalName, Set<T> result) {
+            if (empty) {
+                return;
+            }
+            Node<T> node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = root.getNext(node, name.charAt(i));
+                for (Output<T> output : node.outputs) {
+                    if (output.matches(name, originalName, i)) {
+                        result.add(output.value);
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Output<T>[] toArray(List<Output<T>> outputs) {
+            return outputs.toArray(new Output[0]);
+        }
+    }
+
+    private static class Node<T> {
+
+        private final Map<Character, Node<T>> children = new HashMap<>();
+
+        private Node<T> failure;
+
+        /**
+         * The outputs while the automaton is built.
+         */
+        private List<Output<T>> outputList = new ArrayList<>();
+
+        /**
+         * All outputs of this node including the ones reachable via failure links, available after the automaton has been built.
+         */
+        private Output<T>[] outputs;
+
+        /**
+         * Computes the next state, this node must be the root of the automaton.
+         *
+         * @param current the current state
+         * @param c       the next character
+         * @return the next state
+         */
+        private Node<T> getNext(Node<T> current, char c) {
+            Node<T> node = current;
+            while (true) {
+                Node<T> next = node.children.get(c);
+                if (next != null) {
+                    return next;
+                }
+                if (node == this) {
+                    return this;
+                }
+                node = node.failure;
+            }
+        }
+    }
+}
@@ -25,6 +25,11 @@ public class GenericActionConfig {
      */
     private boolean isVoid;
 
+    /**
+     * See {@link GenericActionSettings#isPure()}
+     */
+    private boolean pure;
+
     /**
      * The name uniquely identifying this generic action.
      */
@@ -82,4 +87,9 @@ public class GenericActionConfig {
      * A java method body using the specified variables, containing a return statement returning the value provided by this action
      */
     private String valueBody;
+
+    /**
+     * See {@link GenericActionSettings#getInitBody()}, null if the action has no init body.
+     */
+    private String initBody;
 }
@@ -1,6 +1,7 @@
 package rocks.inspectit.ocelot.core.instrumentation.config.model;
 
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Singular;
 import lombok.Value;
 import lombok.experimental.NonFinal;
@@ -54,4 +55,11 @@ public class InstrumentationConfiguration {
      */
     @Singular
     private Set<InstrumentationRule> rules;
+
+    /**
+     * Index of all scopes of the {@link #rules} by the names of the types and methods they can match.
+     * If this is null, the matchers of all scopes have to be evaluated and no class is instrumented at load time.
+     */
+    @EqualsAndHashCode.Exclude
+    private InstrumentationScopeIndex scopeIndex;
 }
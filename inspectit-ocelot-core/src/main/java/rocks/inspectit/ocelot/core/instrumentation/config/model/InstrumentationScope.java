@@ -1,15 +1,44 @@
 package rocks.inspectit.ocelot.core.instrumentation.config.model;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Value;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+
+import java.util.List;
 
 @Value
+@AllArgsConstructor
 public class InstrumentationScope {
 
     private ElementMatcher.Junction<TypeDescription> typeMatcher;
 
     private ElementMatcher.Junction<MethodDescription> methodMatcher;
 
+    /**
+     * The settings the name of a type has to match in order to be matched by the {@link #typeMatcher}.
+     * This is already part of the {@link #typeMatcher}, it is only used for indexing the scopes by the names of the types they can match.
+     * Null if the scope does not restrict the names of the matched types.
+     */
+    @EqualsAndHashCode.Exclude
+    private NameMatcherSettings typeNameMatcher;
+
+    /**
+     * The settings of which at least one has to match the name of a method in order for it to be matched by the {@link #methodMatcher}.
+     * This is already part of the {@link #methodMatcher}, it is only used for indexing the scopes by the names of the methods they can match.
+     * Null if the scope does not restrict the names of the matched methods.
+     */
+    @EqualsAndHashCode.Exclude
+    private List<NameMatcherSettings> methodNameMatchers;
+
+    public InstrumentationScope(ElementMatcher.Junction<TypeDescription> typeMatcher, ElementMatcher.Junction<MethodDescription> methodMatcher) {
+        this(typeMatcher, methodMatcher, null, null);
+    }
+
+    public InstrumentationScope(ElementMatcher.Junction<TypeDescription> typeMatcher, ElementMatcher.Junction<MethodDescription> methodMatcher, NameMatcherSettings typeNameMatcher) {
+        this(typeMatcher, methodMatcher, typeNameMatcher, null);
+    }
 }
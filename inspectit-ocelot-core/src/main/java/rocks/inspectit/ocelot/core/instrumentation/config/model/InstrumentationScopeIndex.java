@@ -0,0 +1,84 @@
+package rocks.inspectit.ocelot.core.instrumentation.config.model;
+
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+import rocks.inspectit.ocelot.core.instrumentation.config.matcher.NameMatcherIndex;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Index of the {@link InstrumentationScope}s of the active rules by the names of the types and methods they can match.
+ * This way only the matchers of scopes which can match the name of a type or method have to be evaluated for it.
+ * Scopes which do not restrict the names of types or methods are candidates for every type or method respectively.
+ * <p>
+ * The index is also used for deciding which classes are instrumented at load time, see {@link #isTypeNameTargeted(String)}.
+ */
+public class InstrumentationScopeIndex {
+
+    private final NameMatcherIndex<InstrumentationScope> scopesByTypeName;
+
+    private final NameMatcherIndex<InstrumentationScope> scopesByMethodName;
+
+    private InstrumentationScopeIndex(NameMatcherIndex<InstrumentationScope> scopesByTypeName, NameMatcherIndex<InstrumentationScope> scopesByMethodName) {
+        this.scopesByTypeName = scopesByTypeName;
+        this.scopesByMethodName = scopesByMethodName;
+    }
+
+    /**
+     * Creates an index for all scopes of the given rules.
+     *
+     * @param rules the rules whose scopes are indexed
+     * @return the created index
+     */
+    public static InstrumentationScopeIndex of(Collection<InstrumentationRule> rules) {
+        Set<InstrumentationScope> scopes = Collections.newSetFromMap(new IdentityHashMap<>());
+        rules.forEach(rule -> scopes.addAll(rule.getScopes()));
+
+        NameMatcherIndex.Builder<InstrumentationScope> typeIndex = NameMatcherIndex.builder();
+        NameMatcherIndex.Builder<InstrumentationScope> methodIndex = NameMatcherIndex.builder();
+        for (InstrumentationScope scope : scopes) {
+            typeIndex.add(scope.getTypeNameMatcher(), scope);
+            if (scope.getMethodNameMatchers() == null) {
+                methodIndex.addUnconditional(scope);
+            } else {
+                for (NameMatcherSettings methodName : scope.getMethodNameMatchers()) {
+                    methodIndex.add(methodName, scope);
+                }
+            }
+        }
+        return new InstrumentationScopeIndex(typeIndex.build(), methodIndex.build());
+    }
+
+    /**
+     * Finds all scopes whose type matcher can match a type with the given name.
+     *
+     * @param typeName the fully qualified name of the type
+     * @return the candidate scopes, the returned set compares the scopes by identity
+     */
+    public Set<InstrumentationScope> getTypeCandidates(String typeName) {
+        return scopesByTypeName.getMatches(typeName);
+    }
+
+    /**
+     * Finds all scopes whose method matcher can match a method with the given name.
+     *
+     * @param methodName the name of the method
+     * @return the candidate scopes, the returned set compares the scopes by identity
+     */
+    public Set<InstrumentationScope> getMethodCandidates(String methodName) {
+        return scopesByMethodName.getMatches(methodName);
+    }
+
+    /**
+     * Checks if the given type name is explicitly targeted by the type name matcher of any scope.
+     * Scopes which do not restrict the names of types, e.g. scopes only matching on interfaces, are not considered.
+     *
+     * @param typeName the fully qualified name of the type
+     * @return true, if the name is matched by the type name matcher of any scope
+     */
+    public boolean isTypeNameTargeted(String typeName) {
+        return scopesByTypeName.hasMatchingSettings(typeName);
+    }
+}
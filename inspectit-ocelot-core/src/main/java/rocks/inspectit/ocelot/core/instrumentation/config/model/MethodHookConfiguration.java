@@ -6,8 +6,10 @@ import lombok.Value;
 import rocks.inspectit.ocelot.config.model.instrumentation.rules.RuleTracingSettings;
 import rocks.inspectit.ocelot.core.instrumentation.hook.MethodHook;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The configuration used to build a {@link MethodHook}
@@ -73,4 +75,11 @@ public class MethodHookConfiguration {
      */
     @Singular
     private Map<String, Number> constantMetrics;
+
+    /**
+     * The data keys which are only written by this hook to be used as span attributes and are not visible outside of it.
+     * The action calls writing these data keys are only executed if the current span records events.
+     */
+    @Builder.Default
+    private Set<String> spanAttributeOnlyData = Collections.emptySet();
 }
@@ -115,6 +115,16 @@ public class InspectitContextImpl implements InternalInspectitContext {
      */
     private AutoCloseable currentSpanScope;
 
+    /**
+     * The name of the span opened via {@link #enterSpan(Span)} if metrics are recorded for it when it is ended, otherwise null.
+     */
+    private String spanMetricsName;
+
+    /**
+     * The {@link System#nanoTime()} at which the span for which metrics are recorded has been started.
+     */
+    private long spanMetricsStartNanos;
+
     /**
      * Holds the tag context which was opened by this context with the call to {@link #makeActive()}.
      * If none was opened, this variable is null.
@@ -244,6 +254,31 @@ public class InspectitContextImpl implements InternalInspectitContext {
         }
     }
 
+    /**
+     * Marks the span opened via {@link #enterSpan(Span)} so that metrics are recorded for it when it is ended.
+     *
+     * @param spanName   the name of the span
+     * @param startNanos the {@link System#nanoTime()} at which the span has been started
+     */
+    public void setSpanMetricsStart(String spanName, long startNanos) {
+        spanMetricsName = spanName;
+        spanMetricsStartNanos = startNanos;
+    }
+
+    /**
+     * @return the name of the span for which metrics are recorded, null if no metrics are recorded
+     */
+    public String getSpanMetricsName() {
+        return spanMetricsName;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the span for which metrics are recorded has been started
+     */
+    public long getSpanMetricsStartNanos() {
+        return spanMetricsStartNanos;
+    }
+
     /**
      * @return true, if {@link #enterSpan(Span)} was called
      */
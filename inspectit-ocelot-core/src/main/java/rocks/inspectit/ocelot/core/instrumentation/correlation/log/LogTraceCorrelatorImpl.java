@@ -40,7 +40,10 @@ public class LogTraceCorrelatorImpl implements LogTraceCorrelator {
         if (oldId.equals(newId) || !newContext.isValid() || !newContext.getTraceOptions().isSampled()) {
             return spanScope;
         } else {
-            AutoCloseable undoMdcChanges = applyCorrelationForTraceContext(newContext);
+            MDCAccess.Undo undoMdcChanges = applyCorrelationForTraceContext(newContext);
+            if (undoMdcChanges == MDCAccess.Undo.NOOP) {
+                return spanScope;
+            }
             return () -> {
                 undoMdcChanges.close();
                 spanScope.close();
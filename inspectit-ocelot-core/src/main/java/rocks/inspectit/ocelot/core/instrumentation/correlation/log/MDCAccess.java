@@ -62,19 +62,31 @@ public class MDCAccess implements IClassDiscoveryListener {
      * Places the given value under the given key in ALL MDCs of all loaded logging libraries.
      * This change can be undone by invoking the returned Undo object.
      *
+     * If none of the MDCs has been changed, {@link Undo#NOOP} is returned.
+     *
      * @param key   the key under which the given value shall be put into all MDCs
      * @param value the value to insert
      * @return A function for undoing the change in all MDCs (Restoring any previously set value).
      */
     public Undo put(String key, String value) {
-        List<Undo> undos = new ArrayList<>();
+        List<Undo> undos = null;
         for (MDCAdapter adapter : activeAdapters.values()) {
-            undos.add(adapter.set(key, value));
+            Undo undo = adapter.set(key, value);
+            if (undo != Undo.NOOP) {
+                if (undos == null) {
+                    undos = new ArrayList<>();
+                }
+                undos.add(undo);
+            }
+        }
+        if (undos == null) {
+            return Undo.NOOP;
         }
+        List<Undo> changes = undos;
         return () -> {
             //iterate in reverse order in case of inter-dependencies
-            for (int i = undos.size() - 1; i >= 0; i--) {
-                undos.get(i).close();
+            for (int i = changes.size() - 1; i >= 0; i--) {
+                changes.get(i).close();
             }
         };
     }
@@ -2,30 +2,48 @@ package rocks.inspectit.ocelot.core.instrumentation.correlation.log.adapters;
 
 import lombok.extern.slf4j.Slf4j;
 import rocks.inspectit.ocelot.core.instrumentation.correlation.log.MDCAccess;
-import rocks.inspectit.ocelot.core.utils.WeakMethodReference;
+import rocks.inspectit.ocelot.core.utils.WeakMethodHandleReference;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
 
 /**
  * Implementation for all MDCs in form of a static Map which offer a put, get and remove method.
+ * The methods are invoked through {@link MethodHandle}s, the MDC is not modified if it already contains the value to set.
  */
 @Slf4j
 public abstract class AbstractStaticMapMDCAdapter implements MDCAdapter {
 
     /**
-     * Reference to the put(key,value) method.
+     * The type with which the put(key,value) method is invoked.
      */
-    private WeakMethodReference putMethod;
+    protected static final MethodType PUT_TYPE = MethodType.methodType(void.class, String.class, Object.class);
 
     /**
-     * Reference to the get(key) method.
+     * The type with which the get(key) method is invoked.
      */
-    private WeakMethodReference getMethod;
+    protected static final MethodType GET_TYPE = MethodType.methodType(Object.class, String.class);
 
     /**
-     * Reference to the remove(key) method.
+     * The type with which the remove(key) method is invoked.
      */
-    private WeakMethodReference removeMethod;
+    protected static final MethodType REMOVE_TYPE = MethodType.methodType(void.class, String.class);
+
+    /**
+     * Reference to the put(key,value) method, adapted to {@link #PUT_TYPE}.
+     */
+    private WeakMethodHandleReference putMethod;
+
+    /**
+     * Reference to the get(key) method, adapted to {@link #GET_TYPE}.
+     */
+    private WeakMethodHandleReference getMethod;
+
+    /**
+     * Reference to the remove(key) method, adapted to {@link #REMOVE_TYPE}.
+     */
+    private WeakMethodHandleReference removeMethod;
 
     /**
      * Constructor.
@@ -34,7 +52,7 @@ public abstract class AbstractStaticMapMDCAdapter implements MDCAdapter {
      * @param get    the static get(key) method of the MDC
      * @param remove the static remove(key) method of the MDC
      */
-    protected AbstractStaticMapMDCAdapter(WeakMethodReference put, WeakMethodReference get, WeakMethodReference remove) {
+    protected AbstractStaticMapMDCAdapter(WeakMethodHandleReference put, WeakMethodHandleReference get, WeakMethodHandleReference remove) {
         putMethod = put;
         getMethod = get;
         removeMethod = remove;
@@ -42,9 +60,9 @@ public abstract class AbstractStaticMapMDCAdapter implements MDCAdapter {
 
     @Override
     public MDCAccess.Undo set(String key, String value) {
-        Method put = putMethod.get();
-        Method get = getMethod.get();
-        Method remove = removeMethod.get();
+        MethodHandle put = putMethod.get();
+        MethodHandle get = getMethod.get();
+        MethodHandle remove = removeMethod.get();
 
         if (put == null || get == null || remove == null) {
             return MDCAccess.Undo.NOOP; //the MDC has been garbage collected
@@ -52,19 +70,22 @@ public abstract class AbstractStaticMapMDCAdapter implements MDCAdapter {
 
         try {
 
-            Object previous = get.invoke(null, key);
+            Object previous = (Object) get.invokeExact(key);
+            if (Objects.equals(previous, value)) {
+                return MDCAccess.Undo.NOOP; //the MDC already contains the value, e.g. for nested spans of the same trace
+            }
             if (value != null) {
-                put.invoke(null, key, value);
+                put.invokeExact(key, (Object) value);
             } else {
-                remove.invoke(null, key);
+                remove.invokeExact(key);
             }
 
             return () -> {
                 try {
                     if (previous != null) {
-                        put.invoke(null, key, previous);
+                        put.invokeExact(key, previous);
                     } else {
-                        remove.invoke(null, key);
+                        remove.invokeExact(key);
                     }
                 } catch (Throwable e) {
                     log.error("Could not reset MDC", e);
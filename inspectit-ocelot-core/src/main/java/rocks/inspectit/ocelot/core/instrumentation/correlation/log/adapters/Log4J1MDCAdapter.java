@@ -1,7 +1,7 @@
 package rocks.inspectit.ocelot.core.instrumentation.correlation.log.adapters;
 
 import lombok.extern.slf4j.Slf4j;
-import rocks.inspectit.ocelot.core.utils.WeakMethodReference;
+import rocks.inspectit.ocelot.core.utils.WeakMethodHandleReference;
 
 /**
  * Provides access to Log4j1s ThreadContext.
@@ -14,7 +14,7 @@ public class Log4J1MDCAdapter extends AbstractStaticMapMDCAdapter {
      */
     public static final String MDC_CLASS = "org.apache.log4j.MDC";
 
-    private Log4J1MDCAdapter(WeakMethodReference put, WeakMethodReference get, WeakMethodReference remove) {
+    private Log4J1MDCAdapter(WeakMethodHandleReference put, WeakMethodHandleReference get, WeakMethodHandleReference remove) {
         super(put, get, remove);
     }
 
@@ -26,11 +26,11 @@ public class Log4J1MDCAdapter extends AbstractStaticMapMDCAdapter {
      */
     public static Log4J1MDCAdapter get(Class<?> mdcClazz) {
         try {
-            WeakMethodReference put = WeakMethodReference.create(mdcClazz, "put", String.class, Object.class);
-            WeakMethodReference get = WeakMethodReference.create(mdcClazz, "get", String.class);
-            WeakMethodReference remove = WeakMethodReference.create(mdcClazz, "remove", String.class);
+            WeakMethodHandleReference put = WeakMethodHandleReference.create(mdcClazz, "put", PUT_TYPE, String.class, Object.class);
+            WeakMethodHandleReference get = WeakMethodHandleReference.create(mdcClazz, "get", GET_TYPE, String.class);
+            WeakMethodHandleReference remove = WeakMethodHandleReference.create(mdcClazz, "remove", REMOVE_TYPE, String.class);
             return new Log4J1MDCAdapter(put, get, remove);
-        } catch (NoSuchMethodException e) {
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new IllegalArgumentException("MDC class did not contain expected methods", e);
         }
     }
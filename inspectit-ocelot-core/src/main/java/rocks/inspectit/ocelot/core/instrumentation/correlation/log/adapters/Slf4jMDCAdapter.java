@@ -1,7 +1,7 @@
 package rocks.inspectit.ocelot.core.instrumentation.correlation.log.adapters;
 
 import lombok.extern.slf4j.Slf4j;
-import rocks.inspectit.ocelot.core.utils.WeakMethodReference;
+import rocks.inspectit.ocelot.core.utils.WeakMethodHandleReference;
 
 /**
  * Adapter for accessing the slf4j MDC class using reflection.
@@ -15,7 +15,7 @@ public class Slf4jMDCAdapter extends AbstractStaticMapMDCAdapter {
      */
     public static final String MDC_CLASS = "org.slf4j.MDC";
 
-    private Slf4jMDCAdapter(WeakMethodReference put, WeakMethodReference get, WeakMethodReference remove) {
+    private Slf4jMDCAdapter(WeakMethodHandleReference put, WeakMethodHandleReference get, WeakMethodHandleReference remove) {
         super(put, get, remove);
     }
 
@@ -27,11 +27,11 @@ public class Slf4jMDCAdapter extends AbstractStaticMapMDCAdapter {
      */
     public static Slf4jMDCAdapter get(Class<?> mdcClazz) {
         try {
-            WeakMethodReference put = WeakMethodReference.create(mdcClazz, "put", String.class, String.class);
-            WeakMethodReference get = WeakMethodReference.create(mdcClazz, "get", String.class);
-            WeakMethodReference remove = WeakMethodReference.create(mdcClazz, "remove", String.class);
+            WeakMethodHandleReference put = WeakMethodHandleReference.create(mdcClazz, "put", PUT_TYPE, String.class, String.class);
+            WeakMethodHandleReference get = WeakMethodHandleReference.create(mdcClazz, "get", GET_TYPE, String.class);
+            WeakMethodHandleReference remove = WeakMethodHandleReference.create(mdcClazz, "remove", REMOVE_TYPE, String.class);
             return new Slf4jMDCAdapter(put, get, remove);
-        } catch (NoSuchMethodException e) {
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new IllegalArgumentException("MDC class did not contain expected methods", e);
         }
     }
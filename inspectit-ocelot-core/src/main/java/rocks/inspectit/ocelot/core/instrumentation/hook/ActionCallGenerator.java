@@ -34,16 +34,26 @@ public class ActionCallGenerator {
      * @return the executable generic action
      */
     public IHookAction generateAndBindGenericAction(MethodReflectionInformation methodInfo, ActionCallConfig actionCallConfig) {
+        IHookAction actionCall = generateAndBindGenericActionWithoutConditions(methodInfo, actionCallConfig);
+        return ConditionalHookAction.wrapWithConditionChecks(actionCallConfig.getCallSettings(), actionCall, variableAccessorFactory);
+    }
+
+    /**
+     * Generates a action and binds its arguments, ignoring the conditions defined for the call.
+     * The caller is responsible for only executing the returned action if the conditions of the call are met.
+     *
+     * @param methodInfo       the method in which this action will be used.
+     * @param actionCallConfig the specification of the call to the data action
+     * @return the executable generic action
+     */
+    public IHookAction generateAndBindGenericActionWithoutConditions(MethodReflectionInformation methodInfo, ActionCallConfig actionCallConfig) {
         GenericActionConfig actionConfig = actionCallConfig.getAction();
-        val callSettings = actionCallConfig.getCallSettings();
         val injectedActionClass = genericActionGenerator.getOrGenerateGenericAction(actionConfig, methodInfo.getDeclaringClass());
 
         val dynamicAssignments = getDynamicInputAssignments(methodInfo, actionCallConfig);
         val constantAssignments = getConstantInputAssignments(methodInfo, actionCallConfig);
 
-        IHookAction actionCall = BoundGenericAction.bind(actionCallConfig.getName(), actionConfig, injectedActionClass, constantAssignments, dynamicAssignments);
-
-        return ConditionalHookAction.wrapWithConditionChecks(callSettings, actionCall, variableAccessorFactory);
+        return BoundGenericAction.bind(actionCallConfig.getName(), actionConfig, injectedActionClass, constantAssignments, dynamicAssignments);
     }
 
     /**
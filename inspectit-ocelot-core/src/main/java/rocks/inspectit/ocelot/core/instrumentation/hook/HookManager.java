@@ -13,19 +13,22 @@ import rocks.inspectit.ocelot.bootstrap.instrumentation.IHookManager;
 import rocks.inspectit.ocelot.bootstrap.instrumentation.IMethodHook;
 import rocks.inspectit.ocelot.bootstrap.instrumentation.noop.NoopHookManager;
 import rocks.inspectit.ocelot.bootstrap.instrumentation.noop.NoopMethodHook;
+import rocks.inspectit.ocelot.core.instrumentation.InstrumentationTriggerer;
+import rocks.inspectit.ocelot.core.instrumentation.actions.GenericActionGenerator;
 import rocks.inspectit.ocelot.core.instrumentation.config.InstrumentationConfigurationResolver;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.ActionCallConfig;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.MethodHookConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.injection.ClassInjector;
 import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 import rocks.inspectit.ocelot.core.utils.CoreUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation for {@link IHookManager}.
@@ -45,6 +48,15 @@ public class HookManager {
     @Autowired
     private MethodHookGenerator hookGenerator;
 
+    @Autowired
+    private InstrumentationTriggerer triggerer;
+
+    @Autowired
+    private GenericActionGenerator genericActionGenerator;
+
+    @Autowired
+    private ClassInjector classInjector;
+
     private final LoadingCache<Class<?>, ConcurrentHashMap<String, MethodHook>> hooks = CacheBuilder.newBuilder().weakKeys().build(
             new CacheLoader<Class<?>, ConcurrentHashMap<String, MethodHook>>() {
                 @Override
@@ -72,10 +84,31 @@ public class HookManager {
      * @return
      */
     private IMethodHook getHook(Class<?> clazz, String methodSignature) {
-        val hook = hooks.getUnchecked(clazz).get(methodSignature);
+        val classHooks = hooks.getIfPresent(clazz);
+        if (classHooks == null) {
+            onFirstHookRequest(clazz);
+            return NoopMethodHook.INSTANCE;
+        }
+        val hook = classHooks.get(methodSignature);
         return hook == null ? NoopMethodHook.INSTANCE : hook;
     }
 
+    /**
+     * Invoked when a hook of a class is requested for which no hooks have been created yet.
+     * This is the case for classes which have been instrumented when they were loaded and have not been discovered yet.
+     * Their hooks can not be built when they are loaded, as the class does not exist yet at this point.
+     * Building them here would compile and inject classes on the application thread, therefore the completion of their instrumentation is only requested.
+     * It is completed by an instrumentation batch started immediately, which builds their hooks first.
+     * Until then, the instrumented methods are not measured.
+     *
+     * @param clazz the class whose hooks have been requested
+     */
+    private void onFirstHookRequest(Class<?> clazz) {
+        if (hooks.asMap().putIfAbsent(clazz, new ConcurrentHashMap<>()) == null) {
+            triggerer.requestLoadTimeInstrumentationCompletion(clazz);
+        }
+    }
+
     public void updateHooksForClass(Class<?> clazz) {
         try (val sm = selfMonitoring.withDurationSelfMonitoring("HookManager")) {
             Map<MethodDescription, MethodHookConfiguration> hookConfigs = configResolver.getHookConfigurations(clazz);
@@ -83,11 +116,49 @@ public class HookManager {
             val activeClassHooks = hooks.getUnchecked(clazz);
 
             deactivateRemovedHooks(clazz, hookConfigs, activeClassHooks);
+            precompileActions(clazz, hookConfigs, activeClassHooks);
             addOrReplaceHooks(clazz, hookConfigs, activeClassHooks);
         }
     }
 
+    /**
+     * Starts the compilation of all generic actions used by hooks which need to be built, so that they are compiled in parallel.
+     *
+     * @param clazz            the class whose hooks are updated
+     * @param hookConfigs      the new hook configurations of the class
+     * @param activeClassHooks the currently active hooks of the class
+     */
+    private void precompileActions(Class<?> clazz, Map<MethodDescription, MethodHookConfiguration> hookConfigs, ConcurrentHashMap<String, MethodHook> activeClassHooks) {
+        Set<GenericActionConfig> actions = new HashSet<>();
+        hookConfigs.forEach((method, config) -> {
+            MethodHookConfiguration previous = Optional.ofNullable(activeClassHooks.get(CoreUtils.getSignature(method)))
+                    .map(MethodHook::getSourceConfiguration)
+                    .orElse(null);
+            if (!Objects.equals(config, previous)) {
+                Stream.of(config.getPreEntryActions(), config.getEntryActions(), config.getPostEntryActions(),
+                        config.getPreExitActions(), config.getExitActions(), config.getPostExitActions())
+                        .flatMap(List::stream)
+                        .map(ActionCallConfig::getAction)
+                        .forEach(actions::add);
+            }
+        });
+        if (!actions.isEmpty()) {
+            genericActionGenerator.precompileGenericActions(actions, clazz);
+        }
+    }
+
+    /**
+     * Builds and activates all new or changed hooks of the given class.
+     * If the hooks are built within a {@link ClassInjector.RedefinitionBatch}, injected classes which are reused
+     * are only redefined when the batch is closed. Therefore the hooks are only activated after the redefinitions succeeded.
+     * If they fail, the new hooks are dropped.
+     *
+     * @param clazz            the class whose hooks are updated
+     * @param hookConfigs      the new hook configurations of the class
+     * @param activeClassHooks the currently active hooks of the class
+     */
     private void addOrReplaceHooks(Class<?> clazz, Map<MethodDescription, MethodHookConfiguration> hookConfigs, ConcurrentHashMap<String, MethodHook> activeClassHooks) {
+        Map<String, MethodHook> newHooks = new HashMap<>();
         hookConfigs.forEach((method, config) -> {
             String signature = CoreUtils.getSignature(method);
             MethodHookConfiguration previous = Optional.ofNullable(activeClassHooks.get(signature))
@@ -98,13 +169,19 @@ public class HookManager {
                     log.debug("Adding/updating hook for {} of {}", signature, clazz.getName());
                 }
                 try {
-                    activeClassHooks.put(signature, hookGenerator.buildHook(clazz, method, config));
+                    newHooks.put(signature, hookGenerator.buildHook(clazz, method, config));
                 } catch (Throwable t) {
                     log.error("Error generating hook for {} of {}. Method will not be hooked.", signature, clazz.getName(), t);
                     activeClassHooks.remove(signature);
                 }
             }
         });
+        if (!newHooks.isEmpty()) {
+            classInjector.afterRedefinitions(() -> activeClassHooks.putAll(newHooks), () -> {
+                log.error("Error redefining the actions of the hooks for {}. Methods will not be hooked.", clazz.getName());
+                newHooks.keySet().forEach(activeClassHooks::remove);
+            });
+        }
     }
 
     private void deactivateRemovedHooks(Class<?> clazz, Map<MethodDescription, MethodHookConfiguration> hookConfigs, ConcurrentHashMap<String, MethodHook> activeClassHooks) {
@@ -9,10 +9,12 @@ import net.bytebuddy.description.method.MethodDescription;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.rules.RuleTracingSettings;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.ActionCallConfig;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.MethodHookConfiguration;
 import rocks.inspectit.ocelot.core.instrumentation.context.ContextManager;
+import rocks.inspectit.ocelot.core.instrumentation.hook.actions.ActionCondition;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.ConditionalHookAction;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.MetricsRecorder;
@@ -21,9 +23,11 @@ import rocks.inspectit.ocelot.core.instrumentation.hook.actions.span.EndSpanActi
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.span.StoreSpanAction;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.span.WriteSpanAttributesAction;
 import rocks.inspectit.ocelot.core.metrics.MeasuresAndViewsManager;
+import rocks.inspectit.ocelot.core.metrics.RedMetricsRecorder;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 /**
  * This class is responsible for translating {@link MethodHookConfiguration}s
@@ -33,6 +37,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
 @Slf4j
 public class MethodHookGenerator {
 
+    /**
+     * The condition of action calls writing data which is only used as span attributes, see {@link MethodHookConfiguration#getSpanAttributeOnlyData()}.
+     */
+    private static final Predicate<IHookAction.ExecutionContext> CURRENT_SPAN_RECORDING = ctx -> WriteSpanAttributesAction.isCurrentSpanRecording();
+
     @Autowired
     private ContextManager contextManager;
 
@@ -48,6 +57,9 @@ public class MethodHookGenerator {
     @Autowired
     private VariableAccessorFactory variableAccessorFactory;
 
+    @Autowired
+    private RedMetricsRecorder redMetricsRecorder;
+
     /**
      * Builds a executable method hook based on the given configuration.
      *
@@ -66,18 +78,20 @@ public class MethodHookGenerator {
 
         RuleTracingSettings tracingSettings = config.getTracing();
 
+        Set<String> attributeOnlyData = config.getSpanAttributeOnlyData();
+
         val entryActions = new CopyOnWriteArrayList<IHookAction>();
-        entryActions.addAll(buildActionCalls(config.getPreEntryActions(), methodInfo));
-        entryActions.addAll(buildActionCalls(config.getEntryActions(), methodInfo));
+        entryActions.addAll(buildActionCalls(config.getPreEntryActions(), methodInfo, attributeOnlyData));
+        entryActions.addAll(buildActionCalls(config.getEntryActions(), methodInfo, attributeOnlyData));
         if (tracingSettings != null) {
-            entryActions.addAll(buildTracingEntryActions(tracingSettings));
+            entryActions.addAll(buildTracingEntryActions(tracingSettings, methodInfo));
         }
-        entryActions.addAll(buildActionCalls(config.getPostEntryActions(), methodInfo));
+        entryActions.addAll(buildActionCalls(config.getPostEntryActions(), methodInfo, attributeOnlyData));
         builder.entryActions(entryActions);
 
         val exitActions = new CopyOnWriteArrayList<IHookAction>();
-        exitActions.addAll(buildActionCalls(config.getPreExitActions(), methodInfo));
-        exitActions.addAll(buildActionCalls(config.getExitActions(), methodInfo));
+        exitActions.addAll(buildActionCalls(config.getPreExitActions(), methodInfo, attributeOnlyData));
+        exitActions.addAll(buildActionCalls(config.getExitActions(), methodInfo, attributeOnlyData));
         if (tracingSettings != null) {
             exitActions.addAll(buildTracingExitActions(tracingSettings));
         }
@@ -90,7 +104,7 @@ public class MethodHookGenerator {
     }
 
 
-    private List<IHookAction> buildTracingEntryActions(RuleTracingSettings tracing) {
+    private List<IHookAction> buildTracingEntryActions(RuleTracingSettings tracing, MethodReflectionInformation methodInfo) {
         if (tracing.getStartSpan() || tracing.getContinueSpan() != null) {
 
             val actionBuilder = ContinueOrStartSpanAction.builder();
@@ -102,7 +116,9 @@ public class MethodHookGenerator {
                 actionBuilder
                         .startSpanCondition(ConditionalHookAction.getAsPredicate(tracing.getStartSpanConditions(), variableAccessorFactory))
                         .nameAccessor(name)
-                        .spanKind(tracing.getKind());
+                        .defaultSpanName(ContinueOrStartSpanAction.getDefaultSpanName(methodInfo))
+                        .spanKind(tracing.getKind())
+                        .recordSpanMetrics(isRecordingRedMetrics(tracing));
                 configureSampling(tracing, actionBuilder);
             } else {
                 actionBuilder.startSpanCondition(ctx -> false);
@@ -155,12 +171,19 @@ public class MethodHookGenerator {
         }
 
         if (tracing.getEndSpan() && (tracing.getStartSpan() || tracing.getContinueSpan() != null)) {
-            val endSpanAction = new EndSpanAction(ConditionalHookAction.getAsPredicate(tracing.getEndSpanConditions(), variableAccessorFactory));
+            val endSpanCondition = ConditionalHookAction.getAsPredicate(tracing.getEndSpanConditions(), variableAccessorFactory);
+            val endSpanAction = isRecordingRedMetrics(tracing)
+                    ? new EndSpanAction(endSpanCondition, redMetricsRecorder, tracing.getKind())
+                    : new EndSpanAction(endSpanCondition);
             result.add(endSpanAction);
         }
         return result;
     }
 
+    private boolean isRecordingRedMetrics(RuleTracingSettings tracing) {
+        return tracing.getStartSpan() && Boolean.TRUE.equals(tracing.getRedMetrics());
+    }
+
     private Optional<IHookAction> buildMetricsRecorder(MethodHookConfiguration config) {
         if (!config.getConstantMetrics().isEmpty() || !config.getDataMetrics().isEmpty()) {
             Map<String, VariableAccessor> dataMetrics = new HashMap<>();
@@ -172,12 +195,59 @@ public class MethodHookGenerator {
         }
     }
 
+    /**
+     * Builds the given action calls, the calls writing data only used as span attributes are only executed if the current span records events.
+     *
+     * @param calls             the calls to build
+     * @param methodInfo        the hooked method
+     * @param attributeOnlyData the data keys only used as span attributes
+     * @return the executable actions
+     */
+    private List<IHookAction> buildActionCalls(List<ActionCallConfig> calls, MethodReflectionInformation methodInfo, Set<String> attributeOnlyData) {
+        List<IHookAction> result = new ArrayList<>();
+        int start = 0;
+        while (start < calls.size()) {
+            boolean attributeOnly = attributeOnlyData.contains(calls.get(start).getName());
+            int end = start + 1;
+            while (end < calls.size() && attributeOnlyData.contains(calls.get(end).getName()) == attributeOnly) {
+                end++;
+            }
+            List<IHookAction> actions = buildActionCalls(calls.subList(start, end), methodInfo);
+            if (attributeOnly && !actions.isEmpty()) {
+                ConditionalHookAction group = new ConditionalHookAction(CURRENT_SPAN_RECORDING, actions.get(0));
+                actions.subList(1, actions.size()).forEach(group::addAction);
+                result.add(group);
+            } else {
+                result.addAll(actions);
+            }
+            start = end;
+        }
+        return result;
+    }
+
     private List<IHookAction> buildActionCalls(List<ActionCallConfig> calls, MethodReflectionInformation methodInfo) {
 
         List<IHookAction> result = new ArrayList<>();
+        //the group to which the next action may be added, null if the next action has to start a new group
+        ConditionalHookAction openGroup = null;
         for (val call : calls) {
             try {
-                result.add(actionCallGenerator.generateAndBindGenericAction(methodInfo, call));
+                IHookAction action = actionCallGenerator.generateAndBindGenericActionWithoutConditions(methodInfo, call);
+                Predicate<IHookAction.ExecutionContext> condition = ConditionalHookAction.getAsPredicate(call.getCallSettings(), variableAccessorFactory);
+                if (condition == ConditionalHookAction.ALWAYS_TRUE) {
+                    result.add(action);
+                    openGroup = null;
+                    continue;
+                }
+                if (openGroup != null && openGroup.getCondition().equals(condition)) {
+                    openGroup.addAction(action);
+                } else {
+                    openGroup = new ConditionalHookAction(condition, action);
+                    result.add(openGroup);
+                }
+                if (mayAlterCondition(call, (ActionCondition) condition)) {
+                    openGroup = null;
+                }
             } catch (Exception e) {
                 log.error("Failed to build action {} for data {} on method {}, no value will be assigned",
                         call.getAction().getName(), call.getName(), methodInfo.getMethodFQN(), e);
@@ -186,5 +256,18 @@ public class MethodHookGenerator {
         return result;
     }
 
+    /**
+     * Checks if the given call could change the outcome of the given condition, in which case following calls with the same condition
+     * can not share the evaluation of the condition with the given call.
+     *
+     * @param call      the action call
+     * @param condition the condition of the call
+     * @return true, if the call writes a data key read by the condition or can write arbitrary data via the "_context" input
+     */
+    private boolean mayAlterCondition(ActionCallConfig call, ActionCondition condition) {
+        return condition.getDataKeys().contains(call.getName())
+                || call.getAction().getAdditionalArgumentTypes().containsKey(GenericActionSettings.CONTEXT_VARIABLE);
+    }
+
 
 }
@@ -0,0 +1,129 @@
+package rocks.inspectit.ocelot.core.instrumentation.hook.actions;
+
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.StringUtils;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.ConditionalActionSettings;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessorFactory;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A compiled form of the conditions defined by {@link ConditionalActionSettings}.
+ * All conditions referring to the same data key are merged, so that each data key is read only once per evaluation.
+ * <p>
+ * Two instances are equal if they are based on the same conditions, which allows actions with equal conditions to share the evaluation.
+ */
+@EqualsAndHashCode(of = {"onlyIfNull", "onlyIfNotNull", "onlyIfTrue", "onlyIfFalse"})
+public class ActionCondition implements Predicate<IHookAction.ExecutionContext> {
+
+    private final String onlyIfNull;
+
+    private final String onlyIfNotNull;
+
+    private final String onlyIfTrue;
+
+    private final String onlyIfFalse;
+
+    /**
+     * The checks to perform, one per data key.
+     */
+    private final DataCheck[] checks;
+
+    private ActionCondition(ConditionalActionSettings conditions, VariableAccessorFactory variableAccessorFactory) {
+        onlyIfNull = StringUtils.defaultIfEmpty(conditions.getOnlyIfNull(), null);
+        onlyIfNotNull = StringUtils.defaultIfEmpty(conditions.getOnlyIfNotNull(), null);
+        onlyIfTrue = StringUtils.defaultIfEmpty(conditions.getOnlyIfTrue(), null);
+        onlyIfFalse = StringUtils.defaultIfEmpty(conditions.getOnlyIfFalse(), null);
+
+        Map<String, DataCheck> checksByKey = new LinkedHashMap<>();
+        if (onlyIfTrue != null) {
+            getCheck(checksByKey, onlyIfTrue, variableAccessorFactory).requireTrue = true;
+        }
+        if (onlyIfFalse != null) {
+            getCheck(checksByKey, onlyIfFalse, variableAccessorFactory).requireFalse = true;
+        }
+        if (onlyIfNotNull != null) {
+            getCheck(checksByKey, onlyIfNotNull, variableAccessorFactory).requireNotNull = true;
+        }
+        if (onlyIfNull != null) {
+            getCheck(checksByKey, onlyIfNull, variableAccessorFactory).requireNull = true;
+        }
+        checks = checksByKey.values().toArray(new DataCheck[0]);
+    }
+
+    /**
+     * Compiles the given conditions.
+     *
+     * @param conditions              the conditions to compile
+     * @param variableAccessorFactory the accessor used for accessing context variables as well as special variables
+     * @return the compiled conditions or an empty optional if no conditions are defined
+     */
+    public static Optional<ActionCondition> compile(ConditionalActionSettings conditions, VariableAccessorFactory variableAccessorFactory) {
+        ActionCondition result = new ActionCondition(conditions, variableAccessorFactory);
+        return result.checks.length == 0 ? Optional.empty() : Optional.of(result);
+    }
+
+    /**
+     * @return the data keys which are read by this condition
+     */
+    public Set<String> getDataKeys() {
+        Set<String> result = new HashSet<>();
+        for (DataCheck check : checks) {
+            result.add(check.dataKey);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean test(IHookAction.ExecutionContext context) {
+        for (DataCheck check : checks) {
+            if (!check.test(context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DataCheck getCheck(Map<String, DataCheck> checksByKey, String dataKey, VariableAccessorFactory variableAccessorFactory) {
+        return checksByKey.computeIfAbsent(dataKey, (key) -> new DataCheck(key, variableAccessorFactory.getVariableAccessor(key)));
+    }
+
+    /**
+     * All conditions referring to a single data key.
+     */
+    private static class DataCheck {
+
+        private final String dataKey;
+
+        private final VariableAccessor accessor;
+
+        private boolean requireNull;
+
+        private boolean requireNotNull;
+
+        private boolean requireTrue;
+
+        private boolean requireFalse;
+
+        private DataCheck(String dataKey, VariableAccessor accessor) {
+            this.dataKey = dataKey;
+            this.accessor = accessor;
+        }
+
+        private boolean test(IHookAction.ExecutionContext context) {
+            Object value = accessor.get(context);
+            if (value == null) {
+                return !(requireNotNull || requireTrue || requireFalse);
+            }
+            if (requireNull) {
+                return false;
+            }
+            if (requireTrue && !(Boolean) value) {
+                return false;
+            }
+            return !requireFalse || !(Boolean) value;
+        }
+    }
+}
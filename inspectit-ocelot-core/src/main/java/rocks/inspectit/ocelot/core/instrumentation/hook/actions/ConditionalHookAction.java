@@ -1,33 +1,67 @@
 package rocks.inspectit.ocelot.core.instrumentation.hook.actions;
 
-import lombok.Value;
-import org.apache.commons.lang3.StringUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import rocks.inspectit.ocelot.config.model.instrumentation.actions.ConditionalActionSettings;
-import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessorFactory;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
-@Value
+/**
+ * Executes one or more actions only if a given condition is met.
+ * The condition is evaluated only once for all contained actions, which are executed in the order in which they have been added.
+ * <p>
+ * If one of the contained actions throws an exception, only this action is removed so that the remaining actions are still executed.
+ */
+@Slf4j
 public class ConditionalHookAction implements IHookAction {
 
     public static final Predicate<ExecutionContext> ALWAYS_TRUE = x -> true;
 
-    private Predicate<ExecutionContext> condition;
+    @Getter
+    private final Predicate<ExecutionContext> condition;
 
-    private IHookAction action;
+    private final List<IHookAction> actions = new CopyOnWriteArrayList<>();
+
+    public ConditionalHookAction(Predicate<ExecutionContext> condition, IHookAction action) {
+        this.condition = condition;
+        actions.add(action);
+    }
+
+    /**
+     * Adds an action which is executed after all previously added actions if the condition is met.
+     * The caller has to ensure that none of the previously added actions alters the result of the condition.
+     *
+     * @param action the action to add
+     */
+    public void addAction(IHookAction action) {
+        actions.add(action);
+    }
 
     @Override
     public void execute(ExecutionContext context) {
         if (condition.test(context)) {
-            action.execute(context);
+            for (IHookAction action : actions) {
+                try {
+                    action.execute(context);
+                } catch (Throwable t) {
+                    log.error("Action {} executed for method {} threw an exception and from now on is disabled!",
+                            action.getName(), context.getHook().getMethodInformation().getMethodFQN(), t);
+                    actions.remove(action);
+                }
+            }
         }
     }
 
     @Override
     public String getName() {
-        return action.getName();
+        if (actions.size() == 1) {
+            return actions.get(0).getName();
+        }
+        return actions.stream().map(IHookAction::getName).collect(Collectors.joining(", ", "[", "]"));
     }
 
     /**
@@ -53,47 +87,11 @@ public class ConditionalHookAction implements IHookAction {
      *
      * @param conditions              the conditions to evaluate
      * @param variableAccessorFactory the accessor used for accessing context variables as well as special variables
-     * @return the predicate, which is {@link #ALWAYS_TRUE} if no conditions are present
+     * @return the predicate, which is {@link #ALWAYS_TRUE} if no conditions are present and an {@link ActionCondition} otherwise
      */
     public static Predicate<ExecutionContext> getAsPredicate(ConditionalActionSettings conditions, VariableAccessorFactory variableAccessorFactory) {
-        Predicate<ExecutionContext> result = null;
-        if (!StringUtils.isEmpty(conditions.getOnlyIfTrue())) {
-            String dataKey = conditions.getOnlyIfTrue();
-            VariableAccessor conditionDataAccessor = variableAccessorFactory.getVariableAccessor(dataKey);
-            result = and(result, (ctx) -> {
-                Object val = conditionDataAccessor.get(ctx);
-                return val != null && (Boolean) val;
-            });
-        }
-        if (!StringUtils.isEmpty(conditions.getOnlyIfFalse())) {
-            String dataKey = conditions.getOnlyIfFalse();
-            VariableAccessor conditionDataAccessor = variableAccessorFactory.getVariableAccessor(dataKey);
-            result = and(result, (ctx) -> {
-                Object val = conditionDataAccessor.get(ctx);
-                return val != null && !(Boolean) val;
-            });
-        }
-
-        if (!StringUtils.isEmpty(conditions.getOnlyIfNotNull())) {
-            String dataKey = conditions.getOnlyIfNotNull();
-            VariableAccessor conditionDataAccessor = variableAccessorFactory.getVariableAccessor(dataKey);
-            result = and(result, (ctx) -> conditionDataAccessor.get(ctx) != null);
-        }
-        if (!StringUtils.isEmpty(conditions.getOnlyIfNull())) {
-            String dataKey = conditions.getOnlyIfNull();
-            VariableAccessor conditionDataAccessor = variableAccessorFactory.getVariableAccessor(dataKey);
-            result = and(result, (ctx) -> conditionDataAccessor.get(ctx) == null);
-        }
-        return Optional.ofNullable(result).orElse(ALWAYS_TRUE);
-    }
-
-    private static <T> Predicate<T> and(Predicate<T> first, Predicate<T> second) {
-        if (first == null) {
-            return second;
-        }
-        if (second == null) {
-            return first;
-        }
-        return first.and(second);
+        return ActionCondition.compile(conditions, variableAccessorFactory)
+                .<Predicate<ExecutionContext>>map(condition -> condition)
+                .orElse(ALWAYS_TRUE);
     }
 }
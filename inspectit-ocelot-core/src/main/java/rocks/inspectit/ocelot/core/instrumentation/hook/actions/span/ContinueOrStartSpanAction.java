@@ -1,6 +1,8 @@
 package rocks.inspectit.ocelot.core.instrumentation.hook.actions.span;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.opencensus.trace.*;
 import io.opencensus.trace.samplers.Samplers;
 import lombok.AllArgsConstructor;
@@ -12,27 +14,56 @@ import rocks.inspectit.ocelot.core.instrumentation.hook.MethodReflectionInformat
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
 
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 
 /**
  * Invokes {@link InspectitContextImpl#enterSpan(Span)} on the currently active context.
+ * <p>
+ * Everything which does not depend on the invocation is prepared when the hook is built:
+ * the default span name is precomputed and samplers for dynamic sample probabilities are shared per distinct probability.
  */
 @AllArgsConstructor
 @Builder
 public class ContinueOrStartSpanAction implements IHookAction {
 
+    /**
+     * The maximum number of distinct dynamic sample probabilities for which the samplers are cached.
+     */
+    @VisibleForTesting
+    static final int MAX_CACHED_SAMPLERS = 100;
+
+    /**
+     * The samplers for dynamic sample probabilities, shared by all actions.
+     */
+    private static final Cache<Double, Sampler> DYNAMIC_SAMPLERS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_SAMPLERS)
+            .build();
+
     /**
      * The variable accessor used to fetch the name for a newly began span.
      * Is configured using {@link RuleTracingSettings#getName()}
-     * If this field is null or the returned value is null, the methods FQN without the package will be used as span name.
+     * If this field is null or the returned value is null, {@link #defaultSpanName} will be used as span name.
      */
     private final VariableAccessor nameAccessor;
 
+    /**
+     * The span name used if no name is provided by {@link #nameAccessor}, usually the methods FQN without the package.
+     * If this field is null, the name is derived from the {@link MethodReflectionInformation} of the hook on each invocation.
+     */
+    private final String defaultSpanName;
+
     /**
      * The span kind to use when beginning a new span, can be null.
      */
     private final Span.Kind spanKind;
 
+    /**
+     * If true, newly began spans are marked via {@link InspectitContextImpl#setSpanMetricsStart(String, long)},
+     * so that their metrics are recorded by the {@link EndSpanAction}.
+     */
+    private final boolean recordSpanMetrics;
+
     /**
      * The data key to read for continuing a span.
      */
@@ -65,6 +96,12 @@ public class ContinueOrStartSpanAction implements IHookAction {
      */
     private Predicate<ExecutionContext> startSpanCondition;
 
+    /**
+     * The sampler which has been used for the last dynamic sample probability.
+     * As the probability usually does not change between invocations, this avoids boxing the probability for the cache lookup.
+     */
+    private volatile DynamicSampler lastDynamicSampler;
+
     @Override
     public String getName() {
         return "Span continuing / creation";
@@ -94,7 +131,7 @@ public class ContinueOrStartSpanAction implements IHookAction {
         if (startSpanCondition.test(context)) {
             InspectitContextImpl ctx = context.getInspectitContext();
 
-            String spanName = getSpanName(context, context.getHook().getMethodInformation());
+            String spanName = getSpanName(context);
             SpanContext remoteParent = ctx.getAndClearCurrentRemoteSpanContext();
             SpanBuilder builder;
             if (remoteParent != null) {
@@ -102,13 +139,18 @@ public class ContinueOrStartSpanAction implements IHookAction {
             } else {
                 builder = Tracing.getTracer().spanBuilder(spanName);
             }
-            builder.setSpanKind(spanKind);
+            if (spanKind != null) {
+                builder.setSpanKind(spanKind);
+            }
             Sampler sampler = getSampler(context);
             if (sampler != null) {
                 builder.setSampler(sampler);
             }
 
             ctx.enterSpan(builder.startSpan());
+            if (recordSpanMetrics) {
+                ctx.setSpanMetricsStart(spanName, System.nanoTime());
+            }
         }
     }
 
@@ -117,6 +159,7 @@ public class ContinueOrStartSpanAction implements IHookAction {
      * This can be either {@link #staticSampler} if a constant sampling probability was specified,
      * or a probability read from {@link InspectitContext} for a given data-key.
      * If neither is specified, null will be returned.
+     * The samplers for dynamic probabilities are cached, so that the same instance is returned for the same probability.
      *
      * @param context the context used to query a dynamic probability
      */
@@ -126,13 +169,28 @@ public class ContinueOrStartSpanAction implements IHookAction {
         if (dynamicSampleProbabilityAccessor != null) {
             Object probability = dynamicSampleProbabilityAccessor.get(context);
             if (probability instanceof Number) {
-                sampler = Samplers.probabilitySampler(Math.min(1, Math.max(0, ((Number) probability).doubleValue())));
+                sampler = getDynamicSampler(Math.min(1, Math.max(0, ((Number) probability).doubleValue())));
             }
         }
         return sampler;
     }
 
-    private String getSpanName(ExecutionContext context, MethodReflectionInformation methodInfo) {
+    private Sampler getDynamicSampler(double probability) {
+        DynamicSampler last = lastDynamicSampler;
+        if (last != null && Double.compare(last.probability, probability) == 0) {
+            return last.sampler;
+        }
+        Sampler sampler;
+        try {
+            sampler = DYNAMIC_SAMPLERS.get(probability, () -> Samplers.probabilitySampler(probability));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        lastDynamicSampler = new DynamicSampler(probability, sampler);
+        return sampler;
+    }
+
+    private String getSpanName(ExecutionContext context) {
         String name = null;
         if (nameAccessor != null) {
             Object data = nameAccessor.get(context);
@@ -141,8 +199,36 @@ public class ContinueOrStartSpanAction implements IHookAction {
             }
         }
         if (name == null) {
-            name = methodInfo.getDeclaringClass().getSimpleName() + "." + methodInfo.getName();
+            name = defaultSpanName;
+        }
+        if (name == null) {
+            name = getDefaultSpanName(context.getHook().getMethodInformation());
         }
         return name;
     }
+
+    /**
+     * Derives the span name used if no name is configured.
+     *
+     * @param methodInfo the hooked method
+     * @return the methods FQN without the package
+     */
+    public static String getDefaultSpanName(MethodReflectionInformation methodInfo) {
+        return methodInfo.getDeclaringClass().getSimpleName() + "." + methodInfo.getName();
+    }
+
+    /**
+     * A sampler together with the probability it has been created for.
+     */
+    private static class DynamicSampler {
+
+        private final double probability;
+
+        private final Sampler sampler;
+
+        private DynamicSampler(double probability, Sampler sampler) {
+            this.probability = probability;
+            this.sampler = sampler;
+        }
+    }
 }
@@ -5,23 +5,44 @@ import io.opencensus.trace.Tracing;
 import lombok.AllArgsConstructor;
 import rocks.inspectit.ocelot.core.instrumentation.context.InspectitContextImpl;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
+import rocks.inspectit.ocelot.core.metrics.RedMetricsRecorder;
 
 import java.util.function.Predicate;
 
 /**
  * Ends the current span if the specified conditions are met and {@link InspectitContextImpl#enterSpan(Span)} was invoked on active context.
+ * If the span has been marked via {@link InspectitContextImpl#setSpanMetricsStart(String, long)}, its metrics are recorded.
  */
 @AllArgsConstructor
 public class EndSpanAction implements IHookAction {
 
     private Predicate<ExecutionContext> condition;
 
+    /**
+     * The recorder for the metrics of the ended span, null if no metrics are recorded.
+     */
+    private RedMetricsRecorder redMetricsRecorder;
+
+    /**
+     * The kind of the span used for the metrics, can be null.
+     */
+    private Span.Kind spanKind;
+
+    public EndSpanAction(Predicate<ExecutionContext> condition) {
+        this(condition, null, null);
+    }
+
     @Override
     public void execute(ExecutionContext context) {
         InspectitContextImpl ctx = context.getInspectitContext();
         if (ctx.enteredSpan() && condition.test(context)) {
             Span current = Tracing.getTracer().getCurrentSpan();
             current.end();
+            String spanMetricsName = ctx.getSpanMetricsName();
+            if (redMetricsRecorder != null && spanMetricsName != null) {
+                long durationNanos = System.nanoTime() - ctx.getSpanMetricsStartNanos();
+                redMetricsRecorder.record(spanMetricsName, spanKind, durationNanos, context.getThrown() != null);
+            }
         }
     }
 
@@ -1,9 +1,9 @@
 package rocks.inspectit.ocelot.core.instrumentation.hook.actions.span;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracing;
-import lombok.AllArgsConstructor;
-import lombok.val;
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
 
@@ -11,25 +11,74 @@ import java.util.Map;
 
 /**
  * Reads specified data keys from the current context and attaches them to the current span as attributes.
+ * Booleans and numbers are attached as typed attributes, all other values using their string representation.
+ * Nothing is read if the current span does not record events, e.g. because it has not been sampled.
  */
-@AllArgsConstructor
 public class WriteSpanAttributesAction implements IHookAction {
 
-    private final Map<String, VariableAccessor> attributeAccessors;
+    /**
+     * The attribute keys, the value of the key at index i is provided by {@link #attributeAccessors}[i].
+     */
+    private final String[] attributeKeys;
+
+    private final VariableAccessor[] attributeAccessors;
+
+    public WriteSpanAttributesAction(Map<String, VariableAccessor> attributeAccessors) {
+        attributeKeys = new String[attributeAccessors.size()];
+        this.attributeAccessors = new VariableAccessor[attributeAccessors.size()];
+        int i = 0;
+        for (Map.Entry<String, VariableAccessor> entry : attributeAccessors.entrySet()) {
+            attributeKeys[i] = entry.getKey();
+            this.attributeAccessors[i] = entry.getValue();
+            i++;
+        }
+    }
 
     @Override
     public void execute(ExecutionContext context) {
-        val span = Tracing.getTracer().getCurrentSpan();
-        if (span.getContext().isValid()) {
-            for (val entry : attributeAccessors.entrySet()) {
-                Object value = entry.getValue().get(context);
+        Span span = Tracing.getTracer().getCurrentSpan();
+        if (isRecording(span)) {
+            for (int i = 0; i < attributeKeys.length; i++) {
+                Object value = attributeAccessors[i].get(context);
                 if (value != null) {
-                    span.putAttribute(entry.getKey(), AttributeValue.stringAttributeValue(value.toString()));
+                    span.putAttribute(attributeKeys[i], toAttributeValue(value));
                 }
             }
         }
     }
 
+    /**
+     * @return true, if the current span records events, so that attributes written to it are not discarded
+     */
+    public static boolean isCurrentSpanRecording() {
+        return isRecording(Tracing.getTracer().getCurrentSpan());
+    }
+
+    private static boolean isRecording(Span span) {
+        return span.getContext().isValid() && span.getOptions().contains(Span.Options.RECORD_EVENTS);
+    }
+
+    /**
+     * Converts the given value into an {@link AttributeValue} of the matching type.
+     *
+     * @param value the value to convert, not null
+     * @return the attribute value
+     */
+    @VisibleForTesting
+    static AttributeValue toAttributeValue(Object value) {
+        if (value instanceof String) {
+            return AttributeValue.stringAttributeValue((String) value);
+        } else if (value instanceof Boolean) {
+            return AttributeValue.booleanAttributeValue((Boolean) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return AttributeValue.longAttributeValue(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            return AttributeValue.doubleAttributeValue(((Number) value).doubleValue());
+        } else {
+            return AttributeValue.stringAttributeValue(value.toString());
+        }
+    }
+
     @Override
     public String getName() {
         return "Span Attribute Writing";
@@ -1,10 +1,16 @@
 package rocks.inspectit.ocelot.core.instrumentation.injection;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.objenesis.instantiator.util.ClassDefinitionUtils;
 import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
+import rocks.inspectit.ocelot.core.instrumentation.config.event.InstrumentationConfigurationChangedEvent;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 
 import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
@@ -12,11 +18,22 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Injects provided bytecode into arbitrary target classloaders.
  * As injection has become harder since Java 9, it is required that a known neighbor class is given from the target
  * package. This also restricts that the injected class must be from the same package.
+ * <p>
+ * Injected classes are tracked by generation, which is increased on every change of the instrumentation configuration.
+ * Classes which would be injected into the bootstrap are placed in a separate classloader per generation,
+ * so that they are unloaded as soon as all classes of an older generation are unused.
+ * Classes injected into other classloaders can only be unloaded together with their classloader, therefore they are recycled instead.
+ * The number and the bytecode size of the injected classes are reported via the {@link SelfMonitoringService}.
  */
 @Component
 @Slf4j
@@ -28,27 +45,38 @@ public class ClassInjector {
     @Autowired
     Instrumentation instrumentation;
 
-    private InjectionClassLoader bootstrapChildLoader = new InjectionClassLoader();
+    @Autowired
+    private SelfMonitoringService selfMonitoring;
 
+    /**
+     * The current generation of injected classes, see {@link #startNewGeneration()}.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The classloader used instead of the bootstrap for the current generation.
+     * Older loaders are only referenced by the classes they contain, so they are unloaded as soon as none of their classes are in use anymore.
+     */
+    private volatile InjectionClassLoader bootstrapChildLoader = new InjectionClassLoader();
 
-    private Random nameGenerationRandom = new Random();
+    /**
+     * A random identifier of this injector which is part of all generated class names.
+     * It prevents name clashes with classes injected by a previous instance of the agent, so that the generated names
+     * do not have to be checked against the target classloader.
+     */
+    private final long injectorId = new Random().nextLong() & Long.MAX_VALUE;
 
     /**
-     * For each class loader this map holds a map, mapping a "structural identifier" to orphan classes.
-     * To see what a structural identifier is, see the docu of {@link #inject(String, Class, ByteCodeProvider)}.
-     * When a class that previously was injected gets unused, the {@link InjectedClass} is garbage collected.
-     * However, as the actual class object is part of the target classloader, it does not get unloaded until the classlaoder does.
-     * Therefore, to prevent creating new classes over and over again, we detect such "orphan" classes and reuse them using
-     * {@link Instrumentation#redefineClasses(ClassDefinition...)}.
-     * Every found orphan class is registered in this map.
+     * Holds the {@link InjectionTarget} for each class loader into which classes are injected.
+     * Each target holds its own lock, so that injections into different classloaders do not block each other.
      * <p>
-     * We never directly inject classes to the bootstrap. Instead, we use our {@link #bootstrapChildLoader}.
+     * We never directly inject classes to the bootstrap. Instead, we use the {@link #bootstrapChildLoader} of the current generation.
      */
-    private WeakHashMap<ClassLoader, Map<String, LinkedList<WeakReference<Class<?>>>>> orphanClasses = new WeakHashMap<>();
+    private final Cache<ClassLoader, InjectionTarget> injectionTargets = CacheBuilder.newBuilder().weakKeys().build();
 
     /**
      * With this reference queue we detected that an {@link InjectedClass} has been garbage collected, meaning that the underlying class object is now an orphan.
-     * We process this queue and add all found orphans to {@link #orphanClasses}.
+     * We process this queue and add all found orphans to the orphan index of their {@link InjectionTarget}.
      */
     private ReferenceQueue<InjectedClass<?>> unusedInjectedClassesQueue = new ReferenceQueue<>();
 
@@ -56,7 +84,102 @@ public class ClassInjector {
      * We need to store our {@link InjectedClassReference} to be notified when a {@link InjectedClass} is garbage collected.
      * Without this set, {@link InjectedClassReference}s get garbage collected immediately and {@link #unusedInjectedClassesQueue} never gets notified.
      */
-    private Set<InjectedClassReference> activeReferences = new HashSet<>();
+    private Set<InjectedClassReference> activeReferences = ConcurrentHashMap.newKeySet();
+
+    /**
+     * With this reference queue we detect that an orphan class has been unloaded without having been reused.
+     */
+    private ReferenceQueue<Class<?>> unloadedOrphansQueue = new ReferenceQueue<>();
+
+    /**
+     * The number of injected classes which are currently in use, meaning that their {@link InjectedClass} has not been garbage collected yet.
+     */
+    private final AtomicLong activeClassesCount = new AtomicLong();
+
+    /**
+     * The total size of the bytecode of all classes counted by {@link #activeClassesCount}.
+     */
+    private final AtomicLong activeClassesSize = new AtomicLong();
+
+    /**
+     * The number of orphan classes which have neither been reused nor unloaded yet.
+     */
+    private final AtomicLong orphanClassesCount = new AtomicLong();
+
+    /**
+     * The total size of the bytecode of all classes counted by {@link #orphanClassesCount}.
+     */
+    private final AtomicLong orphanClassesSize = new AtomicLong();
+
+    /**
+     * True, if the counters have changed since they have been recorded the last time.
+     */
+    private final AtomicBoolean countersChanged = new AtomicBoolean();
+
+    /**
+     * The redefinitions of reused orphan classes which have been deferred by a {@link RedefinitionBatch} active on the current thread,
+     * together with the callbacks to invoke once they have been performed.
+     * Is null if no batch is active.
+     */
+    private final ThreadLocal<PendingRedefinitions> pendingRedefinitions = new ThreadLocal<>();
+
+    /**
+     * Starts a new generation of injected classes.
+     * Classes which are injected into the bootstrap from now on are placed in a new classloader.
+     * Therefore the classloader of the previous generation can be unloaded as soon as all classes it contains have become orphans.
+     */
+    @EventListener(InstrumentationConfigurationChangedEvent.class)
+    void startNewGeneration() {
+        collectOrphanClasses();
+        long newGeneration = generation.incrementAndGet();
+        bootstrapChildLoader = new InjectionClassLoader();
+        log.debug("Starting generation {} of injected classes, {} classes are active and {} are orphans",
+                newGeneration, activeClassesCount.get(), orphanClassesCount.get());
+        selfMonitorInjectedClasses();
+    }
+
+    /**
+     * @return the current generation of injected classes, see {@link #startNewGeneration()}
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Starts a batch on the current thread in which the redefinitions of reused orphan classes are deferred until the batch is closed.
+     * As every call to {@link Instrumentation#redefineClasses(ClassDefinition...)} requires a safepoint, all deferred classes are redefined at once.
+     * <p>
+     * Until the batch is closed, classes returned by {@link #inject(String, Class, ByteCodeProvider)} may still contain the bytecode of their previous usage!
+     * Therefore they must not be executed before the batch has been closed, use {@link #afterRedefinitions(Runnable, Runnable)} to publish them.
+     * If a batch is already active on the current thread, the returned batch does nothing and the outer batch performs the redefinitions.
+     *
+     * @return the batch, which must be closed on the same thread
+     */
+    public RedefinitionBatch startRedefinitionBatch() {
+        if (pendingRedefinitions.get() != null) {
+            return new RedefinitionBatch(false);
+        }
+        pendingRedefinitions.set(new PendingRedefinitions());
+        return new RedefinitionBatch(true);
+    }
+
+    /**
+     * Registers callbacks for the {@link RedefinitionBatch} active on the current thread.
+     * If no batch is active, all classes returned by {@link #inject(String, Class, ByteCodeProvider)} have already been redefined
+     * and therefore the success callback is invoked immediately.
+     *
+     * @param onSuccess invoked after all deferred redefinitions of the batch have been performed successfully
+     * @param onFailure invoked if any deferred redefinition of the batch failed, meaning that classes injected within the batch may contain outdated bytecode
+     */
+    public void afterRedefinitions(Runnable onSuccess, Runnable onFailure) {
+        PendingRedefinitions pending = pendingRedefinitions.get();
+        if (pending == null) {
+            onSuccess.run();
+        } else {
+            pending.onSuccess.add(onSuccess);
+            pending.onFailure.add(onFailure);
+        }
+    }
 
     /**
      * Injects a custom class into a target classloader.
@@ -67,7 +190,11 @@ public class ClassInjector {
      * Therefore NEVER EVER store and use the class object {@link InjectedClass#getInjectedClassObject()} without also storing the {@link InjectedClass} instance.
      * <p>
      * NOTE: If the neighborClass comes from the bootstrap, the classes are not actually added to the bootstrap.
-     * Instead a child-classloader is used.
+     * Instead a child-classloader is used, which is replaced with every generation.
+     * Only orphans injected into the child-classloader of the current generation are reused for the bootstrap.
+     * <p>
+     * Injections are only synchronized per target classloader. If a {@link RedefinitionBatch} is active on the current thread,
+     * the redefinition of a reused orphan class is deferred until the batch is closed.
      *
      * @param classStructureIdentifier A symbolic identifier for the "structure" of the class to inject. It must be guaranteed that two injected classes with the same "classStructureIdentifier" could be redefined into each other.
      *                                 This means that as described for {@link Instrumentation#redefineClasses(ClassDefinition...)}, the classes must have the same methods (including their signatures), fields and all modifieres must be the same.
@@ -76,49 +203,75 @@ public class ClassInjector {
      * @return the class which has been injected
      * @throws Exception if an exception occurred during the injection or during the invocation of byteCodeGenerator, this exception is passed through
      */
-    public synchronized InjectedClass<?> inject(String classStructureIdentifier, Class<?> neighborClass, ByteCodeProvider byteCodeGenerator) throws Exception {
-
-        //check if we can reuse an existing class instead of injecting a new one
-        Optional<Class<?>> classToReuse = tryReusingClassInLoader(classStructureIdentifier, neighborClass.getClassLoader());
+    public InjectedClass<?> inject(String classStructureIdentifier, Class<?> neighborClass, ByteCodeProvider byteCodeGenerator) throws Exception {
+        collectOrphanClasses();
+        ClassLoader neighborLoader = neighborClass.getClassLoader();
+        ClassLoader targetLoader = neighborLoader == null ? bootstrapChildLoader : neighborLoader;
+        InjectionTarget target = getInjectionTarget(targetLoader);
+        InjectedClass<?> result;
+        synchronized (target) {
+            //check if we can reuse an existing class instead of injecting a new one
+            Optional<OrphanClass> classToReuse = target.pollOrphan(classStructureIdentifier);
+            classToReuse.ifPresent(this::removeOrphanFromCounters);
 
-        try {
-            String className = classToReuse.map(Class::getName).orElse(getUniqueNameInSamePackage(neighborClass));
-            byte[] byteCode = byteCodeGenerator.generateBytecode(className);
-            InjectedClass<?> result;
-            Class<?> resultClass;
-            if (classToReuse.isPresent()) {
-                resultClass = classToReuse.get();
-                ClassDefinition def = new ClassDefinition(resultClass, byteCode);
-                log.debug("Reusing orphan generated class {}", className);
-                instrumentation.redefineClasses(def);
-                result = new InjectedClass<>(resultClass);
-            } else {
-                log.debug("Injecting new class {}", className);
-                resultClass = injectClass(neighborClass, className, byteCode);
-                result = new InjectedClass<Object>(resultClass);
+            try {
+                String className = classToReuse.map(orphan -> orphan.clazz.getName()).orElseGet(() -> getUniqueNameInSamePackage(neighborClass, target));
+                byte[] byteCode = byteCodeGenerator.generateBytecode(className);
+                Class<?> resultClass;
+                if (classToReuse.isPresent()) {
+                    resultClass = classToReuse.get().clazz;
+                    log.debug("Reusing orphan generated class {}", className);
+                    redefine(new ClassDefinition(resultClass, byteCode));
+                    result = new InjectedClass<>(resultClass);
+                } else {
+                    log.debug("Injecting new class {}", className);
+                    resultClass = injectClass(neighborClass, targetLoader, className, byteCode);
+                    result = new InjectedClass<Object>(resultClass);
+                }
+                //This reference lets us no when all references to the InjectedClass object are lost
+                // as soon as this happens we assume that the underlying class can be recycled
+                activeReferences.add(new InjectedClassReference(classStructureIdentifier, byteCode.length, result, resultClass, unusedInjectedClassesQueue));
+                activeClassesCount.incrementAndGet();
+                activeClassesSize.addAndGet(byteCode.length);
+                countersChanged.set(true);
+            } catch (Throwable t) {
+                classToReuse.ifPresent(orphan -> markClassForReuse(classStructureIdentifier, orphan.clazz, orphan.size));
+                throw t;
             }
-            //This reference lets us no when all references to the InjectedClass object are lost
-            // as soon as this happens we assume that the underlying class can be recycled
-            activeReferences.add(new InjectedClassReference(classStructureIdentifier, result, resultClass, unusedInjectedClassesQueue));
-            return result;
-        } catch (Throwable t) {
-            classToReuse.ifPresent(clazz -> markClassForReuse(classStructureIdentifier, clazz));
-            throw t;
         }
+        if (pendingRedefinitions.get() == null) {
+            selfMonitorInjectedClasses();
+        }
+        return result;
     }
 
-    private Class<?> injectClass(Class<?> neighborClass, String className, byte[] byteCode) throws Exception {
-        ClassLoader loader = neighborClass.getClassLoader();
-        if (loader == null) {
+    private Class<?> injectClass(Class<?> neighborClass, ClassLoader targetLoader, String className, byte[] byteCode) throws Exception {
+        if (targetLoader instanceof InjectionClassLoader) {
             //for bootstrap classes the standard injection does not work properly
             //however it also is not necessary as a reference to the bootstrap loader won't cause a memoryleak anyway
-            return bootstrapChildLoader.defineNewClass(className, byteCode);
+            return ((InjectionClassLoader) targetLoader).defineNewClass(className, byteCode);
+        } else {
+            return ClassDefinitionUtils.defineClass(className, byteCode, neighborClass, targetLoader);
+        }
+    }
+
+    /**
+     * Redefines the given class or defers the redefinition if a {@link RedefinitionBatch} is active on the current thread.
+     *
+     * @param definition the new definition of the class
+     * @throws Exception if the redefinition failed
+     */
+    private void redefine(ClassDefinition definition) throws Exception {
+        PendingRedefinitions pending = pendingRedefinitions.get();
+        if (pending != null) {
+            //if a class is reused multiple times within a batch, only its last definition is relevant
+            pending.definitions.put(definition.getDefinitionClass(), definition);
         } else {
-            return ClassDefinitionUtils.defineClass(className, byteCode, neighborClass, loader);
+            instrumentation.redefineClasses(definition);
         }
     }
 
-    private String getUniqueNameInSamePackage(Class<?> neighborClass) {
+    private String getUniqueNameInSamePackage(Class<?> neighborClass, InjectionTarget target) {
 
         String packagePrefix;
         if (neighborClass.getClassLoader() == null) {
@@ -134,41 +287,29 @@ public class ClassInjector {
             }
         }
 
-        String namePrefix = packagePrefix + "inspectitGen$$$";
-        ClassLoader loader = neighborClass.getClassLoader();
+        //the names are unique within the target classloader due to the counter and unique across agent instances due to the injector id
+        return packagePrefix + "inspectitGen$$$" + injectorId + "$" + target.nameCounter.incrementAndGet();
+    }
 
-        while (true) {
-            String name = namePrefix + Math.abs(nameGenerationRandom.nextLong());
-            try {
-                Class.forName(name, false, loader);
-            } catch (ClassNotFoundException e) {
-                return name;
-            }
+    private InjectionTarget getInjectionTarget(ClassLoader loader) {
+        try {
+            return injectionTargets.get(loader, InjectionTarget::new);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private void markClassForReuse(String classStructureIdentifier, Class<?> clazz) {
-        ClassLoader loader = clazz.getClassLoader();
-        orphanClasses.computeIfAbsent(loader, (cl) -> new HashMap<>())
-                .computeIfAbsent(classStructureIdentifier, (cl) -> new LinkedList<>())
-                .add(new WeakReference<>(clazz));
+    private void markClassForReuse(String classStructureIdentifier, Class<?> clazz, int size) {
+        getInjectionTarget(clazz.getClassLoader()).addOrphan(classStructureIdentifier, new OrphanClass(clazz, size, unloadedOrphansQueue));
+        orphanClassesCount.incrementAndGet();
+        orphanClassesSize.addAndGet(size);
+        countersChanged.set(true);
     }
 
-    private Optional<Class<?>> tryReusingClassInLoader(String classStructureIdentifier, ClassLoader loader) {
-        if (loader == null) {
-            loader = bootstrapChildLoader;
-        }
-        collectOrphanClasses();
-        LinkedList<WeakReference<Class<?>>> orphansOfGivenStructureInClassloader =
-                orphanClasses.getOrDefault(loader, Collections.emptyMap())
-                        .getOrDefault(classStructureIdentifier, new LinkedList<>());
-
-        WeakReference<Class<?>> classToReuse = orphansOfGivenStructureInClassloader.pollFirst();
-        if (classToReuse == null) {
-            return Optional.empty();
-        } else {
-            return Optional.ofNullable(classToReuse.get());
-        }
+    private void removeOrphanFromCounters(OrphanClass orphan) {
+        orphanClassesCount.decrementAndGet();
+        orphanClassesSize.addAndGet(-orphan.size);
+        countersChanged.set(true);
     }
 
     private void collectOrphanClasses() {
@@ -176,14 +317,197 @@ public class ClassInjector {
         while (freedRef != null) {
             val classRef = (InjectedClassReference) freedRef;
             activeReferences.remove(classRef);
+            activeClassesCount.decrementAndGet();
+            activeClassesSize.addAndGet(-classRef.size);
+            countersChanged.set(true);
             Class<?> injectedClass = classRef.injectedClassObject.get();
             //the target classloader might have been garbage collected, therefore the null check
             if (injectedClass != null) {
                 //allow reuse of this class
-                markClassForReuse(classRef.classStructureIdentifier, injectedClass);
+                markClassForReuse(classRef.classStructureIdentifier, injectedClass, classRef.size);
             }
             freedRef = unusedInjectedClassesQueue.poll();
         }
+        Reference<? extends Class<?>> unloadedRef = unloadedOrphansQueue.poll();
+        while (unloadedRef != null) {
+            removeOrphanFromCounters((OrphanClass) unloadedRef);
+            unloadedRef = unloadedOrphansQueue.poll();
+        }
+    }
+
+    /**
+     * Records the number and the bytecode size of the active and orphan injected classes, if they have changed since the last recording.
+     */
+    private void selfMonitorInjectedClasses() {
+        if (countersChanged.getAndSet(false)) {
+            recordInjectedClasses();
+        }
+    }
+
+    @EventListener(classes = {InspectitConfigChangedEvent.class},
+            condition = "!#root.event.oldConfig.selfMonitoring.enabled")
+    private void recordInjectedClasses() {
+        collectOrphanClasses();
+        Map<String, String> activeTags = Collections.singletonMap("state", "active");
+        Map<String, String> orphanTags = Collections.singletonMap("state", "orphan");
+        selfMonitoring.recordMeasurement("injected-classes", activeClassesCount.get(), activeTags);
+        selfMonitoring.recordMeasurement("injected-classes", orphanClassesCount.get(), orphanTags);
+        selfMonitoring.recordMeasurement("injected-classes-size", activeClassesSize.get(), activeTags);
+        selfMonitoring.recordMeasurement("injected-classes-size", orphanClassesSize.get(), orphanTags);
+    }
+
+    /**
+     * A batch of deferred redefinitions, see {@link #startRedefinitionBatch()}.
+     */
+    public class RedefinitionBatch implements AutoCloseable {
+
+        /**
+         * True, if this batch is responsible for performing the deferred redefinitions.
+         * False if it is nested in another batch.
+         */
+        private final boolean outermost;
+
+        private RedefinitionBatch(boolean outermost) {
+            this.outermost = outermost;
+        }
+
+        /**
+         * Performs all deferred redefinitions with a single call to {@link Instrumentation#redefineClasses(ClassDefinition...)}.
+         * If this fails, the classes are redefined one by one.
+         * Afterwards the callbacks registered via {@link #afterRedefinitions(Runnable, Runnable)} are invoked.
+         *
+         * @throws IllegalStateException if any of the classes could not be redefined, in this case the failure callbacks have been invoked
+         */
+        @Override
+        public void close() {
+            if (!outermost) {
+                return;
+            }
+            PendingRedefinitions pending = pendingRedefinitions.get();
+            pendingRedefinitions.remove();
+            Collection<ClassDefinition> definitions = pending.definitions.values();
+            try {
+                if (!definitions.isEmpty()) {
+                    try {
+                        instrumentation.redefineClasses(definitions.toArray(new ClassDefinition[0]));
+                    } catch (Throwable t) {
+                        log.debug("Redefining {} injected classes at once failed, redefining them one by one", definitions.size(), t);
+                        redefineIndividually(definitions);
+                    }
+                }
+            } catch (Throwable t) {
+                pending.onFailure.forEach(ClassInjector::runCallback);
+                throw t;
+            } finally {
+                selfMonitorInjectedClasses();
+            }
+            pending.onSuccess.forEach(ClassInjector::runCallback);
+        }
+
+        private void redefineIndividually(Collection<ClassDefinition> definitions) {
+            Throwable failure = null;
+            for (ClassDefinition definition : definitions) {
+                try {
+                    instrumentation.redefineClasses(definition);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Could not redefine reused injected classes", failure);
+            }
+        }
+    }
+
+    private static void runCallback(Runnable callback) {
+        try {
+            callback.run();
+        } catch (Throwable t) {
+            log.error("Error invoking redefinition callback", t);
+        }
+    }
+
+    /**
+     * The redefinitions deferred by a {@link RedefinitionBatch} and the callbacks to invoke once they have been performed.
+     */
+    private static class PendingRedefinitions {
+
+        private final Map<Class<?>, ClassDefinition> definitions = new LinkedHashMap<>();
+
+        private final List<Runnable> onSuccess = new ArrayList<>();
+
+        private final List<Runnable> onFailure = new ArrayList<>();
+    }
+
+    /**
+     * The state of a classloader into which classes are injected.
+     * Instances of this class are also used as lock for injections into the classloader.
+     */
+    private static class InjectionTarget {
+
+        /**
+         * The counter used for generating unique class names.
+         */
+        private final AtomicLong nameCounter = new AtomicLong();
+
+        /**
+         * Index mapping a "structural identifier" to orphan classes of this classloader.
+         * To see what a structural identifier is, see the docu of {@link ClassInjector#inject(String, Class, ByteCodeProvider)}.
+         * When a class that previously was injected gets unused, the {@link InjectedClass} is garbage collected.
+         * However, as the actual class object is part of the target classloader, it does not get unloaded until the classlaoder does.
+         * Therefore, to prevent creating new classes over and over again, we detect such "orphan" classes and reuse them using
+         * {@link Instrumentation#redefineClasses(ClassDefinition...)}.
+         */
+        private final ConcurrentHashMap<String, Queue<OrphanClass>> orphanClasses = new ConcurrentHashMap<>();
+
+        private void addOrphan(String classStructureIdentifier, OrphanClass orphan) {
+            orphanClasses.computeIfAbsent(classStructureIdentifier, (id) -> new ConcurrentLinkedQueue<>())
+                    .add(orphan);
+        }
+
+        /**
+         * Removes the orphan with the given identifier which has been unused for the longest time.
+         * The returned orphan holds a strong reference to its class, so that it can not be unloaded anymore.
+         *
+         * @param classStructureIdentifier the structural identifier
+         * @return the orphan or an empty optional if no orphan with the given identifier exists
+         */
+        private Optional<OrphanClass> pollOrphan(String classStructureIdentifier) {
+            Queue<OrphanClass> orphans = orphanClasses.get(classStructureIdentifier);
+            if (orphans == null) {
+                return Optional.empty();
+            }
+            OrphanClass orphan = orphans.poll();
+            while (orphan != null) {
+                //unloaded orphans are removed from the counters when they are taken from the reference queue
+                Class<?> clazz = orphan.get();
+                if (clazz != null) {
+                    orphan.clazz = clazz;
+                    return Optional.of(orphan);
+                }
+                orphan = orphans.poll();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A weak reference to an orphan class together with the size of its current bytecode.
+     * It is enqueued in {@link #unloadedOrphansQueue} if the class is unloaded before it is reused.
+     */
+    private static class OrphanClass extends WeakReference<Class<?>> {
+
+        private final int size;
+
+        /**
+         * The strongly referenced class, only set once the orphan has been taken for reuse.
+         */
+        private Class<?> clazz;
+
+        private OrphanClass(Class<?> clazz, int size, ReferenceQueue<? super Class<?>> queue) {
+            super(clazz, queue);
+            this.size = size;
+        }
     }
 
     @FunctionalInterface
@@ -207,10 +531,12 @@ public class ClassInjector {
 
         private final WeakReference<Class> injectedClassObject;
         private final String classStructureIdentifier;
+        private final int size;
 
-        public InjectedClassReference(String classStructureIdentifier, InjectedClass<?> referent, Class<?> targetClass, ReferenceQueue<? super InjectedClass<?>> q) {
+        public InjectedClassReference(String classStructureIdentifier, int size, InjectedClass<?> referent, Class<?> targetClass, ReferenceQueue<? super InjectedClass<?>> q) {
             super(referent, q);
             this.classStructureIdentifier = classStructureIdentifier;
+            this.size = size;
             injectedClassObject = new WeakReference<>(targetClass);
         }
     }
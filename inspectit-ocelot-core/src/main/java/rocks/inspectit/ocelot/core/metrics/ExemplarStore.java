@@ -0,0 +1,77 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Tracing;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.metrics.definition.ViewDefinitionSettings;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the exemplars of all histogram views with {@link ViewDefinitionSettings#getExemplarsPerBucket()} greater than zero.
+ * Exemplars are only taken from measurements which are recorded while a sampled span is active,
+ * so that the trace of an outlier in a histogram can be found.
+ * The tags active while recording are stored with the exemplar, so that it can be assigned to the time series of a view.
+ */
+@Component
+public class ExemplarStore {
+
+    /**
+     * Maps the names of measures to the exemplars of their histogram views.
+     * Measures without any histogram views keeping exemplars are not contained.
+     */
+    private final Map<String, List<HistogramExemplars>> exemplarsByMeasure = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the histogram views keeping exemplars for the given measure.
+     * The exemplars collected so far for the measure are discarded.
+     *
+     * @param measureName the name of the measure
+     * @param views       the histogram views of the measure which keep exemplars, can be empty
+     */
+    public void updateMeasure(String measureName, List<HistogramExemplars> views) {
+        if (views.isEmpty()) {
+            exemplarsByMeasure.remove(measureName);
+        } else {
+            exemplarsByMeasure.put(measureName, new ArrayList<>(views));
+        }
+    }
+
+    /**
+     * Adds an exemplar for the given measurement to all histogram views of the measure which keep exemplars.
+     * Nothing happens if no sampled span is active.
+     *
+     * @param measureName the name of the measure
+     * @param value       the recorded value
+     */
+    public void record(String measureName, double value) {
+        if (exemplarsByMeasure.isEmpty()) {
+            return;
+        }
+        List<HistogramExemplars> views = exemplarsByMeasure.get(measureName);
+        if (views != null) {
+            SpanContext spanContext = Tracing.getTracer().getCurrentSpan().getContext();
+            if (spanContext.isValid() && spanContext.getTraceOptions().isSampled()) {
+                Map<String, String> tags = new HashMap<>();
+                InternalUtils.getTags(Tags.getTagger().getCurrentTagContext())
+                        .forEachRemaining(tag -> tags.put(tag.getKey().getName(), tag.getValue().asString()));
+                HistogramExemplars.Exemplar exemplar = new HistogramExemplars.Exemplar(value, spanContext.getTraceId(), spanContext.getSpanId(), tags);
+                for (HistogramExemplars view : views) {
+                    view.add(exemplar);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the exemplars of all histogram views which keep exemplars
+     */
+    public Collection<HistogramExemplars> getAllExemplars() {
+        List<HistogramExemplars> result = new ArrayList<>();
+        exemplarsByMeasure.values().forEach(result::addAll);
+        return result;
+    }
+}
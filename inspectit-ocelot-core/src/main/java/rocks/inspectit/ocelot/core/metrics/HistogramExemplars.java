@@ -0,0 +1,145 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds the exemplars of a single histogram view.
+ * For each bucket of the histogram a fixed number of exemplars is kept, newer exemplars replace the oldest ones.
+ */
+public class HistogramExemplars {
+
+    /**
+     * A measurement which has been recorded within a sampled span.
+     */
+    @Value
+    public static class Exemplar {
+
+        private double value;
+
+        private TraceId traceId;
+
+        private SpanId spanId;
+
+        /**
+         * The tags which have been active when the measurement has been recorded, the keys are the names of the tags.
+         */
+        private Map<String, String> tags;
+    }
+
+    /**
+     * The name of the view.
+     */
+    @Getter
+    private final String viewName;
+
+    /**
+     * The names of the tags of the view.
+     */
+    @Getter
+    private final List<String> tagKeys;
+
+    /**
+     * The sorted boundaries of the histogram buckets.
+     */
+    private final double[] bucketBoundaries;
+
+    private final int exemplarsPerBucket;
+
+    /**
+     * The exemplars of bucket i are stored at the indices [i * exemplarsPerBucket, (i + 1) * exemplarsPerBucket).
+     */
+    private final AtomicReferenceArray<Exemplar> exemplars;
+
+    /**
+     * The number of exemplars which have been added for each bucket, used to determine the slot to overwrite.
+     */
+    private final AtomicIntegerArray addedExemplars;
+
+    /**
+     * @param viewName           the name of the view
+     * @param tagKeys            the names of the tags of the view
+     * @param bucketBoundaries   the sorted boundaries of the histogram buckets
+     * @param exemplarsPerBucket the number of exemplars to keep for each bucket, must be positive
+     */
+    public HistogramExemplars(String viewName, List<String> tagKeys, List<Double> bucketBoundaries, int exemplarsPerBucket) {
+        this.viewName = viewName;
+        this.tagKeys = tagKeys;
+        this.bucketBoundaries = bucketBoundaries.stream().mapToDouble(Double::doubleValue).toArray();
+        this.exemplarsPerBucket = exemplarsPerBucket;
+        int bucketCount = this.bucketBoundaries.length + 1;
+        exemplars = new AtomicReferenceArray<>(bucketCount * exemplarsPerBucket);
+        addedExemplars = new AtomicIntegerArray(bucketCount);
+    }
+
+    /**
+     * Adds the given exemplar to the bucket its value belongs to.
+     *
+     * @param exemplar the exemplar to add
+     */
+    public void add(Exemplar exemplar) {
+        int bucket = getBucketIndex(exemplar.getValue());
+        int slot = (addedExemplars.getAndIncrement(bucket) & Integer.MAX_VALUE) % exemplarsPerBucket;
+        exemplars.set(bucket * exemplarsPerBucket + slot, exemplar);
+    }
+
+    /**
+     * @return the number of buckets of the histogram
+     */
+    public int getBucketCount() {
+        return bucketBoundaries.length + 1;
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the upper boundary of the given bucket, {@link Double#POSITIVE_INFINITY} for the last bucket
+     */
+    public double getUpperBoundary(int bucket) {
+        return bucket < bucketBoundaries.length ? bucketBoundaries[bucket] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the exemplars currently kept for the given bucket
+     */
+    public List<Exemplar> getExemplars(int bucket) {
+        List<Exemplar> result = new ArrayList<>(exemplarsPerBucket);
+        for (int i = bucket * exemplarsPerBucket; i < (bucket + 1) * exemplarsPerBucket; i++) {
+            Exemplar exemplar = exemplars.get(i);
+            if (exemplar != null) {
+                result.add(exemplar);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the tags of this view for the given exemplar, so that the exemplar can be assigned to the time series of the view.
+     * Equal to the Prometheus exporter, missing tags have an empty value.
+     *
+     * @param exemplar the exemplar
+     * @return the tag values of the exemplar, the keys are the names of the tags of this view
+     */
+    public Map<String, String> getViewTags(Exemplar exemplar) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String tagKey : tagKeys) {
+            result.put(tagKey, exemplar.getTags().getOrDefault(tagKey, ""));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the bucket for the given value.
+     * Equal to OpenCensus, the bucket i contains the values in [boundary(i-1), boundary(i)).
+     */
+    private int getBucketIndex(double value) {
+        int index = Arrays.binarySearch(bucketBoundaries, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
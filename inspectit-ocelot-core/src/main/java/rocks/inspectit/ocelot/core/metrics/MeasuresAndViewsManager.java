@@ -38,6 +38,9 @@ public class MeasuresAndViewsManager {
     @Autowired
     private InspectitEnvironment env;
 
+    @Autowired
+    private ExemplarStore exemplarStore;
+
     /**
      * Caches all created measures.
      */
@@ -105,6 +108,7 @@ public class MeasuresAndViewsManager {
         val measure = getMeasureDouble(measureName);
         if (measure.isPresent()) {
             resultMap.put(measure.get(), value);
+            exemplarStore.record(measureName, value);
             return true;
         } else {
             return false;
@@ -130,6 +134,7 @@ public class MeasuresAndViewsManager {
             } else if (m instanceof Measure.MeasureDouble) {
                 resultMap.put((Measure.MeasureDouble) m, value.doubleValue());
             }
+            exemplarStore.record(measureName, value.doubleValue());
             return true;
         } else {
             return false;
@@ -148,6 +153,7 @@ public class MeasuresAndViewsManager {
         val measure = getMeasureLong(measureName);
         if (measure.isPresent()) {
             resultMap.put(measure.get(), value);
+            exemplarStore.record(measureName, value);
             return true;
         } else {
             return false;
@@ -207,15 +213,18 @@ public class MeasuresAndViewsManager {
             val resultMeasure = measure;
 
             val metricViews = definition.getViews();
+            List<HistogramExemplars> histogramExemplars = new ArrayList<>();
             metricViews.forEach((name, view) -> {
                 if (view.isEnabled()) {
                     try {
-                        addAndRegisterOrUpdateView(name, resultMeasure, view, registeredViews);
+                        View resultView = addAndRegisterOrUpdateView(name, resultMeasure, view, registeredViews);
+                        createHistogramExemplars(name, view, resultView).ifPresent(histogramExemplars::add);
                     } catch (Exception e) {
                         log.error("Error creating view '{}'!", name, e);
                     }
                 }
             });
+            exemplarStore.updateMeasure(measureName, histogramExemplars);
 
             //TODO: delete views which where created by this class but have been removed from the given metric as soon as OpenCensus supports it
             currentMetricDefinitionSettings.put(measureName, definition);
@@ -263,19 +272,39 @@ public class MeasuresAndViewsManager {
      * @param def             the definition of the view, on which
      *                        {@link ViewDefinitionSettings#getCopyWithDefaultsPopulated(String, String, String)} was already called.
      * @param registeredViews a map of which views are already registered at the OpenCensus API. Maps the view names to the views.
+     * @return the view which is registered at the OpenCensus API
      */
-    private void addAndRegisterOrUpdateView(String viewName, Measure measure, ViewDefinitionSettings def, Map<String, View> registeredViews) {
+    private View addAndRegisterOrUpdateView(String viewName, Measure measure, ViewDefinitionSettings def, Map<String, View> registeredViews) {
         Set<TagKey> viewTags = getTagKeysForView(def);
 
         View view = registeredViews.get(viewName);
         if (view != null) {
             updateView(viewName, def, viewTags, view);
+            return view;
         } else {
-            registerNewView(viewName, measure, def, viewTags);
+            return registerNewView(viewName, measure, def, viewTags);
         }
     }
 
-    private void registerNewView(String viewName, Measure measure, ViewDefinitionSettings def, Set<TagKey> viewTags) {
+    /**
+     * Creates the storage for the exemplars of the given view, if the view is a histogram and exemplars are enabled for it.
+     * The bucket boundaries are taken from the registered view, as they can not be updated after the registration.
+     *
+     * @param viewName the name of the view
+     * @param def      the definition of the view
+     * @param view     the view registered at the OpenCensus API
+     * @return the exemplar storage or an empty optional if the view does not keep exemplars
+     */
+    private Optional<HistogramExemplars> createHistogramExemplars(String viewName, ViewDefinitionSettings def, View view) {
+        if (def.getExemplarsPerBucket() > 0 && view.getAggregation() instanceof Aggregation.Distribution) {
+            val boundaries = ((Aggregation.Distribution) view.getAggregation()).getBucketBoundaries().getBoundaries();
+            List<String> tagKeys = view.getColumns().stream().map(TagKey::getName).collect(Collectors.toList());
+            return Optional.of(new HistogramExemplars(viewName, tagKeys, boundaries, def.getExemplarsPerBucket()));
+        }
+        return Optional.empty();
+    }
+
+    private View registerNewView(String viewName, Measure measure, ViewDefinitionSettings def, Set<TagKey> viewTags) {
         View view;
         view = View.create(
                 View.Name.create(viewName),
@@ -284,6 +313,7 @@ public class MeasuresAndViewsManager {
                 createAggregation(def),
                 new ArrayList<>(viewTags));
         viewManager.registerView(view);
+        return view;
     }
 
     private void updateView(String viewName, ViewDefinitionSettings def, Set<TagKey> viewTags, View view) {
@@ -0,0 +1,128 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.common.Scope;
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tagger;
+import io.opencensus.trace.Span;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.tracing.RedMetricsSettings;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the request count, error and duration metrics for spans of rules with red-metrics enabled, see {@link RedMetricsSettings}.
+ * The metrics use a fixed set of tags in addition to the common tags, the number of distinct span names is bounded.
+ */
+@Component
+public class RedMetricsRecorder {
+
+    /**
+     * The tag value used for span names exceeding {@link RedMetricsSettings#getMaxSpanNames()}.
+     */
+    @VisibleForTesting
+    static final TagValue OTHER_SPAN_NAME = TagValue.create("other");
+
+    private static final TagValue UNSPECIFIED_SPAN_KIND = TagValue.create("UNSPECIFIED");
+
+    private static final TagValue ERROR = TagValue.create("true");
+
+    private static final TagValue NO_ERROR = TagValue.create("false");
+
+    private static final TagKey SPAN_NAME_KEY = TagKey.create(RedMetricsSettings.SPAN_NAME_TAG);
+
+    private static final TagKey SPAN_KIND_KEY = TagKey.create(RedMetricsSettings.SPAN_KIND_TAG);
+
+    private static final TagKey ERROR_KEY = TagKey.create(RedMetricsSettings.ERROR_TAG);
+
+    private static final Map<Span.Kind, TagValue> SPAN_KINDS = new EnumMap<>(Span.Kind.class);
+
+    static {
+        for (Span.Kind kind : Span.Kind.values()) {
+            SPAN_KINDS.put(kind, TagValue.create(kind.name()));
+        }
+    }
+
+    @Autowired
+    private InspectitEnvironment env;
+
+    @Autowired
+    private MeasuresAndViewsManager metricsManager;
+
+    @Autowired
+    private StatsRecorder statsRecorder;
+
+    @Autowired
+    private Tagger tagger;
+
+    @Autowired
+    private CommonTagsManager commonTags;
+
+    /**
+     * The tag values of the span names recorded so far.
+     */
+    private final Map<String, TagValue> spanNames = new ConcurrentHashMap<>();
+
+    /**
+     * Records the metrics for an ended span.
+     *
+     * @param spanName      the name of the span
+     * @param kind          the kind of the span, can be null
+     * @param durationNanos the duration of the span in nanoseconds
+     * @param error         true, if the method ended the span by throwing an exception
+     */
+    public void record(String spanName, Span.Kind kind, long durationNanos, boolean error) {
+        RedMetricsSettings settings = env.getCurrentConfig().getTracing().getRedMetrics();
+        MeasureMap measures = statsRecorder.newMeasureMap();
+        double durationMillis = (double) durationNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        TagContext tags = tagger.toBuilder(commonTags.getCommonTagContext())
+                .putLocal(SPAN_NAME_KEY, getSpanNameTag(spanName, settings.getMaxSpanNames()))
+                .putLocal(SPAN_KIND_KEY, kind == null ? UNSPECIFIED_SPAN_KIND : SPAN_KINDS.get(kind))
+                .putLocal(ERROR_KEY, error ? ERROR : NO_ERROR)
+                .build();
+        //the tags have to be active while recording, so that they are stored with the exemplars
+        try (Scope scope = tagger.withTagContext(tags)) {
+            if (metricsManager.tryRecordingMeasurement(settings.getMetric(), measures, durationMillis)) {
+                measures.record(tags);
+            }
+        }
+    }
+
+    private TagValue getSpanNameTag(String spanName, int maxSpanNames) {
+        TagValue tag = spanNames.get(spanName);
+        if (tag == null) {
+            if (spanNames.size() >= maxSpanNames) {
+                return OTHER_SPAN_NAME;
+            }
+            tag = spanNames.computeIfAbsent(spanName, RedMetricsRecorder::createTagValue);
+        }
+        return tag;
+    }
+
+    /**
+     * Creates a tag value for the given span name, characters which are not allowed in tag values are replaced.
+     *
+     * @param spanName the span name
+     * @return the tag value
+     */
+    @VisibleForTesting
+    static TagValue createTagValue(String spanName) {
+        int length = Math.min(spanName.length(), TagValue.MAX_LENGTH);
+        StringBuilder value = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = spanName.charAt(i);
+            value.append(c >= ' ' && c <= '~' ? c : '_');
+        }
+        return TagValue.create(value.toString());
+    }
+}
@@ -7,6 +7,7 @@ import io.opencensus.trace.samplers.Samplers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import rocks.inspectit.ocelot.config.model.tracing.RateLimitingSamplerSettings;
 import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
 import rocks.inspectit.ocelot.core.config.InspectitConfigChangedEvent;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
@@ -15,6 +16,7 @@ import javax.annotation.PostConstruct;
 
 /**
  * Configures the global OpenCensus sampler with the probability configured via Ocelot.
+ * If rate limiting is enabled, a {@link RateLimitingSampler} is used instead.
  */
 @Component
 public class GlobalSamplerConfigurer {
@@ -22,13 +24,28 @@ public class GlobalSamplerConfigurer {
     @Autowired
     InspectitEnvironment env;
 
+    /**
+     * The currently active rate limiting sampler, which is kept as long as its settings do not change so that the observed rates are preserved.
+     */
+    private RateLimitingSampler rateLimitingSampler;
+
     @PostConstruct
     @EventListener(InspectitConfigChangedEvent.class)
-    void configureGlobalSampler() {
+    synchronized void configureGlobalSampler() {
         TracingSettings settings = env.getCurrentConfig().getTracing();
 
-        double probability = settings.getSampleProbability();
-        Sampler sampler = Samplers.probabilitySampler(probability);
+        Sampler sampler;
+        RateLimitingSamplerSettings rateLimiting = settings.getRateLimiting();
+        if (rateLimiting.isEnabled()) {
+            if (rateLimitingSampler == null || !rateLimitingSampler.getSettings().equals(rateLimiting)) {
+                rateLimitingSampler = new RateLimitingSampler(rateLimiting);
+            }
+            sampler = rateLimitingSampler;
+        } else {
+            rateLimitingSampler = null;
+            double probability = settings.getSampleProbability();
+            sampler = Samplers.probabilitySampler(probability);
+        }
 
         TraceParams activeParams = Tracing.getTraceConfig().getActiveTraceParams();
         TraceParams updatedParams = activeParams.toBuilder()
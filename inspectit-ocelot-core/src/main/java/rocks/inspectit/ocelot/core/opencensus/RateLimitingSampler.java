@@ -0,0 +1,306 @@
+package rocks.inspectit.ocelot.core.opencensus;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.trace.*;
+import lombok.Getter;
+import rocks.inspectit.ocelot.config.model.tracing.RateLimitingSamplerSettings;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * A sampler which adapts the sample probability of root spans to the observed span rate,
+ * so that the rate of sampled root spans stays near the budgets defined by {@link RateLimitingSamplerSettings}.
+ * <p>
+ * The rate of root spans is observed in total and per span name. After each adaptation interval the probability is set
+ * to the ratio between the budget and the smoothed observed rate, the stricter one of the total and the per-name probability is applied.
+ * If the number of spans within an interval exceeds the budget by far, the probability is adapted before the interval ends.
+ * A budget of zero is never adapted, root spans are not sampled based on it at all.
+ * <p>
+ * At most {@link RateLimitingSamplerSettings#getMaxSpanNames()} span names are tracked separately, names which have not been seen
+ * for {@link #IDLE_INTERVALS} adaptation intervals are removed, so that new span names can be tracked instead.
+ * <p>
+ * Independent of the budgets, {@link RateLimitingSamplerSettings#getMinSpansPerSecondPerName()} root spans are sampled per span name,
+ * so that rare span names are not suppressed by frequent ones. If such a minimum is configured, the first root span of every span name is sampled.
+ * These spans are sampled in addition to the budgets.
+ * <p>
+ * Spans with a valid parent keep the sampling decision of the parent.
+ */
+public class RateLimitingSampler extends Sampler {
+
+    /**
+     * The weight of the rate observed in the last interval when smoothing the rate.
+     */
+    private static final double SMOOTHING_FACTOR = 0.5;
+
+    /**
+     * If the number of sampled spans within an interval exceeds the budget of the interval by this factor,
+     * the probability is adapted immediately.
+     */
+    private static final double EARLY_ADAPTATION_FACTOR = 2;
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The number of adaptation intervals after which the state of a span name which has not been seen is removed.
+     */
+    private static final int IDLE_INTERVALS = 10;
+
+    /**
+     * The settings this sampler has been created for.
+     */
+    @Getter
+    private final RateLimitingSamplerSettings settings;
+
+    private final long intervalNanos;
+
+    /**
+     * The minimum time between two spans of the same name which are sampled independent of the budget, zero if disabled.
+     */
+    private final long minSpanPeriodNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final DoubleSupplier random;
+
+    private final RateState total;
+
+    private final Map<String, NameState> names = new ConcurrentHashMap<>();
+
+    /**
+     * The number of entries in {@link #names}, including entries which are about to be added.
+     * Used for strictly enforcing {@link RateLimitingSamplerSettings#getMaxSpanNames()}.
+     */
+    private final AtomicInteger namesCount = new AtomicInteger();
+
+    /**
+     * The point in time at which idle span names have been removed last.
+     */
+    private final AtomicLong lastIdleNamesRemoval;
+
+    /**
+     * The state shared by all span names exceeding {@link RateLimitingSamplerSettings#getMaxSpanNames()}.
+     */
+    private final NameState overflow;
+
+    public RateLimitingSampler(RateLimitingSamplerSettings settings) {
+        this(settings, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    @VisibleForTesting
+    RateLimitingSampler(RateLimitingSamplerSettings settings, LongSupplier nanoClock, DoubleSupplier random) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.random = random;
+        intervalNanos = Math.max(1, settings.getAdaptationInterval().toNanos());
+        double minRate = settings.getMinSpansPerSecondPerName();
+        minSpanPeriodNanos = minRate > 0 ? Math.max(1, (long) (NANOS_PER_SECOND / minRate)) : 0;
+        long now = nanoClock.getAsLong();
+        total = new RateState(settings.getSpansPerSecond(), now);
+        overflow = new NameState(now);
+        lastIdleNamesRemoval = new AtomicLong(now);
+    }
+
+    @Override
+    public boolean shouldSample(SpanContext parentContext, Boolean hasRemoteParent, TraceId traceId, SpanId spanId, String name, List<Span> parentLinks) {
+        if (parentContext != null && parentContext.isValid()) {
+            return parentContext.getTraceOptions().isSampled();
+        }
+        if (total.budget == 0 && minSpanPeriodNanos == 0) {
+            return false;
+        }
+        long now = nanoClock.getAsLong();
+        removeIdleNames(now);
+        NameState nameState = getNameState(name, now);
+        total.record(now);
+        nameState.rate.record(now);
+        if (nameState.tryAcquireMinimum(now)) {
+            return true;
+        }
+        double probability = Math.min(total.probability, nameState.rate.probability);
+        return probability >= 1 || (probability > 0 && random.getAsDouble() < probability);
+    }
+
+    @Override
+    public String getDescription() {
+        return "RateLimitingSampler{spansPerSecond=" + settings.getSpansPerSecond()
+                + ", spansPerSecondPerName=" + settings.getSpansPerSecondPerName()
+                + ", minSpansPerSecondPerName=" + settings.getMinSpansPerSecondPerName() + "}";
+    }
+
+    /**
+     * @return the probability currently applied to root spans in addition to the probability of the span name
+     */
+    @VisibleForTesting
+    double getTotalProbability() {
+        return total.probability;
+    }
+
+    /**
+     * @param name the span name
+     * @return the probability currently applied to root spans with the given name, 1 if the name has not been seen yet
+     */
+    @VisibleForTesting
+    double getProbability(String name) {
+        NameState state = names.get(name);
+        return state == null ? 1.0 : state.rate.probability;
+    }
+
+    /**
+     * @return the span names whose rates are currently tracked separately
+     */
+    @VisibleForTesting
+    Set<String> getTrackedNames() {
+        return names.keySet();
+    }
+
+    private NameState getNameState(String name, long now) {
+        NameState state = names.get(name);
+        if (state == null) {
+            int maxNames = settings.getMaxSpanNames();
+            if (namesCount.get() >= maxNames) {
+                return overflow;
+            }
+            if (namesCount.incrementAndGet() > maxNames) {
+                namesCount.decrementAndGet();
+                return overflow;
+            }
+            NameState created = new NameState(now);
+            state = names.putIfAbsent(name, created);
+            if (state == null) {
+                state = created;
+            } else {
+                namesCount.decrementAndGet();
+            }
+        }
+        state.lastSeen = now;
+        return state;
+    }
+
+    /**
+     * Removes the states of all span names which have not been seen for {@link #IDLE_INTERVALS} adaptation intervals.
+     * This is done at most once per adaptation interval.
+     */
+    private void removeIdleNames(long now) {
+        long lastRemoval = lastIdleNamesRemoval.get();
+        if (now - lastRemoval < intervalNanos || !lastIdleNamesRemoval.compareAndSet(lastRemoval, now)) {
+            return;
+        }
+        long idleNanos = IDLE_INTERVALS * intervalNanos;
+        Iterator<NameState> iterator = names.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastSeen >= idleNanos) {
+                iterator.remove();
+                namesCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The observed rate of root spans and the derived probability for a single budget.
+     */
+    private class RateState {
+
+        /**
+         * The maximum number of sampled spans per second, infinite if unlimited.
+         */
+        private final double budget;
+
+        /**
+         * The number of spans observed since {@link #intervalStart}.
+         */
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile long intervalStart;
+
+        /**
+         * The smoothed number of spans per second, negative until the first interval has ended.
+         */
+        private double smoothedRate = -1;
+
+        private volatile double probability;
+
+        private RateState(double budget, long now) {
+            this.budget = budget;
+            intervalStart = now;
+            probability = budget == 0 ? 0.0 : 1.0;
+        }
+
+        private void record(long now) {
+            if (budget == 0) {
+                //nothing is sampled based on this budget, independent of the observed rate
+                return;
+            }
+            long currentCount = count.incrementAndGet();
+            long elapsed = now - intervalStart;
+            if (elapsed >= intervalNanos || isBudgetExceeded(currentCount)) {
+                adapt(now);
+            }
+        }
+
+        private boolean isBudgetExceeded(long currentCount) {
+            return currentCount * probability > EARLY_ADAPTATION_FACTOR * budget * intervalNanos / NANOS_PER_SECOND;
+        }
+
+        private synchronized void adapt(long now) {
+            long elapsed = now - intervalStart;
+            long currentCount = count.get();
+            if (elapsed < intervalNanos && !isBudgetExceeded(currentCount)) {
+                //another thread has adapted in the meantime
+                return;
+            }
+            count.addAndGet(-currentCount);
+            intervalStart = now;
+            //on early adaptations the rate is conservatively based on the full interval
+            double observedRate = currentCount * NANOS_PER_SECOND / Math.max(intervalNanos, elapsed);
+            if (smoothedRate < 0) {
+                smoothedRate = observedRate;
+            } else {
+                smoothedRate = SMOOTHING_FACTOR * observedRate + (1 - SMOOTHING_FACTOR) * smoothedRate;
+            }
+            probability = smoothedRate <= budget ? 1.0 : budget / smoothedRate;
+        }
+    }
+
+    /**
+     * The state of a single span name.
+     */
+    private class NameState {
+
+        private final RateState rate;
+
+        /**
+         * The earliest point in time at which the next span is sampled independent of the budget.
+         */
+        private final AtomicLong nextMinimumSample;
+
+        /**
+         * The point in time at which a span with this name has been seen last.
+         */
+        private volatile long lastSeen;
+
+        private NameState(long now) {
+            Double budget = settings.getSpansPerSecondPerName();
+            rate = new RateState(budget == null ? Double.POSITIVE_INFINITY : budget, now);
+            nextMinimumSample = new AtomicLong(now);
+            lastSeen = now;
+        }
+
+        private boolean tryAcquireMinimum(long now) {
+            if (minSpanPeriodNanos == 0) {
+                return false;
+            }
+            long next = nextMinimumSample.get();
+            return now - next >= 0 && nextMinimumSample.compareAndSet(next, now + minSpanPeriodNanos);
+        }
+    }
+}
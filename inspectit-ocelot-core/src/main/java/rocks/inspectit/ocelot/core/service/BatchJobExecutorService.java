@@ -63,6 +63,22 @@ public class BatchJobExecutorService {
 
         private Future<?> nextScheduledBatch;
 
+        /**
+         * Incremented whenever a batch is scheduled.
+         * Batches which have been superseded by {@link #runNextBatchNow()} compare it to their own number and are skipped.
+         */
+        private long scheduledBatchNumber = 0;
+
+        /**
+         * True while a batch is processed.
+         */
+        private boolean batchRunning = false;
+
+        /**
+         * True if {@link #runNextBatchNow()} has been called while a batch was processed.
+         */
+        private boolean nextBatchRequested = false;
+
         private BatchJob(BatchProcessor<T> processorToExecute, T batchSizes, Duration interBatchDelay) {
             this.processorToExecute = processorToExecute;
             this.batchSizes = batchSizes;
@@ -77,20 +93,48 @@ public class BatchJobExecutorService {
             nextScheduledBatch.cancel(false);
         }
 
-        private Runnable runner = () -> {
+        /**
+         * Processes the next batch as soon as possible instead of waiting for the inter-batch delay.
+         * If a batch is currently processed, the next batch is started directly after it.
+         */
+        public synchronized void runNextBatchNow() {
+            if (canceled) {
+                return;
+            }
+            if (batchRunning) {
+                nextBatchRequested = true;
+            } else {
+                nextScheduledBatch.cancel(false);
+                scheduleNextBatch(Duration.ZERO);
+            }
+        }
+
+        private void runBatch(long batchNumber) {
+            synchronized (this) {
+                if (batchNumber != scheduledBatchNumber) {
+                    //this batch has been superseded by runNextBatchNow()
+                    return;
+                }
+                batchRunning = true;
+            }
             boolean done = false;
             try {
                 done = processorToExecute.processBatch(batchSizes);
             } catch (Throwable t) {
                 log.error("Error processing batch!", t);
             }
-            if (!done && !canceled) {
-                scheduleNextBatch(interBatchDelay);
+            synchronized (this) {
+                batchRunning = false;
+                if (!done && !canceled) {
+                    scheduleNextBatch(nextBatchRequested ? Duration.ZERO : interBatchDelay);
+                }
+                nextBatchRequested = false;
             }
-        };
+        }
 
-        private void scheduleNextBatch(Duration delay) {
-            nextScheduledBatch = executor.schedule(runner, delay.toNanos(), TimeUnit.NANOSECONDS);
+        private synchronized void scheduleNextBatch(Duration delay) {
+            long batchNumber = ++scheduledBatchNumber;
+            nextScheduledBatch = executor.schedule(() -> runBatch(batchNumber), delay.toNanos(), TimeUnit.NANOSECONDS);
         }
     }
 
@@ -0,0 +1,70 @@
+package rocks.inspectit.ocelot.core.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+/**
+ * Weakly references a static method via a {@link MethodHandle}.
+ * The handle is stored using a {@link ClassValue} of the declaring class, so that it is bound to the lifetime of this class.
+ * This means that this reference can be held without causing a memory leak, while the handle is not looked up again on each access.
+ * Note: THE METHOD PARAMETERS ARE NOT WEAKLY REFERENCED!
+ * This means this class should be used only for methods using bootstrap types as parameters.
+ */
+public class WeakMethodHandleReference {
+
+    private final WeakReference<Class<?>> declaringClass;
+
+    private final ClassValue<MethodHandle> methodHandle;
+
+    private WeakMethodHandleReference(Class<?> declaringClass, String name, MethodType type, Class<?>[] parameters) throws NoSuchMethodException, IllegalAccessException {
+        //ensures that the method exists before this reference is created
+        lookup(declaringClass, name, type, parameters);
+        this.declaringClass = new WeakReference<>(declaringClass);
+        //the ClassValue must not reference the declaring class, otherwise the class could not be garbage collected
+        methodHandle = new ClassValue<MethodHandle>() {
+            @Override
+            protected MethodHandle computeValue(Class<?> clazz) {
+                try {
+                    return lookup(clazz, name, type, parameters);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Could not lookup method " + name, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a reference to the given static method.
+     *
+     * @param declaringClass the class declaring the method
+     * @param name           the name of the method
+     * @param type           the type to which the handle is adapted, the method must be invoked using exactly this type
+     * @param parameters     the parameter types of the method
+     * @return the reference to the method
+     * @throws NoSuchMethodException if the method does not exist
+     * @throws IllegalAccessException if the method can not be accessed
+     */
+    public static WeakMethodHandleReference create(Class<?> declaringClass, String name, MethodType type, Class<?>... parameters) throws NoSuchMethodException, IllegalAccessException {
+        return new WeakMethodHandleReference(declaringClass, name, type, parameters);
+    }
+
+    /**
+     * @return the method handle or null, if the declaring class has been garbage collected
+     */
+    public MethodHandle get() {
+        Class<?> declaring = declaringClass.get();
+        if (declaring != null) {
+            return methodHandle.get(declaring);
+        }
+        return null;
+    }
+
+    private static MethodHandle lookup(Class<?> declaringClass, String name, MethodType type, Class<?>[] parameters) throws NoSuchMethodException, IllegalAccessException {
+        Method method = declaringClass.getDeclaredMethod(name, parameters);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method).asType(type);
+    }
+}
@@ -0,0 +1,82 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.core.metrics.ExemplarStore;
+import rocks.inspectit.ocelot.core.metrics.HistogramExemplars;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ExemplarHttpHandlerTest {
+
+    private static final TraceId TRACE_ID = TraceId.fromLowerBase16("0000000000000000000000000000002a");
+
+    private static final SpanId SPAN_ID = SpanId.fromLowerBase16("000000000000002b");
+
+    private ExemplarHttpHandler createHandler() {
+        HistogramExemplars histogram = new HistogramExemplars("http/in/responsetime", Arrays.asList("service", "http_path"), Arrays.asList(10.0, 100.0), 1);
+        Map<String, String> tags = new HashMap<>();
+        tags.put("service", "my-service");
+        tags.put("not_in_view", "value");
+        histogram.add(new HistogramExemplars.Exemplar(42.0, TRACE_ID, SPAN_ID, tags));
+        histogram.add(new HistogramExemplars.Exemplar(420.0, TRACE_ID, SPAN_ID, Collections.emptyMap()));
+        ExemplarStore store = mock(ExemplarStore.class);
+        when(store.getAllExemplars()).thenReturn(Collections.singletonList(histogram));
+        return new ExemplarHttpHandler(store);
+    }
+
+    @Nested
+    class Collect {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void exemplarsCollectedWithViewTags() {
+            List<Map<String, Object>> result = createHandler().collect();
+
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0)).containsEntry("view", "http/in/responsetime");
+            List<Map<String, Object>> buckets = (List<Map<String, Object>>) result.get(0).get("buckets");
+            assertThat(buckets).hasSize(2);
+            assertThat(buckets.get(0)).containsEntry("le", "100.0");
+            Map<String, Object> exemplar = ((List<Map<String, Object>>) buckets.get(0).get("exemplars")).get(0);
+            assertThat(exemplar).containsEntry("value", 42.0)
+                    .containsEntry("trace_id", TRACE_ID.toLowerBase16())
+                    .containsEntry("span_id", SPAN_ID.toLowerBase16());
+            assertThat((Map<String, String>) exemplar.get("tags")).containsOnly(entry("service", "my-service"), entry("http_path", ""));
+            assertThat(buckets.get(1)).containsEntry("le", "+Inf");
+        }
+    }
+
+    @Nested
+    class Handle {
+
+        @Test
+        void jsonResponseSent() throws Exception {
+            HttpExchange exchange = mock(HttpExchange.class);
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            when(exchange.getResponseHeaders()).thenReturn(new Headers());
+            when(exchange.getResponseBody()).thenReturn(body);
+
+            createHandler().handle(exchange);
+
+            verify(exchange).sendResponseHeaders(eq(200), anyLong());
+            verify(exchange).close();
+            assertThat(exchange.getResponseHeaders().getFirst("Content-Type")).isEqualTo("application/json");
+            assertThat(new String(body.toByteArray(), StandardCharsets.UTF_8))
+                    .startsWith("[{\"view\":\"http/in/responsetime\"")
+                    .contains("\"trace_id\":\"" + TRACE_ID.toLowerBase16() + "\"");
+        }
+    }
+}
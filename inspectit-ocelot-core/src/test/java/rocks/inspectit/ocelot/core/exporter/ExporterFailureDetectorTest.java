@@ -0,0 +1,131 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExporterFailureDetectorTest {
+
+    private ExporterFailureDetector detector;
+
+    /**
+     * Mimics the Jaeger exporter, which logs failures instead of throwing them.
+     */
+    static class LoggingHandler extends SpanExporter.Handler {
+
+        private static final Logger logger = Logger.getLogger(LoggingHandler.class.getName());
+
+        volatile Level level = null;
+
+        @Override
+        public void export(Collection<SpanData> spanDataList) {
+            if (level != null) {
+                logger.log(level, "Export failed");
+            }
+        }
+    }
+
+    @AfterEach
+    void closeDetector() {
+        if (detector != null) {
+            detector.close();
+        }
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void successfulExport() {
+            LoggingHandler handler = new LoggingHandler();
+            detector = new ExporterFailureDetector(handler, 60000);
+
+            assertThat(detector.export(Collections.emptyList())).isTrue();
+            assertThat(detector.isHealthy()).isTrue();
+        }
+
+        @Test
+        void loggedWarningFailsExport() {
+            LoggingHandler handler = new LoggingHandler();
+            handler.level = Level.WARNING;
+            detector = new ExporterFailureDetector(handler, 60000);
+
+            assertThat(detector.export(Collections.emptyList())).isFalse();
+            assertThat(detector.isHealthy()).isTrue();
+        }
+
+        @Test
+        void loggedInfoIgnored() {
+            LoggingHandler handler = new LoggingHandler();
+            handler.level = Level.INFO;
+            detector = new ExporterFailureDetector(handler, 60000);
+
+            assertThat(detector.export(Collections.emptyList())).isTrue();
+        }
+
+        @Test
+        void exceptionFailsExport() {
+            detector = new ExporterFailureDetector(new SpanExporter.Handler() {
+                @Override
+                public void export(Collection<SpanData> spanDataList) {
+                    throw new RuntimeException();
+                }
+            }, 60000);
+
+            assertThat(detector.export(Collections.emptyList())).isFalse();
+        }
+    }
+
+    @Nested
+    class IsHealthy {
+
+        @Test
+        void asynchronousFailureMarksUnhealthy() throws Exception {
+            LoggingHandler handler = new LoggingHandler();
+            handler.level = Level.SEVERE;
+            detector = new ExporterFailureDetector(handler, 60000);
+
+            Thread thread = new Thread(() -> handler.export(Collections.emptyList()));
+            thread.start();
+            thread.join();
+
+            assertThat(detector.isHealthy()).isFalse();
+        }
+
+        @Test
+        void healthyAfterGracePeriod() throws Exception {
+            LoggingHandler handler = new LoggingHandler();
+            handler.level = Level.SEVERE;
+            detector = new ExporterFailureDetector(handler, 0);
+
+            Thread thread = new Thread(() -> handler.export(Collections.emptyList()));
+            thread.start();
+            thread.join();
+
+            assertThat(detector.isHealthy()).isTrue();
+        }
+
+        @Test
+        void closedDetectorIgnoresFailures() throws Exception {
+            LoggingHandler handler = new LoggingHandler();
+            handler.level = Level.SEVERE;
+            detector = new ExporterFailureDetector(handler, 60000);
+            detector.close();
+
+            Thread thread = new Thread(() -> handler.export(Collections.emptyList()));
+            thread.start();
+            thread.join();
+
+            assertThat(detector.isHealthy()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedRingBufferTest {
+
+    /**
+     * The size of a record with {@link #data(int)}, consisting of the 20 byte header and 10 bytes of data.
+     */
+    private static final int RECORD_SIZE = 30;
+
+    private Path directory;
+
+    private MappedRingBuffer buffer;
+
+    @BeforeEach
+    void setupBuffer() throws IOException {
+        directory = Files.createTempDirectory("inspectit");
+        buffer = new MappedRingBuffer(directory.resolve("test.spill"), RECORD_SIZE * 3 + 10);
+    }
+
+    @AfterEach
+    void deleteDirectory() {
+        buffer.close();
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    private byte[] data(int value) {
+        byte[] data = new byte[10];
+        data[0] = (byte) value;
+        return data;
+    }
+
+    private int value(MappedRingBuffer.Record record) {
+        return record.getData()[0];
+    }
+
+    @Nested
+    class Add {
+
+        @Test
+        void recordsReturnedInOrder() {
+            buffer.add(data(1), 0);
+            buffer.add(data(2), 0);
+
+            List<MappedRingBuffer.Record> records = buffer.peek(10, 0);
+
+            assertThat(records).extracting(MappedRingBufferTest.this::value).containsExactly(1, 2);
+            assertThat(buffer.size()).isEqualTo(2);
+        }
+
+        @Test
+        void oldestRecordDroppedIfFull() {
+            buffer.add(data(1), 0);
+            buffer.add(data(2), 0);
+            buffer.add(data(3), 0);
+            buffer.add(data(4), 0);
+
+            List<MappedRingBuffer.Record> records = buffer.peek(10, 0);
+
+            assertThat(records).extracting(MappedRingBufferTest.this::value).containsExactly(2, 3, 4);
+            assertThat(buffer.takeDroppedRecords()).isEqualTo(1);
+            assertThat(buffer.takeDroppedRecords()).isEqualTo(0);
+        }
+
+        @Test
+        void wrapAroundAfterRemoval() {
+            for (int i = 1; i <= 3; i++) {
+                buffer.add(data(i), 0);
+            }
+            buffer.removeUpTo(buffer.peek(1, 0).get(0).getSequence());
+            buffer.add(data(4), 0);
+            buffer.add(data(5), 0);
+
+            List<MappedRingBuffer.Record> records = buffer.peek(10, 0);
+
+            assertThat(records).extracting(MappedRingBufferTest.this::value).containsExactly(3, 4, 5);
+            assertThat(buffer.takeDroppedRecords()).isEqualTo(1);
+        }
+
+        @Test
+        void tooLargeRecordRejected() {
+            boolean result = buffer.add(new byte[RECORD_SIZE * 4], 0);
+
+            assertThat(result).isFalse();
+            assertThat(buffer.size()).isEqualTo(0);
+        }
+
+        @Test
+        void closedBufferRejectsRecords() {
+            buffer.close();
+
+            assertThat(buffer.add(data(1), 0)).isFalse();
+        }
+    }
+
+    @Nested
+    class Peek {
+
+        @Test
+        void limitedToMaxRecords() {
+            buffer.add(data(1), 0);
+            buffer.add(data(2), 0);
+
+            List<MappedRingBuffer.Record> records = buffer.peek(1, 0);
+
+            assertThat(records).extracting(MappedRingBufferTest.this::value).containsExactly(1);
+            assertThat(buffer.size()).isEqualTo(2);
+        }
+
+        @Test
+        void expiredRecordsDropped() {
+            buffer.add(data(1), 100);
+            buffer.add(data(2), 200);
+
+            List<MappedRingBuffer.Record> records = buffer.peek(10, 150);
+
+            assertThat(records).extracting(MappedRingBufferTest.this::value).containsExactly(2);
+            assertThat(buffer.size()).isEqualTo(1);
+            assertThat(buffer.takeDroppedRecords()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class RemoveUpTo {
+
+        @Test
+        void recordsUpToSequenceRemoved() {
+            buffer.add(data(1), 0);
+            buffer.add(data(2), 0);
+            buffer.add(data(3), 0);
+            List<MappedRingBuffer.Record> records = buffer.peek(2, 0);
+
+            buffer.removeUpTo(records.get(1).getSequence());
+
+            assertThat(buffer.peek(10, 0)).extracting(MappedRingBufferTest.this::value).containsExactly(3);
+            assertThat(buffer.takeDroppedRecords()).isEqualTo(0);
+        }
+    }
+}
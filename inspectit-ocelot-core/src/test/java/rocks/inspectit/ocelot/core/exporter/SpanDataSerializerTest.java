@@ -0,0 +1,83 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.*;
+import io.opencensus.trace.export.SpanData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanDataSerializerTest {
+
+    private static final SpanContext CONTEXT = SpanContext.create(TraceId.fromLowerBase16("0000000000000000000000000000002a"),
+            SpanId.fromLowerBase16("000000000000002b"), TraceOptions.builder().setIsSampled(true).build(),
+            Tracestate.builder().set("first", "1").set("second", "2").build());
+
+    @Nested
+    class RoundTrip {
+
+        @Test
+        void fullSpan() throws IOException {
+            Map<String, AttributeValue> attributes = new HashMap<>();
+            attributes.put("string", AttributeValue.stringAttributeValue("value"));
+            attributes.put("boolean", AttributeValue.booleanAttributeValue(true));
+            attributes.put("long", AttributeValue.longAttributeValue(42));
+            attributes.put("double", AttributeValue.doubleAttributeValue(4.2));
+            Annotation annotation = Annotation.fromDescriptionAndAttributes("annotation", attributes);
+            MessageEvent messageEvent = MessageEvent.builder(MessageEvent.Type.SENT, 7)
+                    .setUncompressedMessageSize(100)
+                    .setCompressedMessageSize(50)
+                    .build();
+            Link link = Link.fromSpanContext(CONTEXT, Link.Type.PARENT_LINKED_SPAN, attributes);
+            SpanData span = SpanData.create(CONTEXT, SpanId.fromLowerBase16("0000000000000002"), true, "span", Span.Kind.SERVER,
+                    Timestamp.create(100, 5), SpanData.Attributes.create(attributes, 1),
+                    SpanData.TimedEvents.create(Collections.singletonList(SpanData.TimedEvent.create(Timestamp.create(101, 0), annotation)), 3),
+                    SpanData.TimedEvents.create(Collections.singletonList(SpanData.TimedEvent.create(Timestamp.create(102, 0), messageEvent)), 2),
+                    SpanData.Links.create(Collections.singletonList(link), 4),
+                    3, Status.NOT_FOUND.withDescription("missing"), Timestamp.create(103, 7));
+
+            SpanData result = SpanDataSerializer.deserialize(SpanDataSerializer.serialize(span));
+
+            assertThat(result).isEqualTo(span);
+            assertThat(result.getContext().getTracestate().getEntries()).isEqualTo(CONTEXT.getTracestate().getEntries());
+        }
+
+        @Test
+        void minimalSpan() throws IOException {
+            SpanData span = SpanData.create(CONTEXT, null, null, "span", null, Timestamp.create(100, 0),
+                    SpanData.Attributes.create(Collections.emptyMap(), 0),
+                    SpanData.TimedEvents.create(Collections.emptyList(), 0),
+                    SpanData.TimedEvents.create(Collections.emptyList(), 0),
+                    SpanData.Links.create(Collections.emptyList(), 0),
+                    null, null, null);
+
+            SpanData result = SpanDataSerializer.deserialize(SpanDataSerializer.serialize(span));
+
+            assertThat(result).isEqualTo(span);
+        }
+
+        @Test
+        void longString() throws IOException {
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 100000; i++) {
+                name.append('ä');
+            }
+            SpanData span = SpanData.create(CONTEXT, null, null, name.toString(), null, Timestamp.create(100, 0),
+                    SpanData.Attributes.create(Collections.emptyMap(), 0),
+                    SpanData.TimedEvents.create(Collections.emptyList(), 0),
+                    SpanData.TimedEvents.create(Collections.emptyList(), 0),
+                    SpanData.Links.create(Collections.emptyList(), 0),
+                    null, null, null);
+
+            SpanData result = SpanDataSerializer.deserialize(SpanDataSerializer.serialize(span));
+
+            assertThat(result.getName()).isEqualTo(name.toString());
+        }
+    }
+}
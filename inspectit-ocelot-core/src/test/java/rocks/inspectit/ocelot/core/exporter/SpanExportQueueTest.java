@@ -0,0 +1,234 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.trace.export.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import rocks.inspectit.ocelot.config.model.exporters.trace.SpanDropPolicy;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportQueueSettings;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SpanExportQueueTest {
+
+    private TraceExportQueueSettings settings;
+
+    private SelfMonitoringService selfMonitoring;
+
+    private List<List<SpanData>> exportedBatches;
+
+    private SpanExportQueue queue;
+
+    @BeforeEach
+    void init() {
+        settings = new TraceExportQueueSettings();
+        settings.setEnabled(true);
+        settings.setMaxSpans(4);
+        settings.setMaxSize(DataSize.ofMegabytes(1));
+        settings.setBatchSize(100);
+        settings.setFlushInterval(Duration.ofHours(1));
+        settings.setDropPolicy(SpanDropPolicy.OLDEST_FIRST);
+        selfMonitoring = mock(SelfMonitoringService.class);
+        exportedBatches = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private SpanExportQueue createQueue() {
+        queue = new SpanExportQueue(settings, exportedBatches::add, selfMonitoring);
+        return queue;
+    }
+
+    private List<SpanData> spans(int count) {
+        List<SpanData> spans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            spans.add(mock(SpanData.class));
+        }
+        return spans;
+    }
+
+    private List<SpanData> exportedSpans() {
+        List<SpanData> result = new ArrayList<>();
+        exportedBatches.forEach(result::addAll);
+        return result;
+    }
+
+    @Nested
+    class Add {
+
+        @Test
+        void oldestSpansDropped() {
+            createQueue();
+            List<SpanData> first = spans(3);
+            List<SpanData> second = spans(3);
+
+            queue.add(first, false);
+            queue.add(second, true);
+            queue.exportQueuedSpans();
+
+            assertThat(exportedSpans()).containsExactly(first.get(2), second.get(0), second.get(1), second.get(2));
+        }
+
+        @Test
+        void unsampledSpansDroppedFirst() {
+            settings.setDropPolicy(SpanDropPolicy.UNSAMPLED_FIRST);
+            createQueue();
+            List<SpanData> prioritized = spans(3);
+            List<SpanData> droppable = spans(2);
+
+            queue.add(droppable, true);
+            queue.add(prioritized, false);
+            queue.exportQueuedSpans();
+
+            assertThat(exportedSpans()).containsExactly(prioritized.get(0), prioritized.get(1), prioritized.get(2), droppable.get(1));
+        }
+
+        @Test
+        void prioritizedSpansDroppedIfNoUnsampledSpansQueued() {
+            settings.setDropPolicy(SpanDropPolicy.UNSAMPLED_FIRST);
+            createQueue();
+            List<SpanData> prioritized = spans(5);
+
+            queue.add(prioritized, false);
+
+            assertThat(queue.size()).isEqualTo(4);
+            queue.exportQueuedSpans();
+            assertThat(exportedSpans()).isEqualTo(prioritized.subList(1, 5));
+        }
+
+        @Test
+        void oldestSpansDroppedIfMaxSizeExceeded() {
+            SpanData small = mock(SpanData.class);
+            SpanData large = mock(SpanData.class);
+            when(large.getName()).thenReturn(String.join("", Collections.nCopies(1000, "x")));
+            settings.setMaxSize(DataSize.ofBytes(SpanExportQueue.estimateSize(small) + SpanExportQueue.estimateSize(large)));
+            createQueue();
+            List<SpanData> first = spans(1);
+
+            queue.add(first, false);
+            queue.add(Collections.singletonList(small), false);
+            queue.add(Collections.singletonList(large), false);
+
+            assertThat(queue.size()).isEqualTo(2);
+            assertThat(queue.getQueuedBytes()).isEqualTo(settings.getMaxSize().toBytes());
+            queue.exportQueuedSpans();
+            assertThat(exportedSpans()).containsExactly(small, large);
+            assertThat(queue.getQueuedBytes()).isEqualTo(0);
+        }
+
+        @Test
+        void exportTriggeredWhenBatchComplete() {
+            settings.setBatchSize(2);
+            createQueue();
+            List<SpanData> spans = spans(2);
+
+            queue.add(spans.subList(0, 1), false);
+            queue.add(spans.subList(1, 2), false);
+
+            verify(selfMonitoring, timeout(5000)).isSelfMonitoringEnabled();
+            assertThat(exportedBatches).containsExactly(spans);
+        }
+    }
+
+    @Nested
+    class ExportQueuedSpans {
+
+        @Test
+        void spansExportedInBatches() {
+            settings.setMaxSpans(10);
+            settings.setBatchSize(2);
+            createQueue();
+            List<SpanData> spans = spans(5);
+
+            queue.add(spans, false);
+
+            verify(selfMonitoring, timeout(5000)).isSelfMonitoringEnabled();
+            assertThat(exportedBatches).containsExactly(spans.subList(0, 2), spans.subList(2, 4), spans.subList(4, 5));
+            assertThat(queue.size()).isEqualTo(0);
+        }
+
+        @Test
+        void selfMonitoringReported() {
+            when(selfMonitoring.isSelfMonitoringEnabled()).thenReturn(true);
+            createQueue();
+
+            queue.add(spans(6), false);
+            queue.exportQueuedSpans();
+
+            verify(selfMonitoring).recordMeasurement("trace-export-queue-size", 0L);
+            verify(selfMonitoring).recordMeasurement("trace-export-dropped-spans", 2L);
+        }
+
+        @Test
+        void droppedSpansReportedOnlyOnce() {
+            when(selfMonitoring.isSelfMonitoringEnabled()).thenReturn(true);
+            createQueue();
+
+            queue.add(spans(6), false);
+            queue.exportQueuedSpans();
+            queue.exportQueuedSpans();
+
+            verify(selfMonitoring, times(2)).recordMeasurement("trace-export-queue-size", 0L);
+            verify(selfMonitoring, times(1)).recordMeasurement(eq("trace-export-dropped-spans"), anyLong());
+        }
+
+        @Test
+        void nothingRecordedIfSelfMonitoringDisabled() {
+            createQueue();
+
+            queue.add(spans(6), false);
+            queue.exportQueuedSpans();
+
+            verify(selfMonitoring).isSelfMonitoringEnabled();
+            verifyNoMoreInteractions(selfMonitoring);
+        }
+    }
+
+    @Nested
+    class Shutdown {
+
+        @Test
+        void remainingSpansReturned() {
+            settings.setDropPolicy(SpanDropPolicy.UNSAMPLED_FIRST);
+            createQueue();
+            List<SpanData> prioritized = spans(2);
+            List<SpanData> droppable = spans(1);
+            queue.add(droppable, true);
+            queue.add(prioritized, false);
+
+            List<List<SpanData>> remaining = queue.shutdown();
+
+            assertThat(remaining).containsExactly(prioritized, droppable);
+            assertThat(queue.size()).isEqualTo(0);
+            assertThat(exportedBatches).isEmpty();
+        }
+
+        @Test
+        void nothingExportedAfterShutdown() {
+            settings.setBatchSize(1);
+            createQueue();
+            queue.shutdown();
+
+            queue.add(Collections.singletonList(mock(SpanData.class)), false);
+
+            assertThat(exportedBatches).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.*;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportSpillSettings;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.logging.Level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SpanSpillBufferTest {
+
+    private static final String EXPORTER = "my-exporter";
+
+    @Mock
+    SelfMonitoringService selfMonitoring;
+
+    @Mock
+    SpanExporter.Handler handler;
+
+    private Path directory;
+
+    private TraceExportSpillSettings settings;
+
+    private Map<String, SpanExporter.Handler> handlers;
+
+    private SpanSpillBuffer spillBuffer;
+
+    @BeforeEach
+    void setupBuffer() throws IOException {
+        directory = Files.createTempDirectory("inspectit");
+        settings = new TraceExportSpillSettings();
+        settings.setEnabled(true);
+        settings.setDirectory(directory.toString());
+        settings.setMaxSize(DataSize.ofKilobytes(64));
+        settings.setRetention(Duration.ofHours(1));
+        settings.setDrainInterval(Duration.ofMinutes(1));
+        settings.setMaxDrainRate(1);
+        handlers = new HashMap<>();
+        handlers.put(EXPORTER, handler);
+        spillBuffer = new SpanSpillBuffer(settings, handlers, selfMonitoring);
+    }
+
+    @AfterEach
+    void deleteDirectory() {
+        spillBuffer.close();
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    private SpanData span(int id) {
+        SpanContext context = SpanContext.create(TraceId.fromLowerBase16(String.format("%032x", id)),
+                SpanId.fromLowerBase16("0000000000000001"), TraceOptions.builder().setIsSampled(true).build(),
+                Tracestate.builder().set("first", "1").set("second", "2").build());
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("string", AttributeValue.stringAttributeValue("value"));
+        attributes.put("boolean", AttributeValue.booleanAttributeValue(true));
+        attributes.put("long", AttributeValue.longAttributeValue(42));
+        attributes.put("double", AttributeValue.doubleAttributeValue(4.2));
+        Annotation annotation = Annotation.fromDescriptionAndAttributes("annotation", attributes);
+        MessageEvent messageEvent = MessageEvent.builder(MessageEvent.Type.SENT, 7).setUncompressedMessageSize(100).build();
+        Link link = Link.fromSpanContext(context, Link.Type.PARENT_LINKED_SPAN, Collections.emptyMap());
+        return SpanData.create(context, SpanId.fromLowerBase16("0000000000000002"), true, "span " + id, Span.Kind.SERVER,
+                Timestamp.create(100, 5), SpanData.Attributes.create(attributes, 1),
+                SpanData.TimedEvents.create(Collections.singletonList(SpanData.TimedEvent.create(Timestamp.create(101, 0), annotation)), 0),
+                SpanData.TimedEvents.create(Collections.singletonList(SpanData.TimedEvent.create(Timestamp.create(102, 0), messageEvent)), 2),
+                SpanData.Links.create(Collections.singletonList(link), 0),
+                3, Status.NOT_FOUND.withDescription("missing"), Timestamp.create(103, 0));
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void spansExportedDirectly() {
+            List<SpanData> spans = Collections.singletonList(span(1));
+
+            spillBuffer.export(EXPORTER, handler, spans);
+
+            verify(handler).export(spans);
+            assertThat(spillBuffer.size()).isEqualTo(0);
+            assertThat(directory.toFile().list()).isEmpty();
+        }
+
+        @Test
+        void spansSpilledOnFailure() {
+            doThrow(new RuntimeException()).when(handler).export(any());
+
+            spillBuffer.export(EXPORTER, handler, Arrays.asList(span(1), span(2)));
+
+            assertThat(spillBuffer.size()).isEqualTo(2);
+            assertThat(directory.resolve(EXPORTER + ".spill")).exists();
+        }
+
+        @Test
+        void spansSpilledOnLoggedFailure() {
+            ExporterFailureDetectorTest.LoggingHandler loggingHandler = new ExporterFailureDetectorTest.LoggingHandler();
+            loggingHandler.level = Level.WARNING;
+            handlers.put(EXPORTER, loggingHandler);
+
+            spillBuffer.export(EXPORTER, loggingHandler, Collections.singletonList(span(1)));
+
+            assertThat(spillBuffer.size()).isEqualTo(1);
+        }
+
+        @Test
+        void spansSpilledWhileExporterUnhealthy() throws Exception {
+            ExporterFailureDetectorTest.LoggingHandler loggingHandler = spy(new ExporterFailureDetectorTest.LoggingHandler());
+            handlers.put(EXPORTER, loggingHandler);
+            spillBuffer.export(EXPORTER, loggingHandler, Collections.singletonList(span(1)));
+            loggingHandler.level = Level.SEVERE;
+            Thread thread = new Thread(() -> loggingHandler.export(Collections.emptyList()));
+            thread.start();
+            thread.join();
+            reset(loggingHandler);
+
+            spillBuffer.export(EXPORTER, loggingHandler, Collections.singletonList(span(2)));
+
+            verifyZeroInteractions(loggingHandler);
+            assertThat(spillBuffer.size()).isEqualTo(1);
+        }
+
+        @Test
+        void spansSpilledWhileBufferNotEmpty() {
+            doThrow(new RuntimeException()).when(handler).export(any());
+            spillBuffer.export(EXPORTER, handler, Collections.singletonList(span(1)));
+            reset(handler);
+
+            spillBuffer.export(EXPORTER, handler, Collections.singletonList(span(2)));
+
+            verifyZeroInteractions(handler);
+            assertThat(spillBuffer.size()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class Drain {
+
+        @Test
+        void spilledSpansExportedAfterRecovery() {
+            SpanData span = span(1);
+            doThrow(new RuntimeException()).when(handler).export(any());
+            spillBuffer.export(EXPORTER, handler, Collections.singletonList(span));
+            reset(handler);
+
+            spillBuffer.drain();
+
+            verify(handler).export(Collections.singletonList(span));
+            assertThat(spillBuffer.size()).isEqualTo(0);
+        }
+
+        @Test
+        void spansKeptWhileExporterFails() {
+            doThrow(new RuntimeException()).when(handler).export(any());
+            spillBuffer.export(EXPORTER, handler, Collections.singletonList(span(1)));
+
+            spillBuffer.drain();
+
+            assertThat(spillBuffer.size()).isEqualTo(1);
+        }
+
+        @Test
+        void drainRateLimited() {
+            settings.setMaxDrainRate(1);
+            settings.setDrainInterval(Duration.ofSeconds(2));
+            spillBuffer.close();
+            spillBuffer = new SpanSpillBuffer(settings, handlers, selfMonitoring);
+            doThrow(new RuntimeException()).when(handler).export(any());
+            spillBuffer.export(EXPORTER, handler, Arrays.asList(span(1), span(2), span(3)));
+            reset(handler);
+
+            spillBuffer.drain();
+
+            verify(handler).export(Arrays.asList(span(1), span(2)));
+            assertThat(spillBuffer.size()).isEqualTo(1);
+        }
+
+        @Test
+        void bufferDiscardedForDetachedExporter() {
+            doThrow(new RuntimeException()).when(handler).export(any());
+            spillBuffer.export(EXPORTER, handler, Collections.singletonList(span(1)));
+            handlers.remove(EXPORTER);
+
+            spillBuffer.drain();
+
+            assertThat(spillBuffer.size()).isEqualTo(0);
+            assertThat(directory.toFile().list()).isEmpty();
+        }
+    }
+}
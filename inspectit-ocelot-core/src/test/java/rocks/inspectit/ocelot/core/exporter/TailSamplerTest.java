@@ -0,0 +1,239 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.*;
+import io.opencensus.trace.export.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.tracing.TailSamplingSettings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TailSamplerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private TailSamplingSettings settings;
+
+    private long time;
+
+    private double randomValue;
+
+    private int nextSpanId;
+
+    @BeforeEach
+    void init() {
+        settings = new TailSamplingSettings();
+        settings.setEnabled(true);
+        settings.setLatencyThreshold(Duration.ofMillis(500));
+        settings.setKeepErrors(true);
+        settings.setBaseProbability(0.1);
+        settings.setMaxBufferedSpans(100);
+        settings.setMaxWaitTime(Duration.ofSeconds(10));
+        settings.setDecisionCacheSize(100);
+        time = 0;
+        randomValue = 0.5;
+        nextSpanId = 1;
+    }
+
+    private TailSampler createSampler() {
+        return new TailSampler(settings, () -> time, () -> randomValue);
+    }
+
+    private TraceId traceId(int id) {
+        return TraceId.fromLowerBase16(String.format("%032x", id));
+    }
+
+    private SpanData span(TraceId traceId, SpanData parent, long durationMillis, Status status, Map<String, AttributeValue> attributes) {
+        SpanId spanId = SpanId.fromLowerBase16(String.format("%016x", nextSpanId++));
+        SpanId parentId = parent == null ? null : parent.getContext().getSpanId();
+        SpanData span = mock(SpanData.class);
+        when(span.getContext()).thenReturn(SpanContext.create(traceId, spanId, TraceOptions.DEFAULT));
+        when(span.getParentSpanId()).thenReturn(parentId);
+        when(span.getHasRemoteParent()).thenReturn(false);
+        when(span.getStartTimestamp()).thenReturn(Timestamp.create(100, 0));
+        when(span.getEndTimestamp()).thenReturn(Timestamp.create(100 + durationMillis / 1000, (int) (durationMillis % 1000) * 1000000));
+        when(span.getStatus()).thenReturn(status);
+        when(span.getAttributes()).thenReturn(SpanData.Attributes.create(attributes, 0));
+        return span;
+    }
+
+    private SpanData root(TraceId traceId, long durationMillis) {
+        return span(traceId, null, durationMillis, Status.OK, Collections.emptyMap());
+    }
+
+    private SpanData child(SpanData parent, long durationMillis) {
+        return span(parent.getContext().getTraceId(), parent, durationMillis, Status.OK, Collections.emptyMap());
+    }
+
+    @Nested
+    class Process {
+
+        @Test
+        void fastTraceDropped() {
+            TailSampler sampler = createSampler();
+            SpanData root = root(traceId(1), 100);
+            SpanData child = child(root, 50);
+
+            assertThat(sampler.process(Collections.singletonList(child))).isEmpty();
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(1);
+            assertThat(sampler.process(Collections.singletonList(root))).isEmpty();
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(0);
+        }
+
+        @Test
+        void slowTraceKept() {
+            TailSampler sampler = createSampler();
+            SpanData root = root(traceId(1), 1500);
+            SpanData child = child(root, 50);
+
+            assertThat(sampler.process(Collections.singletonList(child))).isEmpty();
+            assertThat(sampler.process(Collections.singletonList(root))).containsExactly(child, root);
+        }
+
+        @Test
+        void erroneousTraceKept() {
+            TailSampler sampler = createSampler();
+            SpanData root = root(traceId(1), 100);
+            SpanData child = span(root.getContext().getTraceId(), root, 50, Status.INTERNAL, Collections.emptyMap());
+
+            assertThat(sampler.process(Arrays.asList(child, root))).containsExactly(child, root);
+        }
+
+        @Test
+        void errorsIgnoredIfDisabled() {
+            settings.setKeepErrors(false);
+            TailSampler sampler = createSampler();
+            SpanData root = span(traceId(1), null, 100, Status.INTERNAL, Collections.emptyMap());
+
+            assertThat(sampler.process(Collections.singletonList(root))).isEmpty();
+        }
+
+        @Test
+        void traceWithMatchingAttributeKept() {
+            settings.setAttributes(ImmutableMap.of("http.status", "5\\d\\d", "debug", ""));
+            TailSampler sampler = createSampler();
+            SpanData first = span(traceId(1), null, 100, Status.OK,
+                    ImmutableMap.of("http.status", AttributeValue.stringAttributeValue("503")));
+            SpanData second = span(traceId(2), null, 100, Status.OK,
+                    ImmutableMap.of("http.status", AttributeValue.stringAttributeValue("200")));
+            SpanData third = span(traceId(3), null, 100, Status.OK,
+                    ImmutableMap.of("debug", AttributeValue.booleanAttributeValue(false)));
+
+            assertThat(sampler.process(Arrays.asList(first, second, third))).containsExactly(first, third);
+        }
+
+        @Test
+        void baseProbabilityApplied() {
+            TailSampler sampler = createSampler();
+            SpanData first = root(traceId(1), 100);
+            SpanData second = root(traceId(2), 100);
+
+            randomValue = 0.05;
+            assertThat(sampler.process(Collections.singletonList(first))).containsExactly(first);
+            randomValue = 0.15;
+            assertThat(sampler.process(Collections.singletonList(second))).isEmpty();
+        }
+
+        @Test
+        void remoteParentIsLocalRoot() {
+            TailSampler sampler = createSampler();
+            SpanData remoteParent = root(traceId(1), 2000);
+            SpanData localRoot = span(traceId(1), remoteParent, 1500, Status.OK, Collections.emptyMap());
+            when(localRoot.getHasRemoteParent()).thenReturn(true);
+
+            assertThat(sampler.process(Collections.singletonList(localRoot))).containsExactly(localRoot);
+        }
+
+        @Test
+        void lateSpansFollowDecision() {
+            TailSampler sampler = createSampler();
+            SpanData keptRoot = root(traceId(1), 1500);
+            SpanData droppedRoot = root(traceId(2), 100);
+            sampler.process(Arrays.asList(keptRoot, droppedRoot));
+            SpanData keptChild = child(keptRoot, 50);
+            SpanData droppedChild = child(droppedRoot, 50);
+
+            assertThat(sampler.process(Arrays.asList(keptChild, droppedChild))).containsExactly(keptChild);
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(0);
+        }
+
+        @Test
+        void expiredTraceDecided() {
+            TailSampler sampler = createSampler();
+            SpanData slowChild = child(root(traceId(1), 2000), 1000);
+            SpanData fastChild = child(root(traceId(2), 2000), 50);
+
+            sampler.process(Collections.singletonList(slowChild));
+            time = SECOND * 5;
+            sampler.process(Collections.singletonList(fastChild));
+            time = SECOND * 10;
+
+            assertThat(sampler.process(Collections.emptyList())).containsExactly(slowChild);
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(1);
+        }
+
+        @Test
+        void oldestTraceDecidedIfBufferFull() {
+            settings.setMaxBufferedSpans(2);
+            TailSampler sampler = createSampler();
+            SpanData first = child(root(traceId(1), 2000), 1000);
+            SpanData second = child(root(traceId(2), 2000), 1000);
+            SpanData third = child(root(traceId(3), 2000), 1000);
+
+            assertThat(sampler.process(Arrays.asList(first, second))).isEmpty();
+            assertThat(sampler.process(Collections.singletonList(third))).containsExactly(first);
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class ProcessExpiredTraces {
+
+        @Test
+        void expiredTracesDecidedWithoutNewSpans() {
+            TailSampler sampler = createSampler();
+            SpanData slowChild = child(root(traceId(1), 2000), 1000);
+            SpanData fastChild = child(root(traceId(2), 2000), 50);
+            sampler.process(Collections.singletonList(slowChild));
+            time = SECOND * 5;
+            sampler.process(Collections.singletonList(fastChild));
+            time = SECOND * 10;
+            List<SpanData> selected = new ArrayList<>();
+            List<SpanData> baseline = new ArrayList<>();
+
+            sampler.processExpiredTraces(selected, baseline);
+
+            assertThat(selected).containsExactly(slowChild);
+            assertThat(baseline).isEmpty();
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Flush {
+
+        @Test
+        void allTracesDecided() {
+            TailSampler sampler = createSampler();
+            SpanData slowChild = child(root(traceId(1), 2000), 1000);
+            SpanData fastChild = child(root(traceId(2), 2000), 50);
+            sampler.process(Arrays.asList(slowChild, fastChild));
+
+            assertThat(sampler.flush()).containsExactly(slowChild);
+            assertThat(sampler.getBufferedSpansCount()).isEqualTo(0);
+        }
+    }
+}
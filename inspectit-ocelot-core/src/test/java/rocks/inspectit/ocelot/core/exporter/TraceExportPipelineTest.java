@@ -0,0 +1,217 @@
+package rocks.inspectit.ocelot.core.exporter;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.exporter.trace.jaeger.JaegerTraceExporter;
+import io.opencensus.exporter.trace.ocagent.OcAgentTraceExporter;
+import io.opencensus.exporter.trace.zipkin.ZipkinTraceExporter;
+import io.opencensus.trace.*;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import rocks.inspectit.ocelot.config.model.exporters.trace.SpanDropPolicy;
+import rocks.inspectit.ocelot.config.model.exporters.trace.TraceExportQueueSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TailSamplingSettings;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TraceExportPipelineTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    InspectitEnvironment env;
+
+    @Mock
+    SelfMonitoringService selfMonitoring;
+
+    @Mock
+    ScheduledExecutorService executor;
+
+    @InjectMocks
+    TraceExportPipeline pipeline;
+
+    TailSamplingSettings settings;
+
+    /**
+     * Mimics the structure of the OpenCensus trace exporters.
+     */
+    static class DummyExporter {
+
+        private static final String REGISTER_NAME = DummyExporter.class.getName();
+
+        private static SpanExporter.Handler handler;
+    }
+
+    @BeforeEach
+    void init() {
+        settings = new TailSamplingSettings();
+        settings.setLatencyThreshold(Duration.ofSeconds(1));
+        settings.setMaxBufferedSpans(100);
+        settings.setMaxWaitTime(Duration.ofSeconds(30));
+        settings.setDecisionCacheSize(100);
+        when(env.getCurrentConfig().getTracing().getTailSampling()).thenReturn(settings);
+
+        DummyExporter.handler = mock(SpanExporter.Handler.class);
+        Tracing.getExportComponent().getSpanExporter().registerHandler(DummyExporter.REGISTER_NAME, DummyExporter.handler);
+    }
+
+    @AfterEach
+    void cleanup() {
+        pipeline.destroy();
+        pipeline.detach(DummyExporter.class);
+        Tracing.getExportComponent().getSpanExporter().unregisterHandler(DummyExporter.REGISTER_NAME);
+    }
+
+    private SpanData rootSpan(int traceId, long durationSeconds) {
+        SpanData span = mock(SpanData.class);
+        SpanContext context = SpanContext.create(TraceId.fromLowerBase16(String.format("%032x", traceId)),
+                SpanId.fromLowerBase16("0000000000000001"), TraceOptions.DEFAULT);
+        lenient().when(span.getContext()).thenReturn(context);
+        lenient().when(span.getStartTimestamp()).thenReturn(Timestamp.create(100, 0));
+        lenient().when(span.getEndTimestamp()).thenReturn(Timestamp.create(100 + durationSeconds, 0));
+        lenient().when(span.getStatus()).thenReturn(Status.OK);
+        lenient().when(span.getAttributes()).thenReturn(SpanData.Attributes.create(Collections.emptyMap(), 0));
+        return span;
+    }
+
+    private SpanData childSpan(int traceId, long durationSeconds) {
+        SpanData span = rootSpan(traceId, durationSeconds);
+        when(span.getParentSpanId()).thenReturn(SpanId.fromLowerBase16("0000000000000002"));
+        when(span.getHasRemoteParent()).thenReturn(false);
+        return span;
+    }
+
+    @Nested
+    class Attach {
+
+        @Test
+        void bundledExportersAttachable() {
+            assertThat(TraceExportPipeline.isAttachable(ZipkinTraceExporter.class)).isTrue();
+            assertThat(TraceExportPipeline.isAttachable(JaegerTraceExporter.class)).isTrue();
+            assertThat(TraceExportPipeline.isAttachable(OcAgentTraceExporter.class)).isTrue();
+            assertThat(TraceExportPipeline.isAttachable(DummyExporter.class)).isTrue();
+        }
+
+        @Test
+        void incompatibleExporterNotAttachable() {
+            assertThat(TraceExportPipeline.isAttachable(Object.class)).isFalse();
+        }
+    }
+
+    @Nested
+    class ProcessExpiredTraces {
+
+        @Test
+        void taskScheduledIfTailSamplingEnabled() {
+            settings.setEnabled(true);
+
+            pipeline.updateTailSampling();
+
+            verify(executor).scheduleWithFixedDelay(any(), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        void noTaskScheduledIfTailSamplingDisabled() {
+            pipeline.updateTailSampling();
+
+            verifyZeroInteractions(executor);
+        }
+
+        @Test
+        void expiredTracesForwarded() throws Exception {
+            settings.setEnabled(true);
+            settings.setMaxWaitTime(Duration.ofMillis(50));
+            pipeline.updateTailSampling();
+            pipeline.attach(DummyExporter.class);
+            SpanData slow = childSpan(1, 5);
+            pipeline.getPipelineHandler().export(Collections.singletonList(slow));
+            verify(DummyExporter.handler, never()).export(any());
+            Thread.sleep(100);
+
+            pipeline.processExpiredTraces();
+
+            verify(DummyExporter.handler).export(Collections.singletonList(slow));
+        }
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void allSpansForwardedWithoutTailSampling() {
+            pipeline.updateTailSampling();
+            pipeline.attach(DummyExporter.class);
+            Collection<SpanData> spans = Arrays.asList(rootSpan(1, 0), rootSpan(2, 5));
+
+            pipeline.getPipelineHandler().export(spans);
+
+            verify(DummyExporter.handler).export(spans);
+        }
+
+        @Test
+        void tailSamplingApplied() {
+            settings.setEnabled(true);
+            pipeline.updateTailSampling();
+            pipeline.attach(DummyExporter.class);
+            SpanData fast = rootSpan(1, 0);
+            SpanData slow = rootSpan(2, 5);
+
+            pipeline.getPipelineHandler().export(Arrays.asList(fast, slow));
+
+            verify(DummyExporter.handler).export(Collections.singletonList(slow));
+        }
+
+        @Test
+        void nothingForwardedAfterDetach() {
+            pipeline.updateTailSampling();
+            pipeline.attach(DummyExporter.class);
+            pipeline.detach(DummyExporter.class);
+
+            pipeline.getPipelineHandler().export(Collections.singletonList(rootSpan(1, 0)));
+
+            verify(DummyExporter.handler, never()).export(any());
+        }
+
+        @Test
+        void spansExportedAsynchronouslyUsingQueue() {
+            TraceExportQueueSettings queueSettings = new TraceExportQueueSettings();
+            queueSettings.setEnabled(true);
+            queueSettings.setMaxSpans(10);
+            queueSettings.setMaxSize(DataSize.ofMegabytes(1));
+            queueSettings.setBatchSize(2);
+            queueSettings.setFlushInterval(Duration.ofMinutes(1));
+            queueSettings.setDropPolicy(SpanDropPolicy.OLDEST_FIRST);
+            when(env.getCurrentConfig().getExporters().getTracing().getQueue()).thenReturn(queueSettings);
+            pipeline.updateExportQueue();
+            pipeline.updateTailSampling();
+            pipeline.attach(DummyExporter.class);
+            SpanData first = rootSpan(1, 0);
+            SpanData second = rootSpan(2, 0);
+
+            pipeline.getPipelineHandler().export(Collections.singletonList(first));
+            pipeline.getPipelineHandler().export(Collections.singletonList(second));
+
+            verify(DummyExporter.handler, timeout(5000)).export(Arrays.asList(first, second));
+        }
+    }
+}
@@ -13,10 +13,13 @@ import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.config.model.InspectitConfig;
 import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.InternalSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
 import rocks.inspectit.ocelot.core.instrumentation.config.InstrumentationConfigurationResolver;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.ClassInstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationConfiguration;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationRule;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationScope;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationScopeIndex;
 import rocks.inspectit.ocelot.core.instrumentation.event.ClassInstrumentedEvent;
 import rocks.inspectit.ocelot.core.instrumentation.event.IClassDefinitionListener;
 import rocks.inspectit.ocelot.core.instrumentation.special.ClassLoaderDelegation;
@@ -26,8 +29,10 @@ import rocks.inspectit.ocelot.core.testutils.DummyClassLoader;
 
 import java.lang.instrument.Instrumentation;
 import java.net.URLClassLoader;
+import java.time.Duration;
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -52,6 +57,9 @@ public class AsyncClassTransformerTest {
     @Mock
     ClassLoaderDelegation classLoaderDelegation;
 
+    @Spy
+    TypeDescriptionProvider typeDescriptions = new TypeDescriptionProvider();
+
     @InjectMocks
     AsyncClassTransformer transformer = new AsyncClassTransformer();
 
@@ -252,6 +260,12 @@ public class AsyncClassTransformerTest {
 
         @Test
         void testDefinitionListenersInvokedForNewClasses() throws Exception {
+            InstrumentationSettings settings = new InstrumentationSettings();
+            settings.setInternal(new InternalSettings());
+            InspectitConfig conf = new InspectitConfig();
+            conf.setInstrumentation(settings);
+            when(env.getCurrentConfig()).thenReturn(conf);
+
             IClassDefinitionListener listener = Mockito.mock(IClassDefinitionListener.class);
             transformer.classDefinitionListeners = Arrays.asList(listener);
 
@@ -288,4 +302,148 @@ public class AsyncClassTransformerTest {
         }
     }
 
+    @Nested
+    public class LoadTimeInstrumentation {
+
+        final String dummyClassName = FakeExecutor.class.getName();
+
+        final byte[] dummyBytecode = DummyClassLoader.readByteCode(FakeExecutor.class);
+
+        DummyClassLoader loader = new DummyClassLoader();
+
+        @BeforeEach
+        void setupConfig() {
+            InternalSettings internalSettings = new InternalSettings();
+            internalSettings.setLoadTimeInstrumentation(true);
+            internalSettings.setLoadTimeInstrumentationBudget(Duration.ofSeconds(10));
+            InstrumentationSettings settings = new InstrumentationSettings();
+            settings.setInternal(internalSettings);
+            InspectitConfig conf = new InspectitConfig();
+            conf.setInstrumentation(settings);
+            lenient().when(env.getCurrentConfig()).thenReturn(conf);
+            lenient().when(classLoaderDelegation.getClassLoaderClassesRequiringRetransformation(any(), any()))
+                    .thenReturn(new LinkedHashSet<>());
+        }
+
+        private void setupIndexedClassName(String name) {
+            NameMatcherSettings type = new NameMatcherSettings();
+            type.setName(name);
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.any(), type);
+            InstrumentationConfiguration config = InstrumentationConfiguration.builder()
+                    .scopeIndex(InstrumentationScopeIndex.of(Collections.singleton(InstrumentationRule.builder().scope(scope).build())))
+                    .build();
+            when(configResolver.getCurrentConfig()).thenReturn(config);
+        }
+
+        private void setupMatchingRule() {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.named("execute"));
+            InstrumentationRule rule = InstrumentationRule.builder().scope(scope).build();
+            ClassInstrumentationConfiguration classConfig = new ClassInstrumentationConfiguration(
+                    Collections.emptySet(), Collections.singleton(rule), null
+            );
+            when(configResolver.getLoadTimeInstrumentationConfiguration(any(), same(loader), any(), any())).thenReturn(classConfig);
+        }
+
+        @Test
+        void indexedClassInstrumented() throws Exception {
+            setupIndexedClassName(dummyClassName);
+            setupMatchingRule();
+
+            byte[] result = transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+
+            assertThat(result).isNotEqualTo(dummyBytecode);
+            assertThat(transformer.pendingLoadTimeInstrumentations.getIfPresent(loader)).containsKey(dummyClassName);
+            verify(ctx, never()).publishEvent(isA(ClassInstrumentedEvent.class));
+        }
+
+        @Test
+        void notIndexedClassNotInstrumented() throws Exception {
+            setupIndexedClassName("some.other.Class");
+
+            byte[] result = transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+
+            assertThat(result).isSameAs(dummyBytecode);
+            assertThat(transformer.pendingLoadTimeInstrumentations.size()).isZero();
+            verify(configResolver, never()).getLoadTimeInstrumentationConfiguration(any(), any(), any(), any());
+        }
+
+        @Test
+        void classWithoutMatchingRulesNotInstrumented() throws Exception {
+            setupIndexedClassName(dummyClassName);
+            when(configResolver.getLoadTimeInstrumentationConfiguration(any(), any(), any(), any()))
+                    .thenReturn(ClassInstrumentationConfiguration.NO_INSTRUMENTATION);
+
+            byte[] result = transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+
+            assertThat(result).isSameAs(dummyBytecode);
+            assertThat(transformer.pendingLoadTimeInstrumentations.size()).isZero();
+        }
+
+        @Test
+        void classExceedingBudgetNotInstrumented() throws Exception {
+            env.getCurrentConfig().getInstrumentation().getInternal().setLoadTimeInstrumentationBudget(Duration.ZERO);
+            setupIndexedClassName(dummyClassName);
+            setupMatchingRule();
+
+            byte[] result = transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+
+            assertThat(result).isSameAs(dummyBytecode);
+            assertThat(transformer.pendingLoadTimeInstrumentations.size()).isZero();
+        }
+
+        @Test
+        void analysisAbortedWhenBudgetExceeded() throws Exception {
+            setupIndexedClassName(dummyClassName);
+            when(configResolver.getLoadTimeInstrumentationConfiguration(any(), any(), any(), any())).thenReturn(null);
+
+            byte[] result = transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+
+            assertThat(result).isSameAs(dummyBytecode);
+            assertThat(transformer.pendingLoadTimeInstrumentations.size()).isZero();
+        }
+
+        @Test
+        void instrumentationCompletedAfterLoading() throws Exception {
+            setupIndexedClassName(dummyClassName);
+            setupMatchingRule();
+
+            transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+            loader.loadCopiesOfClasses(FakeExecutor.class);
+            Class<?> loadedClass = Class.forName(dummyClassName, false, loader);
+            transformer.completeLoadTimeInstrumentation(loadedClass);
+            transformer.completeLoadTimeInstrumentation(loadedClass);
+
+            assertThat(transformer.instrumentedClasses.getIfPresent(loadedClass)).isTrue();
+            assertThat(transformer.pendingLoadTimeInstrumentations.getIfPresent(loader)).isEmpty();
+            verify(ctx, times(1)).publishEvent(isA(ClassInstrumentedEvent.class));
+        }
+
+        @Test
+        void requestedCompletionDeferred() throws Exception {
+            setupIndexedClassName(dummyClassName);
+            setupMatchingRule();
+
+            transformer.transform(loader, dummyClassName.replace('.', '/'), null, null, dummyBytecode);
+            loader.loadCopiesOfClasses(FakeExecutor.class);
+            Class<?> loadedClass = Class.forName(dummyClassName, false, loader);
+            transformer.requestLoadTimeInstrumentationCompletion(loadedClass);
+
+            assertThat(transformer.instrumentedClasses.getIfPresent(loadedClass)).isNull();
+            verify(ctx, never()).publishEvent(isA(ClassInstrumentedEvent.class));
+
+            transformer.completeRequestedLoadTimeInstrumentations();
+
+            assertThat(transformer.instrumentedClasses.getIfPresent(loadedClass)).isTrue();
+            assertThat(transformer.requestedLoadTimeInstrumentationCompletions.size()).isZero();
+            verify(ctx, times(1)).publishEvent(isA(ClassInstrumentedEvent.class));
+        }
+
+        @Test
+        void completionNotRequestedForClassesNotInstrumentedAtLoadTime() {
+            transformer.requestLoadTimeInstrumentationCompletion(FakeExecutor.class);
+
+            assertThat(transformer.requestedLoadTimeInstrumentationCompletions.size()).isZero();
+        }
+    }
+
 }
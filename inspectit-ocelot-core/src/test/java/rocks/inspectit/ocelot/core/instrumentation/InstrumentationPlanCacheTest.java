@@ -0,0 +1,208 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.FileSystemUtils;
+import rocks.inspectit.ocelot.config.model.InspectitConfig;
+import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationPlanCacheSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.InternalSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.rules.InstrumentationRuleSettings;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.ClassInstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationConfiguration;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.InstrumentationRule;
+import rocks.inspectit.ocelot.core.testutils.Dummy;
+import rocks.inspectit.ocelot.core.testutils.DummyClassLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class InstrumentationPlanCacheTest {
+
+    @Mock
+    ScheduledExecutorService executor;
+
+    @InjectMocks
+    InstrumentationPlanCache planCache;
+
+    Path directory;
+
+    InspectitConfig inspectitConfig;
+
+    @BeforeEach
+    void setupDirectory() throws IOException {
+        directory = Files.createTempDirectory("inspectit");
+
+        InstrumentationPlanCacheSettings settings = new InstrumentationPlanCacheSettings();
+        settings.setEnabled(true);
+        settings.setDirectory(directory.toString());
+        settings.setFlushInterval(Duration.ofSeconds(30));
+        InternalSettings internal = new InternalSettings();
+        internal.setPlanCache(settings);
+        InstrumentationSettings instrumentation = new InstrumentationSettings();
+        instrumentation.setInternal(internal);
+        inspectitConfig = new InspectitConfig();
+        inspectitConfig.setInstrumentation(instrumentation);
+    }
+
+    @AfterEach
+    void deleteDirectory() {
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    private InstrumentationConfiguration createConfiguration() {
+        return InstrumentationConfiguration.builder().source(inspectitConfig.getInstrumentation()).build();
+    }
+
+    private ClassInstrumentationConfiguration instrumented(InstrumentationConfiguration config) {
+        InstrumentationRule rule = InstrumentationRule.builder().name("rule").build();
+        return new ClassInstrumentationConfiguration(Collections.emptySet(), Collections.singleton(rule), config);
+    }
+
+    @Nested
+    public class Record {
+
+        @Test
+        void decisionAvailableInSameRun() {
+            InstrumentationConfiguration config = createConfiguration();
+            planCache.doEnable(inspectitConfig);
+
+            planCache.record(Dummy.class, config, instrumented(config), Collections.singleton("methodA()"));
+            planCache.record(String.class, config, ClassInstrumentationConfiguration.NO_INSTRUMENTATION, Collections.emptySet());
+
+            assertThat(planCache.isPlannedForInstrumentation(Dummy.class, config)).isTrue();
+            assertThat(planCache.isPlannedAsNotInstrumented(Dummy.class, config)).isFalse();
+            assertThat(planCache.isPlannedAsNotInstrumented(String.class, config)).isTrue();
+            assertThat(planCache.isPlannedForInstrumentation(Integer.class, config)).isFalse();
+            assertThat(planCache.isPlannedAsNotInstrumented(Integer.class, config)).isFalse();
+        }
+
+        @Test
+        void decisionAvailableAfterRestart() {
+            InstrumentationConfiguration config = createConfiguration();
+            planCache.doEnable(inspectitConfig);
+            planCache.record(Dummy.class, config, instrumented(config), Collections.singleton("methodA()"));
+            planCache.record(String.class, config, ClassInstrumentationConfiguration.NO_INSTRUMENTATION, Collections.emptySet());
+            planCache.doDisable();
+
+            planCache.doEnable(inspectitConfig);
+            InstrumentationConfiguration restartedConfig = createConfiguration();
+
+            assertThat(planCache.isPlannedForInstrumentation(Dummy.class, restartedConfig)).isTrue();
+            assertThat(planCache.isPlannedAsNotInstrumented(String.class, restartedConfig)).isTrue();
+        }
+
+        @Test
+        void decisionNotUsedForOtherConfiguration() {
+            InstrumentationConfiguration config = createConfiguration();
+            planCache.doEnable(inspectitConfig);
+            planCache.record(String.class, config, ClassInstrumentationConfiguration.NO_INSTRUMENTATION, Collections.emptySet());
+
+            InstrumentationConfiguration otherConfig = config.toBuilder().tracingEnabled(false).build();
+
+            assertThat(planCache.isPlannedAsNotInstrumented(String.class, otherConfig)).isFalse();
+        }
+
+        @Test
+        void classWithoutCodeSourceNotRecorded() throws Exception {
+            InstrumentationConfiguration config = createConfiguration();
+            planCache.doEnable(inspectitConfig);
+            Class<?> copy = Class.forName(Dummy.class.getName(), false, new DummyClassLoader(Dummy.class));
+
+            planCache.record(copy, config, ClassInstrumentationConfiguration.NO_INSTRUMENTATION, Collections.emptySet());
+
+            assertThat(planCache.getKey(copy)).isNull();
+            assertThat(planCache.isPlannedAsNotInstrumented(copy, config)).isFalse();
+        }
+
+        @Test
+        void nothingRecordedIfDisabled() {
+            InstrumentationConfiguration config = createConfiguration();
+
+            planCache.record(String.class, config, ClassInstrumentationConfiguration.NO_INSTRUMENTATION, Collections.emptySet());
+            planCache.flush();
+
+            assertThat(planCache.isPlannedAsNotInstrumented(String.class, config)).isFalse();
+            assertThat(directory.toFile().list()).isEmpty();
+        }
+    }
+
+    @Nested
+    public class GetConfigurationHash {
+
+        @Test
+        void equalForEqualConfigurations() {
+            assertThat(planCache.getConfigurationHash(createConfiguration()))
+                    .isEqualTo(planCache.getConfigurationHash(createConfiguration()));
+        }
+
+        @Test
+        void differentForDifferentConfigurations() {
+            InstrumentationConfiguration config = createConfiguration();
+            InstrumentationConfiguration otherConfig = config.toBuilder().metricsEnabled(false).build();
+
+            assertThat(planCache.getConfigurationHash(config)).isNotEqualTo(planCache.getConfigurationHash(otherConfig));
+        }
+
+        @Test
+        void internalSettingsIgnored() {
+            InstrumentationConfiguration config = createConfiguration();
+            InstrumentationSettings otherSource = new InstrumentationSettings();
+            otherSource.setInternal(new InternalSettings());
+            InstrumentationConfiguration otherConfig = config.toBuilder().source(otherSource).build();
+
+            assertThat(planCache.getConfigurationHash(config)).isEqualTo(planCache.getConfigurationHash(otherConfig));
+        }
+
+        @Test
+        void rulesConsidered() {
+            InstrumentationConfiguration config = createConfiguration();
+            InstrumentationSettings otherSource = new InstrumentationSettings();
+            otherSource.setRules(Collections.singletonMap("my-rule", new InstrumentationRuleSettings()));
+            InstrumentationConfiguration otherConfig = config.toBuilder().source(otherSource).build();
+
+            assertThat(planCache.getConfigurationHash(config)).isNotEqualTo(planCache.getConfigurationHash(otherConfig));
+        }
+    }
+
+    @Nested
+    public class GetLocalFile {
+
+        @Test
+        void plainJar() {
+            Path result = InstrumentationPlanCache.getLocalFile(Paths.get("lib.jar").toUri().toString());
+
+            assertThat(result).isEqualTo(Paths.get("lib.jar").toAbsolutePath());
+        }
+
+        @Test
+        void nestedJar() {
+            String location = "jar:" + Paths.get("app.jar").toUri() + "!/BOOT-INF/lib/lib.jar!/";
+
+            Path result = InstrumentationPlanCache.getLocalFile(location);
+
+            assertThat(result).isEqualTo(Paths.get("app.jar").toAbsolutePath());
+        }
+
+        @Test
+        void remoteLocation() {
+            Path result = InstrumentationPlanCache.getLocalFile("http://localhost/lib.jar");
+
+            assertThat(result).isNull();
+        }
+    }
+}
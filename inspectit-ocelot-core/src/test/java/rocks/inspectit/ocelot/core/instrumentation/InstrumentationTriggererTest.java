@@ -1,5 +1,6 @@
 package rocks.inspectit.ocelot.core.instrumentation;
 
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,13 +11,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.core.instrumentation.config.InstrumentationConfigurationResolver;
 import rocks.inspectit.ocelot.core.instrumentation.hook.HookManager;
+import rocks.inspectit.ocelot.core.instrumentation.injection.ClassInjector;
 import rocks.inspectit.ocelot.core.instrumentation.special.ClassLoaderDelegation;
 import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
+import rocks.inspectit.ocelot.core.service.BatchJobExecutorService;
 
 import java.lang.instrument.Instrumentation;
 import java.net.URLClassLoader;
 import java.security.SecureClassLoader;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -51,6 +55,15 @@ public class InstrumentationTriggererTest {
     @Mock
     HookManager hookManager;
 
+    @Mock
+    AsyncClassTransformer transformer;
+
+    @Mock
+    InstrumentationPlanCache planCache;
+
+    @Mock
+    ClassInjector classInjector;
+
     @InjectMocks
     InstrumentationTriggerer triggerer;
 
@@ -180,5 +193,91 @@ public class InstrumentationTriggererTest {
             assertThat(classesSelectedForRetransform)
                     .doesNotContain(triggerer.pendingClasses.asMap().keySet().toArray(new Class[]{}));
         }
+
+        @Test
+        void testPriorityClassesFirst() {
+            TESTING_CLASSES.stream().forEach(cl -> triggerer.pendingClasses.put(cl, true));
+            triggerer.priorityClasses.put(Double.class, true);
+            doReturn(true).when(instrumentationManager).doesClassRequireRetransformation(any());
+            when(classLoaderDelegation.getClassLoaderClassesRequiringRetransformation(any(), any())).thenReturn(new LinkedHashSet<>());
+
+            Set<Class<?>> classesSelectedForRetransform =
+                    triggerer.getBatchOfClassesToRetransform(
+                            new InstrumentationTriggerer.BatchSize(2, 10));
+
+            assertThat(classesSelectedForRetransform).hasSize(2).contains(Double.class);
+            assertThat(triggerer.priorityClasses.size()).isEqualTo(0);
+            assertThat(triggerer.pendingClasses.size()).isEqualTo(4);
+        }
+
+        @Test
+        void completedLoadTimeInstrumentationsFirst() {
+            TESTING_CLASSES.stream().forEach(cl -> triggerer.pendingClasses.put(cl, true));
+            when(transformer.completeRequestedLoadTimeInstrumentations()).thenReturn(Collections.singleton(Double.class));
+            doReturn(true).when(instrumentationManager).doesClassRequireRetransformation(any());
+            when(classLoaderDelegation.getClassLoaderClassesRequiringRetransformation(any(), any())).thenReturn(new LinkedHashSet<>());
+
+            Set<Class<?>> classesSelectedForRetransform =
+                    triggerer.getBatchOfClassesToRetransform(
+                            new InstrumentationTriggerer.BatchSize(1, 10));
+
+            assertThat(classesSelectedForRetransform).containsExactly(Double.class);
+            verify(hookManager).updateHooksForClass(Double.class);
+        }
+
+        @Test
+        void hooksBuiltInSingleRedefinitionBatch() {
+            TESTING_CLASSES.stream().forEach(cl -> triggerer.pendingClasses.put(cl, true));
+            ClassInjector.RedefinitionBatch batch = mock(ClassInjector.RedefinitionBatch.class);
+            when(classInjector.startRedefinitionBatch()).thenReturn(batch);
+
+            triggerer.getBatchOfClassesToRetransform(new InstrumentationTriggerer.BatchSize(100, 100));
+
+            verify(classInjector, times(1)).startRedefinitionBatch();
+            InOrder inOrder = inOrder(hookManager, batch);
+            inOrder.verify(hookManager, times(TESTING_CLASSES.size())).updateHooksForClass(any());
+            inOrder.verify(batch).close();
+        }
+
+        @Test
+        void classesRequeuedOnFailedRedefinition() {
+            TESTING_CLASSES.stream().forEach(cl -> triggerer.pendingClasses.put(cl, true));
+            ClassInjector.RedefinitionBatch batch = mock(ClassInjector.RedefinitionBatch.class);
+            when(classInjector.startRedefinitionBatch()).thenReturn(batch);
+            doThrow(new IllegalStateException()).when(batch).close();
+
+            triggerer.getBatchOfClassesToRetransform(new InstrumentationTriggerer.BatchSize(100, 100));
+
+            assertThat(triggerer.pendingClasses.asMap()).containsOnlyKeys(TESTING_CLASSES.toArray(new Class[]{}));
+        }
+    }
+
+    @Nested
+    public class RequestLoadTimeInstrumentationCompletion {
+
+        @Test
+        void nextBatchStartedImmediately() throws Exception {
+            BatchJobExecutorService.BatchJob<?> job = mock(BatchJobExecutorService.BatchJob.class);
+            FieldUtils.writeDeclaredField(triggerer, "classInstrumentationJob", job, true);
+
+            triggerer.requestLoadTimeInstrumentationCompletion(String.class);
+
+            verify(transformer).requestLoadTimeInstrumentationCompletion(String.class);
+            verify(job).runNextBatchNow();
+        }
+    }
+
+    @Nested
+    public class OnNewClassesDiscovered {
+
+        @Test
+        void plannedClassesPrioritized() {
+            doReturn(true).when(planCache).isPlannedForInstrumentation(same(String.class), any());
+
+            triggerer.onNewClassesDiscovered(new LinkedHashSet<>(Arrays.asList(String.class, Integer.class)));
+
+            assertThat(triggerer.priorityClasses.asMap()).containsOnlyKeys(String.class);
+            assertThat(triggerer.pendingClasses.asMap()).containsOnlyKeys(Integer.class);
+        }
     }
 }
@@ -0,0 +1,170 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.instrumentation.InternalSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.RetransformPacingSettings;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RetransformationPacerTest {
+
+    RetransformationPacer pacer;
+
+    InternalSettings settings;
+
+    @BeforeEach
+    void setupPacer() {
+        RetransformPacingSettings pacing = new RetransformPacingSettings();
+        pacing.setEnabled(true);
+        pacing.setMaxClassRetransformBatchSize(40);
+        pacing.setMinInterBatchDelay(Duration.ofMillis(10));
+        pacing.setMaxInterBatchDelay(Duration.ofMillis(1000));
+        pacing.setMaxRetransformDuration(Duration.ofMillis(50));
+        pacing.setMaxSafepointTime(Duration.ofMillis(20));
+        pacing.setMaxCpuLoad(0.7);
+
+        settings = new InternalSettings();
+        settings.setClassRetransformBatchSize(10);
+        settings.setInterBatchDelay(Duration.ofMillis(100));
+        settings.setRetransformPacing(pacing);
+
+        pacer = spy(new RetransformationPacer());
+        lenient().doReturn(0.1).when(pacer).readProcessCpuLoad();
+        pacer.reset(settings);
+    }
+
+    @Nested
+    public class Reset {
+
+        @Test
+        void initialValuesClampedToLimits() {
+            settings.setClassRetransformBatchSize(100);
+            settings.setInterBatchDelay(Duration.ofMillis(1));
+
+            pacer.reset(settings);
+
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(40);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(10));
+        }
+
+        @Test
+        void disabledKeepsConfiguredValues() {
+            settings.getRetransformPacing().setEnabled(false);
+            settings.setClassRetransformBatchSize(100);
+
+            pacer.reset(settings);
+            boolean changed = pacer.onBatchRetransformed(Duration.ofSeconds(10), -1);
+
+            assertThat(changed).isFalse();
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(100);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(100));
+        }
+    }
+
+    @Nested
+    public class Update {
+
+        @Test
+        void adaptedPaceKeptForUnchangedSettings() {
+            pacer.onBatchRetransformed(Duration.ofMillis(5), -1);
+            InternalSettings sameSettings = new InternalSettings();
+            sameSettings.setClassRetransformBatchSize(10);
+            sameSettings.setInterBatchDelay(Duration.ofMillis(100));
+            RetransformPacingSettings samePacing = new RetransformPacingSettings();
+            samePacing.setEnabled(true);
+            samePacing.setMaxClassRetransformBatchSize(40);
+            samePacing.setMinInterBatchDelay(Duration.ofMillis(10));
+            samePacing.setMaxInterBatchDelay(Duration.ofMillis(1000));
+            samePacing.setMaxRetransformDuration(Duration.ofMillis(50));
+            samePacing.setMaxSafepointTime(Duration.ofMillis(20));
+            samePacing.setMaxCpuLoad(0.7);
+            sameSettings.setRetransformPacing(samePacing);
+
+            boolean reset = pacer.update(sameSettings);
+
+            assertThat(reset).isFalse();
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(15);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(50));
+        }
+
+        @Test
+        void paceResetForChangedSettings() {
+            pacer.onBatchRetransformed(Duration.ofMillis(5), -1);
+            settings.setClassRetransformBatchSize(20);
+
+            boolean reset = pacer.update(settings);
+
+            assertThat(reset).isTrue();
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(20);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(100));
+        }
+    }
+
+    @Nested
+    public class OnBatchRetransformed {
+
+        @Test
+        void paceIncreasedIfIdle() {
+            boolean changed = pacer.onBatchRetransformed(Duration.ofMillis(5), -1);
+
+            assertThat(changed).isTrue();
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(15);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(50));
+        }
+
+        @Test
+        void paceLimitedByMaximum() {
+            for (int i = 0; i < 10; i++) {
+                pacer.onBatchRetransformed(Duration.ofMillis(5), -1);
+            }
+
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(40);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(10));
+            assertThat(pacer.onBatchRetransformed(Duration.ofMillis(5), -1)).isFalse();
+        }
+
+        @Test
+        void paceDecreasedForSlowRetransform() {
+            boolean changed = pacer.onBatchRetransformed(Duration.ofMillis(80), -1);
+
+            assertThat(changed).isTrue();
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(5);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(200));
+        }
+
+        @Test
+        void paceDecreasedForHighSafepointTime() {
+            doReturn(1030L).when(pacer).captureSafepointTime();
+
+            pacer.onBatchRetransformed(Duration.ofMillis(5), 1000L);
+
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(5);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(200));
+        }
+
+        @Test
+        void paceDecreasedForHighCpuLoad() {
+            doReturn(0.9).when(pacer).readProcessCpuLoad();
+
+            pacer.onBatchRetransformed(Duration.ofMillis(5), -1);
+
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(5);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(200));
+        }
+
+        @Test
+        void paceLimitedByMinimum() {
+            for (int i = 0; i < 10; i++) {
+                pacer.onBatchRetransformed(Duration.ofMillis(80), -1);
+            }
+
+            assertThat(pacer.getRetransformBatchSize()).isEqualTo(1);
+            assertThat(pacer.getInterBatchDelay()).isEqualTo(Duration.ofMillis(1000));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package rocks.inspectit.ocelot.core.instrumentation;
+
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.core.testutils.DummyClassLoader;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypeDescriptionProviderTest {
+
+    TypeDescriptionProvider provider = new TypeDescriptionProvider();
+
+    public static class Dummy {
+
+        public String doSomething(int value) {
+            return String.valueOf(value);
+        }
+    }
+
+    @Nested
+    public class Describe {
+
+        @Test
+        void describesFromClassFile() {
+            TypeDescription result = provider.describe(Dummy.class);
+
+            assertThat(result).isNotInstanceOf(TypeDescription.ForLoadedType.class);
+            assertThat(result.getName()).isEqualTo(Dummy.class.getName());
+            assertThat(result.getDeclaredMethods())
+                    .containsExactlyInAnyOrderElementsOf(TypeDescription.ForLoadedType.of(Dummy.class).getDeclaredMethods());
+        }
+
+        @Test
+        void describesBootstrapClass() {
+            TypeDescription result = provider.describe(String.class);
+
+            assertThat(result).isNotInstanceOf(TypeDescription.ForLoadedType.class);
+            assertThat(result.getName()).isEqualTo(String.class.getName());
+        }
+
+        @Test
+        void describesFromGivenBytecode() throws Exception {
+            DummyClassLoader loader = new DummyClassLoader(Dummy.class);
+            Class<?> copy = Class.forName(Dummy.class.getName(), false, loader);
+
+            TypeDescription result = provider.describe(copy, DummyClassLoader.readByteCode(Dummy.class));
+
+            assertThat(result).isNotInstanceOf(TypeDescription.ForLoadedType.class);
+            assertThat(result.getDeclaredMethods().filter(named("doSomething"))).hasSize(1);
+        }
+
+        @Test
+        void fallbackToLoadedTypeWithoutClassFile() throws Exception {
+            DummyClassLoader loader = new DummyClassLoader(Dummy.class);
+            Class<?> copy = Class.forName(Dummy.class.getName(), false, loader);
+
+            TypeDescription result = provider.describe(copy);
+
+            assertThat(result).isInstanceOf(TypeDescription.ForLoadedType.class);
+        }
+    }
+}
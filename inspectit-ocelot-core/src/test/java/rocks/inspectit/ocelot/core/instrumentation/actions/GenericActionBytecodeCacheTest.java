@@ -0,0 +1,171 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions;
+
+import javassist.ClassPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.FileSystemUtils;
+import rocks.inspectit.ocelot.config.model.instrumentation.GenericActionCacheSettings;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.testutils.DummyClassLoader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class GenericActionBytecodeCacheTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    InspectitEnvironment env;
+
+    @InjectMocks
+    GenericActionBytecodeCache cache;
+
+    Path directory;
+
+    GenericActionCacheSettings settings;
+
+    GenericActionConfig action = GenericActionConfig.builder()
+            .name("my-action")
+            .valueBody("return null;")
+            .build();
+
+    byte[] bytecode = DummyClassLoader.readByteCode(MyDummyClass.class);
+
+    ClassLoader loader = new URLClassLoader(new URL[0]);
+
+    @BeforeEach
+    void setupSettings() throws IOException {
+        directory = Files.createTempDirectory("inspectit");
+        settings = new GenericActionCacheSettings();
+        settings.setEnabled(true);
+        settings.setDirectory(directory.toString());
+        lenient().when(env.getCurrentConfig().getInstrumentation().getInternal().getActionCache()).thenReturn(settings);
+    }
+
+    @AfterEach
+    void deleteDirectory() {
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Nested
+    public class Load {
+
+        @Test
+        void storedBytecodeLoaded() {
+            ClassPool pool = new ClassPool(true);
+            cache.store(action, "{return null;}", bytecode, loader, pool);
+
+            byte[] result = cache.load(action, "{return null;}", loader, pool);
+
+            assertThat(result).isEqualTo(bytecode);
+        }
+
+        @Test
+        void differentSourceNotLoaded() {
+            ClassPool pool = new ClassPool(true);
+            cache.store(action, "{return null;}", bytecode, loader, pool);
+
+            byte[] result = cache.load(action, "{return \"x\";}", loader, pool);
+
+            assertThat(result).isNull();
+        }
+
+        @Test
+        void changedReferencedClassNotLoaded() {
+            cache.store(action, "{return null;}", bytecode, loader, new ClassPool(true));
+
+            //java.lang.Object can not be located by a pool without any class path
+            byte[] result = cache.load(action, "{return null;}", loader, new ClassPool());
+
+            assertThat(result).isNull();
+        }
+
+        @Test
+        void otherClassLoaderNotLoaded() {
+            ClassPool pool = new ClassPool(true);
+            cache.store(action, "{return null;}", bytecode, loader, pool);
+
+            ClassLoader otherLoader = new DummyClassLoader(loader);
+            byte[] result = cache.load(action, "{return null;}", otherLoader, pool);
+
+            assertThat(result).isNull();
+        }
+
+        @Test
+        void nothingStoredIfDisabled() {
+            settings.setEnabled(false);
+            ClassPool pool = new ClassPool(true);
+            cache.store(action, "{return null;}", bytecode, loader, pool);
+
+            settings.setEnabled(true);
+            byte[] result = cache.load(action, "{return null;}", loader, pool);
+
+            assertThat(result).isNull();
+            assertThat(directory.toFile().list()).isEmpty();
+        }
+    }
+
+    @Nested
+    public class GetKey {
+
+        @Test
+        void importsConsidered() {
+            GenericActionConfig importingAction = GenericActionConfig.builder()
+                    .name("my-action")
+                    .valueBody("return null;")
+                    .importedPackages(Collections.singletonList("java.util"))
+                    .build();
+
+            assertThat(GenericActionBytecodeCache.getKey(action, "{return null;}"))
+                    .isNotEqualTo(GenericActionBytecodeCache.getKey(importingAction, "{return null;}"));
+        }
+    }
+
+    @Nested
+    public class GetClassLoaderKey {
+
+        @Test
+        void equalClassPathsHaveSameKey() throws Exception {
+            URL[] classPath = {Paths.get("lib.jar").toUri().toURL()};
+
+            assertThat(GenericActionBytecodeCache.getClassLoaderKey(new URLClassLoader(classPath)))
+                    .isEqualTo(GenericActionBytecodeCache.getClassLoaderKey(new URLClassLoader(classPath)));
+        }
+
+        @Test
+        void differentClassPathsHaveDifferentKeys() throws Exception {
+            URL[] classPath = {Paths.get("lib.jar").toUri().toURL()};
+            URL[] otherClassPath = {Paths.get("other.jar").toUri().toURL()};
+
+            assertThat(GenericActionBytecodeCache.getClassLoaderKey(new URLClassLoader(classPath)))
+                    .isNotEqualTo(GenericActionBytecodeCache.getClassLoaderKey(new URLClassLoader(otherClassPath)));
+        }
+    }
+
+    @Nested
+    public class GetReferencedClasses {
+
+        @Test
+        void selfReferenceExcluded() throws IOException {
+            assertThat(GenericActionBytecodeCache.getReferencedClasses(bytecode))
+                    .contains(Object.class.getName())
+                    .doesNotContain(MyDummyClass.class.getName());
+        }
+    }
+}
@@ -221,6 +221,76 @@ public class GenericActionGeneratorIntTest extends SpringTestBase {
         assertThat(getInstance(action).execute(null, null, null, null, args)).isEqualTo(36L);
     }
 
+    @Test
+    @DirtiesContext
+    void testSpecializedEntryPoint() {
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .additionalArgumentType("myvalue", "int")
+                .additionalArgumentType("x", "long")
+                .valueBody("return new Long(x * myvalue);")
+                .build();
+
+        InjectedClass<? extends IGenericAction> action = generator.getOrGenerateGenericAction(config, dummyClass);
+        assertThat(getInstance(action).execute2(null, null, null, null, 12, 3L)).isEqualTo(36L);
+    }
+
+    @Test
+    @DirtiesContext
+    void testInitBody() {
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .additionalArgumentType("_init", "java.util.regex.Pattern")
+                .additionalArgumentType("regex", "String")
+                .additionalArgumentType("string", "String")
+                .initBody("return java.util.regex.Pattern.compile(regex);")
+                .valueBody("return new Boolean(_init.matcher(string).matches());")
+                .build();
+
+        IGenericAction action = getInstance(generator.getOrGenerateGenericAction(config, dummyClass));
+        Object pattern = action.init(new Object[]{null, "a+", null});
+
+        assertThat(pattern).isInstanceOf(java.util.regex.Pattern.class);
+        assertThat(action.execute3(null, null, null, null, pattern, "a+", "aaa")).isEqualTo(true);
+    }
+
+    @Test
+    @DirtiesContext
+    void testArgumentArrayForManyArguments() {
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .additionalArgumentType("a", "int")
+                .additionalArgumentType("b", "int")
+                .additionalArgumentType("c", "int")
+                .additionalArgumentType("d", "int")
+                .additionalArgumentType("e", "int")
+                .valueBody("return new Integer(a + b + c + d + e);")
+                .build();
+
+        InjectedClass<? extends IGenericAction> action = generator.getOrGenerateGenericAction(config, dummyClass);
+        assertThat(getInstance(action).execute(null, null, null, null, new Object[]{1, 2, 3, 4, 5})).isEqualTo(15);
+    }
+
+    @Test
+    @DirtiesContext
+    void testSpecializedEntryPointWithInitBody() {
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .additionalArgumentType("_init", "java.util.regex.Pattern")
+                .additionalArgumentType("regex", "String")
+                .additionalArgumentType("replacement", "String")
+                .additionalArgumentType("string", "String")
+                .initBody("return java.util.regex.Pattern.compile(regex);")
+                .valueBody("return _init.matcher(string).replaceAll(replacement);")
+                .build();
+
+        IGenericAction action = getInstance(generator.getOrGenerateGenericAction(config, dummyClass));
+        Object pattern = action.init(new Object[]{null, "a+", null, null});
+
+        assertThat(action.execute4(null, null, null, null, pattern, "a+", "b", "caaat")).isEqualTo("cbt");
+        assertThat(action.execute(null, null, null, null, new Object[]{pattern, "a+", "b", "caaat"})).isEqualTo("cbt");
+    }
+
     @Test
     @DirtiesContext
     void testThizPassingAndCasting() {
@@ -269,5 +339,84 @@ public class GenericActionGeneratorIntTest extends SpringTestBase {
         assertThat(getInstance(action).execute(null, null, new int[]{1, 2, 3}, null, new Object[]{"something"})).isSameAs(cachedValue);
     }
 
-}
 
+    @Test
+    @DirtiesContext
+    void testPrecompiledActions() {
+        GenericActionConfig configA = GenericActionConfig.builder()
+                .name("my-action-a")
+                .valueBody("return \"actionA\";")
+                .build();
+        GenericActionConfig configB = GenericActionConfig.builder()
+                .name("my-action-b")
+                .isVoid(true)
+                .valueBody("int x = 42;")
+                .build();
+
+        generator.precompileGenericActions(Arrays.asList(configA, configB), dummyClass);
+
+        InjectedClass<? extends IGenericAction> actionA = generator.getOrGenerateGenericAction(configA, dummyClass);
+        InjectedClass<? extends IGenericAction> actionB = generator.getOrGenerateGenericAction(configB, dummyClass);
+        assertThat(getInstance(actionA).execute(null, null, null, null, null)).isEqualTo("actionA");
+        assertThat(getInstance(actionB).execute(null, null, null, null, null)).isNull();
+    }
+
+    @Test
+    @DirtiesContext
+    void testImportsNotSharedBetweenActions() {
+        GenericActionConfig importing = GenericActionConfig.builder()
+                .name("importing-action")
+                .importedPackages(Arrays.asList(MyDummyClass.class.getPackage().getName()))
+                .valueBody("return new Integer(MyDummyClass.MY_VALUE);")
+                .build();
+        GenericActionConfig notImporting = GenericActionConfig.builder()
+                .name("not-importing-action")
+                .valueBody("return new Integer(MyDummyClass.MY_VALUE);")
+                .build();
+
+        InjectedClass<?> importingAction = generator.getOrGenerateGenericAction(importing, dummyClass);
+        InjectedClass<?> notImportingAction = generator.getOrGenerateGenericAction(notImporting, dummyClass);
+
+        assertThat(importingAction.getInjectedClassObject().get()).isNotSameAs(GenericActionTemplate.class);
+        assertThat(notImportingAction.getInjectedClassObject().get()).isSameAs(GenericActionTemplate.class);
+    }
+
+
+    @Test
+    @DirtiesContext
+    void testBootstrapOnlyActionShared() throws Exception {
+        DummyClassLoader otherLoader = new DummyClassLoader(GenericActionGeneratorIntTest.class.getClassLoader(), MyDummyClass.class);
+        Class<?> otherDummyClass = Class.forName(MyDummyClass.class.getName(), false, otherLoader);
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .usesArgsArray(true)
+                .valueBody("return String.valueOf(((String)_args[0]).length());")
+                .build();
+
+        InjectedClass<? extends IGenericAction> actionA = generator.getOrGenerateGenericAction(config, dummyClass);
+        InjectedClass<? extends IGenericAction> actionB = generator.getOrGenerateGenericAction(config, otherDummyClass);
+
+        assertThat(actionB).isSameAs(actionA);
+        assertThat(getInstance(actionA).execute(new Object[]{"1234"}, null, null, null, null)).isEqualTo("4");
+    }
+
+    @Test
+    @DirtiesContext
+    void testActionUsingLoaderClassesNotShared() throws Exception {
+        DummyClassLoader otherLoader = new DummyClassLoader(GenericActionGeneratorIntTest.class.getClassLoader(), MyDummyClass.class);
+        Class<?> otherDummyClass = Class.forName(MyDummyClass.class.getName(), false, otherLoader);
+        GenericActionConfig config = GenericActionConfig.builder()
+                .name("my-action")
+                .importedPackages(Arrays.asList(MyDummyClass.class.getPackage().getName()))
+                .valueBody("return new Integer(MyDummyClass.MY_VALUE);")
+                .build();
+
+        InjectedClass<? extends IGenericAction> actionA = generator.getOrGenerateGenericAction(config, dummyClass);
+        InjectedClass<? extends IGenericAction> actionB = generator.getOrGenerateGenericAction(config, otherDummyClass);
+
+        assertThat(actionB).isNotSameAs(actionA);
+        assertThat(actionA.getInjectedClassObject().get().getClassLoader()).isSameAs(dummyLoader);
+        assertThat(actionB.getInjectedClassObject().get().getClassLoader()).isSameAs(otherLoader);
+    }
+
+}
@@ -0,0 +1,156 @@
+package rocks.inspectit.ocelot.core.instrumentation.actions.bound;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.bootstrap.instrumentation.IGenericAction;
+import rocks.inspectit.ocelot.core.instrumentation.config.model.GenericActionConfig;
+import rocks.inspectit.ocelot.core.instrumentation.context.InspectitContextImpl;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
+import rocks.inspectit.ocelot.core.instrumentation.injection.InjectedClass;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PureBoundGenericActionTest {
+
+    @Mock
+    InspectitContextImpl inspectitContext;
+
+    InjectedClass<?> actionClass = new InjectedClass<>(CountingAction.class);
+
+    @BeforeEach
+    void resetCounter() {
+        CountingAction.INVOCATIONS.set(0);
+    }
+
+    IHookAction.ExecutionContext contextFor(Object thiz) {
+        return new IHookAction.ExecutionContext(new Object[0], thiz, null, null, null, inspectitContext);
+    }
+
+    @Nested
+    class Execute {
+
+        @Test
+        void constantInputsExecutedOnce() {
+            GenericActionConfig config = GenericActionConfig.builder()
+                    .name("my-action")
+                    .pure(true)
+                    .additionalArgumentType("_methodName", "String")
+                    .valueBody("")
+                    .build();
+            PureBoundGenericAction action = new PureBoundGenericAction("call", "data", config, actionClass,
+                    Collections.singletonMap("_methodName", "myMethod"), Collections.emptyMap());
+
+            action.execute(contextFor(null));
+            action.execute(contextFor(null));
+
+            assertThat(CountingAction.INVOCATIONS.get()).isEqualTo(1);
+        }
+
+        @Test
+        void memoizedPerThisIdentity() {
+            GenericActionConfig config = GenericActionConfig.builder()
+                    .name("my-action")
+                    .pure(true)
+                    .expectedThisType("String")
+                    .valueBody("")
+                    .build();
+            PureBoundGenericAction action = new PureBoundGenericAction("call", "data", config, actionClass,
+                    Collections.emptyMap(), Collections.emptyMap());
+            Object first = new Object();
+            Object second = new Object();
+
+            action.execute(contextFor(first));
+            action.execute(contextFor(first));
+            action.execute(contextFor(second));
+
+            assertThat(CountingAction.INVOCATIONS.get()).isEqualTo(2);
+            verify(inspectitContext, times(2)).setData("data", 1);
+            verify(inspectitContext).setData("data", 2);
+        }
+
+        @Test
+        void memoizedPerCombinationOfInputs() {
+            GenericActionConfig config = GenericActionConfig.builder()
+                    .name("my-action")
+                    .pure(true)
+                    .expectedThisType("String")
+                    .additionalArgumentType("value", "Object")
+                    .valueBody("")
+                    .build();
+            Object value = new Object();
+            Map<String, VariableAccessor> dynamicAssignments = new HashMap<>();
+            dynamicAssignments.put("value", (context) -> value);
+            PureBoundGenericAction action = new PureBoundGenericAction("call", "data", config, actionClass,
+                    Collections.emptyMap(), dynamicAssignments);
+            Object thiz = new Object();
+
+            action.execute(contextFor(thiz));
+            action.execute(contextFor(thiz));
+            action.execute(contextFor(null));
+            action.execute(contextFor(null));
+
+            assertThat(CountingAction.INVOCATIONS.get()).isEqualTo(2);
+        }
+
+        @Test
+        void argsArrayNotMemoized() {
+            GenericActionConfig config = GenericActionConfig.builder()
+                    .name("my-action")
+                    .pure(true)
+                    .usesArgsArray(true)
+                    .valueBody("")
+                    .build();
+            PureBoundGenericAction action = new PureBoundGenericAction("call", "data", config, actionClass,
+                    Collections.emptyMap(), Collections.emptyMap());
+            IHookAction.ExecutionContext context = contextFor(null);
+
+            action.execute(context);
+            action.execute(context);
+
+            assertThat(CountingAction.INVOCATIONS.get()).isEqualTo(2);
+        }
+
+        @Test
+        void primitiveArgumentNotMemoized() {
+            GenericActionConfig config = GenericActionConfig.builder()
+                    .name("my-action")
+                    .pure(true)
+                    .expectedArgumentType(0, "int")
+                    .valueBody("")
+                    .build();
+            PureBoundGenericAction action = new PureBoundGenericAction("call", "data", config, actionClass,
+                    Collections.emptyMap(), Collections.emptyMap());
+            IHookAction.ExecutionContext context = new IHookAction.ExecutionContext(new Object[]{42}, null, null, null, null, inspectitContext);
+
+            action.execute(context);
+            action.execute(context);
+
+            assertThat(CountingAction.INVOCATIONS.get()).isEqualTo(2);
+        }
+    }
+
+    public static class CountingAction implements IGenericAction {
+
+        static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+        public static final IGenericAction INSTANCE = new CountingAction();
+
+        @Override
+        public Object execute(Object[] instrumentedMethodArgs, Object thiz, Object returnValue, Throwable thrown, Object[] additionalArgs) {
+            return INVOCATIONS.incrementAndGet();
+        }
+    }
+}
@@ -44,6 +44,27 @@ public class GenericActionConfigurationResolverTest {
             assertThat(result.get(ACTION_NAME).getName()).isEqualTo(ACTION_NAME);
         }
 
+        @Test
+        void verifyPureFlagPreserved() {
+            inputAction.setPure(true);
+
+            Map<String, GenericActionConfig> result = resolver.resolveActions(config);
+
+            assertThat(result.get(ACTION_NAME).isPure()).isTrue();
+        }
+
+        @Test
+        void verifyInitBodyPreserved() {
+            inputAction.setInitBody("return null;");
+            inputAction.getInput().put(GenericActionSettings.INIT_VARIABLE, "Object");
+
+            Map<String, GenericActionConfig> result = resolver.resolveActions(config);
+
+            GenericActionConfig rc = result.get(ACTION_NAME);
+            assertThat(rc.getInitBody()).isEqualTo("return null;");
+            assertThat(rc.getAdditionalArgumentTypes()).containsEntry(GenericActionSettings.INIT_VARIABLE, "Object");
+        }
+
         @Test
         void verifyThisTypeExtracted() {
             inputAction.getInput().put(GenericActionSettings.THIS_VARIABLE, "MyClass");
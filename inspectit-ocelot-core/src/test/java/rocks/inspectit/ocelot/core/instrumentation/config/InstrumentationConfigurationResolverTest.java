@@ -1,6 +1,7 @@
 package rocks.inspectit.ocelot.core.instrumentation.config;
 
 import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -12,13 +13,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.bootstrap.instrumentation.DoNotInstrumentMarker;
 import rocks.inspectit.ocelot.config.model.instrumentation.InstrumentationSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.data.DataSettings;
 import rocks.inspectit.ocelot.config.model.instrumentation.data.PropagationMode;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.MatcherMode;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
 import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
 import rocks.inspectit.ocelot.core.instrumentation.FakeExecutor;
+import rocks.inspectit.ocelot.core.instrumentation.InstrumentationPlanCache;
+import rocks.inspectit.ocelot.core.instrumentation.TypeDescriptionProvider;
 import rocks.inspectit.ocelot.core.instrumentation.config.dummy.LambdaTestProvider;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.*;
 import rocks.inspectit.ocelot.core.instrumentation.special.SpecialSensor;
@@ -30,6 +37,7 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.*;
 
@@ -48,6 +56,12 @@ class InstrumentationConfigurationResolverTest {
     @Mock
     MethodHookConfigurationResolver hookResolver;
 
+    @Spy
+    TypeDescriptionProvider typeDescriptions = new TypeDescriptionProvider();
+
+    @Mock
+    InstrumentationPlanCache planCache;
+
     @InjectMocks
     private InstrumentationConfigurationResolver resolver;
 
@@ -117,6 +131,55 @@ class InstrumentationConfigurationResolverTest {
                     .containsExactly(ElementMatchers.nameEndsWithIgnoreCase("object"), ElementMatchers.any());
         }
 
+        @Test
+        public void typeMatcherOnlyEvaluatedForIndexedCandidates() throws IllegalAccessException {
+            ElementMatcher.Junction<TypeDescription> typeMatcherA = mock(ElementMatcher.Junction.class);
+            ElementMatcher.Junction<TypeDescription> typeMatcherB = mock(ElementMatcher.Junction.class);
+            when(typeMatcherA.matches(any())).thenReturn(true);
+            NameMatcherSettings nameA = new NameMatcherSettings();
+            nameA.setName("java.lang.");
+            nameA.setMatcherMode(MatcherMode.STARTS_WITH);
+            NameMatcherSettings nameB = new NameMatcherSettings();
+            nameB.setName("java.util.");
+            nameB.setMatcherMode(MatcherMode.STARTS_WITH);
+            InstrumentationScope scopeA = new InstrumentationScope(typeMatcherA, ElementMatchers.any(), nameA);
+            InstrumentationScope scopeB = new InstrumentationScope(typeMatcherB, ElementMatchers.any(), nameB);
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scopeA).scope(scopeB).build();
+            config = InstrumentationConfiguration.builder()
+                    .source(settings)
+                    .rule(rule)
+                    .scopeIndex(InstrumentationScopeIndex.of(Collections.singleton(rule)))
+                    .build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            ClassInstrumentationConfiguration result = resolver.getClassInstrumentationConfiguration(Object.class);
+
+            assertThat(result.getActiveRules())
+                    .hasSize(1)
+                    .flatExtracting(InstrumentationRule::getScopes)
+                    .containsExactly(scopeA);
+            verifyZeroInteractions(typeMatcherB);
+        }
+
+        @Test
+        public void loadedTypeUsedIfClassFileDescriptionFails() throws IllegalAccessException {
+            TypeDescription unresolvable = mock(TypeDescription.class);
+            doReturn(unresolvable).when(typeDescriptions).describe(Object.class);
+            ElementMatcher.Junction<TypeDescription> typeMatcher = mock(ElementMatcher.Junction.class);
+            when(typeMatcher.matches(same(unresolvable))).thenThrow(new IllegalStateException("Cannot resolve type description"));
+            when(typeMatcher.matches(argThat(type -> type instanceof TypeDescription.ForLoadedType))).thenReturn(true);
+            InstrumentationScope scope = new InstrumentationScope(typeMatcher, ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            ClassInstrumentationConfiguration result = resolver.getClassInstrumentationConfiguration(Object.class);
+
+            assertThat(result.getActiveRules())
+                    .hasSize(1)
+                    .flatExtracting(InstrumentationRule::getScopes)
+                    .containsExactly(scope);
+        }
     }
 
 
@@ -187,6 +250,53 @@ class InstrumentationConfigurationResolverTest {
         }
 
 
+        @Test
+        void methodMatcherOnlyEvaluatedForIndexedCandidates() throws Exception {
+            ElementMatcher.Junction<MethodDescription> methodMatcherA = mock(ElementMatcher.Junction.class);
+            ElementMatcher.Junction<MethodDescription> methodMatcherB = mock(ElementMatcher.Junction.class);
+            when(methodMatcherA.matches(any())).thenAnswer(invocation -> ((MethodDescription) invocation.getArgument(0)).getName().equals("methodA"));
+            NameMatcherSettings nameA = new NameMatcherSettings();
+            nameA.setName("methodA");
+            NameMatcherSettings nameB = new NameMatcherSettings();
+            nameB.setName("otherMethod");
+            InstrumentationScope scopeA = new InstrumentationScope(ElementMatchers.any(), methodMatcherA, null, Collections.singletonList(nameA));
+            InstrumentationScope scopeB = new InstrumentationScope(ElementMatchers.any(), methodMatcherB, null, Collections.singletonList(nameB));
+            InstrumentationRule r1 = InstrumentationRule.builder().name("r1").scope(scopeA).build();
+            InstrumentationRule r2 = InstrumentationRule.builder().name("r2").scope(scopeB).build();
+
+            config = InstrumentationConfiguration.builder()
+                    .source(settings)
+                    .rule(r1)
+                    .rule(r2)
+                    .scopeIndex(InstrumentationScopeIndex.of(Arrays.asList(r1, r2)))
+                    .build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            Map<MethodDescription, MethodHookConfiguration> result = resolver.getHookConfigurations(testCaseClass);
+
+            assertThat(result).hasSize(1);
+            verify(hookResolver).buildHookConfiguration(same(config), eq(Collections.singleton(r1)));
+            verifyZeroInteractions(methodMatcherB);
+        }
+
+
+        @Test
+        void loadedTypeUsedIfClassFileDescriptionFails() throws Exception {
+            TypeDescription unresolvable = mock(TypeDescription.class);
+            when(unresolvable.getDeclaredMethods()).thenThrow(new IllegalStateException("Cannot resolve type description"));
+            doReturn(unresolvable).when(typeDescriptions).describe(testCaseClass);
+            InstrumentationScope methodScope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.is(testCase_methodA));
+            InstrumentationRule r1 = InstrumentationRule.builder().name("r1").scope(methodScope).build();
+
+            config = InstrumentationConfiguration.builder().source(settings).rule(r1).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            Map<MethodDescription, MethodHookConfiguration> result = resolver.getHookConfigurations(testCaseClass);
+
+            assertThat(result).hasSize(1);
+            verify(hookResolver).buildHookConfiguration(same(config), eq(Collections.singleton(r1)));
+        }
+
         @Test
         void testMultipleRulesWithSameScopeMatching() throws Exception {
             ElementMatcher.Junction<MethodDescription> method = ElementMatchers.is(testCase_methodA);
@@ -231,6 +341,119 @@ class InstrumentationConfigurationResolverTest {
 
     }
 
+    @Nested
+    class ConfigurationCaching {
+
+        final Method testCase_methodA = TestCase.class.getDeclaredMethod("methodA");
+
+        Class<?> testCaseClass;
+
+        ConfigurationCaching() throws NoSuchMethodException {
+        }
+
+        @BeforeEach
+        void setupTestCaseClass() throws ClassNotFoundException {
+            testCaseClass = Class.forName(TestCase.class.getName(), true, new DummyClassLoader((ClassLoader) null, TestCase.class));
+        }
+
+        @Test
+        void classConfigurationReusedForSameConfig() throws Exception {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            ClassInstrumentationConfiguration first = resolver.getClassInstrumentationConfiguration(testCaseClass);
+            ClassInstrumentationConfiguration second = resolver.getClassInstrumentationConfiguration(testCaseClass);
+
+            assertThat(second).isSameAs(first);
+        }
+
+        @Test
+        void classConfigurationRecomputedOnConfigChange() throws Exception {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            ClassInstrumentationConfiguration first = resolver.getClassInstrumentationConfiguration(testCaseClass);
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+            ClassInstrumentationConfiguration second = resolver.getClassInstrumentationConfiguration(testCaseClass);
+
+            assertThat(first.getActiveRules()).isEmpty();
+            assertThat(second.getActiveRules()).hasSize(1);
+        }
+
+        @Test
+        void hookConfigurationsReusedForSameConfig() throws Exception {
+            InstrumentationScope methodScope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.is(testCase_methodA));
+            InstrumentationRule r1 = InstrumentationRule.builder().name("r1").scope(methodScope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(r1).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+
+            Map<MethodDescription, MethodHookConfiguration> first = resolver.getHookConfigurations(testCaseClass);
+            Map<MethodDescription, MethodHookConfiguration> second = resolver.getHookConfigurations(testCaseClass);
+
+            assertThat(first).hasSize(1);
+            assertThat(second).isEqualTo(first);
+            verify(hookResolver, times(1)).buildHookConfiguration(same(config), eq(Collections.singleton(r1)));
+            verifyNoMoreInteractions(hookResolver);
+        }
+
+        @Test
+        void hookConfigurationsRecomputedOnConfigChange() throws Exception {
+            InstrumentationScope methodScope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.is(testCase_methodA));
+            InstrumentationRule r1 = InstrumentationRule.builder().name("r1").scope(methodScope).build();
+            InstrumentationConfiguration firstConfig = InstrumentationConfiguration.builder().source(settings).rule(r1).build();
+            InstrumentationConfiguration secondConfig = InstrumentationConfiguration.builder().source(settings).rule(r1).metricsEnabled(false).build();
+
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", firstConfig, true);
+            resolver.getHookConfigurations(testCaseClass);
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", secondConfig, true);
+            resolver.getHookConfigurations(testCaseClass);
+
+            verify(hookResolver).buildHookConfiguration(same(firstConfig), eq(Collections.singleton(r1)));
+            verify(hookResolver).buildHookConfiguration(same(secondConfig), eq(Collections.singleton(r1)));
+            verifyNoMoreInteractions(hookResolver);
+        }
+
+        @Test
+        void hookConfigurationsReusedOnUnrelatedConfigChange() throws Exception {
+            InstrumentationScope methodScope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.is(testCase_methodA));
+            InstrumentationRule r1 = InstrumentationRule.builder().name("r1").scope(methodScope).build();
+            TracingSettings otherTracing = new TracingSettings();
+            otherTracing.getTailSampling().setEnabled(true);
+            InstrumentationConfiguration firstConfig = InstrumentationConfiguration.builder().source(settings).rule(r1).tracingSettings(new TracingSettings()).build();
+            InstrumentationConfiguration secondConfig = firstConfig.toBuilder().tracingSettings(otherTracing).build();
+
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", firstConfig, true);
+            ClassInstrumentationConfiguration firstClassConfig = resolver.getClassInstrumentationConfiguration(testCaseClass);
+            resolver.getHookConfigurations(testCaseClass);
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", secondConfig, true);
+            ClassInstrumentationConfiguration secondClassConfig = resolver.getClassInstrumentationConfiguration(testCaseClass);
+            Map<MethodDescription, MethodHookConfiguration> hooks = resolver.getHookConfigurations(testCaseClass);
+
+            assertThat(secondClassConfig).isSameAs(firstClassConfig);
+            assertThat(hooks).hasSize(1);
+            verify(hookResolver).buildHookConfiguration(same(firstConfig), eq(Collections.singleton(r1)));
+            verifyNoMoreInteractions(hookResolver);
+        }
+
+        @Test
+        void noTypeDescriptionForCachedClassWithoutHooks() throws Exception {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.none());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+            FieldUtils.writeDeclaredField(resolver, "currentConfig", config, true);
+            resolver.getHookConfigurations(testCaseClass);
+            clearInvocations(typeDescriptions);
+
+            resolver.getHookConfigurations(testCaseClass);
+
+            verifyZeroInteractions(typeDescriptions);
+        }
+    }
+
     @Nested
     class IsIgnoredClass {
 
@@ -311,6 +534,67 @@ class InstrumentationConfigurationResolverTest {
     }
 
 
+    @Nested
+    class GetLoadTimeInstrumentationConfiguration {
+
+        final TypeDescription testCaseType = TypeDescription.ForLoadedType.of(TestCase.class);
+
+        final ClassLoader loader = new DummyClassLoader();
+
+        @Test
+        void matchingRule() {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.named(TestCase.class.getName()), ElementMatchers.any());
+            InstrumentationScope otherScope = new InstrumentationScope(ElementMatchers.named("not.Matching"), ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).scope(otherScope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+
+            ClassInstrumentationConfiguration result = resolver.getLoadTimeInstrumentationConfiguration(testCaseType, loader, config, () -> false);
+
+            assertThat(result.getActiveSpecialSensors()).isEmpty();
+            assertThat(result.getActiveRules())
+                    .hasSize(1)
+                    .flatExtracting(InstrumentationRule::getScopes)
+                    .containsExactly(scope);
+        }
+
+        @Test
+        void ignoredPackage() {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+            when(settings.getIgnoredPackages()).thenReturn(Collections.singletonMap(TestCase.class.getPackage().getName(), true));
+
+            ClassInstrumentationConfiguration result = resolver.getLoadTimeInstrumentationConfiguration(testCaseType, loader, config, () -> false);
+
+            assertThat(result.isNoInstrumentation()).isTrue();
+        }
+
+        @Test
+        void doNotInstrumentMarker() {
+            InstrumentationScope scope = new InstrumentationScope(ElementMatchers.any(), ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+
+            TypeDescription ignoredType = TypeDescription.ForLoadedType.of(IgnoredClass.class);
+            ClassInstrumentationConfiguration result = resolver.getLoadTimeInstrumentationConfiguration(ignoredType, loader, config, () -> false);
+
+            assertThat(result.isNoInstrumentation()).isTrue();
+        }
+
+        @Test
+        void analysisAbortedWhenBudgetExceeded() {
+            ElementMatcher.Junction<TypeDescription> typeMatcher = mock(ElementMatcher.Junction.class);
+            InstrumentationScope scope = new InstrumentationScope(typeMatcher, ElementMatchers.any());
+            InstrumentationRule rule = InstrumentationRule.builder().name("name").scope(scope).build();
+            config = InstrumentationConfiguration.builder().source(settings).rule(rule).build();
+
+            ClassInstrumentationConfiguration result = resolver.getLoadTimeInstrumentationConfiguration(testCaseType, loader, config, () -> true);
+
+            assertThat(result).isNull();
+            verifyZeroInteractions(typeMatcher);
+        }
+    }
+
     @Nested
     class ResolveDataProperties {
 
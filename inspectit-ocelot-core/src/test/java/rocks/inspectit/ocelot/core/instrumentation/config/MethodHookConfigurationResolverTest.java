@@ -12,10 +12,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rocks.inspectit.ocelot.config.model.instrumentation.actions.ActionCallSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.actions.GenericActionSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.data.DataSettings;
+import rocks.inspectit.ocelot.config.model.instrumentation.data.PropagationMode;
 import rocks.inspectit.ocelot.config.model.instrumentation.rules.RuleTracingSettings;
+import rocks.inspectit.ocelot.config.model.tracing.TracingSettings;
 import rocks.inspectit.ocelot.core.instrumentation.config.callsorting.GenericActionCallSorter;
 import rocks.inspectit.ocelot.core.instrumentation.config.model.*;
 
+import java.util.Collections;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -195,6 +200,83 @@ public class MethodHookConfigurationResolverTest {
             assertThat(result.getSampleProbability()).isEqualTo("0.5");
         }
 
+        @Test
+        void verifyTracingDefaultSamplingProbabilityOmittedForRateLimiting() throws Exception {
+            TracingSettings tracingSettings = new TracingSettings();
+            tracingSettings.getRateLimiting().setEnabled(true);
+            config = InstrumentationConfiguration.builder()
+                    .defaultTraceSampleProbability(0.5)
+                    .tracingSettings(tracingSettings)
+                    .build();
+
+            InstrumentationRule r1 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .startSpan(true)
+                            .sampleProbability(null)
+                            .build())
+                    .build();
+
+            RuleTracingSettings result = resolver.buildHookConfiguration(
+                    config, Sets.newHashSet(r1)).getTracing();
+
+            assertThat(result.getSampleProbability()).isNull();
+        }
+
+        @Test
+        void verifyRedMetricsResolved() throws Exception {
+            InstrumentationRule r1 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .startSpan(true)
+                            .redMetrics(true)
+                            .build())
+                    .build();
+            InstrumentationRule r2 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .startSpan(true)
+                            .build())
+                    .build();
+
+            RuleTracingSettings result = resolver.buildHookConfiguration(
+                    config, Sets.newHashSet(r1, r2)).getTracing();
+
+            assertThat(result.getRedMetrics()).isTrue();
+        }
+
+        @Test
+        void verifyRedMetricsOfRulesNotDefiningStartSpanIgnored() throws Exception {
+            InstrumentationRule r1 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .startSpan(true)
+                            .redMetrics(true)
+                            .build())
+                    .build();
+            InstrumentationRule r2 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .redMetrics(false)
+                            .build())
+                    .build();
+
+            RuleTracingSettings result = resolver.buildHookConfiguration(
+                    config, Sets.newHashSet(r1, r2)).getTracing();
+
+            assertThat(result.getRedMetrics()).isTrue();
+        }
+
+        @Test
+        void verifyRedMetricsRespectMetricsMasterSwitch() throws Exception {
+            InstrumentationRule r1 = InstrumentationRule.builder()
+                    .tracing(RuleTracingSettings.builder()
+                            .startSpan(true)
+                            .redMetrics(true)
+                            .build())
+                    .build();
+
+            RuleTracingSettings result = resolver.buildHookConfiguration(
+                    config.toBuilder().metricsEnabled(false).build(), Sets.newHashSet(r1)).getTracing();
+
+            assertThat(result.getRedMetrics()).isNull();
+        }
+
 
         @Test
         void verifyProvidersOrderedByDependencies() throws Exception {
@@ -407,4 +489,166 @@ public class MethodHookConfigurationResolverTest {
 
     }
 
+    @Nested
+    class SpanAttributeOnlyData {
+
+        InstrumentationConfiguration config;
+
+        GenericActionConfig provider;
+
+        ActionCallConfig attributeCall;
+
+        @BeforeEach
+        void initTestData() {
+            DataProperties dataProperties = DataProperties.builder()
+                    .data("attr_data", createDataSettings(false, PropagationMode.NONE))
+                    .data("tag_data", createDataSettings(true, PropagationMode.NONE))
+                    .build();
+            config = InstrumentationConfiguration.builder().dataProperties(dataProperties).build();
+
+            provider = GenericActionConfig.builder()
+                    .name("provider")
+                    .pure(true)
+                    .build();
+            attributeCall = createCall("attr_data", provider, Collections.emptyMap());
+        }
+
+        private DataSettings createDataSettings(boolean isTag, PropagationMode downPropagation) {
+            DataSettings settings = new DataSettings();
+            settings.setIsTag(isTag);
+            settings.setDownPropagation(downPropagation);
+            return settings;
+        }
+
+        private ActionCallConfig createCall(String name, GenericActionConfig action, Map<String, String> dataInput) {
+            ActionCallSettings settings = new ActionCallSettings();
+            settings.setAction(action.getName());
+            settings.setDataInput(dataInput);
+            return ActionCallConfig.builder()
+                    .name(name)
+                    .callSettings(settings)
+                    .action(action).build();
+        }
+
+        private RuleTracingSettings.RuleTracingSettingsBuilder tracing(String dataKey) {
+            return RuleTracingSettings.builder()
+                    .attributes(Maps.newHashMap("attr", dataKey));
+        }
+
+        @Test
+        void postEntryCallSkippedIfHookStartsSpan() throws Exception {
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .postEntryAction(attributeCall)
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).containsExactly("attr_data");
+            assertThat(conf.getPostEntryActions()).containsExactly(attributeCall);
+        }
+
+        @Test
+        void entryCallNotSkippedIfHookStartsSpan() throws Exception {
+            ActionCallConfig other = createCall("other", provider, Collections.emptyMap());
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .entryAction(attributeCall)
+                    .postEntryAction(other)
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+            assertThat(conf.getEntryActions()).containsExactly(attributeCall);
+            assertThat(conf.getPostEntryActions()).containsExactly(other);
+        }
+
+        @Test
+        void impureActionNotSkipped() throws Exception {
+            GenericActionConfig impureProvider = GenericActionConfig.builder()
+                    .name("impureProvider")
+                    .build();
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .exitAction(createCall("attr_data", impureProvider, Collections.emptyMap()))
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+        }
+
+        @Test
+        void callsNotMovedWithoutSpan() throws Exception {
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").build())
+                    .entryAction(attributeCall)
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).containsExactly("attr_data");
+            assertThat(conf.getEntryActions()).containsExactly(attributeCall);
+            assertThat(conf.getPostEntryActions()).isEmpty();
+        }
+
+        @Test
+        void tagsNotSkipped() throws Exception {
+            ActionCallConfig tagCall = createCall("tag_data", provider, Collections.emptyMap());
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("tag_data").startSpan(true).build())
+                    .exitAction(tagCall)
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+        }
+
+        @Test
+        void dataReadByOtherCallNotSkipped() throws Exception {
+            ActionCallConfig readingCall = createCall("other", provider, ImmutableMap.of("arg", "attr_data"));
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .exitAction(attributeCall)
+                    .exitAction(readingCall)
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+        }
+
+        @Test
+        void dataUsedAsMetricNotSkipped() throws Exception {
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .exitAction(attributeCall)
+                    .metric("my_metric", "attr_data")
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+        }
+
+        @Test
+        void nothingSkippedIfContextIsUsed() throws Exception {
+            GenericActionConfig contextProvider = GenericActionConfig.builder()
+                    .name("contextProvider")
+                    .additionalArgumentType(GenericActionSettings.CONTEXT_VARIABLE, "InspectitContext")
+                    .build();
+            InstrumentationRule rule = InstrumentationRule.builder()
+                    .tracing(tracing("attr_data").startSpan(true).build())
+                    .exitAction(attributeCall)
+                    .exitAction(createCall("other", contextProvider, Collections.emptyMap()))
+                    .build();
+
+            MethodHookConfiguration conf = resolver.buildHookConfiguration(config, Sets.newHashSet(rule));
+
+            assertThat(conf.getSpanAttributeOnlyData()).isEmpty();
+        }
+    }
+
 }
@@ -0,0 +1,197 @@
+package rocks.inspectit.ocelot.core.instrumentation.config.matcher;
+
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.MatcherMode;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameMatcherIndexTest {
+
+    private static NameMatcherSettings settings(String name, MatcherMode mode) {
+        NameMatcherSettings settings = new NameMatcherSettings();
+        settings.setName(name);
+        settings.setMatcherMode(mode);
+        return settings;
+    }
+
+    @Nested
+    class GetMatches {
+
+        @Test
+        void emptyIndex() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder().build();
+
+            assertThat(index.getMatches("java.lang.String")).isEmpty();
+        }
+
+        @Test
+        void unconditionalValues() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(null, "null")
+                    .add(settings("", MatcherMode.EQUALS_FULLY), "empty")
+                    .addUnconditional("unconditional")
+                    .build();
+
+            assertThat(index.getMatches("java.lang.String")).containsExactlyInAnyOrder("null", "empty", "unconditional");
+        }
+
+        @Test
+        void caseSensitiveModes() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(settings("java.lang.String", MatcherMode.EQUALS_FULLY), "equals")
+                    .add(settings("java.lang", MatcherMode.EQUALS_FULLY), "equalsPrefix")
+                    .add(settings("java.lang.", MatcherMode.STARTS_WITH), "startsWith")
+                    .add(settings("lang.", MatcherMode.STARTS_WITH), "startsWithInside")
+                    .add(settings("String", MatcherMode.ENDS_WITH), "endsWith")
+                    .add(settings("lang", MatcherMode.ENDS_WITH), "endsWithInside")
+                    .add(settings("ang.Str", MatcherMode.CONTAINS), "contains")
+                    .add(settings("Lang", MatcherMode.CONTAINS), "containsWrongCase")
+                    .build();
+
+            assertThat(index.getMatches("java.lang.String")).containsExactlyInAnyOrder("equals", "startsWith", "endsWith", "contains");
+        }
+
+        @Test
+        void ignoreCaseModes() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(settings("JAVA.lang.string", MatcherMode.EQUALS_FULLY_IGNORE_CASE), "equals")
+                    .add(settings("Java.Lang.", MatcherMode.STARTS_WITH_IGNORE_CASE), "startsWith")
+                    .add(settings("STRING", MatcherMode.ENDS_WITH_IGNORE_CASE), "endsWith")
+                    .add(settings("LANG", MatcherMode.CONTAINS_IGNORE_CASE), "contains")
+                    .add(settings("Lang", MatcherMode.CONTAINS), "containsWrongCase")
+                    .build();
+
+            assertThat(index.getMatches("java.lang.String")).containsExactlyInAnyOrder("equals", "startsWith", "endsWith", "contains");
+        }
+
+        @Test
+        void ignoreCaseIndependentOfDefaultLocale() {
+            Locale defaultLocale = Locale.getDefault();
+            try {
+                Locale.setDefault(new Locale("tr", "TR"));
+                NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                        .add(settings("java.lang.integer", MatcherMode.EQUALS_FULLY_IGNORE_CASE), "equals")
+                        .build();
+
+                assertThat(index.getMatches("JAVA.LANG.INTEGER")).containsExactly("equals");
+            } finally {
+                Locale.setDefault(defaultLocale);
+            }
+        }
+
+        @Test
+        void overlappingPatterns() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(settings("abab", MatcherMode.CONTAINS), "abab")
+                    .add(settings("bab", MatcherMode.ENDS_WITH), "bab")
+                    .add(settings("ba", MatcherMode.CONTAINS), "ba")
+                    .add(settings("abc", MatcherMode.CONTAINS), "abc")
+                    .build();
+
+            assertThat(index.getMatches("aababab")).containsExactlyInAnyOrder("abab", "bab", "ba");
+        }
+
+        @Test
+        void regularExpressions() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(settings("java\\.lang\\..*", MatcherMode.MATCHES), "prefixed")
+                    .add(settings("java\\.util\\..*", MatcherMode.MATCHES), "otherPrefix")
+                    .add(settings(".*String", MatcherMode.MATCHES), "unprefixed")
+                    .add(settings(".*Integer", MatcherMode.MATCHES), "unprefixedNotMatching")
+                    .add(settings("java.lang", MatcherMode.MATCHES), "partialMatch")
+                    .add(settings("[invalid", MatcherMode.MATCHES), "invalid")
+                    .build();
+
+            assertThat(index.getMatches("java.lang.String")).containsExactlyInAnyOrder("prefixed", "unprefixed", "invalid");
+        }
+
+        @Test
+        void sameResultsAsElementMatchers() {
+            List<String> names = Arrays.asList("java.lang.String", "java.util.HashMap", "com.example.MyService", "com.example.impl.MyServiceImpl");
+            List<NameMatcherSettings> allSettings = Arrays.asList(
+                    settings("com.example.", MatcherMode.STARTS_WITH),
+                    settings("Service", MatcherMode.CONTAINS),
+                    settings("serviceimpl", MatcherMode.ENDS_WITH_IGNORE_CASE),
+                    settings("java.util.HashMap", MatcherMode.EQUALS_FULLY),
+                    settings("(com|java)\\..*Map", MatcherMode.MATCHES),
+                    settings("com\\.example\\.[a-z]+\\..*", MatcherMode.MATCHES));
+            NameMatcherIndex.Builder<NameMatcherSettings> builder = NameMatcherIndex.builder();
+            allSettings.forEach(settings -> builder.add(settings, settings));
+            NameMatcherIndex<NameMatcherSettings> index = builder.build();
+
+            for (String name : names) {
+                TypeDescription type = new TypeDescription.Latent(name, 0, null);
+                List<NameMatcherSettings> expected = allSettings.stream()
+                        .filter(settings -> SpecialElementMatchers.nameIs(settings).matches(type))
+                        .collect(Collectors.toList());
+
+                assertThat(index.getMatches(name)).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    @Nested
+    class HasMatchingSettings {
+
+        @Test
+        void unconditionalValuesIgnored() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(null, "null")
+                    .addUnconditional("unconditional")
+                    .build();
+
+            assertThat(index.hasMatchingSettings("java.lang.String")).isFalse();
+        }
+
+        @Test
+        void matchingSettings() {
+            NameMatcherIndex<String> index = NameMatcherIndex.<String>builder()
+                    .add(settings("java.util.", MatcherMode.STARTS_WITH), "startsWith")
+                    .add(settings("string", MatcherMode.ENDS_WITH_IGNORE_CASE), "endsWith")
+                    .add(settings(".*Integer", MatcherMode.MATCHES), "regex")
+                    .build();
+
+            assertThat(index.hasMatchingSettings("java.util.HashMap")).isTrue();
+            assertThat(index.hasMatchingSettings("java.lang.String")).isTrue();
+            assertThat(index.hasMatchingSettings("java.lang.Integer")).isTrue();
+            assertThat(index.hasMatchingSettings("java.lang.Long")).isFalse();
+        }
+    }
+
+    @Nested
+    class GetLiteralPrefix {
+
+        @Test
+        void escapedCharacters() {
+            assertThat(NameMatcherIndex.getLiteralPrefix("com\\.example\\..*")).isEqualTo("com.example.");
+        }
+
+        @Test
+        void optionalCharacter() {
+            assertThat(NameMatcherIndex.getLiteralPrefix("abc?d")).isEqualTo("ab");
+            assertThat(NameMatcherIndex.getLiteralPrefix("abc*d")).isEqualTo("ab");
+            assertThat(NameMatcherIndex.getLiteralPrefix("abc{0,1}d")).isEqualTo("ab");
+        }
+
+        @Test
+        void repeatedCharacter() {
+            assertThat(NameMatcherIndex.getLiteralPrefix("abc+d")).isEqualTo("abc");
+        }
+
+        @Test
+        void noPrefix() {
+            assertThat(NameMatcherIndex.getLiteralPrefix("a|b")).isEmpty();
+            assertThat(NameMatcherIndex.getLiteralPrefix("(?i)abc")).isEmpty();
+            assertThat(NameMatcherIndex.getLiteralPrefix("\\Qabc\\E")).isEmpty();
+            assertThat(NameMatcherIndex.getLiteralPrefix("[ab]c")).isEmpty();
+        }
+    }
+}
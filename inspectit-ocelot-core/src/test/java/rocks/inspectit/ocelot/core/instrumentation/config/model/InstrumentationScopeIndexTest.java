@@ -0,0 +1,92 @@
+package rocks.inspectit.ocelot.core.instrumentation.config.model;
+
+import net.bytebuddy.matcher.ElementMatchers;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.MatcherMode;
+import rocks.inspectit.ocelot.config.model.instrumentation.scope.NameMatcherSettings;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstrumentationScopeIndexTest {
+
+    private static NameMatcherSettings settings(String name, MatcherMode mode) {
+        NameMatcherSettings settings = new NameMatcherSettings();
+        settings.setName(name);
+        settings.setMatcherMode(mode);
+        return settings;
+    }
+
+    private int scopeCount = 0;
+
+    private InstrumentationScope scope(NameMatcherSettings typeName, List<NameMatcherSettings> methodNames) {
+        //the scopes are distinguished by their type matchers, as the name settings are not part of their equality
+        return new InstrumentationScope(ElementMatchers.named("scope" + scopeCount++), ElementMatchers.any(), typeName, methodNames);
+    }
+
+    private InstrumentationScopeIndex index(InstrumentationScope... scopes) {
+        InstrumentationRule rule = InstrumentationRule.builder().name("rule").scopes(Arrays.asList(scopes)).build();
+        return InstrumentationScopeIndex.of(Collections.singleton(rule));
+    }
+
+    @Nested
+    class GetTypeCandidates {
+
+        @Test
+        void candidatesByTypeName() {
+            InstrumentationScope matching = scope(settings("my.pkg.", MatcherMode.STARTS_WITH), null);
+            InstrumentationScope notMatching = scope(settings("other.", MatcherMode.STARTS_WITH), null);
+            InstrumentationScope unrestricted = scope(null, null);
+
+            InstrumentationScopeIndex index = index(matching, notMatching, unrestricted);
+
+            assertThat(index.getTypeCandidates("my.pkg.MyClass")).containsExactlyInAnyOrder(matching, unrestricted);
+        }
+    }
+
+    @Nested
+    class GetMethodCandidates {
+
+        @Test
+        void candidatesByMethodName() {
+            InstrumentationScope matching = scope(null, Arrays.asList(settings("get", MatcherMode.STARTS_WITH), settings("run", MatcherMode.EQUALS_FULLY)));
+            InstrumentationScope notMatching = scope(null, Collections.singletonList(settings("set", MatcherMode.STARTS_WITH)));
+            InstrumentationScope unrestricted = scope(null, null);
+
+            InstrumentationScopeIndex index = index(matching, notMatching, unrestricted);
+
+            assertThat(index.getMethodCandidates("run")).containsExactlyInAnyOrder(matching, unrestricted);
+            assertThat(index.getMethodCandidates("getName")).containsExactlyInAnyOrder(matching, unrestricted);
+            assertThat(index.getMethodCandidates("close")).containsExactly(unrestricted);
+        }
+    }
+
+    @Nested
+    class IsTypeNameTargeted {
+
+        @Test
+        void targetedNames() {
+            InstrumentationScopeIndex index = index(
+                    scope(settings("my.pkg.MyClass", MatcherMode.EQUALS_FULLY), null),
+                    scope(settings("other.", MatcherMode.STARTS_WITH), null),
+                    scope(settings("Servlet", MatcherMode.ENDS_WITH), null)
+            );
+
+            assertThat(index.isTypeNameTargeted("my.pkg.MyClass")).isTrue();
+            assertThat(index.isTypeNameTargeted("other.Foo")).isTrue();
+            assertThat(index.isTypeNameTargeted("my.pkg.MyServlet")).isTrue();
+            assertThat(index.isTypeNameTargeted("my.pkg.MyClass2")).isFalse();
+        }
+
+        @Test
+        void unrestrictedScopesIgnored() {
+            InstrumentationScopeIndex index = index(scope(null, null));
+
+            assertThat(index.isTypeNameTargeted("my.pkg.MyClass")).isFalse();
+        }
+    }
+}
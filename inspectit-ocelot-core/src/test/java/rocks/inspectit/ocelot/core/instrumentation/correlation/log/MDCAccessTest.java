@@ -18,6 +18,7 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 
 @ExtendWith(MockitoExtension.class)
 public class MDCAccessTest {
@@ -74,5 +75,17 @@ public class MDCAccessTest {
 
         }
 
+        @Test
+        void verifyNoopReturnedIfNothingChanged() {
+            access.activeAdapters.put(Long.class, adapterA);
+            access.activeAdapters.put(Double.class, adapterB);
+            doReturn(MDCAccess.Undo.NOOP).when(adapterA).set(eq("key"), eq("value"));
+            doReturn(MDCAccess.Undo.NOOP).when(adapterB).set(eq("key"), eq("value"));
+
+            MDCAccess.Undo undo = access.put("key", "value");
+
+            assertThat(undo).isSameAs(MDCAccess.Undo.NOOP);
+        }
+
     }
 }
@@ -3,7 +3,8 @@ package rocks.inspectit.ocelot.core.instrumentation.correlation.log.adapters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import rocks.inspectit.ocelot.core.utils.WeakMethodReference;
+import rocks.inspectit.ocelot.core.instrumentation.correlation.log.MDCAccess;
+import rocks.inspectit.ocelot.core.utils.WeakMethodHandleReference;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,7 +17,10 @@ public class AbstractStaticMapMDCAdapterTest {
 
         static final Map<String, String> contents = new HashMap<>();
 
+        static int writes = 0;
+
         static void put(String key, String value) {
+            writes++;
             contents.put(key, value);
         }
 
@@ -25,11 +29,13 @@ public class AbstractStaticMapMDCAdapterTest {
         }
 
         static void remove(String key) {
+            writes++;
             contents.remove(key);
         }
 
         static void reset() {
             contents.clear();
+            writes = 0;
         }
     }
 
@@ -38,9 +44,9 @@ public class AbstractStaticMapMDCAdapterTest {
     @BeforeEach
     void setup() throws Exception {
         DummyMDC.reset();
-        WeakMethodReference put = WeakMethodReference.create(DummyMDC.class, "put", String.class, String.class);
-        WeakMethodReference get = WeakMethodReference.create(DummyMDC.class, "get", String.class);
-        WeakMethodReference remove = WeakMethodReference.create(DummyMDC.class, "remove", String.class);
+        WeakMethodHandleReference put = WeakMethodHandleReference.create(DummyMDC.class, "put", AbstractStaticMapMDCAdapter.PUT_TYPE, String.class, String.class);
+        WeakMethodHandleReference get = WeakMethodHandleReference.create(DummyMDC.class, "get", AbstractStaticMapMDCAdapter.GET_TYPE, String.class);
+        WeakMethodHandleReference remove = WeakMethodHandleReference.create(DummyMDC.class, "remove", AbstractStaticMapMDCAdapter.REMOVE_TYPE, String.class);
         adapter = new AbstractStaticMapMDCAdapter(put, get, remove) {
         };
     }
@@ -83,5 +89,25 @@ public class AbstractStaticMapMDCAdapterTest {
             assertThat(DummyMDC.contents.containsKey("myKey")).isFalse();
         }
 
+        @Test
+        void ensureEqualValueNotWritten() {
+            DummyMDC.put("myKey", "someValue");
+
+            MDCAccess.Undo undo = adapter.set("myKey", "someValue");
+            undo.close();
+
+            assertThat(undo).isSameAs(MDCAccess.Undo.NOOP);
+            assertThat(DummyMDC.writes).isEqualTo(1);
+            assertThat(DummyMDC.get("myKey")).isEqualTo("someValue");
+        }
+
+        @Test
+        void ensureMissingValueNotRemoved() {
+            MDCAccess.Undo undo = adapter.set("myKey", null);
+
+            assertThat(undo).isSameAs(MDCAccess.Undo.NOOP);
+            assertThat(DummyMDC.writes).isEqualTo(0);
+        }
+
     }
 }
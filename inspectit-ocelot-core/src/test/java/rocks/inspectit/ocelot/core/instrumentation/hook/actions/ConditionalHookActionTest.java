@@ -9,6 +9,7 @@ import rocks.inspectit.ocelot.config.model.instrumentation.actions.ConditionalAc
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessorFactory;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -209,4 +210,87 @@ public class ConditionalHookActionTest {
         }
     }
 
+    @Nested
+    class SameDataKey {
+
+        @Test
+        void dataReadOnce() {
+            ConditionalActionSettings settings = new ConditionalActionSettings();
+            settings.setOnlyIfTrue("my_data");
+            settings.setOnlyIfNotNull("my_data");
+            VariableAccessor accessor = mock(VariableAccessor.class);
+            when(accessor.get(any())).thenReturn(true);
+            when(variableAccessorFactory.getVariableAccessor("my_data")).thenReturn(accessor);
+            IHookAction conditional = ConditionalHookAction.wrapWithConditionChecks(settings, actualAction, variableAccessorFactory);
+
+            conditional.execute(ctx);
+
+            verify(actualAction).execute(same(ctx));
+            verify(accessor, times(1)).get(any());
+            verify(variableAccessorFactory, times(1)).getVariableAccessor("my_data");
+        }
+    }
+
+    @Nested
+    class MultipleActions {
+
+        @Mock
+        IHookAction secondAction;
+
+        @Test
+        void conditionEvaluatedOnce() {
+            ConditionalActionSettings settings = new ConditionalActionSettings();
+            settings.setOnlyIfNotNull("my_data");
+            VariableAccessor accessor = mock(VariableAccessor.class);
+            when(accessor.get(any())).thenReturn("something");
+            when(variableAccessorFactory.getVariableAccessor("my_data")).thenReturn(accessor);
+            ConditionalHookAction conditional = new ConditionalHookAction(ConditionalHookAction.getAsPredicate(settings, variableAccessorFactory), actualAction);
+            conditional.addAction(secondAction);
+
+            conditional.execute(ctx);
+
+            verify(actualAction).execute(same(ctx));
+            verify(secondAction).execute(same(ctx));
+            verify(accessor, times(1)).get(any());
+        }
+
+        @Test
+        void failingActionRemoved() {
+            IHookAction.ExecutionContext context = mock(IHookAction.ExecutionContext.class, RETURNS_DEEP_STUBS);
+            doThrow(new RuntimeException()).when(actualAction).execute(any());
+            ConditionalHookAction conditional = new ConditionalHookAction(ConditionalHookAction.ALWAYS_TRUE, actualAction);
+            conditional.addAction(secondAction);
+
+            conditional.execute(context);
+            conditional.execute(context);
+
+            verify(actualAction, times(1)).execute(same(context));
+            verify(secondAction, times(2)).execute(same(context));
+        }
+    }
+
+    @Nested
+    class GetAsPredicate {
+
+        @Test
+        void noConditions() {
+            ConditionalActionSettings settings = new ConditionalActionSettings();
+
+            assertThat(ConditionalHookAction.getAsPredicate(settings, variableAccessorFactory)).isSameAs(ConditionalHookAction.ALWAYS_TRUE);
+        }
+
+        @Test
+        void equalConditions() {
+            ConditionalActionSettings first = new ConditionalActionSettings();
+            first.setOnlyIfTrue("my_data");
+            ConditionalActionSettings second = new ConditionalActionSettings();
+            second.setOnlyIfTrue("my_data");
+            ConditionalActionSettings third = new ConditionalActionSettings();
+            third.setOnlyIfFalse("my_data");
+
+            assertThat(ConditionalHookAction.getAsPredicate(first, variableAccessorFactory))
+                    .isEqualTo(ConditionalHookAction.getAsPredicate(second, variableAccessorFactory))
+                    .isNotEqualTo(ConditionalHookAction.getAsPredicate(third, variableAccessorFactory));
+        }
+    }
 }
@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import rocks.inspectit.ocelot.core.instrumentation.hook.MethodReflectionInformation;
 import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
 import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
 
@@ -65,6 +66,55 @@ public class ContinueOrStartSpanActionTest {
         }
 
 
+        @Test
+        void dynamicSamplersReused() {
+            VariableAccessor dynamicProbability = Mockito.mock(VariableAccessor.class);
+            when(dynamicProbability.get(any())).thenReturn(0.42, 0.42, 0.7, 0.42);
+            ContinueOrStartSpanAction action = ContinueOrStartSpanAction.builder()
+                    .dynamicSampleProbabilityAccessor(dynamicProbability)
+                    .build();
+
+            Sampler first = action.getSampler(context);
+            Sampler second = action.getSampler(context);
+            Sampler third = action.getSampler(context);
+            Sampler fourth = action.getSampler(context);
+
+            assertThat(second).isSameAs(first);
+            assertThat(third).isNotSameAs(first);
+            assertThat((Double) ReflectionTestUtils.invokeMethod(third, "getProbability")).isEqualTo(0.7);
+            assertThat(fourth).isSameAs(first);
+        }
+
+        @Test
+        void dynamicProbabilityClamped() {
+            VariableAccessor dynamicProbability = Mockito.mock(VariableAccessor.class);
+            when(dynamicProbability.get(any())).thenReturn(1.5);
+
+            Sampler result = ContinueOrStartSpanAction.builder()
+                    .dynamicSampleProbabilityAccessor(dynamicProbability)
+                    .build()
+                    .getSampler(context);
+
+            assertThat((Double) ReflectionTestUtils.invokeMethod(result, "getProbability")).isEqualTo(1.0);
+        }
+
+        @Test
+        void dynamicSamplersSharedBetweenActions() {
+            VariableAccessor dynamicProbability = Mockito.mock(VariableAccessor.class);
+            when(dynamicProbability.get(any())).thenReturn(0.123);
+
+            Sampler first = ContinueOrStartSpanAction.builder()
+                    .dynamicSampleProbabilityAccessor(dynamicProbability)
+                    .build()
+                    .getSampler(context);
+            Sampler second = ContinueOrStartSpanAction.builder()
+                    .dynamicSampleProbabilityAccessor(dynamicProbability)
+                    .build()
+                    .getSampler(context);
+
+            assertThat(second).isSameAs(first);
+        }
+
         @Test
         void dynamicNullProbability() {
             VariableAccessor dynamicProbability = Mockito.mock(VariableAccessor.class);
@@ -81,4 +131,19 @@ public class ContinueOrStartSpanActionTest {
         }
 
     }
+
+    @Nested
+    public class GetDefaultSpanName {
+
+        @Test
+        void simpleClassNameAndMethodName() {
+            MethodReflectionInformation methodInfo = Mockito.mock(MethodReflectionInformation.class);
+            doReturn(String.class).when(methodInfo).getDeclaringClass();
+            when(methodInfo.getName()).thenReturn("toString");
+
+            String result = ContinueOrStartSpanAction.getDefaultSpanName(methodInfo);
+
+            assertThat(result).isEqualTo("String.toString");
+        }
+    }
 }
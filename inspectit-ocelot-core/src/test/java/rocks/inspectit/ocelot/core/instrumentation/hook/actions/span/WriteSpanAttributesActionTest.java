@@ -0,0 +1,147 @@
+package rocks.inspectit.ocelot.core.instrumentation.hook.actions.span;
+
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.common.Scope;
+import io.opencensus.trace.*;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.core.instrumentation.hook.VariableAccessor;
+import rocks.inspectit.ocelot.core.instrumentation.hook.actions.IHookAction;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteSpanAttributesActionTest {
+
+    /**
+     * Span recording the attributes written to it.
+     */
+    private static class RecordingSpan extends Span {
+
+        private final Map<String, AttributeValue> attributes = new HashMap<>();
+
+        RecordingSpan(boolean sampled) {
+            super(SpanContext.create(TraceId.fromLowerBase16("00000000000000000000000000000001"), SpanId.fromLowerBase16("0000000000000001"),
+                    sampled ? TraceOptions.builder().setIsSampled(true).build() : TraceOptions.DEFAULT),
+                    sampled ? EnumSet.of(Options.RECORD_EVENTS) : EnumSet.noneOf(Options.class));
+        }
+
+        @Override
+        public void putAttribute(String key, AttributeValue value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void addAnnotation(String description, Map<String, AttributeValue> attributes) {
+        }
+
+        @Override
+        public void addAnnotation(Annotation annotation) {
+        }
+
+        @Override
+        public void addLink(Link link) {
+        }
+
+        @Override
+        public void end(EndSpanOptions options) {
+        }
+    }
+
+    @Mock
+    IHookAction.ExecutionContext context;
+
+    @Mock
+    VariableAccessor accessor;
+
+    private void execute(WriteSpanAttributesAction action, Span span) {
+        try (Scope scope = Tracing.getTracer().withSpan(span)) {
+            action.execute(context);
+        }
+    }
+
+    @Nested
+    class Execute {
+
+        @Test
+        void attributeWritten() {
+            when(accessor.get(context)).thenReturn(200);
+            WriteSpanAttributesAction action = new WriteSpanAttributesAction(ImmutableMap.of("status", accessor));
+            RecordingSpan span = new RecordingSpan(true);
+
+            execute(action, span);
+
+            assertThat(span.attributes).containsOnly(entry("status", AttributeValue.longAttributeValue(200)));
+        }
+
+        @Test
+        void nullValueSkipped() {
+            VariableAccessor nullAccessor = mock(VariableAccessor.class);
+            when(accessor.get(context)).thenReturn("value");
+            WriteSpanAttributesAction action = new WriteSpanAttributesAction(ImmutableMap.of("first", accessor, "second", nullAccessor));
+            RecordingSpan span = new RecordingSpan(true);
+
+            execute(action, span);
+
+            assertThat(span.attributes).containsOnly(entry("first", AttributeValue.stringAttributeValue("value")));
+        }
+
+        @Test
+        void notRecordingSpanSkipped() {
+            WriteSpanAttributesAction action = new WriteSpanAttributesAction(ImmutableMap.of("status", accessor));
+            RecordingSpan span = new RecordingSpan(false);
+
+            execute(action, span);
+
+            assertThat(span.attributes).isEmpty();
+            verifyZeroInteractions(accessor);
+        }
+
+        @Test
+        void noCurrentSpan() {
+            WriteSpanAttributesAction action = new WriteSpanAttributesAction(ImmutableMap.of("status", accessor));
+
+            action.execute(context);
+
+            verifyZeroInteractions(accessor);
+        }
+    }
+
+    @Nested
+    class ToAttributeValue {
+
+        @Test
+        void booleanValue() {
+            assertThat(WriteSpanAttributesAction.toAttributeValue(true)).isEqualTo(AttributeValue.booleanAttributeValue(true));
+        }
+
+        @Test
+        void integralValues() {
+            assertThat(WriteSpanAttributesAction.toAttributeValue(42L)).isEqualTo(AttributeValue.longAttributeValue(42));
+            assertThat(WriteSpanAttributesAction.toAttributeValue(42)).isEqualTo(AttributeValue.longAttributeValue(42));
+            assertThat(WriteSpanAttributesAction.toAttributeValue((short) 42)).isEqualTo(AttributeValue.longAttributeValue(42));
+            assertThat(WriteSpanAttributesAction.toAttributeValue((byte) 42)).isEqualTo(AttributeValue.longAttributeValue(42));
+        }
+
+        @Test
+        void floatingPointValues() {
+            assertThat(WriteSpanAttributesAction.toAttributeValue(0.5)).isEqualTo(AttributeValue.doubleAttributeValue(0.5));
+            assertThat(WriteSpanAttributesAction.toAttributeValue(0.5f)).isEqualTo(AttributeValue.doubleAttributeValue(0.5));
+        }
+
+        @Test
+        void otherValuesConvertedToString() {
+            assertThat(WriteSpanAttributesAction.toAttributeValue("text")).isEqualTo(AttributeValue.stringAttributeValue("text"));
+            assertThat(WriteSpanAttributesAction.toAttributeValue(new StringBuilder("builder"))).isEqualTo(AttributeValue.stringAttributeValue("builder"));
+        }
+    }
+}
@@ -7,21 +7,26 @@ import javassist.Modifier;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import rocks.inspectit.ocelot.core.selfmonitoring.SelfMonitoringService;
 import rocks.inspectit.ocelot.core.testutils.DummyClassLoader;
 import rocks.inspectit.ocelot.core.testutils.GcUtils;
 
+import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
 import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class ClassInjectorTest {
@@ -29,6 +34,9 @@ public class ClassInjectorTest {
     @Mock
     Instrumentation instrumentation;
 
+    @Mock
+    SelfMonitoringService selfMonitoring;
+
     @InjectMocks
     ClassInjector injector;
 
@@ -184,7 +192,179 @@ public class ClassInjectorTest {
             assertThat(clazz7.getInjectedClassObject().get().getClassLoader()).isSameAs(dummy);
         }
 
+        @Test
+        public void testUniqueNamesInSameLoader() throws Exception {
+            InjectedClass<?> clazz42 = injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject42.class, name));
+            InjectedClass<?> clazz7 = injector.inject("other", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+
+            assertThat(clazz42.getInjectedClassObject().get().getName())
+                    .startsWith("rocks.inspectit.ocelot.injected.inspectitGen$$$")
+                    .isNotEqualTo(clazz7.getInjectedClassObject().get().getName());
+        }
+    }
+
+    @Nested
+    class StartRedefinitionBatch {
+
+        private Class<?> createOrphan(Class<?> neighbor, String id) throws Exception {
+            InjectedClass<?> clazz42 = injector.inject(id, neighbor, (name) -> getByteCodeAndRename(ClassToInject42.class, name));
+            Class<?> injectedClass = clazz42.getInjectedClassObject().get();
+            WeakReference<InjectedClass<?>> weakClazz42 = new WeakReference<>(clazz42);
+            clazz42 = null;
+            GcUtils.waitUntilCleared(weakClazz42);
+            return injectedClass;
+        }
 
+        @Test
+        public void testRedefinitionsDeferred() throws Exception {
+            DummyClassLoader dummy = new DummyClassLoader(ClassToInject7.class);
+            Class<?> neighbor = Class.forName(ClassToInject7.class.getName(), false, dummy);
+            Class<?> first = createOrphan(neighbor, "first");
+            Class<?> second = createOrphan(neighbor, "second");
+
+            InjectedClass<?> reusedFirst;
+            InjectedClass<?> reusedSecond;
+            try (ClassInjector.RedefinitionBatch batch = injector.startRedefinitionBatch()) {
+                reusedFirst = injector.inject("first", neighbor, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+                reusedSecond = injector.inject("second", neighbor, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+
+                verifyZeroInteractions(instrumentation);
+            }
+
+            verify(instrumentation).redefineClasses(
+                    argThat((ClassDefinition def) -> def.getDefinitionClass() == first),
+                    argThat((ClassDefinition def) -> def.getDefinitionClass() == second));
+            verifyNoMoreInteractions(instrumentation);
+            assertThat(reusedFirst.getInjectedClassObject().get()).isSameAs(first);
+            assertThat(reusedSecond.getInjectedClassObject().get()).isSameAs(second);
+        }
+
+        @Test
+        public void testNestedBatch() throws Exception {
+            Class<?> orphan = createOrphan(java.lang.String.class, "id");
+
+            try (ClassInjector.RedefinitionBatch batch = injector.startRedefinitionBatch()) {
+                try (ClassInjector.RedefinitionBatch nested = injector.startRedefinitionBatch()) {
+                    injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+                }
+                verifyZeroInteractions(instrumentation);
+            }
+
+            verify(instrumentation).redefineClasses(argThat((ClassDefinition def) -> def.getDefinitionClass() == orphan));
+            verifyNoMoreInteractions(instrumentation);
+        }
+
+        @Test
+        public void testFallbackToIndividualRedefinition() throws Exception {
+            DummyClassLoader dummy = new DummyClassLoader(ClassToInject7.class);
+            Class<?> neighbor = Class.forName(ClassToInject7.class.getName(), false, dummy);
+            createOrphan(neighbor, "first");
+            createOrphan(neighbor, "second");
+            doThrow(new UnsupportedOperationException()).when(instrumentation)
+                    .redefineClasses(ArgumentMatchers.<ClassDefinition>any(), ArgumentMatchers.<ClassDefinition>any());
+
+            try (ClassInjector.RedefinitionBatch batch = injector.startRedefinitionBatch()) {
+                injector.inject("first", neighbor, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+                injector.inject("second", neighbor, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+            }
+
+            verify(instrumentation).redefineClasses(ArgumentMatchers.<ClassDefinition>any(), ArgumentMatchers.<ClassDefinition>any());
+            verify(instrumentation, times(2)).redefineClasses(ArgumentMatchers.<ClassDefinition>any());
+        }
+
+        @Test
+        public void testCallbacksInvokedAfterRedefinition() throws Exception {
+            createOrphan(java.lang.String.class, "id");
+            Runnable onSuccess = mock(Runnable.class);
+            Runnable onFailure = mock(Runnable.class);
+
+            try (ClassInjector.RedefinitionBatch batch = injector.startRedefinitionBatch()) {
+                injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+                injector.afterRedefinitions(onSuccess, onFailure);
+
+                verifyZeroInteractions(onSuccess);
+            }
+
+            InOrder inOrder = inOrder(instrumentation, onSuccess);
+            inOrder.verify(instrumentation).redefineClasses(any(ClassDefinition.class));
+            inOrder.verify(onSuccess).run();
+            verifyZeroInteractions(onFailure);
+        }
+
+        @Test
+        public void testFailureCallbacksInvoked() throws Exception {
+            createOrphan(java.lang.String.class, "id");
+            doThrow(new UnsupportedOperationException()).when(instrumentation).redefineClasses(any(ClassDefinition.class));
+            Runnable onSuccess = mock(Runnable.class);
+            Runnable onFailure = mock(Runnable.class);
+
+            assertThatThrownBy(() -> {
+                try (ClassInjector.RedefinitionBatch batch = injector.startRedefinitionBatch()) {
+                    injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+                    injector.afterRedefinitions(onSuccess, onFailure);
+                }
+            }).isInstanceOf(IllegalStateException.class);
+
+            verify(onFailure).run();
+            verifyZeroInteractions(onSuccess);
+        }
+
+        @Test
+        public void testSuccessCallbackInvokedImmediatelyWithoutBatch() {
+            Runnable onSuccess = mock(Runnable.class);
+            Runnable onFailure = mock(Runnable.class);
+
+            injector.afterRedefinitions(onSuccess, onFailure);
+
+            verify(onSuccess).run();
+            verifyZeroInteractions(onFailure);
+        }
+    }
+
+    @Nested
+    class StartNewGeneration {
+
+        @Test
+        public void testNoBootstrapReuseAcrossGenerations() throws Exception {
+            InjectedClass<?> clazz42 = injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject42.class, name));
+            Class<?> injectedClass = clazz42.getInjectedClassObject().get();
+            WeakReference<InjectedClass<?>> weakClazz42 = new WeakReference<>(clazz42);
+            clazz42 = null;
+            GcUtils.waitUntilCleared(weakClazz42);
+
+            injector.startNewGeneration();
+            InjectedClass<?> clazz7 = injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject7.class, name));
+
+            assertThat(injector.getGeneration()).isEqualTo(1);
+            assertThat(clazz7.getInjectedClassObject().get()).isNotSameAs(injectedClass);
+            assertThat(clazz7.getInjectedClassObject().get().getClassLoader()).isNotSameAs(injectedClass.getClassLoader());
+            verifyZeroInteractions(instrumentation);
+        }
+
+        @Test
+        public void testBootstrapClassesOfPreviousGenerationUnloaded() throws Exception {
+            InjectedClass<?> clazz42 = injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject42.class, name));
+            WeakReference<Class<?>> weakInjectedClass = new WeakReference<>(clazz42.getInjectedClassObject().get());
+
+            injector.startNewGeneration();
+            clazz42 = null;
+
+            GcUtils.waitUntilCleared(weakInjectedClass);
+        }
+
+        @Test
+        public void testInjectedClassesRecorded() throws Exception {
+            InjectedClass<?> clazz42 = injector.inject("id", java.lang.String.class, (name) -> getByteCodeAndRename(ClassToInject42.class, name));
+            WeakReference<InjectedClass<?>> weakClazz42 = new WeakReference<>(clazz42);
+            clazz42 = null;
+            GcUtils.waitUntilCleared(weakClazz42);
+
+            injector.startNewGeneration();
+
+            verify(selfMonitoring).recordMeasurement("injected-classes", 1L, Collections.singletonMap("state", "active"));
+            verify(selfMonitoring).recordMeasurement("injected-classes", 0L, Collections.singletonMap("state", "active"));
+            verify(selfMonitoring).recordMeasurement("injected-classes", 1L, Collections.singletonMap("state", "orphan"));
+        }
     }
 }
 
@@ -0,0 +1,141 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.common.Scope;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.samplers.Samplers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ExemplarStoreTest {
+
+    private ExemplarStore store;
+
+    private HistogramExemplars histogram;
+
+    @BeforeEach
+    void init() {
+        store = new ExemplarStore();
+        histogram = new HistogramExemplars("my-view", Collections.singletonList("my-tag"), Arrays.asList(10.0, 100.0), 2);
+        store.updateMeasure("my-measure", Collections.singletonList(histogram));
+    }
+
+    private void recordInSpan(String measure, double value, boolean sampled) {
+        Span span = Tracing.getTracer().spanBuilder("span")
+                .setSampler(sampled ? Samplers.alwaysSample() : Samplers.neverSample())
+                .startSpan();
+        try (Scope scope = Tracing.getTracer().withSpan(span)) {
+            store.record(measure, value);
+        }
+        span.end();
+    }
+
+    @Nested
+    class Record {
+
+        @Test
+        void exemplarAddedToMatchingBucket() {
+            Span span = Tracing.getTracer().spanBuilder("span").setSampler(Samplers.alwaysSample()).startSpan();
+            try (Scope scope = Tracing.getTracer().withSpan(span)) {
+                store.record("my-measure", 42.0);
+            }
+            span.end();
+
+            assertThat(histogram.getExemplars(0)).isEmpty();
+            assertThat(histogram.getExemplars(1)).hasSize(1);
+            HistogramExemplars.Exemplar exemplar = histogram.getExemplars(1).get(0);
+            assertThat(exemplar.getValue()).isEqualTo(42.0);
+            assertThat(exemplar.getTraceId()).isEqualTo(span.getContext().getTraceId());
+            assertThat(exemplar.getSpanId()).isEqualTo(span.getContext().getSpanId());
+            assertThat(histogram.getExemplars(2)).isEmpty();
+        }
+
+        @Test
+        void activeTagsStored() {
+            Span span = Tracing.getTracer().spanBuilder("span").setSampler(Samplers.alwaysSample()).startSpan();
+            TagContext tags = Tags.getTagger().emptyBuilder()
+                    .putLocal(TagKey.create("my-tag"), TagValue.create("my-value"))
+                    .build();
+            try (Scope spanScope = Tracing.getTracer().withSpan(span); Scope tagScope = Tags.getTagger().withTagContext(tags)) {
+                store.record("my-measure", 42.0);
+            }
+            span.end();
+
+            HistogramExemplars.Exemplar exemplar = histogram.getExemplars(1).get(0);
+            assertThat(exemplar.getTags()).containsEntry("my-tag", "my-value");
+            assertThat(histogram.getViewTags(exemplar)).containsExactly(entry("my-tag", "my-value"));
+        }
+
+        @Test
+        void boundaryValueAddedToUpperBucket() {
+            recordInSpan("my-measure", 10.0, true);
+            recordInSpan("my-measure", 1000.0, true);
+
+            assertThat(histogram.getExemplars(0)).isEmpty();
+            assertThat(histogram.getExemplars(1)).hasSize(1);
+            assertThat(histogram.getExemplars(2)).hasSize(1);
+        }
+
+        @Test
+        void oldestExemplarReplaced() {
+            recordInSpan("my-measure", 1.0, true);
+            recordInSpan("my-measure", 2.0, true);
+            recordInSpan("my-measure", 3.0, true);
+
+            assertThat(histogram.getExemplars(0))
+                    .extracting(HistogramExemplars.Exemplar::getValue)
+                    .containsExactlyInAnyOrder(2.0, 3.0);
+        }
+
+        @Test
+        void unsampledSpanIgnored() {
+            recordInSpan("my-measure", 1.0, false);
+
+            assertThat(histogram.getExemplars(0)).isEmpty();
+        }
+
+        @Test
+        void noSpanIgnored() {
+            store.record("my-measure", 1.0);
+
+            assertThat(histogram.getExemplars(0)).isEmpty();
+        }
+
+        @Test
+        void otherMeasureIgnored() {
+            recordInSpan("other-measure", 1.0, true);
+
+            assertThat(histogram.getExemplars(0)).isEmpty();
+        }
+    }
+
+    @Nested
+    class UpdateMeasure {
+
+        @Test
+        void exemplarsRemoved() {
+            store.updateMeasure("my-measure", Collections.emptyList());
+
+            assertThat(store.getAllExemplars()).isEmpty();
+        }
+
+        @Test
+        void allExemplarsReturned() {
+            HistogramExemplars other = new HistogramExemplars("other-view", Collections.emptyList(), Collections.singletonList(1.0), 1);
+            store.updateMeasure("other-measure", Collections.singletonList(other));
+
+            assertThat(store.getAllExemplars()).containsExactlyInAnyOrder(histogram, other);
+        }
+    }
+}
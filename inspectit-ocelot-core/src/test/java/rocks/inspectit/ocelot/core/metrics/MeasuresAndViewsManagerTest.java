@@ -39,6 +39,9 @@ public class MeasuresAndViewsManagerTest {
     @Mock
     CommonTagsManager commonTagsManager;
 
+    @Mock
+    ExemplarStore exemplarStore;
+
     private final TagKey[] commonTags = {TagKey.create("common-A"), TagKey.create("common-B")};
 
     @InjectMocks
@@ -99,6 +102,7 @@ public class MeasuresAndViewsManagerTest {
 
             verify(measureMap, times(1)).put(any(Measure.MeasureDouble.class), eq(42.0));
             verify(measureMap, never()).put(any(Measure.MeasureLong.class), any(long.class));
+            verify(exemplarStore).record(DOUBLE_METRIC, 42.0);
         }
 
         @Test
@@ -123,6 +127,7 @@ public class MeasuresAndViewsManagerTest {
 
             verify(measureMap, never()).put(any(Measure.MeasureDouble.class), any(double.class));
             verify(measureMap, never()).put(any(Measure.MeasureLong.class), any(long.class));
+            verify(exemplarStore, never()).record(any(), anyDouble());
         }
 
         @Test
@@ -216,6 +221,40 @@ public class MeasuresAndViewsManagerTest {
 
         }
 
+        @Test
+        void testHistogramExemplarsCreated() {
+            lenient().when(commonTagsManager.getCommonTagKeys()).thenReturn(Arrays.asList(commonTags));
+            String metricName = "my-metric";
+            MetricDefinitionSettings metricDefinition = MetricDefinitionSettings.builder()
+                    .unit("my-unit")
+                    .view("histogram", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .bucketBoundaries(Arrays.asList(7.0, 42.0))
+                            .exemplarsPerBucket(2)
+                            .build())
+                    .view("histogram-without-exemplars", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.HISTOGRAM)
+                            .bucketBoundaries(Arrays.asList(7.0, 42.0))
+                            .build())
+                    .view("sum", ViewDefinitionSettings.builder()
+                            .aggregation(ViewDefinitionSettings.Aggregation.SUM)
+                            .exemplarsPerBucket(2)
+                            .build())
+                    .build()
+                    .getCopyWithDefaultsPopulated(metricName);
+
+            manager.addOrUpdateAndCacheMeasureWithViews(metricName, metricDefinition, emptyMap(), emptyMap());
+
+            ArgumentCaptor<List<HistogramExemplars>> exemplarsArg = ArgumentCaptor.forClass(List.class);
+            verify(exemplarStore).updateMeasure(eq(metricName), exemplarsArg.capture());
+            assertThat(exemplarsArg.getValue()).hasSize(1);
+            HistogramExemplars exemplars = exemplarsArg.getValue().get(0);
+            assertThat(exemplars.getViewName()).isEqualTo("histogram");
+            assertThat(exemplars.getBucketCount()).isEqualTo(3);
+            assertThat(exemplars.getUpperBoundary(0)).isEqualTo(7.0);
+            assertThat(exemplars.getTagKeys()).containsExactlyInAnyOrder("common-A", "common-B");
+        }
+
         @Test
         void testCommonTagsCanBeDisabled() {
             lenient().when(commonTagsManager.getCommonTagKeys()).thenReturn(Arrays.asList(commonTags));
@@ -0,0 +1,161 @@
+package rocks.inspectit.ocelot.core.metrics;
+
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.Span;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rocks.inspectit.ocelot.config.model.tracing.RedMetricsSettings;
+import rocks.inspectit.ocelot.core.config.InspectitEnvironment;
+import rocks.inspectit.ocelot.core.tags.CommonTagsManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RedMetricsRecorderTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    InspectitEnvironment env;
+
+    @Mock
+    MeasuresAndViewsManager metricsManager;
+
+    @Mock
+    StatsRecorder statsRecorder;
+
+    @Mock
+    CommonTagsManager commonTags;
+
+    @Mock
+    MeasureMap measureMap;
+
+    @InjectMocks
+    RedMetricsRecorder recorder;
+
+    RedMetricsSettings settings;
+
+    @BeforeEach
+    void init() {
+        settings = new RedMetricsSettings();
+        settings.setMetric("span/duration");
+        settings.setMaxSpanNames(2);
+        ReflectionTestUtils.setField(recorder, "tagger", Tags.getTagger());
+        lenient().when(env.getCurrentConfig().getTracing().getRedMetrics()).thenReturn(settings);
+        lenient().when(statsRecorder.newMeasureMap()).thenReturn(measureMap);
+        lenient().when(commonTags.getCommonTagContext()).thenReturn(Tags.getTagger().empty());
+    }
+
+    private Map<String, String> recordAndGetTags(String spanName, Span.Kind kind, boolean error) {
+        reset(measureMap);
+        recorder.record(spanName, kind, 1000, error);
+        ArgumentCaptor<TagContext> tags = ArgumentCaptor.forClass(TagContext.class);
+        verify(measureMap).record(tags.capture());
+        Map<String, String> result = new HashMap<>();
+        InternalUtils.getTags(tags.getValue()).forEachRemaining(tag -> result.put(tag.getKey().getName(), tag.getValue().asString()));
+        return result;
+    }
+
+    @Nested
+    class Record {
+
+        @Test
+        void durationRecordedWithTags() {
+            when(metricsManager.tryRecordingMeasurement(any(), any(), anyDouble())).thenReturn(true);
+
+            Map<String, String> tags = recordAndGetTags("my-span", Span.Kind.SERVER, true);
+
+            verify(metricsManager).tryRecordingMeasurement("span/duration", measureMap, 0.001);
+            assertThat(tags).containsOnly(
+                    entry(RedMetricsSettings.SPAN_NAME_TAG, "my-span"),
+                    entry(RedMetricsSettings.SPAN_KIND_TAG, "SERVER"),
+                    entry(RedMetricsSettings.ERROR_TAG, "true"));
+        }
+
+        @Test
+        void unspecifiedSpanKind() {
+            when(metricsManager.tryRecordingMeasurement(any(), any(), anyDouble())).thenReturn(true);
+
+            Map<String, String> tags = recordAndGetTags("my-span", null, false);
+
+            assertThat(tags).contains(
+                    entry(RedMetricsSettings.SPAN_KIND_TAG, "UNSPECIFIED"),
+                    entry(RedMetricsSettings.ERROR_TAG, "false"));
+        }
+
+        @Test
+        void spanNamesBounded() {
+            when(metricsManager.tryRecordingMeasurement(any(), any(), anyDouble())).thenReturn(true);
+
+            assertThat(recordAndGetTags("first", null, false)).containsEntry(RedMetricsSettings.SPAN_NAME_TAG, "first");
+            assertThat(recordAndGetTags("second", null, false)).containsEntry(RedMetricsSettings.SPAN_NAME_TAG, "second");
+            assertThat(recordAndGetTags("third", null, false)).containsEntry(RedMetricsSettings.SPAN_NAME_TAG, "other");
+            assertThat(recordAndGetTags("first", null, false)).containsEntry(RedMetricsSettings.SPAN_NAME_TAG, "first");
+        }
+
+        @Test
+        void tagsActiveWhileRecording() {
+            Map<String, String> activeTags = new HashMap<>();
+            when(metricsManager.tryRecordingMeasurement(any(), any(), anyDouble())).thenAnswer(invocation -> {
+                InternalUtils.getTags(Tags.getTagger().getCurrentTagContext())
+                        .forEachRemaining(tag -> activeTags.put(tag.getKey().getName(), tag.getValue().asString()));
+                return true;
+            });
+
+            recorder.record("my-span", Span.Kind.SERVER, 1000, false);
+
+            assertThat(activeTags).containsEntry(RedMetricsSettings.SPAN_NAME_TAG, "my-span");
+        }
+
+        @Test
+        void nothingRecordedIfMetricMissing() {
+            when(metricsManager.tryRecordingMeasurement(eq("span/duration"), any(), anyDouble())).thenReturn(false);
+
+            recorder.record("my-span", Span.Kind.CLIENT, 1000, false);
+
+            verifyZeroInteractions(measureMap);
+        }
+    }
+
+    @Nested
+    class CreateTagValue {
+
+        @Test
+        void printableNameUnchanged() {
+            assertThat(RedMetricsRecorder.createTagValue("GET /users").asString()).isEqualTo("GET /users");
+        }
+
+        @Test
+        void nonPrintableCharactersReplaced() {
+            assertThat(RedMetricsRecorder.createTagValue("a\tbäc").asString()).isEqualTo("a_b_c");
+        }
+
+        @Test
+        void longNameTruncated() {
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 300; i++) {
+                name.append('x');
+            }
+
+            assertThat(RedMetricsRecorder.createTagValue(name.toString()).asString()).hasSize(255);
+        }
+    }
+}
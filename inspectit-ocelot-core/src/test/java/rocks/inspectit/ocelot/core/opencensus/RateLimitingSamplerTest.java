@@ -0,0 +1,211 @@
+package rocks.inspectit.ocelot.core.opencensus;
+
+import io.opencensus.trace.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import rocks.inspectit.ocelot.config.model.tracing.RateLimitingSamplerSettings;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class RateLimitingSamplerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RateLimitingSamplerSettings settings;
+
+    private long time;
+
+    private double randomValue;
+
+    @BeforeEach
+    void init() {
+        settings = new RateLimitingSamplerSettings();
+        settings.setEnabled(true);
+        settings.setSpansPerSecond(10);
+        settings.setAdaptationInterval(Duration.ofSeconds(1));
+        settings.setMaxSpanNames(100);
+        time = 0;
+        randomValue = 0.5;
+    }
+
+    private RateLimitingSampler createSampler() {
+        return new RateLimitingSampler(settings, () -> time, () -> randomValue);
+    }
+
+    private boolean sampleRoot(RateLimitingSampler sampler, String name) {
+        return sampler.shouldSample(null, null, TraceId.INVALID, SpanId.INVALID, name, Collections.emptyList());
+    }
+
+    @Nested
+    class ShouldSample {
+
+        @Test
+        void parentDecisionRespected() {
+            settings.setSpansPerSecond(0);
+            RateLimitingSampler sampler = createSampler();
+            TraceId traceId = TraceId.fromLowerBase16("0123456789abcdef0123456789abcdef");
+            SpanId spanId = SpanId.fromLowerBase16("0123456789abcdef");
+            SpanContext sampledParent = SpanContext.create(traceId, spanId, TraceOptions.builder().setIsSampled(true).build());
+            SpanContext notSampledParent = SpanContext.create(traceId, spanId, TraceOptions.DEFAULT);
+
+            assertThat(sampler.shouldSample(sampledParent, false, traceId, spanId, "child", Collections.emptyList())).isTrue();
+            assertThat(sampler.shouldSample(notSampledParent, false, traceId, spanId, "child", Collections.emptyList())).isFalse();
+        }
+
+        @Test
+        void allSampledWithinBudget() {
+            RateLimitingSampler sampler = createSampler();
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(sampleRoot(sampler, "name")).isTrue();
+            }
+            time = SECOND;
+            assertThat(sampleRoot(sampler, "name")).isTrue();
+
+            assertThat(sampler.getTotalProbability()).isEqualTo(1.0);
+        }
+
+        @Test
+        void probabilityAdaptedToTotalBudget() {
+            RateLimitingSampler sampler = createSampler();
+
+            for (int i = 0; i < 15; i++) {
+                sampleRoot(sampler, "name");
+            }
+            time = SECOND;
+            sampleRoot(sampler, "name");
+
+            assertThat(sampler.getTotalProbability()).isEqualTo(10.0 / 16.0);
+            randomValue = 0.6;
+            assertThat(sampleRoot(sampler, "name")).isTrue();
+            randomValue = 0.7;
+            assertThat(sampleRoot(sampler, "name")).isFalse();
+        }
+
+        @Test
+        void probabilityAdaptedBeforeIntervalEndsOnSpike() {
+            settings.setAdaptationInterval(Duration.ofSeconds(10));
+            RateLimitingSampler sampler = createSampler();
+
+            time = SECOND;
+            for (int i = 0; i < 201; i++) {
+                sampleRoot(sampler, "name");
+            }
+
+            assertThat(sampler.getTotalProbability()).isCloseTo(10.0 / 20.1, within(1e-9));
+        }
+
+        @Test
+        void probabilityAdaptedToBudgetPerName() {
+            settings.setSpansPerSecondPerName(2.0);
+            RateLimitingSampler sampler = createSampler();
+
+            for (int i = 0; i < 4; i++) {
+                sampleRoot(sampler, "frequent");
+            }
+            sampleRoot(sampler, "rare");
+            time = SECOND;
+            sampleRoot(sampler, "frequent");
+            sampleRoot(sampler, "rare");
+
+            assertThat(sampler.getTotalProbability()).isEqualTo(1.0);
+            assertThat(sampler.getProbability("frequent")).isEqualTo(0.4);
+            assertThat(sampler.getProbability("rare")).isEqualTo(1.0);
+        }
+
+        @Test
+        void zeroBudgetNeverSamples() {
+            settings.setSpansPerSecond(0);
+            settings.setMinSpansPerSecondPerName(0);
+            RateLimitingSampler sampler = createSampler();
+            randomValue = 0.0;
+
+            assertThat(sampleRoot(sampler, "name")).isFalse();
+            time = 10 * SECOND;
+            assertThat(sampleRoot(sampler, "name")).isFalse();
+
+            assertThat(sampler.getTotalProbability()).isEqualTo(0.0);
+            assertThat(sampler.getTrackedNames()).isEmpty();
+        }
+
+        @Test
+        void zeroBudgetNotResetAfterQuietInterval() {
+            settings.setSpansPerSecond(0);
+            settings.setMinSpansPerSecondPerName(1);
+            RateLimitingSampler sampler = createSampler();
+            randomValue = 0.0;
+
+            assertThat(sampleRoot(sampler, "name")).isTrue();
+            assertThat(sampleRoot(sampler, "name")).isFalse();
+            time = 10 * SECOND;
+            assertThat(sampleRoot(sampler, "name")).isTrue();
+            assertThat(sampleRoot(sampler, "name")).isFalse();
+
+            assertThat(sampler.getTotalProbability()).isEqualTo(0.0);
+        }
+
+        @Test
+        void minimumSampledPerName() {
+            settings.setSpansPerSecond(0);
+            settings.setMinSpansPerSecondPerName(1);
+            RateLimitingSampler sampler = createSampler();
+
+            assertThat(sampleRoot(sampler, "first")).isTrue();
+            assertThat(sampleRoot(sampler, "first")).isFalse();
+            assertThat(sampleRoot(sampler, "second")).isTrue();
+            time = SECOND / 2;
+            assertThat(sampleRoot(sampler, "first")).isFalse();
+            time = SECOND;
+            assertThat(sampleRoot(sampler, "first")).isTrue();
+            assertThat(sampleRoot(sampler, "second")).isTrue();
+        }
+
+        @Test
+        void namesExceedingLimitShareState() {
+            settings.setSpansPerSecond(0);
+            settings.setMinSpansPerSecondPerName(1);
+            settings.setMaxSpanNames(1);
+            RateLimitingSampler sampler = createSampler();
+
+            assertThat(sampleRoot(sampler, "first")).isTrue();
+            assertThat(sampleRoot(sampler, "second")).isTrue();
+            assertThat(sampleRoot(sampler, "third")).isFalse();
+            assertThat(sampler.getTrackedNames()).containsExactly("first");
+        }
+
+        @Test
+        void idleNamesNoLongerTracked() {
+            settings.setMaxSpanNames(1);
+            RateLimitingSampler sampler = createSampler();
+
+            sampleRoot(sampler, "first");
+            sampleRoot(sampler, "second");
+            assertThat(sampler.getTrackedNames()).containsExactly("first");
+
+            time = 10 * SECOND;
+            sampleRoot(sampler, "second");
+
+            assertThat(sampler.getTrackedNames()).containsExactly("second");
+        }
+
+        @Test
+        void recentlySeenNamesStillTracked() {
+            RateLimitingSampler sampler = createSampler();
+
+            sampleRoot(sampler, "first");
+            sampleRoot(sampler, "second");
+            time = 5 * SECOND;
+            sampleRoot(sampler, "first");
+            time = 10 * SECOND;
+            sampleRoot(sampler, "third");
+
+            assertThat(sampler.getTrackedNames()).containsExactlyInAnyOrder("first", "third");
+        }
+    }
+}
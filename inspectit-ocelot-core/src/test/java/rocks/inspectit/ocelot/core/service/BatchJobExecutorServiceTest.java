@@ -8,6 +8,8 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -188,4 +190,57 @@ public class BatchJobExecutorServiceTest {
 
     }
 
+    @Test
+    public void testRunNextBatchNow() {
+        ScheduledFuture<?> future = Mockito.mock(ScheduledFuture.class);
+
+        List<Runnable> scheduledRunnables = new ArrayList<>();
+
+        when(scheduledExecutor.schedule(isA(Runnable.class), anyLong(), any())).then((invoc) -> {
+            scheduledRunnables.add(invoc.getArgument(0));
+            return future;
+        });
+
+        Duration delay = Duration.ofMillis(10);
+
+        AtomicLong counter = new AtomicLong();
+        BatchJobExecutorService.BatchJob<?> job = batchExecutor.startJob((batchSize) -> {
+            counter.incrementAndGet();
+        }, 42, delay, delay);
+
+        job.runNextBatchNow();
+
+        verify(future, times(1)).cancel(eq(false));
+        verify(scheduledExecutor, times(1)).schedule(isA(Runnable.class), eq(0L), eq(TimeUnit.NANOSECONDS));
+        scheduledRunnables.get(0).run();
+        assertThat(counter.get()).isEqualTo(0);
+        scheduledRunnables.get(1).run();
+        assertThat(counter.get()).isEqualTo(1);
+        verify(scheduledExecutor, times(2)).schedule(isA(Runnable.class), eq(delay.toNanos()), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testRunNextBatchNowWhileBatchRunning() {
+        ScheduledFuture<?> future = Mockito.mock(ScheduledFuture.class);
+
+        AtomicReference<Runnable> runnableToInvoke = new AtomicReference<>();
+
+        when(scheduledExecutor.schedule(isA(Runnable.class), anyLong(), any())).then((invoc) -> {
+            runnableToInvoke.set(((Runnable) invoc.getArgument(0)));
+            return future;
+        });
+
+        Duration delay = Duration.ofMillis(10);
+
+        AtomicReference<BatchJobExecutorService.BatchJob<Integer>> job = new AtomicReference<>();
+        job.set(batchExecutor.startJob((batchSize) -> {
+            job.get().runNextBatchNow();
+        }, 42, delay, delay));
+
+        runnableToInvoke.get().run();
+
+        verify(future, never()).cancel(anyBoolean());
+        verify(scheduledExecutor, times(1)).schedule(isA(Runnable.class), eq(0L), eq(TimeUnit.NANOSECONDS));
+    }
+
 }